@@ -26,11 +26,13 @@ import org.slf4j.LoggerFactory;
 import com.helger.annotation.Nonempty;
 import com.helger.annotation.Nonnegative;
 import com.helger.base.enforce.ValueEnforcer;
-import com.helger.base.hashcode.HashCodeGenerator;
-import com.helger.base.id.factory.AbstractPersistingLongIDFactory;
 import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.phoss.smp.backend.AbstractSMPAdaptiveLongIDFactory;
 import com.helger.phoss.smp.backend.mongodb.MongoClientSingleton;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReturnDocument;
 
 /**
  * Implementation of a long ID factory using MongoDB
@@ -38,10 +40,10 @@ import com.mongodb.client.MongoCollection;
  * @author Philip Helger
  * @since 5.2.1
  */
-public class IDFactoryMongoDB extends AbstractPersistingLongIDFactory
+public class IDFactoryMongoDB extends AbstractSMPAdaptiveLongIDFactory
 {
   /** The default number of values to reserve with a single IO action */
-  public static final int DEFAULT_RESERVE_COUNT = 20;
+  public static final int DEFAULT_RESERVE_COUNT = DEFAULT_MIN_RESERVE_COUNT;
 
   /** The default collection name if none is provided */
   public static final String DEFAULT_COLLECTION_NAME = "smp-settings";
@@ -50,6 +52,7 @@ public class IDFactoryMongoDB extends AbstractPersistingLongIDFactory
 
   private static final String BSON_ID = "id";
   private static final String BSON_LONG_VALUE = "longvalue";
+  private static final String BSON_LAST_MODIFICATION = "last-modification";
   private static final String VALUE_ID_LONG_ID = "long-id";
 
   private final String m_sCollectionName;
@@ -75,8 +78,9 @@ public class IDFactoryMongoDB extends AbstractPersistingLongIDFactory
    * @param sCollectionName
    *        Collection name to use. May neither be <code>null</code> nor empty.
    * @param nReserveCount
-   *        The number of IDs to reserve per persistence layer access. Must be
-   *        &gt; 0.
+   *        The minimum number of IDs to reserve per persistence layer access.
+   *        Must be &gt; 0. Under load up to
+   *        {@link #DEFAULT_MAX_RESERVE_COUNT} IDs are reserved at once.
    * @param nInitialCount
    *        Initial count to be used, if no MongoDB document exists. Must be
    *        &ge; 0.
@@ -85,7 +89,7 @@ public class IDFactoryMongoDB extends AbstractPersistingLongIDFactory
                            @Nonnegative final int nReserveCount,
                            @Nonnegative final long nInitialCount)
   {
-    super (nReserveCount);
+    super (nReserveCount, Math.max (nReserveCount, DEFAULT_MAX_RESERVE_COUNT));
     ValueEnforcer.notEmpty (sCollectionName, "CollectionName");
     ValueEnforcer.isGE0 (nInitialCount, "InitialCount");
     m_sCollectionName = sCollectionName;
@@ -96,60 +100,29 @@ public class IDFactoryMongoDB extends AbstractPersistingLongIDFactory
   @Override
   protected long readAndUpdateIDCounter (@Nonnegative final int nReserveCount)
   {
-    // Existing value
-    final long nRead;
+    // Increment atomically with an update pipeline, starting at the initial
+    // count if no document or value is present yet
     final Document aFilter = new Document (BSON_ID, VALUE_ID_LONG_ID);
-    Document aDoc = m_aCollection.find (aFilter).first ();
-    if (aDoc != null)
-    {
-      final Long aLong = aDoc.getLong (BSON_LONG_VALUE);
-      nRead = aLong != null ? aLong.longValue () : m_nInitialCount;
-    }
-    else
-      nRead = m_nInitialCount;
-
-    final boolean bCreate = aDoc == null;
-    if (bCreate)
-    {
-      aDoc = new Document ();
-      aDoc.append (BSON_ID, VALUE_ID_LONG_ID);
-    }
-    aDoc.remove (BSON_LONG_VALUE);
-    final long nNewValue = nRead + nReserveCount;
-    aDoc.append (BSON_LONG_VALUE, Long.valueOf (nNewValue));
-    aDoc.append ("last-modification", new Date ());
-    if (bCreate)
-    {
-      if (!m_aCollection.insertOne (aDoc).wasAcknowledged ())
-        throw new IllegalStateException ("Failed to insert into MongoDB Collection");
-    }
-    else
-    {
-      if (!m_aCollection.replaceOne (aFilter, aDoc).wasAcknowledged ())
-        throw new IllegalStateException ("Failed to replace in MongoDB Collection");
-    }
-
+    final Document aCurrentValue = new Document ("$ifNull",
+                                                 new CommonsArrayList <> ("$" + BSON_LONG_VALUE,
+                                                                          Long.valueOf (m_nInitialCount)));
+    final Document aNewValue = new Document ("$add",
+                                             new CommonsArrayList <> (aCurrentValue, Long.valueOf (nReserveCount)));
+    final Document aUpdate = new Document ("$set",
+                                           new Document (BSON_LONG_VALUE, aNewValue).append (BSON_LAST_MODIFICATION,
+                                                                                             new Date ()));
+    final Document aNewDoc = m_aCollection.findOneAndUpdate (aFilter,
+                                                             new CommonsArrayList <> (aUpdate),
+                                                             new FindOneAndUpdateOptions ().upsert (true)
+                                                                                           .returnDocument (ReturnDocument.AFTER));
+    if (aNewDoc == null)
+      throw new IllegalStateException ("Failed to update MongoDB Collection");
+
+    final long nNewValue = aNewDoc.getLong (BSON_LONG_VALUE).longValue ();
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("Updated MongoDB ID to " + nNewValue);
 
-    return nRead;
-  }
-
-  @Override
-  public boolean equals (final Object o)
-  {
-    if (o == this)
-      return true;
-    if (!super.equals (o))
-      return false;
-    final IDFactoryMongoDB rhs = (IDFactoryMongoDB) o;
-    return m_sCollectionName.equals (rhs.m_sCollectionName);
-  }
-
-  @Override
-  public int hashCode ()
-  {
-    return HashCodeGenerator.getDerived (super.hashCode ()).append (m_sCollectionName).getHashCode ();
+    return nNewValue - nReserveCount;
   }
 
   @Override
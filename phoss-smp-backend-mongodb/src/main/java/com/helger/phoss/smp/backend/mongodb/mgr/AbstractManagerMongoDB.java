@@ -16,7 +16,14 @@
  */
 package com.helger.phoss.smp.backend.mongodb.mgr;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.bson.BsonDocument;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -25,14 +32,22 @@ import org.slf4j.LoggerFactory;
 import com.helger.annotation.Nonempty;
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.collection.commons.ICommonsSet;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.IProcessIdentifier;
 import com.helger.phoss.smp.backend.mongodb.MongoClientSingleton;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.mongodb.MongoException;
 import com.mongodb.WriteConcern;
 import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.MongoIterable;
+import com.mongodb.client.model.IndexOptions;
 
 /**
  * Abstract base class for MongoDB backends
@@ -48,6 +63,8 @@ public abstract class AbstractManagerMongoDB
 
   private final String m_sCollectionName;
   private final MongoCollection <Document> m_aCollection;
+  // Index name to index keys
+  private final ICommonsOrderedMap <String, Bson> m_aManagedIndexes = new CommonsLinkedHashMap <> ();
 
   public AbstractManagerMongoDB (@NonNull @Nonempty final String sCollectionName)
   {
@@ -75,6 +92,103 @@ public abstract class AbstractManagerMongoDB
     return m_aCollection;
   }
 
+  /**
+   * Ensure that the index with the provided name and keys is present on the collection. If it is
+   * not present, it is created. Failures are logged but don't prevent the manager from being
+   * created. All indexes passed to this method are remembered and can be checked via
+   * {@link #getManagedIndexStatus()}. This should be called from the constructor only.
+   *
+   * @param sIndexName
+   *        The name of the index. Should be identical to the default name MongoDB would assign
+   *        (like <code>field1_1_field2_1</code>) to avoid conflicts with already existing unnamed
+   *        indexes. May neither be <code>null</code> nor empty.
+   * @param aIndexKeys
+   *        The keys of the index. May not be <code>null</code>.
+   * @since 8.2.1
+   */
+  protected final void ensureIndex (@NonNull @Nonempty final String sIndexName, @NonNull final Bson aIndexKeys)
+  {
+    ValueEnforcer.notEmpty (sIndexName, "IndexName");
+    ValueEnforcer.notNull (aIndexKeys, "IndexKeys");
+
+    m_aManagedIndexes.put (sIndexName, aIndexKeys);
+    try
+    {
+      // Creating an existing index is a no-op
+      m_aCollection.createIndex (aIndexKeys, new IndexOptions ().name (sIndexName));
+    }
+    catch (final MongoException ex)
+    {
+      LOGGER.warn ("Failed to create index '" +
+                   sIndexName +
+                   "' on MongoDB collection '" +
+                   m_sCollectionName +
+                   "': " +
+                   ex.getMessage ());
+    }
+  }
+
+  /**
+   * Check which of the indexes provided to {@link #ensureIndex(String, Bson)} are present on the
+   * collection. An index is considered present, if an index with the same name or the same keys
+   * exists. This method performs a remote call.
+   *
+   * @return A map from index name to presence, in the order the indexes were added. Never
+   *         <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public final ICommonsOrderedMap <String, Boolean> getManagedIndexStatus ()
+  {
+    final ICommonsSet <String> aExistingNames = new CommonsHashSet <> ();
+    final ICommonsSet <BsonDocument> aExistingKeys = new CommonsHashSet <> ();
+    try
+    {
+      for (final Document aIndex : m_aCollection.listIndexes ())
+      {
+        aExistingNames.add (aIndex.getString ("name"));
+        final Document aKeys = aIndex.get ("key", Document.class);
+        if (aKeys != null)
+          aExistingKeys.add (aKeys.toBsonDocument (BsonDocument.class, m_aCollection.getCodecRegistry ()));
+      }
+    }
+    catch (final MongoException ex)
+    {
+      LOGGER.warn ("Failed to list indexes of MongoDB collection '" + m_sCollectionName + "': " + ex.getMessage ());
+    }
+
+    final ICommonsOrderedMap <String, Boolean> ret = new CommonsLinkedHashMap <> ();
+    for (final var aEntry : m_aManagedIndexes.entrySet ())
+    {
+      final BsonDocument aKeys = aEntry.getValue ()
+                                       .toBsonDocument (BsonDocument.class, m_aCollection.getCodecRegistry ());
+      ret.put (aEntry.getKey (),
+               Boolean.valueOf (aExistingNames.contains (aEntry.getKey ()) || aExistingKeys.contains (aKeys)));
+    }
+    return ret;
+  }
+
+  /**
+   * Create a sequential stream over the results of the provided iterable. The stream is backed by
+   * an open cursor, that is closed when the stream is closed.
+   *
+   * @param <T>
+   *        The element type
+   * @param aIterable
+   *        The iterable to stream. May not be <code>null</code>.
+   * @return A new stream that must be closed by the caller. Never <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  protected static <T> Stream <T> streamOf (@NonNull final MongoIterable <T> aIterable)
+  {
+    final MongoCursor <T> aCursor = aIterable.iterator ();
+    return StreamSupport.stream (Spliterators.spliteratorUnknownSize (aCursor, Spliterator.ORDERED | Spliterator.NONNULL),
+                                 false)
+                        .onClose (aCursor::close);
+  }
+
   @NonNull
   @ReturnsMutableCopy
   public static Document toBson (@NonNull final IIdentifier aValue)
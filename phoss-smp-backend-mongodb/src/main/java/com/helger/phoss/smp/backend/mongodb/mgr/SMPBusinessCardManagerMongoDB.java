@@ -20,6 +20,7 @@ import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.bson.Document;
 import org.jspecify.annotations.NonNull;
@@ -52,6 +53,7 @@ import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardName;
 import com.helger.photon.audit.AuditHelper;
 import com.helger.typeconvert.impl.TypeConverter;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.result.DeleteResult;
 
 /**
@@ -89,7 +91,7 @@ public final class SMPBusinessCardManagerMongoDB extends AbstractManagerMongoDB
   {
     super ("smp-businesscard");
     m_aIdentifierFactory = aIdentifierFactory;
-    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    ensureIndex ("id_1", Indexes.ascending (BSON_ID));
   }
 
   @NonNull
@@ -363,6 +365,13 @@ public final class SMPBusinessCardManagerMongoDB extends AbstractManagerMongoDB
     return ret;
   }
 
+  @NonNull
+  public Stream <ISMPBusinessCard> streamAllSMPBusinessCardsOrderedByID ()
+  {
+    // Sorting is supported by the index on the ID
+    return streamOf (getCollection ().find ().sort (Sorts.ascending (BSON_ID)).<ISMPBusinessCard> map (this::toDomain));
+  }
+
   @NonNull
   @ReturnsMutableCopy
   public ICommonsSet <String> getAllSMPBusinessCardIDs ()
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.mongodb.mgr;
+
+import org.bson.Document;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsConcurrentHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.phoss.smp.security.SMPCertificateCache;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+
+/**
+ * The store for endpoint certificates, so that each distinct certificate is stored only once and
+ * the endpoints only reference the certificate hash. The hash is used as the document ID.<br>
+ * Certificates are never deleted from the store, because they might be referenced concurrently. So
+ * documents, that are not referenced by any endpoint, are expected - e.g. after an endpoint
+ * certificate was replaced. They are small and don't harm.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@ThreadSafe
+final class SMPCertificateStoreMongoDB extends AbstractManagerMongoDB
+{
+  private static final String BSON_ID = "_id";
+  private static final String BSON_CERTIFICATE = "certificate";
+
+  // Certificate hash to certificate - the content never changes
+  private final ICommonsMap <String, String> m_aCertificates = new CommonsConcurrentHashMap <> ();
+
+  SMPCertificateStoreMongoDB ()
+  {
+    super ("smp-certificate");
+  }
+
+  /**
+   * Ensure the provided certificate is contained in the certificate store. If the same certificate
+   * is stored concurrently (e.g. by another node), the duplicate key is tolerated.
+   *
+   * @param sCertificate
+   *        The certificate to store. May be <code>null</code>.
+   * @return The hash of the certificate or <code>null</code> if the certificate is empty.
+   */
+  @Nullable
+  String storeCertificate (@Nullable final String sCertificate)
+  {
+    if (StringHelper.isEmpty (sCertificate))
+      return null;
+
+    final String sHash = SMPCertificateCache.getCertificateHash (sCertificate);
+    if (!m_aCertificates.containsKey (sHash))
+    {
+      try
+      {
+        // Insert if absent
+        getCollection ().updateOne (Filters.eq (BSON_ID, sHash),
+                                    Updates.setOnInsert (BSON_CERTIFICATE, sCertificate),
+                                    new UpdateOptions ().upsert (true));
+      }
+      catch (final MongoWriteException ex)
+      {
+        // Concurrent upserts of the same certificate
+        if (ErrorCategory.fromErrorCode (ex.getError ().getCode ()) != ErrorCategory.DUPLICATE_KEY)
+          throw ex;
+      }
+      m_aCertificates.put (sHash, SMPCertificateCache.getInterned (sCertificate));
+    }
+    return sHash;
+  }
+
+  /**
+   * Resolve the certificate of the provided hash from the certificate store.
+   *
+   * @param sHash
+   *        The certificate hash as stored in the endpoint. May be <code>null</code>.
+   * @return <code>null</code> if the hash is empty.
+   * @throws IllegalStateException
+   *         If the hash is unknown, because then the endpoint data is inconsistent
+   */
+  @Nullable
+  String getCertificateOfHash (@Nullable final String sHash)
+  {
+    if (StringHelper.isEmpty (sHash))
+      return null;
+
+    String ret = m_aCertificates.get (sHash);
+    if (ret == null)
+    {
+      final Document aDoc = getCollection ().find (Filters.eq (BSON_ID, sHash)).first ();
+      if (aDoc == null)
+        throw new IllegalStateException ("Failed to resolve the endpoint certificate with hash '" + sHash + "'");
+      ret = SMPCertificateCache.getInterned (aDoc.getString (BSON_CERTIFICATE));
+      m_aCertificates.put (sHash, ret);
+    }
+    return ret;
+  }
+}
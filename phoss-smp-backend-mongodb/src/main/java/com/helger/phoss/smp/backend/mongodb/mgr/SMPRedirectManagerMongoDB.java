@@ -17,6 +17,7 @@
 package com.helger.phoss.smp.backend.mongodb.mgr;
 
 import java.security.cert.X509Certificate;
+import java.util.stream.Stream;
 
 import org.bson.Document;
 import org.jspecify.annotations.NonNull;
@@ -48,6 +49,7 @@ import com.helger.security.certificate.CertificateDecodeHelper;
 import com.helger.security.certificate.CertificateHelper;
 import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.result.DeleteResult;
 
 /**
@@ -74,7 +76,9 @@ public final class SMPRedirectManagerMongoDB extends AbstractManagerMongoDB impl
   {
     super ("smp-redirect");
     m_aIdentifierFactory = aIdentifierFactory;
-    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    ensureIndex ("id_1", Indexes.ascending (BSON_ID));
+    // Used for the lookups by service group and by service group and document type
+    ensureIndex ("sgid_1_doctypeid_1", Indexes.ascending (BSON_SERVICE_GROUP_ID, BSON_DOCTYPE_ID));
   }
 
   @NonNull
@@ -272,6 +276,16 @@ public final class SMPRedirectManagerMongoDB extends AbstractManagerMongoDB impl
     return ret;
   }
 
+  @NonNull
+  public Stream <ISMPRedirect> streamAllSMPRedirectsOrderedByServiceGroup ()
+  {
+    // Sorted by service group ID plus target document type, as required by the merge-join of the
+    // callers. This is supported by the index on these two fields
+    return streamOf (getCollection ().find ()
+                                     .sort (Sorts.ascending (BSON_SERVICE_GROUP_ID, BSON_DOCTYPE_ID))
+                                     .<ISMPRedirect> map (this::toDomain));
+  }
+
   @NonNull
   @ReturnsMutableCopy
   public ICommonsList <ISMPRedirect> getAllSMPRedirectsOfServiceGroup (@Nullable final IParticipantIdentifier aParticipantID)
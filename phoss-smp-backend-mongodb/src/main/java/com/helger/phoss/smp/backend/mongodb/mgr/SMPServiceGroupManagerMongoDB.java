@@ -16,6 +16,8 @@
  */
 package com.helger.phoss.smp.backend.mongodb.mgr;
 
+import java.util.Collection;
+
 import org.bson.Document;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -75,7 +77,9 @@ public final class SMPServiceGroupManagerMongoDB extends AbstractManagerMongoDB
   public SMPServiceGroupManagerMongoDB ()
   {
     super ("smp-servicegroup");
-    getCollection ().createIndex (Indexes.ascending (BSON_ID));
+    ensureIndex ("id_1", Indexes.ascending (BSON_ID));
+    // Used by getAllSMPServiceGroupsOfOwner and getSMPServiceGroupCountOfOwner
+    ensureIndex ("ownerid_1", Indexes.ascending (BSON_OWNER_ID));
   }
 
   @NonNull
@@ -323,7 +327,20 @@ public final class SMPServiceGroupManagerMongoDB extends AbstractManagerMongoDB
   public ICommonsSet <String> getAllSMPServiceGroupIDs ()
   {
     final ICommonsSet <String> ret = new CommonsHashSet <> ();
-    getCollection ().find ().forEach (x -> ret.add (x.getString (BSON_OWNER_ID)));
+    getCollection ().find ().forEach (x -> ret.add (x.getString (BSON_ID)));
+    return ret;
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceGroup> getAllSMPServiceGroupsOfIDs (@NonNull final Collection <String> aServiceGroupIDs)
+  {
+    ValueEnforcer.notNull (aServiceGroupIDs, "ServiceGroupIDs");
+
+    final ICommonsList <ISMPServiceGroup> ret = new CommonsArrayList <> (aServiceGroupIDs.size ());
+    // Supported by the index on the ID
+    getCollection ().find (new Document (BSON_ID, new Document ("$in", new CommonsArrayList <> (aServiceGroupIDs))))
+                    .forEach (x -> ret.add (toDomain (x)));
     return ret;
   }
 
@@ -19,6 +19,7 @@ package com.helger.phoss.smp.backend.mongodb.mgr;
 import java.util.Date;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.bson.Document;
 import org.bson.conversions.Bson;
@@ -40,8 +41,10 @@ import com.helger.base.state.ESuccess;
 import com.helger.base.string.StringHelper;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.datetime.xml.XMLOffsetDateTime;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
@@ -58,10 +61,14 @@ import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
 import com.helger.phoss.smp.domain.serviceinfo.SMPEndpointHelper;
 import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.restapi.SMPServiceMetadataResponseCache;
 import com.helger.phoss.smp.security.SMPCertificateHelper;
 import com.helger.photon.audit.AuditHelper;
 import com.helger.typeconvert.impl.TypeConverter;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.result.DeleteResult;
 
 /**
@@ -89,17 +96,26 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
   private static final String BSON_SERVICEACTIVATION = "serviceactivation";
   private static final String BSON_SERVICEEXPIRATION = "serviceexpiration";
   private static final String BSON_CERTIFICATE = "certificate";
+  private static final String BSON_CERTIFICATE_HASH = "certificatehash";
   private static final String BSON_SERVICE_DESCRIPTION = "servicedesc";
   private static final String BSON_TECHCONTACTURL = "techcontacturl";
   private static final String BSON_TECHINFOURL = "techinfourl";
 
   private final IIdentifierFactory m_aIdentifierFactory;
   private final CallbackList <ISMPServiceInformationCallback> m_aCBs = new CallbackList <> ();
+  private final SMPCertificateStoreMongoDB m_aCertificateStore;
 
   public SMPServiceInformationManagerMongoDB (@NonNull final IIdentifierFactory aIdentifierFactory)
   {
     super ("smp-serviceinfo");
     m_aIdentifierFactory = aIdentifierFactory;
+    m_aCertificateStore = new SMPCertificateStoreMongoDB ();
+    ensureIndex ("id_1", Indexes.ascending (BSON_ID));
+    // Used for the lookups by service group and by service group and document type
+    ensureIndex ("sgid_1_doctypeid_1", Indexes.ascending (BSON_SERVICE_GROUP_ID, BSON_DOCTYPE_ID));
+    // Used by containsAnyEndpointWithTransportProfile
+    ensureIndex ("processes.endpoints.transportprofile_1",
+                 Indexes.ascending (BSON_PROCESSES + "." + BSON_ENDPOINTS + "." + BSON_TRANSPORT_PROFILE));
   }
 
   @NonNull
@@ -223,6 +239,54 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     return ret;
   }
 
+  private static void _forEachEndpointDoc (@NonNull final Document aDoc, @NonNull final Consumer <Document> aConsumer)
+  {
+    final List <Document> aProcesses = aDoc.getList (BSON_PROCESSES, Document.class);
+    if (aProcesses != null)
+      for (final Document aProcess : aProcesses)
+      {
+        final List <Document> aEndpoints = aProcess.getList (BSON_ENDPOINTS, Document.class);
+        if (aEndpoints != null)
+          aEndpoints.forEach (aConsumer);
+      }
+  }
+
+  /**
+   * Replace the inline certificates of all endpoints with the reference to the certificate store,
+   * so that each distinct certificate is stored only once.
+   */
+  private void _replaceCertificatesWithHashes (@NonNull final Document aDoc)
+  {
+    _forEachEndpointDoc (aDoc, aEndpoint -> {
+      final String sHash = m_aCertificateStore.storeCertificate (aEndpoint.getString (BSON_CERTIFICATE));
+      aEndpoint.remove (BSON_CERTIFICATE);
+      if (sHash != null)
+        aEndpoint.put (BSON_CERTIFICATE_HASH, sHash);
+    });
+  }
+
+  /**
+   * Replace the certificate references of all endpoints with the inline certificates. Endpoints
+   * stored by previous versions still contain the inline certificate.
+   */
+  private void _resolveCertificateHashes (@NonNull final Document aDoc)
+  {
+    _forEachEndpointDoc (aDoc, aEndpoint -> {
+      final String sHash = aEndpoint.getString (BSON_CERTIFICATE_HASH);
+      aEndpoint.remove (BSON_CERTIFICATE_HASH);
+      if (sHash != null && !aEndpoint.containsKey (BSON_CERTIFICATE))
+        aEndpoint.put (BSON_CERTIFICATE, m_aCertificateStore.getCertificateOfHash (sHash));
+    });
+  }
+
+  @NonNull
+  private Document _toStorageBson (@NonNull final ISMPServiceInformation aValue)
+  {
+    final Document ret = toBson (aValue);
+    _replaceCertificatesWithHashes (ret);
+    return ret;
+  }
+
   @NonNull
   @ReturnsMutableCopy
   public SMPServiceInformation toServiceInformation (@NonNull final Document aDoc, final boolean bNeedProcesses)
@@ -233,6 +297,7 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     final ICommonsList <SMPProcess> aProcesses = new CommonsArrayList <> ();
     if (bNeedProcesses)
     {
+      _resolveCertificateHashes (aDoc);
       for (final Document aDocP : aDoc.getList (BSON_PROCESSES, Document.class))
       {
         final SMPProcess aProcess = toProcess (aDocP, aChange);
@@ -248,7 +313,7 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     if (aChange.booleanValue ())
     {
       // Store back (since 8.1.7)
-      getCollection ().replaceOne (new Document (BSON_ID, ret.getID ()), toBson (ret));
+      getCollection ().replaceOne (new Document (BSON_ID, ret.getID ()), _toStorageBson (ret));
     }
     return ret;
   }
@@ -298,7 +363,8 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     if (bChangedExisting)
     {
       // Edit existing
-      getCollection ().replaceOne (new Document (BSON_ID, aOldInformation.getID ()), toBson (aSMPServiceInformation));
+      getCollection ().replaceOne (new Document (BSON_ID, aOldInformation.getID ()),
+                                   _toStorageBson (aSMPServiceInformation));
 
       AuditHelper.onAuditModifySuccess (SMPServiceInformation.OT,
                                         "set-all",
@@ -324,7 +390,7 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
         bRemovedOld = aDR.wasAcknowledged () && aDR.getDeletedCount () > 0;
       }
 
-      if (!getCollection ().insertOne (toBson (aSMPServiceInformation)).wasAcknowledged ())
+      if (!getCollection ().insertOne (_toStorageBson (aSMPServiceInformation)).wasAcknowledged ())
         throw new IllegalStateException ("Failed to insert into MongoDB Collection");
 
       if (bRemovedOld)
@@ -441,13 +507,15 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
 
     // Save new one
     getCollection ().replaceOne (new Document (BSON_ID, aSMPServiceInformation.getID ()),
-                                 toBson (aRealServiceInformation));
+                                 _toStorageBson (aRealServiceInformation));
 
     AuditHelper.onAuditDeleteSuccess (SMPServiceInformation.OT,
                                       aSMPServiceInformation.getID (),
                                       aProcess.getProcessIdentifier ().getURIEncoded ());
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("deleteSMPProcess - success");
+
+    m_aCBs.forEach (x -> x.onSMPServiceInformationUpdated (aRealServiceInformation));
     return EChange.CHANGED;
   }
 
@@ -465,6 +533,15 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     getCollection ().find ().forEach (x -> aConsumer.accept (toServiceInformation (x, true)));
   }
 
+  @NonNull
+  public Stream <ISMPServiceInformation> streamAllSMPServiceInformationOrderedByServiceGroup ()
+  {
+    // Sorting is supported by the index on service group ID and document type ID
+    return streamOf (getCollection ().find ()
+                                     .sort (Sorts.ascending (BSON_SERVICE_GROUP_ID, BSON_DOCTYPE_ID))
+                                     .<ISMPServiceInformation> map (x -> toServiceInformation (x, true)));
+  }
+
   @Nonnegative
   public long getSMPServiceInformationCount ()
   {
@@ -498,6 +575,34 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     return ret;
   }
 
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (@Nullable final IParticipantIdentifier aParticipantIdentifier)
+  {
+    final ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> ret = new CommonsLinkedHashMap <> ();
+    if (aParticipantIdentifier != null)
+    {
+      // Only fetch the fields required for counting
+      final String sEndpointIDPath = BSON_PROCESSES + "." + BSON_ENDPOINTS + "." + BSON_ENDPOINT_ID;
+      for (final Document aDoc : getCollection ().find (new Document (BSON_SERVICE_GROUP_ID,
+                                                                      aParticipantIdentifier.getURIEncoded ()))
+                                                 .projection (Projections.include (BSON_DOCTYPE_ID, sEndpointIDPath)))
+      {
+        int nCount = 0;
+        final List <Document> aProcesses = aDoc.getList (BSON_PROCESSES, Document.class);
+        if (aProcesses != null)
+          for (final Document aProcess : aProcesses)
+          {
+            final List <Document> aEndpoints = aProcess.getList (BSON_ENDPOINTS, Document.class);
+            if (aEndpoints != null)
+              nCount += aEndpoints.size ();
+          }
+        ret.put (toDocumentTypeID (aDoc.get (BSON_DOCTYPE_ID, Document.class)), Integer.valueOf (nCount));
+      }
+    }
+    return ret;
+  }
+
   @Nullable
   public ISMPServiceInformation getSMPServiceInformationOfServiceGroupAndDocumentType (@Nullable final IParticipantIdentifier aParticipantIdentifier,
                                                                                        @Nullable final IDocumentTypeIdentifier aDocumentTypeIdentifier)
@@ -574,8 +679,17 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
   public ICommonsMap <String, IEndpointUsageInfo> getEndpointCertificateUsageMap ()
   {
     final ICommonsMap <String, IEndpointUsageInfo> ret = new CommonsHashMap <> ();
-    for (final Document aDoc : getCollection ().find ())
+    // Normalize each distinct certificate only once
+    final ICommonsMap <String, String> aNormalizedCerts = new CommonsHashMap <> ();
+    // Only fetch the certificates and not the complete documents
+    final String sCertificatePath = BSON_PROCESSES + "." + BSON_ENDPOINTS + "." + BSON_CERTIFICATE;
+    final String sCertificateHashPath = BSON_PROCESSES + "." + BSON_ENDPOINTS + "." + BSON_CERTIFICATE_HASH;
+    for (final Document aDoc : getCollection ().find ()
+                                               .projection (Projections.include (BSON_SERVICE_GROUP_ID,
+                                                                                 sCertificatePath,
+                                                                                 sCertificateHashPath)))
     {
+      _resolveCertificateHashes (aDoc);
       final String sServiceGroupID = aDoc.getString (BSON_SERVICE_GROUP_ID);
       final List <Document> aProcesses = aDoc.getList (BSON_PROCESSES, Document.class);
       if (aProcesses != null)
@@ -585,7 +699,8 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
           if (aEndpoints != null)
             for (final Document aEndpoint : aEndpoints)
             {
-              final String sNormalizedCert = SMPCertificateHelper.getNormalizedCert (aEndpoint.getString (BSON_CERTIFICATE));
+              final String sNormalizedCert = aNormalizedCerts.computeIfAbsent (StringHelper.getNotNull (aEndpoint.getString (BSON_CERTIFICATE)),
+                                                                               SMPCertificateHelper::getNormalizedCert);
               final IEndpointUsageInfo aInfo = ret.computeIfAbsent (sNormalizedCert, k -> new EndpointUsageInfo ());
               ((EndpointUsageInfo) aInfo).incrementForServiceGroupID (sServiceGroupID);
             }
@@ -632,6 +747,10 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
       if (bDocChanged)
         getCollection ().replaceOne (new Document (BSON_ID, aDoc.getString (BSON_ID)), aDoc);
     }
+
+    // The affected participants are not resolved, so no callback can be invoked
+    if (nEndpointsChanged > 0)
+      SMPServiceMetadataResponseCache.clearIfInstantiated ();
     return nEndpointsChanged;
   }
 
@@ -647,6 +766,7 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
     // Find all documents that have endpoints with certificates
     for (final Document aDoc : getCollection ().find ())
     {
+      _resolveCertificateHashes (aDoc);
       boolean bDocChanged = false;
       final List <Document> aProcesses = aDoc.getList (BSON_PROCESSES, Document.class);
       if (aProcesses != null)
@@ -670,8 +790,15 @@ public final class SMPServiceInformationManagerMongoDB extends AbstractManagerMo
             }
         }
       if (bDocChanged)
+      {
+        _replaceCertificatesWithHashes (aDoc);
         getCollection ().replaceOne (Filters.eq (BSON_ID, aDoc.getString (BSON_ID)), aDoc);
+      }
     }
+
+    // The affected participants are not resolved, so no callback can be invoked
+    if (nEndpointsChanged > 0)
+      SMPServiceMetadataResponseCache.clearIfInstantiated ();
     return nEndpointsChanged;
   }
 
@@ -16,8 +16,12 @@
  */
 package com.helger.phoss.smp.backend.sql;
 
+import java.time.Duration;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.helger.config.IConfig;
 import com.helger.db.api.config.JdbcConfigurationConfig;
@@ -32,6 +36,8 @@ import com.helger.db.api.config.JdbcConfigurationConfig;
  */
 public class SMPJdbcConfiguration extends JdbcConfigurationConfig
 {
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPJdbcConfiguration.class);
+
   /**
    * The JDBC configuration prefix.
    */
@@ -45,6 +51,31 @@ public class SMPJdbcConfiguration extends JdbcConfigurationConfig
   private static final String CONFIG_JDBC_CACHE_SG_ENABLED = "jdbc.cache.sg.enabled";
   private static final boolean DEFAULT_JDBC_CACHE_SG_ENABLED = true;
 
+  private static final String CONFIG_JDBC_CACHE_SI_ENABLED = "jdbc.cache.si.enabled";
+  private static final boolean DEFAULT_JDBC_CACHE_SI_ENABLED = false;
+  private static final String CONFIG_JDBC_CACHE_SI_TTL = "jdbc.cache.si.ttl";
+  private static final String CONFIG_JDBC_CACHE_SI_MAXSIZE = "jdbc.cache.si.maxsize";
+
+  private static final String CONFIG_JDBC_CACHE_REDIRECT_ENABLED = "jdbc.cache.redirect.enabled";
+  private static final boolean DEFAULT_JDBC_CACHE_REDIRECT_ENABLED = false;
+  private static final String CONFIG_JDBC_CACHE_REDIRECT_TTL = "jdbc.cache.redirect.ttl";
+  private static final String CONFIG_JDBC_CACHE_REDIRECT_MAXSIZE = "jdbc.cache.redirect.maxsize";
+
+  private static final String CONFIG_JDBC_CACHE_SETTINGS_ENABLED = "jdbc.cache.settings.enabled";
+  private static final boolean DEFAULT_JDBC_CACHE_SETTINGS_ENABLED = true;
+  private static final String CONFIG_JDBC_CACHE_SETTINGS_REVALIDATE = "jdbc.cache.settings.revalidate";
+  public static final Duration DEFAULT_JDBC_CACHE_SETTINGS_REVALIDATE = Duration.ofSeconds (10);
+
+  private static final String CONFIG_JDBC_CACHE_CHANGELOG_ENABLED = "jdbc.cache.changelog.enabled";
+  private static final boolean DEFAULT_JDBC_CACHE_CHANGELOG_ENABLED = false;
+  private static final String CONFIG_JDBC_CACHE_CHANGELOG_INTERVAL = "jdbc.cache.changelog.interval";
+  public static final Duration DEFAULT_JDBC_CACHE_CHANGELOG_INTERVAL = Duration.ofSeconds (5);
+  private static final String CONFIG_JDBC_CACHE_CHANGELOG_RETENTION = "jdbc.cache.changelog.retention";
+  public static final Duration DEFAULT_JDBC_CACHE_CHANGELOG_RETENTION = Duration.ofHours (1);
+
+  public static final Duration DEFAULT_JDBC_CACHE_TTL = Duration.ofSeconds (60);
+  public static final int DEFAULT_JDBC_CACHE_MAXSIZE = 10_000;
+
   private static final String CONFIG_SMP_STATUS_SQL_ENABLED = "smp.status.sql.enabled";
   private static final boolean DEFAULT_SMP_STATUS_SQL_ENABLED = true;
 
@@ -82,6 +113,137 @@ public class SMPJdbcConfiguration extends JdbcConfigurationConfig
     return getConfig ().getAsBoolean (CONFIG_JDBC_CACHE_SG_ENABLED, DEFAULT_JDBC_CACHE_SG_ENABLED);
   }
 
+  @NonNull
+  private Duration _getDuration (@NonNull final String sKey, @NonNull final Duration aDefault)
+  {
+    final Duration ret = getConfig ().getAsConfigDuration (sKey,
+                                                           sMsg -> LOGGER.warn ("Failed to parse configuration key '" +
+                                                                                sKey +
+                                                                                "' as duration: " +
+                                                                                sMsg));
+    return ret != null ? ret : aDefault;
+  }
+
+  /**
+   * @return <code>true</code> if the SMP ServiceInformation cache (by service group) is enabled,
+   *         <code>false</code> if not. Default is <code>false</code>, because other nodes sharing
+   *         the same database only see modifications after the TTL, unless the cache change log
+   *         is enabled.
+   * @since 8.2.1
+   */
+  public boolean isJdbcServiceInformationCacheEnabled ()
+  {
+    return getConfig ().getAsBoolean (CONFIG_JDBC_CACHE_SI_ENABLED, DEFAULT_JDBC_CACHE_SI_ENABLED);
+  }
+
+  /**
+   * @return The time to live of SMP ServiceInformation cache entries. Default is
+   *         {@link #DEFAULT_JDBC_CACHE_TTL}.
+   * @since 8.2.1
+   */
+  @NonNull
+  public Duration getJdbcServiceInformationCacheTTL ()
+  {
+    return _getDuration (CONFIG_JDBC_CACHE_SI_TTL, DEFAULT_JDBC_CACHE_TTL);
+  }
+
+  /**
+   * @return The maximum number of SMP ServiceInformation cache entries (service groups). Default is
+   *         {@link #DEFAULT_JDBC_CACHE_MAXSIZE}.
+   * @since 8.2.1
+   */
+  public int getJdbcServiceInformationCacheMaxSize ()
+  {
+    return getConfig ().getAsInt (CONFIG_JDBC_CACHE_SI_MAXSIZE, DEFAULT_JDBC_CACHE_MAXSIZE);
+  }
+
+  /**
+   * @return <code>true</code> if the SMP Redirect cache (by service group) is enabled,
+   *         <code>false</code> if not. Default is <code>false</code>, because other nodes sharing
+   *         the same database only see modifications after the TTL, unless the cache change log
+   *         is enabled.
+   * @since 8.2.1
+   */
+  public boolean isJdbcRedirectCacheEnabled ()
+  {
+    return getConfig ().getAsBoolean (CONFIG_JDBC_CACHE_REDIRECT_ENABLED, DEFAULT_JDBC_CACHE_REDIRECT_ENABLED);
+  }
+
+  /**
+   * @return The time to live of SMP Redirect cache entries. Default is
+   *         {@link #DEFAULT_JDBC_CACHE_TTL}.
+   * @since 8.2.1
+   */
+  @NonNull
+  public Duration getJdbcRedirectCacheTTL ()
+  {
+    return _getDuration (CONFIG_JDBC_CACHE_REDIRECT_TTL, DEFAULT_JDBC_CACHE_TTL);
+  }
+
+  /**
+   * @return The maximum number of SMP Redirect cache entries (service groups). Default is
+   *         {@link #DEFAULT_JDBC_CACHE_MAXSIZE}.
+   * @since 8.2.1
+   */
+  public int getJdbcRedirectCacheMaxSize ()
+  {
+    return getConfig ().getAsInt (CONFIG_JDBC_CACHE_REDIRECT_MAXSIZE, DEFAULT_JDBC_CACHE_MAXSIZE);
+  }
+
+  /**
+   * @return <code>true</code> if the SMP settings are cached for the whole application,
+   *         <code>false</code> if they are read once per request. Default is <code>true</code>.
+   * @since 8.2.1
+   */
+  public boolean isJdbcSettingsCacheEnabled ()
+  {
+    return getConfig ().getAsBoolean (CONFIG_JDBC_CACHE_SETTINGS_ENABLED, DEFAULT_JDBC_CACHE_SETTINGS_ENABLED);
+  }
+
+  /**
+   * @return The interval after which the cached SMP settings are checked against the version
+   *         stored in the database. Default is {@link #DEFAULT_JDBC_CACHE_SETTINGS_REVALIDATE}.
+   * @since 8.2.1
+   */
+  @NonNull
+  public Duration getJdbcSettingsCacheRevalidationInterval ()
+  {
+    return _getDuration (CONFIG_JDBC_CACHE_SETTINGS_REVALIDATE, DEFAULT_JDBC_CACHE_SETTINGS_REVALIDATE);
+  }
+
+  /**
+   * @return <code>true</code> if cache modifications are written to a database change log, that is
+   *         polled by all nodes sharing the same database. This is only needed for clustered
+   *         deployments. Default is <code>false</code>.
+   * @since 8.2.1
+   */
+  public boolean isJdbcCacheChangeLogEnabled ()
+  {
+    return getConfig ().getAsBoolean (CONFIG_JDBC_CACHE_CHANGELOG_ENABLED, DEFAULT_JDBC_CACHE_CHANGELOG_ENABLED);
+  }
+
+  /**
+   * @return The interval in which the cache change log is polled. Default is
+   *         {@link #DEFAULT_JDBC_CACHE_CHANGELOG_INTERVAL}.
+   * @since 8.2.1
+   */
+  @NonNull
+  public Duration getJdbcCacheChangeLogPollInterval ()
+  {
+    return _getDuration (CONFIG_JDBC_CACHE_CHANGELOG_INTERVAL, DEFAULT_JDBC_CACHE_CHANGELOG_INTERVAL);
+  }
+
+  /**
+   * @return The time cache change log entries are kept in the database. Default is
+   *         {@link #DEFAULT_JDBC_CACHE_CHANGELOG_RETENTION}.
+   * @since 8.2.1
+   */
+  @NonNull
+  public Duration getJdbcCacheChangeLogRetention ()
+  {
+    return _getDuration (CONFIG_JDBC_CACHE_CHANGELOG_RETENTION, DEFAULT_JDBC_CACHE_CHANGELOG_RETENTION);
+  }
+
   /**
    * @return <code>true</code> if the SQL status is enabled, <code>false</code> if not. Default is
    *         <code>true</code>.
@@ -43,6 +43,7 @@ import com.helger.phoss.smp.backend.sql.migration.V27__MigrateSystemMigrationsTo
 import com.helger.phoss.smp.backend.sql.migration.V29__MigrateSystemMessageToDB;
 import com.helger.phoss.smp.backend.sql.migration.V2__MigrateDBUsersToPhotonUsers;
 import com.helger.phoss.smp.backend.sql.migration.V31__MigrateLongRunningJobsToDB;
+import com.helger.phoss.smp.backend.sql.migration.V37__MigrateEndpointCertificatesToStore;
 import com.helger.phoss.smp.backend.sql.migration.V5__MigrateTransportProfilesToDB;
 import com.helger.photon.audit.AuditHelper;
 
@@ -112,7 +113,8 @@ final class FlywayMigrator
                                                new V25__MigrateSMLInfoToDB (),
                                                new V27__MigrateSystemMigrationsToDB (),
                                                new V29__MigrateSystemMessageToDB (),
-                                               new V31__MigrateLongRunningJobsToDB () };
+                                               new V31__MigrateLongRunningJobsToDB (),
+                                               new V37__MigrateEndpointCertificatesToStore () };
 
     FlywayMigrationRunner.runFlyway (aJdbcConfig,
                                      aFlywayConfig,
@@ -17,9 +17,11 @@
 package com.helger.phoss.smp.backend.sql.mgr;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -65,6 +67,7 @@ import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardContact;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardEntity;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardIdentifier;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardName;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupPageIterator;
 import com.helger.photon.audit.AuditHelper;
 
 /**
@@ -356,11 +359,31 @@ public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager
   @NonNull
   @ReturnsMutableCopy
   public ICommonsList <ISMPBusinessCard> getAllSMPBusinessCards ()
+  {
+    return _getAllSMPBusinessCards (null);
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  private ICommonsList <ISMPBusinessCard> _getAllSMPBusinessCards (@Nullable final ICommonsList <String> aPIDs)
   {
     final ICommonsList <ISMPBusinessCard> ret = new CommonsArrayList <> ();
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT id, pid, name, names, country, geoinfo, identifiers, websites, contacts, addon, regdate" +
-                                                                          " FROM " +
-                                                                          m_sTableName);
+    final String sSQL = "SELECT id, pid, name, names, country, geoinfo, identifiers, websites, contacts, addon, regdate" +
+                        " FROM " +
+                        m_sTableName;
+    final ICommonsList <DBResultRow> aDBResult;
+    if (aPIDs == null)
+      aDBResult = newExecutor ().queryAll (sSQL);
+    else
+    {
+      if (aPIDs.isEmpty ())
+        return ret;
+      final StringBuilder aPlaceholders = new StringBuilder ();
+      for (int i = 0; i < aPIDs.size (); ++i)
+        aPlaceholders.append (i == 0 ? "?" : ",?");
+      aDBResult = newExecutor ().queryAll (sSQL + " WHERE pid IN (" + aPlaceholders + ")",
+                                           new ConstantPreparedStatementDataProvider (aPIDs.toArray ()));
+    }
     if (aDBResult != null)
     {
       final IIdentifierFactory aIF = SMPMetaManager.getIdentifierFactory ();
@@ -416,6 +439,18 @@ public final class SMPBusinessCardManagerJDBC extends AbstractJDBCEnabledManager
     return ret;
   }
 
+  @NonNull
+  public Stream <ISMPBusinessCard> streamAllSMPBusinessCardsOrderedByID ()
+  {
+    // The IDs are sorted in Java, independent of the database collation. Only the business cards
+    // of a limited number of participants are kept in memory.
+    final ICommonsList <String> aPIDs = getAllSMPBusinessCardIDs ().getSorted (Comparator.naturalOrder ());
+    return new SMPServiceGroupPageIterator <> (aPIDs,
+                                               SMPJdbcServiceGroupKeys.MAX_SERVICE_GROUPS_PER_QUERY,
+                                               this::_getAllSMPBusinessCards,
+                                               ISMPBusinessCard.comparator ()).stream ();
+  }
+
   public boolean containsSMPBusinessCardOfID (@Nullable final IParticipantIdentifier aID)
   {
     if (aID == null)
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import java.time.Duration;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.annotation.style.UsedViaReflection;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.string.StringParser;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsConcurrentHashMap;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.datetime.helper.PDTFactory;
+import com.helger.db.api.helper.DBValueHelper;
+import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.db.jdbc.executor.DBResultRow;
+import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
+import com.helger.scope.IScope;
+import com.helger.scope.singleton.AbstractGlobalSingleton;
+
+/**
+ * A database based change log for the node-local caches of the JDBC managers. Every modification
+ * adds an entry with the affected cache type and key in the same transaction as the modification
+ * itself. Each node polls the change log in a fixed interval and evicts exactly the logged keys
+ * from its caches. This ensures that all nodes sharing one database see changes after at most one
+ * poll interval, without requiring any additional infrastructure.<br>
+ * The change log is only active, if this singleton was started via
+ * {@link #start(Duration, Duration)}.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@ThreadSafe
+public final class SMPCacheChangeLogJDBC extends AbstractGlobalSingleton
+{
+  /** The service group cache. The key is the URI encoded participant ID. */
+  public static final String CACHE_TYPE_SERVICE_GROUP = "sg";
+  /** The service information cache. The key is the URI encoded participant ID. */
+  public static final String CACHE_TYPE_SERVICE_INFORMATION = "si";
+  /** The redirect cache. The key is the URI encoded participant ID. */
+  public static final String CACHE_TYPE_REDIRECT = "redirect";
+  /** The special key to invalidate all entries of a cache. */
+  public static final String KEY_ALL = "*";
+
+  public static final int MAX_LEN_KEY = 1024;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPCacheChangeLogJDBC.class);
+  private static final String TABLE_NAME = SMPDBExecutor.TABLE_NAME_PREFIX + "smp_cache_change";
+  // How long to wait for entries with missing IDs (e.g. not yet committed transactions)
+  private static final long GAP_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos (30);
+  // Upper limit of remembered missing IDs
+  private static final int MAX_GAPS = 1_000;
+  private static final long CLEANUP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos (10);
+
+  /**
+   * A single change log entry as read from the database.
+   *
+   * @author Philip Helger
+   */
+  static final class ChangeEntry
+  {
+    private final long m_nID;
+    private final String m_sCacheType;
+    private final String m_sKey;
+
+    ChangeEntry (final long nID, @Nullable final String sCacheType, @Nullable final String sKey)
+    {
+      m_nID = nID;
+      m_sCacheType = sCacheType;
+      m_sKey = sKey;
+    }
+  }
+
+  private final ICommonsMap <String, Consumer <String>> m_aInvalidators = new CommonsConcurrentHashMap <> ();
+  @GuardedBy ("m_aRWLock")
+  private ScheduledExecutorService m_aExecutor;
+  @GuardedBy ("m_aRWLock")
+  private Duration m_aRetention;
+
+  // Only accessed from the polling thread
+  private long m_nLastID = -1;
+  // Missing ID to the nano time it was noticed
+  private final TreeMap <Long, Long> m_aGaps = new TreeMap <> ();
+  private long m_nLastCleanupNanos = System.nanoTime ();
+
+  private final AtomicLong m_aWritten = new AtomicLong (0);
+  private final AtomicLong m_aPolled = new AtomicLong (0);
+  private final AtomicLong m_aInvalidated = new AtomicLong (0);
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated (forRemoval = false)
+  @UsedViaReflection
+  public SMPCacheChangeLogJDBC ()
+  {}
+
+  @NonNull
+  public static SMPCacheChangeLogJDBC getInstance ()
+  {
+    return getGlobalSingleton (SMPCacheChangeLogJDBC.class);
+  }
+
+  @Nullable
+  public static SMPCacheChangeLogJDBC getInstanceIfInstantiated ()
+  {
+    return getGlobalSingletonIfInstantiated (SMPCacheChangeLogJDBC.class);
+  }
+
+  /**
+   * Add a change log entry, if the change log was started. This must be called with the executor
+   * that performs the modification, so that the entry is part of the same transaction.
+   *
+   * @param aExecutor
+   *        The DB executor of the modification. May not be <code>null</code>.
+   * @param sCacheType
+   *        The affected cache type. One of the <code>CACHE_TYPE_...</code> constants.
+   * @param sKey
+   *        The affected cache key or {@link #KEY_ALL}. May neither be <code>null</code> nor empty.
+   */
+  public static void addChangeIfStarted (@NonNull final DBExecutor aExecutor,
+                                         @NonNull @Nonempty final String sCacheType,
+                                         @NonNull @Nonempty final String sKey)
+  {
+    final SMPCacheChangeLogJDBC aChangeLog = getInstanceIfInstantiated ();
+    if (aChangeLog != null && aChangeLog.isStarted ())
+      aChangeLog.addChange (aExecutor, sCacheType, sKey);
+  }
+
+  /**
+   * Add a change log entry.
+   *
+   * @param aExecutor
+   *        The DB executor of the modification. May not be <code>null</code>.
+   * @param sCacheType
+   *        The affected cache type. One of the <code>CACHE_TYPE_...</code> constants.
+   * @param sKey
+   *        The affected cache key or {@link #KEY_ALL}. May neither be <code>null</code> nor empty.
+   */
+  public void addChange (@NonNull final DBExecutor aExecutor,
+                         @NonNull @Nonempty final String sCacheType,
+                         @NonNull @Nonempty final String sKey)
+  {
+    ValueEnforcer.notNull (aExecutor, "Executor");
+    ValueEnforcer.notEmpty (sCacheType, "CacheType");
+    ValueEnforcer.notEmpty (sKey, "Key");
+
+    final String sRealKey = getStoredKey (sKey);
+    final long nCreated = aExecutor.insertOrUpdateOrDelete ("INSERT INTO " +
+                                                            TABLE_NAME +
+                                                            " (dt, cachetype, cachekey) VALUES (?, ?, ?)",
+                                                            new ConstantPreparedStatementDataProvider (DBValueHelper.toTimestamp (PDTFactory.getCurrentLocalDateTime ()),
+                                                                                                       sCacheType,
+                                                                                                       sRealKey));
+    if (nCreated != 1)
+      throw new IllegalStateException ("Failed to create new cache change log entry (" + nCreated + ")");
+    m_aWritten.incrementAndGet ();
+  }
+
+  /**
+   * Get the cache key as stored in the change log.
+   *
+   * @param sKey
+   *        The affected cache key. May not be <code>null</code>.
+   * @return The provided key or {@link #KEY_ALL} if the key is too long to be stored.
+   */
+  @NonNull
+  static String getStoredKey (@NonNull final String sKey)
+  {
+    // Overly long keys cannot be stored - invalidate everything instead
+    return sKey.length () > MAX_LEN_KEY ? KEY_ALL : sKey;
+  }
+
+  /**
+   * Register the invalidator of a cache type. The invalidator is called with the cache key or with
+   * {@link #KEY_ALL}.
+   *
+   * @param sCacheType
+   *        The cache type. May neither be <code>null</code> nor empty.
+   * @param aInvalidator
+   *        The invalidator to be invoked. May not be <code>null</code>.
+   */
+  public void registerInvalidator (@NonNull @Nonempty final String sCacheType,
+                                   @NonNull final Consumer <String> aInvalidator)
+  {
+    ValueEnforcer.notEmpty (sCacheType, "CacheType");
+    ValueEnforcer.notNull (aInvalidator, "Invalidator");
+    m_aInvalidators.put (sCacheType, aInvalidator);
+  }
+
+  public boolean isStarted ()
+  {
+    return m_aRWLock.readLockedBoolean ( () -> m_aExecutor != null);
+  }
+
+  /**
+   * Start writing and polling the change log. Entries older than the retention period are deleted
+   * regularly.
+   *
+   * @param aPollInterval
+   *        The interval in which the change log is polled. May not be <code>null</code>.
+   * @param aRetention
+   *        The time change log entries are kept. Must be a lot longer than the poll interval. May
+   *        not be <code>null</code>.
+   */
+  public void start (@NonNull final Duration aPollInterval, @NonNull final Duration aRetention)
+  {
+    ValueEnforcer.notNull (aPollInterval, "PollInterval");
+    ValueEnforcer.isTrue (aPollInterval.compareTo (Duration.ZERO) > 0, "PollInterval must be positive");
+    ValueEnforcer.notNull (aRetention, "Retention");
+
+    // Determine the starting point before anything is cached
+    _pollSafe ();
+
+    m_aRWLock.writeLocked ( () -> {
+      if (m_aExecutor != null)
+        throw new IllegalStateException ("The cache change log was already started");
+
+      m_aRetention = aRetention;
+      m_aExecutor = new ScheduledThreadPoolExecutor (1, aRunnable -> {
+        final Thread ret = new Thread (aRunnable, "smp-cache-change-log");
+        ret.setDaemon (true);
+        return ret;
+      });
+      final long nIntervalMillis = aPollInterval.toMillis ();
+      m_aExecutor.scheduleWithFixedDelay (this::_pollSafe, nIntervalMillis, nIntervalMillis, TimeUnit.MILLISECONDS);
+    });
+    LOGGER.info ("Started the cache change log with a poll interval of " + aPollInterval);
+  }
+
+  private void _pollSafe ()
+  {
+    try
+    {
+      pollChanges ();
+    }
+    catch (final RuntimeException ex)
+    {
+      // Never stop the scheduled execution
+      LOGGER.error ("Failed to poll the cache change log", ex);
+    }
+  }
+
+  private static long _getAsLong (@NonNull final DBResultRow aRow, @Nonnegative final int nIndex)
+  {
+    return StringParser.parseLong (aRow.getAsString (nIndex), -1);
+  }
+
+  private void _invalidate (@Nullable final String sCacheType, @Nullable final String sKey)
+  {
+    final Consumer <String> aInvalidator = m_aInvalidators.get (sCacheType);
+    if (aInvalidator != null && sKey != null)
+    {
+      aInvalidator.accept (sKey);
+      m_aInvalidated.incrementAndGet ();
+    }
+  }
+
+  /**
+   * Read all new change log entries and invalidate the respective cache entries. Entries of
+   * transactions that were not yet committed at the time of the last poll are picked up, as long as
+   * they are committed within 30 seconds. This method is called regularly after
+   * {@link #start(Duration, Duration)} was called and should only be called manually for testing.
+   *
+   * @return The number of processed change log entries. Always &ge; 0.
+   */
+  @Nonnegative
+  public synchronized int pollChanges ()
+  {
+    final DBExecutor aExecutor = new SMPDBExecutor ();
+    if (m_nLastID < 0)
+    {
+      // First poll - all caches are empty anyway
+      final ICommonsList <DBResultRow> aDBResult = aExecutor.queryAll ("SELECT MAX(id) FROM " + TABLE_NAME);
+      initLastID (aDBResult == null || aDBResult.isEmpty () ? 0 : _getAsLong (aDBResult.get (0), 0));
+      return 0;
+    }
+
+    final long nNow = System.nanoTime ();
+    final long nFromID = getPollFromID (nNow);
+    final ICommonsList <DBResultRow> aDBResult = aExecutor.queryAll ("SELECT id, cachetype, cachekey FROM " +
+                                                                     TABLE_NAME +
+                                                                     " WHERE id > ? ORDER BY id",
+                                                                     new ConstantPreparedStatementDataProvider (Long.valueOf (nFromID)));
+    final ICommonsList <ChangeEntry> aEntries = new CommonsArrayList <> ();
+    if (aDBResult != null)
+      for (final DBResultRow aRow : aDBResult)
+        aEntries.add (new ChangeEntry (_getAsLong (aRow, 0), aRow.getAsString (1), aRow.getAsString (2)));
+    final int nProcessed = processChanges (aEntries, nNow);
+
+    if (nNow - m_nLastCleanupNanos > CLEANUP_INTERVAL_NANOS)
+    {
+      m_nLastCleanupNanos = nNow;
+      final Duration aRetention = m_aRWLock.readLockedGet ( () -> m_aRetention);
+      if (aRetention != null)
+      {
+        final long nDeleted = aExecutor.insertOrUpdateOrDelete ("DELETE FROM " + TABLE_NAME + " WHERE dt < ?",
+                                                                new ConstantPreparedStatementDataProvider (DBValueHelper.toTimestamp (PDTFactory.getCurrentLocalDateTime ()
+                                                                                                                                                .minus (aRetention))));
+        if (nDeleted > 0 && LOGGER.isDebugEnabled ())
+          LOGGER.debug ("Deleted " + nDeleted + " outdated cache change log entries");
+      }
+    }
+    return nProcessed;
+  }
+
+  /**
+   * Set the starting point of the polling. Only entries with a higher ID are processed afterwards.
+   * Only called from {@link #pollChanges()} and from tests.
+   *
+   * @param nMaxID
+   *        The maximum ID contained in the change log at startup.
+   */
+  synchronized void initLastID (final long nMaxID)
+  {
+    m_nLastID = Math.max (nMaxID, 0);
+    m_aGaps.clear ();
+  }
+
+  /**
+   * Drop the outdated gaps and determine the ID after which the change log must be read. Only
+   * called from {@link #pollChanges()} and from tests.
+   *
+   * @param nNowNanos
+   *        The current nano time.
+   * @return The exclusive ID to start reading at.
+   */
+  synchronized long getPollFromID (final long nNowNanos)
+  {
+    // Give up on old gaps (e.g. IDs of rolled back transactions)
+    m_aGaps.values ().removeIf (x -> nNowNanos - x.longValue () > GAP_TIMEOUT_NANOS);
+    return m_aGaps.isEmpty () ? m_nLastID : m_aGaps.firstKey ().longValue () - 1;
+  }
+
+  /**
+   * Process the change log entries read starting at {@link #getPollFromID(long)}. Each entry is
+   * processed only once, and skipped IDs are remembered, because they may become visible later
+   * (e.g. not yet committed transactions). Only called from {@link #pollChanges()} and from tests.
+   *
+   * @param aEntries
+   *        The entries ordered by ID. May not be <code>null</code>.
+   * @param nNowNanos
+   *        The current nano time.
+   * @return The number of processed entries. Always &ge; 0.
+   */
+  @Nonnegative
+  synchronized int processChanges (@NonNull final Iterable <ChangeEntry> aEntries, final long nNowNanos)
+  {
+    int nProcessed = 0;
+    for (final ChangeEntry aEntry : aEntries)
+    {
+      final long nID = aEntry.m_nID;
+      if (nID > m_nLastID)
+      {
+        // Remember skipped IDs, as they may become visible later
+        for (long nGapID = Math.max (m_nLastID + 1, nID - MAX_GAPS); nGapID < nID; ++nGapID)
+          m_aGaps.put (Long.valueOf (nGapID), Long.valueOf (nNowNanos));
+        m_nLastID = nID;
+      }
+      else
+        if (m_aGaps.remove (Long.valueOf (nID)) == null)
+        {
+          // Already processed
+          continue;
+        }
+
+      _invalidate (aEntry.m_sCacheType, aEntry.m_sKey);
+      nProcessed++;
+    }
+
+    // Limit the number of remembered gaps
+    while (m_aGaps.size () > MAX_GAPS)
+      m_aGaps.pollFirstEntry ();
+
+    m_aPolled.addAndGet (nProcessed);
+    if (nProcessed > 0 && LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Processed " + nProcessed + " cache change log entries");
+    return nProcessed;
+  }
+
+  /**
+   * @return The number of remembered missing IDs. Only for testing.
+   */
+  @Nonnegative
+  synchronized int getGapCount ()
+  {
+    return m_aGaps.size ();
+  }
+
+  /**
+   * @return A map with the number of written and processed change log entries as well as the
+   *         number of invoked invalidations. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsMap <String, Long> getStatistics ()
+  {
+    final ICommonsMap <String, Long> ret = new CommonsHashMap <> ();
+    ret.put ("written", Long.valueOf (m_aWritten.get ()));
+    ret.put ("polled", Long.valueOf (m_aPolled.get ()));
+    ret.put ("invalidated", Long.valueOf (m_aInvalidated.get ()));
+    return ret;
+  }
+
+  @Override
+  protected void onDestroy (@NonNull final IScope aScopeInDestruction)
+  {
+    final ScheduledExecutorService aExecutor = m_aRWLock.writeLockedGet ( () -> {
+      final ScheduledExecutorService ret = m_aExecutor;
+      m_aExecutor = null;
+      return ret;
+    });
+    if (aExecutor != null)
+      aExecutor.shutdownNow ();
+  }
+}
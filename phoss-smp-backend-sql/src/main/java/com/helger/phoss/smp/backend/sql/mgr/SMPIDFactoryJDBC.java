@@ -21,10 +21,10 @@ import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonnegative;
 import com.helger.base.enforce.ValueEnforcer;
-import com.helger.base.id.factory.AbstractPersistingLongIDFactory;
-import com.helger.base.numeric.mutable.MutableLong;
 import com.helger.base.string.StringParser;
+import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
 import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.phoss.smp.backend.AbstractSMPAdaptiveLongIDFactory;
 import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
 
 /**
@@ -32,16 +32,19 @@ import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
  *
  * @author Philip Helger
  */
-public class SMPIDFactoryJDBC extends AbstractPersistingLongIDFactory
+public class SMPIDFactoryJDBC extends AbstractSMPAdaptiveLongIDFactory
 {
   /** The default number of values to reserve with a single IO action */
-  public static final int DEFAULT_RESERVE_COUNT = 20;
+  public static final int DEFAULT_RESERVE_COUNT = DEFAULT_MIN_RESERVE_COUNT;
 
   /** The ID of the key column in the "smp-settings" table */
   public static final String SETTINGS_KEY_LATEST_ID = "latest-id";
 
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPIDFactoryJDBC.class);
 
+  // How often a concurrent modification is retried
+  private static final int MAX_ATTEMPTS = 100;
+
   private final long m_nInitialCount;
 
   /**
@@ -53,7 +56,7 @@ public class SMPIDFactoryJDBC extends AbstractPersistingLongIDFactory
    */
   public SMPIDFactoryJDBC (@Nonnegative final long nInitialCount)
   {
-    super (DEFAULT_RESERVE_COUNT);
+    super (DEFAULT_MIN_RESERVE_COUNT, DEFAULT_MAX_RESERVE_COUNT);
     ValueEnforcer.isGE0 (nInitialCount, "InitialCount");
     m_nInitialCount = nInitialCount;
   }
@@ -61,37 +64,37 @@ public class SMPIDFactoryJDBC extends AbstractPersistingLongIDFactory
   @Override
   protected long readAndUpdateIDCounter (@Nonnegative final int nReserveCount)
   {
-    final MutableLong aReadValue = new MutableLong (0);
-
     final DBExecutor aExecutor = new SMPDBExecutor ();
-    aExecutor.performInTransaction ( () -> {
+    final String sTableName = SMPDBExecutor.TABLE_NAME_PREFIX + "smp_settings";
+    for (int nAttempt = 0; nAttempt < MAX_ATTEMPTS; ++nAttempt)
+    {
       // Read existing value
       final String sExistingValue = SMPSettingsManagerJDBC.getSettingsValueFromDB (aExecutor, SETTINGS_KEY_LATEST_ID);
       final long nRead = StringParser.parseLong (sExistingValue, m_nInitialCount);
-      aReadValue.set (nRead);
+      final String sNewValue = Long.toString (nRead + nReserveCount);
 
-      // Write new value
-      final long nNewValue = nRead + nReserveCount;
-      SMPSettingsManagerJDBC.setSettingsValueInDB (aExecutor, SETTINGS_KEY_LATEST_ID, Long.toString (nNewValue));
+      // Write new value as a single atomic statement, which only succeeds if no other node changed
+      // the value in the meantime
+      final long nChanged;
+      if (sExistingValue == null)
+        nChanged = aExecutor.insertOrUpdateOrDelete ("INSERT INTO " + sTableName + " (id, value) VALUES (?, ?)",
+                                                     new ConstantPreparedStatementDataProvider (SETTINGS_KEY_LATEST_ID,
+                                                                                                sNewValue));
+      else
+        nChanged = aExecutor.insertOrUpdateOrDelete ("UPDATE " + sTableName + " SET value=? WHERE id=? AND value=?",
+                                                     new ConstantPreparedStatementDataProvider (sNewValue,
+                                                                                                SETTINGS_KEY_LATEST_ID,
+                                                                                                sExistingValue));
+      if (nChanged == 1)
+      {
+        if (LOGGER.isDebugEnabled ())
+          LOGGER.debug ("Updated SQL ID from " + sExistingValue + " to " + sNewValue);
+        return nRead;
+      }
 
       if (LOGGER.isDebugEnabled ())
-        LOGGER.debug ("Updated SQL ID from " + sExistingValue + " to " + nNewValue);
-    });
-
-    return aReadValue.longValue ();
-  }
-
-  @Override
-  public boolean equals (final Object o)
-  {
-    // New member, no change
-    return super.equals (o);
-  }
-
-  @Override
-  public int hashCode ()
-  {
-    // New member, no change
-    return super.hashCode ();
+        LOGGER.debug ("SQL ID was concurrently modified - retrying");
+    }
+    throw new IllegalStateException ("Failed to reserve " + nReserveCount + " SQL IDs after " + MAX_ATTEMPTS + " attempts");
   }
 }
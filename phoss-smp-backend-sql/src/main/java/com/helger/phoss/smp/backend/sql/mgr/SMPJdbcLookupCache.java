@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.cache.impl.ManualCache;
+
+/**
+ * A size-bounded, time-limited read-through cache for JDBC lookups, based on {@link ManualCache}.
+ * The managers using it are responsible for invalidating the affected entries in all their modifying
+ * methods. To avoid that a value read concurrently to a modification is cached after the
+ * invalidation, each value must be put with the generation determined before reading it (see
+ * {@link #getCurrentGeneration()}). In addition to the underlying cache, hit, miss and invalidation
+ * counters are kept, so that the effectiveness can be monitored.
+ *
+ * @author Philip Helger
+ * @param <VALUETYPE>
+ *        The cached value type
+ * @since 8.2.1
+ */
+@ThreadSafe
+public final class SMPJdbcLookupCache <VALUETYPE>
+{
+  private final String m_sName;
+  private final Duration m_aTTL;
+  private final int m_nMaxSize;
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  @GuardedBy ("m_aRWLock")
+  private ManualCache <String, VALUETYPE> m_aCache;
+  // Incremented on every invalidation
+  @GuardedBy ("m_aRWLock")
+  private long m_nGeneration = 0;
+  private final AtomicLong m_aHits = new AtomicLong (0);
+  private final AtomicLong m_aMisses = new AtomicLong (0);
+  private final AtomicLong m_aInvalidations = new AtomicLong (0);
+
+  /**
+   * Constructor
+   *
+   * @param sName
+   *        The cache name. May neither be <code>null</code> nor empty.
+   * @param aTTL
+   *        The time to live of each entry. May not be <code>null</code>.
+   * @param nMaxSize
+   *        The maximum number of entries. Must be &gt; 0.
+   */
+  public SMPJdbcLookupCache (@NonNull @Nonempty final String sName,
+                             @NonNull final Duration aTTL,
+                             @Nonnegative final int nMaxSize)
+  {
+    ValueEnforcer.notEmpty (sName, "Name");
+    ValueEnforcer.notNull (aTTL, "TTL");
+    ValueEnforcer.isGT0 (nMaxSize, "MaxSize");
+    m_sName = sName;
+    m_aTTL = aTTL;
+    m_nMaxSize = nMaxSize;
+    m_aCache = _createCache ();
+  }
+
+  @NonNull
+  private ManualCache <String, VALUETYPE> _createCache ()
+  {
+    return ManualCache.<String, VALUETYPE> builder ()
+                      .name (m_sName)
+                      .maxSize (m_nMaxSize)
+                      .expireAfterWrite (m_aTTL)
+                      .evictionInterval (Duration.ofMinutes (1))
+                      .build ();
+  }
+
+  /**
+   * @return The name of the cache. Neither <code>null</code> nor empty.
+   */
+  @NonNull
+  @Nonempty
+  public String getName ()
+  {
+    return m_sName;
+  }
+
+  /**
+   * @return The time to live of each entry. Never <code>null</code>.
+   */
+  @NonNull
+  public Duration getTTL ()
+  {
+    return m_aTTL;
+  }
+
+  /**
+   * @return The maximum number of entries. Always &gt; 0.
+   */
+  @Nonnegative
+  public int getMaxSize ()
+  {
+    return m_nMaxSize;
+  }
+
+  /**
+   * Get a cached value.
+   *
+   * @param sKey
+   *        The key to look up. May not be <code>null</code>.
+   * @return <code>null</code> if no such value is cached.
+   */
+  @Nullable
+  public VALUETYPE getFromCache (@NonNull final String sKey)
+  {
+    final VALUETYPE ret = m_aRWLock.readLockedGet ( () -> m_aCache.getFromCache (sKey));
+    if (ret != null)
+      m_aHits.incrementAndGet ();
+    else
+      m_aMisses.incrementAndGet ();
+    return ret;
+  }
+
+  /**
+   * @return The current generation, which must be passed to
+   *         {@link #putInCache(long, String, Object)}. It must be determined before the value is
+   *         read.
+   */
+  public long getCurrentGeneration ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nGeneration);
+  }
+
+  /**
+   * Put a value into the cache, independent of any invalidation.
+   *
+   * @param sKey
+   *        The key to use. May not be <code>null</code>.
+   * @param aValue
+   *        The value to cache. May not be <code>null</code>.
+   */
+  public void putInCache (@NonNull final String sKey, @NonNull final VALUETYPE aValue)
+  {
+    m_aRWLock.writeLocked ( () -> m_aCache.putInCache (sKey, aValue));
+  }
+
+  /**
+   * Put a value into the cache, if the cache was not invalidated since the provided generation was
+   * determined. Otherwise the value might be stale and is not cached.
+   *
+   * @param nGeneration
+   *        The generation as determined by {@link #getCurrentGeneration()} before the value was
+   *        read.
+   * @param sKey
+   *        The key to use. May not be <code>null</code>.
+   * @param aValue
+   *        The value to cache. May not be <code>null</code>.
+   * @return <code>true</code> if the value was cached, <code>false</code> if not.
+   */
+  public boolean putInCache (final long nGeneration, @NonNull final String sKey, @NonNull final VALUETYPE aValue)
+  {
+    return m_aRWLock.writeLockedBoolean ( () -> {
+      if (nGeneration != m_nGeneration)
+      {
+        // Modified in the meantime
+        return false;
+      }
+      m_aCache.putInCache (sKey, aValue);
+      return true;
+    });
+  }
+
+  /**
+   * Remove a single entry from the cache.
+   *
+   * @param sKey
+   *        The key to remove. May not be <code>null</code>.
+   */
+  public void invalidate (@NonNull final String sKey)
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_aCache.removeFromCache (sKey);
+      m_nGeneration++;
+    });
+    m_aInvalidations.incrementAndGet ();
+  }
+
+  /**
+   * Remove all entries from the cache. This is used for bulk modifications, where the affected keys
+   * are unknown.
+   */
+  public void invalidateAll ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_aCache = _createCache ();
+      m_nGeneration++;
+    });
+    m_aInvalidations.incrementAndGet ();
+  }
+
+  /**
+   * @return The number of lookups that were answered from the cache. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getHitCount ()
+  {
+    return m_aHits.get ();
+  }
+
+  /**
+   * @return The number of lookups that were not answered from the cache. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getMissCount ()
+  {
+    return m_aMisses.get ();
+  }
+
+  /**
+   * @return The number of explicit invalidations. Always &ge; 0.
+   */
+  @Nonnegative
+  public long getInvalidationCount ()
+  {
+    return m_aInvalidations.get ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("Name", m_sName)
+                                       .append ("TTL", m_aTTL)
+                                       .append ("MaxSize", m_nMaxSize)
+                                       .append ("Hits", m_aHits.get ())
+                                       .append ("Misses", m_aMisses.get ())
+                                       .append ("Invalidations", m_aInvalidations.get ())
+                                       .getToString ();
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import java.util.Collections;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.db.api.EDatabaseSystemType;
+import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
+import com.helger.db.jdbc.executor.DBExecutor;
+
+/**
+ * Collects rows for a single table and inserts them with as few statements as possible, using
+ * multi-row <code>INSERT</code> statements (<code>INSERT ALL</code> for Oracle). This avoids one
+ * database round trip per row, which is the dominating cost for remote databases. The statements
+ * are split so that the limits of all supported databases are met (SQL Server allows at most 2100
+ * parameters and 1000 rows per statement).
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@NotThreadSafe
+final class SMPJdbcMultiRowInsert
+{
+  static final int MAX_PARAMS_PER_STATEMENT = 2000;
+  static final int MAX_ROWS_PER_STATEMENT = 500;
+
+  private final EDatabaseSystemType m_eDBType;
+  private final String m_sTableName;
+  private final String m_sColumnNames;
+  private final int m_nColumnCount;
+  private final String m_sRowPlaceholder;
+  private final ICommonsList <Object> m_aValues = new CommonsArrayList <> ();
+  private int m_nRowCount = 0;
+
+  /**
+   * Constructor
+   *
+   * @param eDBType
+   *        The database type to create the statements for. May not be <code>null</code>.
+   * @param sTableName
+   *        The fully qualified table name. May neither be <code>null</code> nor empty.
+   * @param aColumnNames
+   *        The column names in the order the values are provided. May neither be
+   *        <code>null</code> nor empty.
+   */
+  SMPJdbcMultiRowInsert (@NonNull final EDatabaseSystemType eDBType,
+                         @NonNull @Nonempty final String sTableName,
+                         @NonNull @Nonempty final String... aColumnNames)
+  {
+    ValueEnforcer.notNull (eDBType, "DBType");
+    ValueEnforcer.notEmpty (sTableName, "TableName");
+    ValueEnforcer.notEmptyNoNullValue (aColumnNames, "ColumnNames");
+    m_eDBType = eDBType;
+    m_sTableName = sTableName;
+    m_sColumnNames = String.join (", ", aColumnNames);
+    m_nColumnCount = aColumnNames.length;
+    m_sRowPlaceholder = "(" + String.join (", ", Collections.nCopies (m_nColumnCount, "?")) + ")";
+  }
+
+  /**
+   * Add a single row.
+   *
+   * @param aValues
+   *        The values of the row in the order of the column names. The number of values must match
+   *        the number of columns. Contained values may be <code>null</code>.
+   */
+  void addRow (@Nullable final Object... aValues)
+  {
+    ValueEnforcer.notNull (aValues, "Values");
+    ValueEnforcer.isTrue (aValues.length == m_nColumnCount,
+                          () -> "Expected " + m_nColumnCount + " values but got " + aValues.length);
+    m_aValues.addAll (aValues);
+    m_nRowCount++;
+  }
+
+  /**
+   * @return The number of rows that are currently collected. Always &ge; 0.
+   */
+  @Nonnegative
+  int getRowCount ()
+  {
+    return m_nRowCount;
+  }
+
+  /**
+   * Get the SQL statement for inserting the provided number of rows.
+   *
+   * @param nRows
+   *        The number of rows. Must be &gt; 0.
+   * @return The SQL statement with all placeholders. Never <code>null</code>.
+   */
+  @NonNull
+  String getInsertSQL (@Nonnegative final int nRows)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    if (m_eDBType == EDatabaseSystemType.ORACLE)
+    {
+      // Oracle (before 23) does not support multiple rows in VALUES
+      aSB.append ("INSERT ALL");
+      for (int i = 0; i < nRows; ++i)
+        aSB.append (" INTO ")
+           .append (m_sTableName)
+           .append (" (")
+           .append (m_sColumnNames)
+           .append (") VALUES ")
+           .append (m_sRowPlaceholder);
+      aSB.append (" SELECT 1 FROM DUAL");
+    }
+    else
+    {
+      aSB.append ("INSERT INTO ").append (m_sTableName).append (" (").append (m_sColumnNames).append (") VALUES ");
+      for (int i = 0; i < nRows; ++i)
+      {
+        if (i > 0)
+          aSB.append (", ");
+        aSB.append (m_sRowPlaceholder);
+      }
+    }
+    return aSB.toString ();
+  }
+
+  /**
+   * Insert all collected rows and clear the collected rows afterwards. Must be called from within
+   * a transaction, if atomicity is required.
+   *
+   * @param aExecutor
+   *        The executor to use. May not be <code>null</code>.
+   * @throws IllegalStateException
+   *         If the number of inserted rows does not match the number of collected rows
+   */
+  void execute (@NonNull final DBExecutor aExecutor)
+  {
+    ValueEnforcer.notNull (aExecutor, "Executor");
+
+    final int nMaxRows = Math.max (1, Math.min (MAX_ROWS_PER_STATEMENT, MAX_PARAMS_PER_STATEMENT / m_nColumnCount));
+    int nRowIndex = 0;
+    while (nRowIndex < m_nRowCount)
+    {
+      final int nRows = Math.min (nMaxRows, m_nRowCount - nRowIndex);
+      final Object [] aParams = m_aValues.subList (nRowIndex * m_nColumnCount, (nRowIndex + nRows) * m_nColumnCount)
+                                         .toArray ();
+      final long nInserted = aExecutor.insertOrUpdateOrDelete (getInsertSQL (nRows),
+                                                               new ConstantPreparedStatementDataProvider (aParams));
+      if (nInserted != nRows)
+        throw new IllegalStateException ("Failed to insert " +
+                                         nRows +
+                                         " rows into " +
+                                         m_sTableName +
+                                         " (" +
+                                         nInserted +
+                                         ")");
+      nRowIndex += nRows;
+    }
+    m_aValues.clear ();
+    m_nRowCount = 0;
+  }
+}
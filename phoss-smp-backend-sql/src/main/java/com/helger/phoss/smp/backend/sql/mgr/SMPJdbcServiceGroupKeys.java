@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.db.jdbc.executor.DBResultRow;
+import com.helger.peppolid.CIdentifier;
+
+/**
+ * Helper to select the rows of a limited number of service groups by key. The service group ID is
+ * the URI encoded participant ID ("scheme::value"), whereas the tables store scheme and value in
+ * separate columns. All ordering of service group IDs is done in Java, so that it is consistent
+ * with {@link String#compareTo(String)} independent of the database collation.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@Immutable
+final class SMPJdbcServiceGroupKeys
+{
+  /**
+   * The maximum number of service groups to select in a single statement. Keeps the number of
+   * statement parameters well below the database limits.
+   */
+  static final int MAX_SERVICE_GROUPS_PER_QUERY = 100;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPJdbcServiceGroupKeys.class);
+
+  private final String m_sCondition;
+  private final Object [] m_aParams;
+
+  private SMPJdbcServiceGroupKeys (@NonNull final String sCondition, @NonNull final Object [] aParams)
+  {
+    m_sCondition = sCondition;
+    m_aParams = aParams;
+  }
+
+  /**
+   * @return The SQL condition matching all service groups, already wrapped in parenthesis. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  @Nonempty
+  String getCondition ()
+  {
+    return m_sCondition;
+  }
+
+  /**
+   * @return The parameters for the placeholders of the condition. Never <code>null</code>.
+   */
+  @NonNull
+  Object [] getParams ()
+  {
+    return m_aParams;
+  }
+
+  /**
+   * Create the SQL condition for the provided service group IDs.
+   *
+   * @param sTableAlias
+   *        The alias of the table containing the "businessIdentifierScheme" and
+   *        "businessIdentifier" columns. May neither be <code>null</code> nor empty.
+   * @param aServiceGroupIDs
+   *        The service group IDs to match. Should contain at most
+   *        {@link #MAX_SERVICE_GROUPS_PER_QUERY} elements. May not be <code>null</code>.
+   * @return <code>null</code> if none of the service group IDs is valid.
+   */
+  @Nullable
+  static SMPJdbcServiceGroupKeys create (@NonNull @Nonempty final String sTableAlias,
+                                         @NonNull final Collection <String> aServiceGroupIDs)
+  {
+    ValueEnforcer.notEmpty (sTableAlias, "TableAlias");
+    ValueEnforcer.notNull (aServiceGroupIDs, "ServiceGroupIDs");
+
+    final StringBuilder aCondition = new StringBuilder ();
+    final ICommonsList <Object> aParams = new CommonsArrayList <> (aServiceGroupIDs.size () * 2);
+    for (final String sServiceGroupID : aServiceGroupIDs)
+    {
+      // The service group ID is "scheme::value" and the scheme cannot contain the separator
+      final int nSepIndex = sServiceGroupID.indexOf (CIdentifier.URL_SCHEME_VALUE_SEPARATOR);
+      if (nSepIndex < 0)
+      {
+        LOGGER.warn ("Ignoring invalid service group ID '" + sServiceGroupID + "'");
+        continue;
+      }
+      aCondition.append (aCondition.length () == 0 ? "(" : " OR ")
+                .append ('(')
+                .append (sTableAlias)
+                .append (".businessIdentifierScheme=? AND ")
+                .append (sTableAlias)
+                .append (".businessIdentifier=?)");
+      aParams.add (sServiceGroupID.substring (0, nSepIndex));
+      aParams.add (sServiceGroupID.substring (nSepIndex + CIdentifier.URL_SCHEME_VALUE_SEPARATOR.length ()));
+    }
+    if (aParams.isEmpty ())
+      return null;
+    aCondition.append (')');
+    return new SMPJdbcServiceGroupKeys (aCondition.toString (), aParams.toArray ());
+  }
+
+  /**
+   * Invoke the consumer for chunks of at most {@link #MAX_SERVICE_GROUPS_PER_QUERY} service group
+   * IDs.
+   *
+   * @param aServiceGroupIDs
+   *        The service group IDs to split. May not be <code>null</code>.
+   * @param aChunkConsumer
+   *        The consumer for each chunk. May not be <code>null</code>.
+   */
+  static void forEachChunk (@NonNull final Collection <String> aServiceGroupIDs,
+                            @NonNull final Consumer <? super ICommonsList <String>> aChunkConsumer)
+  {
+    final ICommonsList <String> aChunk = new CommonsArrayList <> (MAX_SERVICE_GROUPS_PER_QUERY);
+    for (final String sServiceGroupID : aServiceGroupIDs)
+    {
+      aChunk.add (sServiceGroupID);
+      if (aChunk.size () >= MAX_SERVICE_GROUPS_PER_QUERY)
+      {
+        aChunkConsumer.accept (aChunk.getClone ());
+        aChunk.clear ();
+      }
+    }
+    if (aChunk.isNotEmpty ())
+      aChunkConsumer.accept (aChunk);
+  }
+
+  /**
+   * Get the distinct service group IDs contained in the provided table, sorted in Java.
+   *
+   * @param aExecutor
+   *        The executor to use. May not be <code>null</code>.
+   * @param sTableName
+   *        The table name with the "businessIdentifierScheme" and "businessIdentifier" columns. May
+   *        neither be <code>null</code> nor empty.
+   * @return The sorted list of service group IDs. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  static ICommonsList <String> getAllSortedServiceGroupIDs (@NonNull final DBExecutor aExecutor,
+                                                            @NonNull @Nonempty final String sTableName)
+  {
+    final ICommonsList <DBResultRow> aDBResult = aExecutor.queryAll ("SELECT DISTINCT businessIdentifierScheme, businessIdentifier FROM " +
+                                                                     sTableName);
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    if (aDBResult != null)
+      for (final DBResultRow aRow : aDBResult)
+        ret.add (CIdentifier.getURIEncoded (aRow.getAsString (0), aRow.getAsString (1)));
+    return ret.getSortedInline (Comparator.naturalOrder ());
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.db.api.EDatabaseSystemType;
+
+/**
+ * Executes read-only queries with a forward-only cursor and a JDBC fetch size, so that the rows
+ * are passed to the handler while they are read, instead of materializing the complete result
+ * first. This is meant for queries that may return millions of rows.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@Immutable
+final class SMPJdbcStreamingQuery
+{
+  /** The default number of rows the driver should fetch at once */
+  static final int DEFAULT_FETCH_SIZE = 1_000;
+
+  /**
+   * Callback for a single result set row.
+   */
+  @FunctionalInterface
+  interface IRowHandler
+  {
+    /**
+     * Handle the current row of the result set. The result set may not be moved.
+     *
+     * @param aRS
+     *        The result set positioned on the current row. Never <code>null</code>.
+     * @throws SQLException
+     *         In case reading a column fails
+     */
+    void handleRow (@NonNull ResultSet aRS) throws SQLException;
+  }
+
+  private SMPJdbcStreamingQuery ()
+  {}
+
+  /**
+   * Execute the provided query and invoke the handler for each row.
+   *
+   * @param aDataSource
+   *        The data source to get a connection from. May not be <code>null</code>.
+   * @param eDBType
+   *        The database type, as the streaming behaviour is driver specific. May not be
+   *        <code>null</code>.
+   * @param sSQL
+   *        The SQL query without parameters. May neither be <code>null</code> nor empty.
+   * @param nFetchSize
+   *        The number of rows the driver should fetch at once. Must be &gt; 0.
+   * @param aRowHandler
+   *        The handler to invoke for each row. May not be <code>null</code>.
+   * @throws SQLException
+   *         In case of a database error
+   */
+  static void forEachRow (@NonNull final DataSource aDataSource,
+                          @NonNull final EDatabaseSystemType eDBType,
+                          @NonNull @Nonempty final String sSQL,
+                          @Nonnegative final int nFetchSize,
+                          @NonNull final IRowHandler aRowHandler) throws SQLException
+  {
+    forEachRow (aDataSource, eDBType, sSQL, new Object [0], nFetchSize, aRowHandler);
+  }
+
+  /**
+   * Execute the provided query with parameters and invoke the handler for each row.
+   *
+   * @param aDataSource
+   *        The data source to get a connection from. May not be <code>null</code>.
+   * @param eDBType
+   *        The database type, as the streaming behaviour is driver specific. May not be
+   *        <code>null</code>.
+   * @param sSQL
+   *        The SQL query. May neither be <code>null</code> nor empty.
+   * @param aParams
+   *        The values for the placeholders of the query in order. May not be <code>null</code>.
+   * @param nFetchSize
+   *        The number of rows the driver should fetch at once. Must be &gt; 0.
+   * @param aRowHandler
+   *        The handler to invoke for each row. May not be <code>null</code>.
+   * @throws SQLException
+   *         In case of a database error
+   */
+  static void forEachRow (@NonNull final DataSource aDataSource,
+                          @NonNull final EDatabaseSystemType eDBType,
+                          @NonNull @Nonempty final String sSQL,
+                          @NonNull final Object [] aParams,
+                          @Nonnegative final int nFetchSize,
+                          @NonNull final IRowHandler aRowHandler) throws SQLException
+  {
+    ValueEnforcer.notNull (aDataSource, "DataSource");
+    ValueEnforcer.notNull (eDBType, "DBType");
+    ValueEnforcer.notEmpty (sSQL, "SQL");
+    ValueEnforcer.notNull (aParams, "Params");
+    ValueEnforcer.isGT0 (nFetchSize, "FetchSize");
+    ValueEnforcer.notNull (aRowHandler, "RowHandler");
+
+    try (final Connection aConnection = aDataSource.getConnection ())
+    {
+      // PostgreSQL only uses a server side cursor outside of auto commit mode
+      final boolean bDisableAutoCommit = eDBType == EDatabaseSystemType.POSTGRESQL && aConnection.getAutoCommit ();
+      if (bDisableAutoCommit)
+        aConnection.setAutoCommit (false);
+      try (final PreparedStatement aPS = aConnection.prepareStatement (sSQL,
+                                                                      ResultSet.TYPE_FORWARD_ONLY,
+                                                                      ResultSet.CONCUR_READ_ONLY))
+      {
+        // MySQL only streams row by row with this special value
+        aPS.setFetchSize (eDBType == EDatabaseSystemType.MYSQL ? Integer.MIN_VALUE : nFetchSize);
+        for (int i = 0; i < aParams.length; ++i)
+          aPS.setObject (i + 1, aParams[i]);
+        try (final ResultSet aRS = aPS.executeQuery ())
+        {
+          while (aRS.next ())
+            aRowHandler.handleRow (aRS);
+        }
+      }
+      finally
+      {
+        if (bDisableAutoCommit)
+        {
+          // Nothing was modified
+          aConnection.rollback ();
+          aConnection.setAutoCommit (true);
+        }
+      }
+    }
+  }
+}
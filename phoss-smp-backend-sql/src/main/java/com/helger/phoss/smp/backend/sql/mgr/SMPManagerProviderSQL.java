@@ -27,6 +27,7 @@ import com.helger.db.api.EDatabaseSystemType;
 import com.helger.db.api.config.IJdbcConfiguration;
 import com.helger.db.flyway.FlywayConfiguration;
 import com.helger.db.jdbc.executor.DBExecutor;
+import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
 import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
@@ -38,10 +39,13 @@ import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.sml.ISMLInfoManager;
 import com.helger.phoss.smp.domain.transportprofile.ISMPTransportProfileManager;
+import com.helger.phoss.smp.restapi.SMPServiceMetadataResponseCache;
 import com.helger.phoss.smp.settings.ISMPSettingsManager;
 import com.helger.photon.jdbc.PhotonBasicManagerFactoryJDBC;
 import com.helger.photon.jdbc.PhotonSecurityManagerFactoryJDBC;
@@ -57,6 +61,9 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPManagerProviderSQL.class);
 
   private final EDatabaseSystemType m_eDBType;
+  private SMPServiceGroupManagerJDBC m_aServiceGroupMgr;
+  private SMPRedirectManagerJDBC m_aRedirectMgr;
+  private SMPServiceInformationManagerJDBC m_aServiceInformationMgr;
 
   public SMPManagerProviderSQL ()
   {
@@ -113,7 +120,12 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
   @NonNull
   public ISMPSettingsManager createSettingsMgr ()
   {
-    return new SMPSettingsManagerJDBC (SMPDBExecutor::new, SMPDBExecutor.TABLE_NAME_PREFIX);
+    final SMPSettingsManagerJDBC ret = new SMPSettingsManagerJDBC (SMPDBExecutor::new,
+                                                                   SMPDBExecutor.TABLE_NAME_PREFIX);
+    final SMPJdbcConfiguration aJdbcConfig = (SMPJdbcConfiguration) SMPDataSourceSingleton.getJdbcConfiguration ();
+    if (aJdbcConfig.isJdbcSettingsCacheEnabled ())
+      ret.setCacheRevalidationInterval (aJdbcConfig.getJdbcSettingsCacheRevalidationInterval ());
+    return ret;
   }
 
   @NonNull
@@ -129,19 +141,36 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
                                                                            SMPDBExecutor.TABLE_NAME_PREFIX);
     // Enable cache by default
     ret.setCacheEnabled (((SMPJdbcConfiguration) SMPDataSourceSingleton.getJdbcConfiguration ()).isJdbcServiceGroupCacheEnabled ());
+    m_aServiceGroupMgr = ret;
     return ret;
   }
 
   @NonNull
   public ISMPRedirectManager createRedirectMgr (@NonNull final IIdentifierFactory aIdentifierFactory)
   {
-    return new SMPRedirectManagerJDBC (SMPDBExecutor::new, SMPDBExecutor.TABLE_NAME_PREFIX);
+    final SMPRedirectManagerJDBC ret = new SMPRedirectManagerJDBC (SMPDBExecutor::new,
+                                                                   SMPDBExecutor.TABLE_NAME_PREFIX);
+    final SMPJdbcConfiguration aJdbcConfig = (SMPJdbcConfiguration) SMPDataSourceSingleton.getJdbcConfiguration ();
+    if (aJdbcConfig.isJdbcRedirectCacheEnabled ())
+      ret.setCache (new SMPJdbcLookupCache <> ("phoss.smp.redirect",
+                                              aJdbcConfig.getJdbcRedirectCacheTTL (),
+                                              aJdbcConfig.getJdbcRedirectCacheMaxSize ()));
+    m_aRedirectMgr = ret;
+    return ret;
   }
 
   @NonNull
   public ISMPServiceInformationManager createServiceInformationMgr (@NonNull final IIdentifierFactory aIdentifierFactory)
   {
-    return new SMPServiceInformationManagerJDBC (SMPDBExecutor::new, SMPDBExecutor.TABLE_NAME_PREFIX);
+    final SMPServiceInformationManagerJDBC ret = new SMPServiceInformationManagerJDBC (SMPDBExecutor::new,
+                                                                                       SMPDBExecutor.TABLE_NAME_PREFIX);
+    final SMPJdbcConfiguration aJdbcConfig = (SMPJdbcConfiguration) SMPDataSourceSingleton.getJdbcConfiguration ();
+    if (aJdbcConfig.isJdbcServiceInformationCacheEnabled ())
+      ret.setCache (new SMPJdbcLookupCache <> ("phoss.smp.serviceinformation",
+                                              aJdbcConfig.getJdbcServiceInformationCacheTTL (),
+                                              aJdbcConfig.getJdbcServiceInformationCacheMaxSize ()));
+    m_aServiceInformationMgr = ret;
+    return ret;
   }
 
   @NonNull
@@ -157,6 +186,79 @@ public final class SMPManagerProviderSQL implements ISMPManagerProvider
     return new SMPBusinessCardManagerJDBC (SMPDBExecutor::new, SMPDBExecutor.TABLE_NAME_PREFIX);
   }
 
+  @Override
+  public void afterInitManagers ()
+  {
+    if (m_aServiceGroupMgr != null && m_aRedirectMgr != null && m_aServiceInformationMgr != null)
+    {
+      final SMPRedirectManagerJDBC aRedirectMgr = m_aRedirectMgr;
+      final SMPServiceInformationManagerJDBC aServiceInformationMgr = m_aServiceInformationMgr;
+
+      // Deleting a service group deletes all redirects and service information via the DB cascade
+      m_aServiceGroupMgr.serviceGroupCallbacks ().add (new ISMPServiceGroupCallback ()
+      {
+        public void onSMPServiceGroupCreated (@NonNull final ISMPServiceGroup aServiceGroup,
+                                              final boolean bCreateInSML)
+        {}
+
+        public void onSMPServiceGroupUpdated (@NonNull final IParticipantIdentifier aParticipantID)
+        {}
+
+        public void onSMPServiceGroupDeleted (@NonNull final IParticipantIdentifier aParticipantID,
+                                              final boolean bDeleteInSML)
+        {
+          aRedirectMgr.invalidateCacheOfServiceGroup (aParticipantID);
+          aServiceInformationMgr.invalidateCacheOfServiceGroup (aParticipantID);
+        }
+      });
+
+      final SMPJdbcConfiguration aJdbcConfig = (SMPJdbcConfiguration) SMPDataSourceSingleton.getJdbcConfiguration ();
+      if (aJdbcConfig.isJdbcCacheChangeLogEnabled ())
+      {
+        // Apply the modifications of other nodes to the local caches
+        final SMPServiceGroupManagerJDBC aServiceGroupMgr = m_aServiceGroupMgr;
+        final SMPCacheChangeLogJDBC aChangeLog = SMPCacheChangeLogJDBC.getInstance ();
+        aChangeLog.registerInvalidator (SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_GROUP, sKey -> {
+          if (SMPCacheChangeLogJDBC.KEY_ALL.equals (sKey))
+            aServiceGroupMgr.invalidateCache ();
+          else
+            aServiceGroupMgr.invalidateCacheOfServiceGroup (sKey);
+          _invalidateResponseCache (sKey);
+        });
+        aChangeLog.registerInvalidator (SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_INFORMATION, sKey -> {
+          _invalidate (aServiceInformationMgr.getCache (), sKey);
+          _invalidateResponseCache (sKey);
+        });
+        aChangeLog.registerInvalidator (SMPCacheChangeLogJDBC.CACHE_TYPE_REDIRECT, sKey -> {
+          _invalidate (aRedirectMgr.getCache (), sKey);
+          _invalidateResponseCache (sKey);
+        });
+        aChangeLog.start (aJdbcConfig.getJdbcCacheChangeLogPollInterval (),
+                          aJdbcConfig.getJdbcCacheChangeLogRetention ());
+      }
+    }
+  }
+
+  private static void _invalidate (@Nullable final SMPJdbcLookupCache <?> aCache, @NonNull final String sKey)
+  {
+    if (aCache != null)
+    {
+      if (SMPCacheChangeLogJDBC.KEY_ALL.equals (sKey))
+        aCache.invalidateAll ();
+      else
+        aCache.invalidate (sKey);
+    }
+  }
+
+  private static void _invalidateResponseCache (@NonNull final String sKey)
+  {
+    // All change log keys are URI encoded participant identifiers
+    if (SMPCacheChangeLogJDBC.KEY_ALL.equals (sKey))
+      SMPServiceMetadataResponseCache.clearIfInstantiated ();
+    else
+      SMPServiceMetadataResponseCache.invalidateParticipantIfInstantiated (sKey);
+  }
+
   @Override
   public String toString ()
   {
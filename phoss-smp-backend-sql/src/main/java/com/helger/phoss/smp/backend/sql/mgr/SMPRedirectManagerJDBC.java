@@ -18,6 +18,7 @@ package com.helger.phoss.smp.backend.sql.mgr;
 
 import java.security.cert.X509Certificate;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -48,6 +49,7 @@ import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.redirect.SMPRedirect;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupPageIterator;
 import com.helger.photon.audit.AuditHelper;
 import com.helger.security.certificate.CertificateDecodeHelper;
 import com.helger.security.certificate.CertificateHelper;
@@ -64,6 +66,7 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
 
   private final String m_sTableName;
   private final CallbackList <ISMPRedirectCallback> m_aCallbacks = new CallbackList <> ();
+  private SMPJdbcLookupCache <ICommonsList <ISMPRedirect>> m_aCache;
 
   /**
    * Constructor
@@ -81,6 +84,56 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
     m_sTableName = sTableNamePrefix + "smp_service_metadata_red";
   }
 
+  public boolean isCacheEnabled ()
+  {
+    return m_aCache != null;
+  }
+
+  /**
+   * @return The redirects per service group cache or <code>null</code> if the cache is disabled.
+   * @since 8.2.1
+   */
+  @Nullable
+  public SMPJdbcLookupCache <ICommonsList <ISMPRedirect>> getCache ()
+  {
+    return m_aCache;
+  }
+
+  /**
+   * Set the cache for all redirects of a service group. This cache is also used to resolve single
+   * redirects by service group and document type.
+   *
+   * @param aCache
+   *        The cache to use. May be <code>null</code> to disable caching.
+   * @since 8.2.1
+   */
+  public void setCache (@Nullable final SMPJdbcLookupCache <ICommonsList <ISMPRedirect>> aCache)
+  {
+    m_aCache = aCache;
+  }
+
+  /**
+   * Remove all cached redirects of the provided service group. This is needed, if the redirects were
+   * modified outside of this manager (e.g. by deleting the service group).
+   *
+   * @param aParticipantID
+   *        The service group ID to invalidate. May not be <code>null</code>.
+   * @since 8.2.1
+   */
+  public void invalidateCacheOfServiceGroup (@NonNull final IParticipantIdentifier aParticipantID)
+  {
+    if (m_aCache != null)
+      m_aCache.invalidate (aParticipantID.getURIEncoded ());
+  }
+
+  private static void _addCacheChange (@NonNull final DBExecutor aExecutor,
+                                       @NonNull final IParticipantIdentifier aParticipantID)
+  {
+    SMPCacheChangeLogJDBC.addChangeIfStarted (aExecutor,
+                                              SMPCacheChangeLogJDBC.CACHE_TYPE_REDIRECT,
+                                              aParticipantID.getURIEncoded ());
+  }
+
   @NonNull
   @ReturnsMutableObject
   public CallbackList <ISMPRedirectCallback> redirectCallbacks ()
@@ -147,8 +200,12 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
           throw new IllegalStateException ("Failed to update existing DB entry (" + nUpdated + ")");
         aCreatedNew.set (false);
       }
+      _addCacheChange (aExecutor, aParticipantIdentifier);
     });
 
+    // Invalidate in any case, as it is unknown what was rolled back
+    invalidateCacheOfServiceGroup (aParticipantIdentifier);
+
     if (eSuccess.isFailure ())
     {
       return null;
@@ -199,13 +256,17 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
 
     final IParticipantIdentifier aParticipantID = aSMPRedirect.getServiceGroupParticipantIdentifier ();
     final IDocumentTypeIdentifier aDocTypeID = aSMPRedirect.getDocumentTypeIdentifier ();
-    final long nDeleted = newExecutor ().insertOrUpdateOrDelete ("DELETE FROM " +
-                                                                 m_sTableName +
-                                                                 " WHERE businessIdentifierScheme=? AND businessIdentifier=? AND documentIdentifierScheme=? and documentIdentifier=?",
-                                                                 new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
-                                                                                                            aParticipantID.getValue (),
-                                                                                                            aDocTypeID.getScheme (),
-                                                                                                            aDocTypeID.getValue ()));
+    final DBExecutor aExecutor = newExecutor ();
+    final long nDeleted = aExecutor.insertOrUpdateOrDelete ("DELETE FROM " +
+                                                            m_sTableName +
+                                                            " WHERE businessIdentifierScheme=? AND businessIdentifier=? AND documentIdentifierScheme=? and documentIdentifier=?",
+                                                            new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
+                                                                                                       aParticipantID.getValue (),
+                                                                                                       aDocTypeID.getScheme (),
+                                                                                                       aDocTypeID.getValue ()));
+    if (nDeleted > 0)
+      _addCacheChange (aExecutor, aParticipantID);
+    invalidateCacheOfServiceGroup (aParticipantID);
     if (nDeleted == 0)
     {
       AuditHelper.onAuditDeleteFailure (SMPRedirect.OT, aSMPRedirect.getID (), "no-such-id");
@@ -226,15 +287,19 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
     if (aParticipantID == null)
       return EChange.UNCHANGED;
 
-    // Remember all existing
-    final ICommonsList <ISMPRedirect> aDeletedRedirects = getAllSMPRedirectsOfServiceGroup (aParticipantID);
+    // Remember all existing - bypass the cache, as the result is compared with the DB result
+    final ICommonsList <ISMPRedirect> aDeletedRedirects = _getAllSMPRedirectsOfServiceGroup (aParticipantID);
 
     // Now delete
-    final long nDeleted = newExecutor ().insertOrUpdateOrDelete ("DELETE FROM " +
-                                                                 m_sTableName +
-                                                                 " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
-                                                                 new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
-                                                                                                            aParticipantID.getValue ()));
+    final DBExecutor aExecutor = newExecutor ();
+    final long nDeleted = aExecutor.insertOrUpdateOrDelete ("DELETE FROM " +
+                                                            m_sTableName +
+                                                            " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
+                                                            new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
+                                                                                                       aParticipantID.getValue ()));
+    if (nDeleted > 0)
+      _addCacheChange (aExecutor, aParticipantID);
+    invalidateCacheOfServiceGroup (aParticipantID);
     if (nDeleted == 0)
     {
       return EChange.UNCHANGED;
@@ -268,9 +333,22 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
   @ReturnsMutableCopy
   public ICommonsList <ISMPRedirect> getAllSMPRedirects ()
   {
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, redirectionUrl, certificateUID, certificate, extension" +
-                                                                          " FROM " +
-                                                                          m_sTableName);
+    return _getAllSMPRedirects (null);
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  private ICommonsList <ISMPRedirect> _getAllSMPRedirects (@Nullable final SMPJdbcServiceGroupKeys aKeys)
+  {
+    final String sSQL = "SELECT r.businessIdentifierScheme, r.businessIdentifier, r.documentIdentifierScheme, r.documentIdentifier, r.redirectionUrl, r.certificateUID, r.certificate, r.extension" +
+                        " FROM " +
+                        m_sTableName +
+                        " r";
+    final ICommonsList <DBResultRow> aDBResult = aKeys == null ? newExecutor ().queryAll (sSQL)
+                                                               : newExecutor ().queryAll (sSQL +
+                                                                                          " WHERE " +
+                                                                                          aKeys.getCondition (),
+                                                                                          new ConstantPreparedStatementDataProvider (aKeys.getParams ()));
     final ICommonsList <ISMPRedirect> ret = new CommonsArrayList <> ();
     if (aDBResult != null)
       for (final DBResultRow aRow : aDBResult)
@@ -290,36 +368,104 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
     return ret;
   }
 
+  @NonNull
+  public Stream <ISMPRedirect> streamAllSMPRedirectsOrderedByServiceGroup ()
+  {
+    // The service group IDs are sorted in Java, independent of the database collation. Only the
+    // redirects of a limited number of service groups are kept in memory.
+    final ICommonsList <String> aServiceGroupIDs = SMPJdbcServiceGroupKeys.getAllSortedServiceGroupIDs (newExecutor (),
+                                                                                                        m_sTableName);
+    return new SMPServiceGroupPageIterator <> (aServiceGroupIDs,
+                                               SMPJdbcServiceGroupKeys.MAX_SERVICE_GROUPS_PER_QUERY,
+                                               this::_getAllSMPRedirectsOfServiceGroupIDs,
+                                               ISMPRedirect.comparator ()).stream ();
+  }
+
   @NonNull
   @ReturnsMutableCopy
-  public ICommonsList <ISMPRedirect> getAllSMPRedirectsOfServiceGroup (@Nullable final IParticipantIdentifier aParticipantID)
+  private ICommonsList <ISMPRedirect> _getAllSMPRedirectsOfServiceGroupIDs (@NonNull final ICommonsList <String> aServiceGroupIDs)
+  {
+    final SMPJdbcServiceGroupKeys aKeys = SMPJdbcServiceGroupKeys.create ("r", aServiceGroupIDs);
+    return aKeys == null ? new CommonsArrayList <> () : _getAllSMPRedirects (aKeys);
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  private ICommonsList <ISMPRedirect> _getAllSMPRedirectsOfServiceGroup (@NonNull final IParticipantIdentifier aParticipantID)
   {
     final ICommonsList <ISMPRedirect> ret = new CommonsArrayList <> ();
-    if (aParticipantID != null)
+    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT documentIdentifierScheme, documentIdentifier, redirectionUrl, certificateUID, certificate, extension" +
+                                                                          " FROM " +
+                                                                          m_sTableName +
+                                                                          " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
+                                                                          new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
+                                                                                                                     aParticipantID.getValue ()));
+    if (aDBResult != null)
+      for (final DBResultRow aRow : aDBResult)
+      {
+        final X509Certificate aCertificate = new CertificateDecodeHelper ().source (aRow.getAsString (4))
+                                                                           .pemEncoded (true)
+                                                                           .getDecodedOrNull ();
+        ret.add (new SMPRedirect (aParticipantID,
+                                  new SimpleDocumentTypeIdentifier (aRow.getAsString (0), aRow.getAsString (1)),
+                                  aRow.getAsString (2),
+                                  aRow.getAsString (3),
+                                  aCertificate,
+                                  aRow.getAsString (5)));
+      }
+    return ret;
+  }
+
+  @NonNull
+  private ICommonsList <ISMPRedirect> _getCachedRedirectsOfServiceGroup (@NonNull final SMPJdbcLookupCache <ICommonsList <ISMPRedirect>> aCache,
+                                                                         @NonNull final IParticipantIdentifier aParticipantID)
+  {
+    final String sCacheKey = aParticipantID.getURIEncoded ();
+    ICommonsList <ISMPRedirect> ret = aCache.getFromCache (sCacheKey);
+    if (ret == null)
     {
-      final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT documentIdentifierScheme, documentIdentifier, redirectionUrl, certificateUID, certificate, extension" +
-                                                                            " FROM " +
-                                                                            m_sTableName +
-                                                                            " WHERE businessIdentifierScheme=? AND businessIdentifier=?",
-                                                                            new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
-                                                                                                                       aParticipantID.getValue ()));
-      if (aDBResult != null)
-        for (final DBResultRow aRow : aDBResult)
-        {
-          final X509Certificate aCertificate = new CertificateDecodeHelper ().source (aRow.getAsString (4))
-                                                                             .pemEncoded (true)
-                                                                             .getDecodedOrNull ();
-          ret.add (new SMPRedirect (aParticipantID,
-                                    new SimpleDocumentTypeIdentifier (aRow.getAsString (0), aRow.getAsString (1)),
-                                    aRow.getAsString (2),
-                                    aRow.getAsString (3),
-                                    aCertificate,
-                                    aRow.getAsString (5)));
-        }
+      // Determine the generation before reading, so that a concurrent modification is not lost
+      final long nGeneration = aCache.getCurrentGeneration ();
+      // Empty lists are cached as well, as this is the most common case
+      ret = _getAllSMPRedirectsOfServiceGroup (aParticipantID);
+      aCache.putInCache (nGeneration, sCacheKey, ret);
     }
     return ret;
   }
 
+  /**
+   * Create a deep copy of a cached redirect, because the cached objects must never be handed out.
+   *
+   * @param aRedirect
+   *        The cached redirect. May not be <code>null</code>.
+   * @return The new redirect. Never <code>null</code>.
+   */
+  @NonNull
+  private static SMPRedirect _getCopy (@NonNull final ISMPRedirect aRedirect)
+  {
+    return new SMPRedirect (aRedirect.getServiceGroupParticipantIdentifier (),
+                            aRedirect.getDocumentTypeIdentifier (),
+                            aRedirect.getTargetHref (),
+                            aRedirect.getSubjectUniqueIdentifier (),
+                            aRedirect.getCertificate (),
+                            aRedirect.getExtensions ().getExtensionsAsJsonString ());
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPRedirect> getAllSMPRedirectsOfServiceGroup (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    if (aParticipantID == null)
+      return new CommonsArrayList <> ();
+
+    final SMPJdbcLookupCache <ICommonsList <ISMPRedirect>> aCache = m_aCache;
+    if (aCache == null)
+      return _getAllSMPRedirectsOfServiceGroup (aParticipantID);
+
+    // Never hand out the cached objects
+    return _getCachedRedirectsOfServiceGroup (aCache, aParticipantID).getAllMapped (SMPRedirectManagerJDBC::_getCopy);
+  }
+
   @Nonnegative
   public long getSMPRedirectCount ()
   {
@@ -365,6 +511,19 @@ public final class SMPRedirectManagerJDBC extends AbstractJDBCEnabledManager imp
   public ISMPRedirect getSMPRedirectOfServiceGroupAndDocumentType (@Nullable final IParticipantIdentifier aParticipantID,
                                                                    @Nullable final IDocumentTypeIdentifier aDocTypeID)
   {
-    return _getSMPRedirectOfServiceGroupAndDocumentType (newExecutor (), aParticipantID, aDocTypeID);
+    final SMPJdbcLookupCache <ICommonsList <ISMPRedirect>> aCache = m_aCache;
+    if (aCache == null)
+      return _getSMPRedirectOfServiceGroupAndDocumentType (newExecutor (), aParticipantID, aDocTypeID);
+
+    if (aParticipantID == null)
+      return null;
+    if (aDocTypeID == null)
+      return null;
+
+    final ISMPRedirect aCached = _getCachedRedirectsOfServiceGroup (aCache,
+                                                                    aParticipantID).findFirst (x -> x.getDocumentTypeIdentifier ()
+                                                                                                     .hasSameContent (aDocTypeID));
+    // Never hand out the cached object
+    return aCached == null ? null : _getCopy (aCached);
   }
 }
@@ -17,6 +17,7 @@
 package com.helger.phoss.smp.backend.sql.mgr;
 
 import java.time.Duration;
+import java.util.Collection;
 import java.util.function.Supplier;
 
 import org.jspecify.annotations.NonNull;
@@ -117,6 +118,30 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
       m_aCache = null;
   }
 
+  /**
+   * Remove a single service group from the cache.
+   *
+   * @param sCacheKey
+   *        The URI encoded participant ID of the service group. May not be <code>null</code>.
+   * @since 8.2.1
+   */
+  public void invalidateCacheOfServiceGroup (@NonNull final String sCacheKey)
+  {
+    if (m_aCache != null)
+      m_aCache.removeFromCache (sCacheKey);
+  }
+
+  /**
+   * Remove all service groups from the cache.
+   *
+   * @since 8.2.1
+   */
+  public void invalidateCache ()
+  {
+    if (m_aCache != null)
+      setCacheEnabled (true);
+  }
+
   @NonNull
   @ReturnsMutableObject
   public CallbackList <ISMPServiceGroupCallback> serviceGroupCallbacks ()
@@ -331,6 +356,11 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
           throw new IllegalStateException ("Failed to update the service_group customproperties");
         aWrappedChange.set (EChange.CHANGED);
       }
+
+      if (aWrappedChange.get ().isChanged ())
+        SMPCacheChangeLogJDBC.addChangeIfStarted (aExecutor,
+                                                  SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_GROUP,
+                                                  aParticipantID.getURIEncoded ());
     }, aCaughtException::set);
 
     if (eSuccess.isFailure () || aCaughtException.isSet ())
@@ -360,7 +390,11 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
 
     // Callback only if something changed
     if (eChange.isChanged ())
+    {
+      if (m_aCache != null)
+        m_aCache.removeFromCache (aParticipantID.getURIEncoded ());
       m_aCBs.forEach (x -> x.onSMPServiceGroupUpdated (aParticipantID));
+    }
 
     return eChange;
   }
@@ -403,6 +437,14 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
       if (nCount != 1)
         throw new IllegalStateException ("Failed to delete service group");
       aWrappedChange.set (EChange.CHANGED);
+
+      // Redirects and service information are deleted as well
+      final String sCacheKey = aParticipantID.getURIEncoded ();
+      SMPCacheChangeLogJDBC.addChangeIfStarted (aExecutor, SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_GROUP, sCacheKey);
+      SMPCacheChangeLogJDBC.addChangeIfStarted (aExecutor, SMPCacheChangeLogJDBC.CACHE_TYPE_REDIRECT, sCacheKey);
+      SMPCacheChangeLogJDBC.addChangeIfStarted (aExecutor,
+                                                SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_INFORMATION,
+                                                SMPCacheChangeLogJDBC.KEY_ALL);
     }, aCaughtException::set);
 
     if (eSuccess.isFailure ())
@@ -495,6 +537,48 @@ public final class SMPServiceGroupManagerJDBC extends AbstractJDBCEnabledManager
     return ret;
   }
 
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceGroup> getAllSMPServiceGroupsOfIDs (@NonNull final Collection <String> aServiceGroupIDs)
+  {
+    ValueEnforcer.notNull (aServiceGroupIDs, "ServiceGroupIDs");
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("getAllSMPServiceGroupsOfIDs(" + aServiceGroupIDs.size () + " IDs)");
+
+    final ICommonsList <ISMPServiceGroup> ret = new CommonsArrayList <> (aServiceGroupIDs.size ());
+    final DBExecutor aExecutor = newExecutor ();
+    // Look up by primary key, a limited number of service groups per statement
+    SMPJdbcServiceGroupKeys.forEachChunk (aServiceGroupIDs, x -> _addAllSMPServiceGroupsOfIDs (aExecutor, x, ret));
+    return ret;
+  }
+
+  private void _addAllSMPServiceGroupsOfIDs (@NonNull final DBExecutor aExecutor,
+                                             @NonNull final ICommonsList <String> aServiceGroupIDs,
+                                             @NonNull final ICommonsList <ISMPServiceGroup> aTarget)
+  {
+    final SMPJdbcServiceGroupKeys aKeys = SMPJdbcServiceGroupKeys.create ("sg", aServiceGroupIDs);
+    if (aKeys == null)
+      return;
+
+    final ICommonsList <DBResultRow> aDBResult = aExecutor.queryAll ("SELECT sg.businessIdentifierScheme, sg.businessIdentifier, sg.extension, so.username, sg.customproperties" +
+                                                                     " FROM " +
+                                                                     m_sTableNameSG +
+                                                                     " sg, " +
+                                                                     m_sTableNameO +
+                                                                     " so" +
+                                                                     " WHERE so.businessIdentifierScheme=sg.businessIdentifierScheme AND so.businessIdentifier=sg.businessIdentifier" +
+                                                                     " AND " +
+                                                                     aKeys.getCondition (),
+                                                                     new ConstantPreparedStatementDataProvider (aKeys.getParams ()));
+    if (aDBResult != null)
+      for (final DBResultRow aRow : aDBResult)
+        aTarget.add (new SMPServiceGroup (aRow.getAsString (3),
+                                          new SimpleParticipantIdentifier (aRow.getAsString (0), aRow.getAsString (1)),
+                                          aRow.getAsString (2),
+                                          _getCustomPropertiesFromJsonString (aRow.getAsString (4))));
+  }
+
   @NonNull
   @ReturnsMutableCopy
   public ICommonsList <ISMPServiceGroup> getAllSMPServiceGroupsOfOwner (@NonNull final String sOwnerID)
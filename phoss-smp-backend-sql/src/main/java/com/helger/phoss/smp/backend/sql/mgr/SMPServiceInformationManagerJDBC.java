@@ -16,12 +16,18 @@
  */
 package com.helger.phoss.smp.backend.sql.mgr;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonnegative;
 import com.helger.annotation.style.MustImplementEqualsAndHashcode;
@@ -37,9 +43,14 @@ import com.helger.base.state.ESuccess;
 import com.helger.base.string.StringHelper;
 import com.helger.base.wrapper.Wrapper;
 import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsConcurrentHashMap;
 import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.datetime.xml.XMLOffsetDateTime;
+import com.helger.db.api.EDatabaseSystemType;
 import com.helger.db.api.helper.DBValueHelper;
 import com.helger.db.jdbc.callback.ConstantPreparedStatementDataProvider;
 import com.helger.db.jdbc.executor.DBExecutor;
@@ -52,6 +63,8 @@ import com.helger.peppolid.IProcessIdentifier;
 import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
 import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
 import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
+import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupPageIterator;
 import com.helger.phoss.smp.domain.serviceinfo.EndpointUsageInfo;
 import com.helger.phoss.smp.domain.serviceinfo.IEndpointUsageInfo;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
@@ -62,8 +75,11 @@ import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
 import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.restapi.SMPServiceMetadataResponseCache;
+import com.helger.phoss.smp.security.SMPCertificateCache;
 import com.helger.phoss.smp.security.SMPCertificateHelper;
 import com.helger.photon.audit.AuditHelper;
+import com.helger.typeconvert.impl.TypeConverter;
 
 /**
  * A JDBC based implementation of the {@link ISMPServiceInformationManager} interface.
@@ -74,6 +90,8 @@ import com.helger.photon.audit.AuditHelper;
 public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledManager implements
                                                     ISMPServiceInformationManager
 {
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPServiceInformationManagerJDBC.class);
+
   @MustImplementEqualsAndHashcode
   private static final class DocTypeAndExtension
   {
@@ -107,7 +125,11 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
   private final String m_sTableNameSM;
   private final String m_sTableNameP;
   private final String m_sTableNameE;
+  private final String m_sTableNameC;
+  // Certificate hash to certificate - the content never changes
+  private final ICommonsMap <String, String> m_aCertificates = new CommonsConcurrentHashMap <> ();
   private final CallbackList <ISMPServiceInformationCallback> m_aCBs = new CallbackList <> ();
+  private SMPJdbcLookupCache <ICommonsList <ISMPServiceInformation>> m_aCache;
 
   /**
    * Constructor
@@ -125,6 +147,165 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     m_sTableNameSM = sTableNamePrefix + "smp_service_metadata";
     m_sTableNameP = sTableNamePrefix + "smp_process";
     m_sTableNameE = sTableNamePrefix + "smp_endpoint";
+    m_sTableNameC = sTableNamePrefix + "smp_certificate";
+  }
+
+  /**
+   * Resolve the certificate of the provided hash from the certificate store.
+   *
+   * @param sHash
+   *        The certificate hash as stored in the endpoint table. May be <code>null</code>.
+   * @return <code>null</code> if the hash is empty.
+   * @throws IllegalStateException
+   *         If the hash is unknown, because then the endpoint data is inconsistent
+   */
+  @Nullable
+  private String _getCertificateOfHash (@Nullable final String sHash)
+  {
+    if (StringHelper.isEmpty (sHash))
+      return null;
+
+    String ret = m_aCertificates.get (sHash);
+    if (ret == null)
+    {
+      final Wrapper <DBResultRow> aResult = new Wrapper <> ();
+      newExecutor ().querySingle ("SELECT certificate FROM " + m_sTableNameC + " WHERE hash=?",
+                                  new ConstantPreparedStatementDataProvider (sHash),
+                                  aResult::set);
+      if (aResult.isNotSet ())
+      {
+        // Don't hand out an endpoint without its certificate
+        throw new IllegalStateException ("Failed to resolve the endpoint certificate with hash '" + sHash + "'");
+      }
+      ret = SMPCertificateCache.getInterned (aResult.get ().getAsString (0));
+      m_aCertificates.put (sHash, ret);
+    }
+    return ret;
+  }
+
+  @NonNull
+  private String _getInsertCertificateSQL (@NonNull final EDatabaseSystemType eDBType)
+  {
+    switch (eDBType)
+    {
+      case MYSQL:
+        return "INSERT IGNORE INTO " + m_sTableNameC + " (hash, certificate) VALUES (?, ?)";
+      case POSTGRESQL:
+        return "INSERT INTO " + m_sTableNameC + " (hash, certificate) VALUES (?, ?) ON CONFLICT (hash) DO NOTHING";
+      default:
+        // A duplicate key error is tolerated by the caller
+        return "INSERT INTO " + m_sTableNameC + " (hash, certificate) VALUES (?, ?)";
+    }
+  }
+
+  /**
+   * Ensure the provided certificate is contained in the certificate store. This happens outside of
+   * any transaction, so that concurrent stores of the same certificate don't break the
+   * modification. If the same certificate is stored concurrently (e.g. by another node), the
+   * duplicate key is tolerated.<br>
+   * Certificates are never deleted from the store, because they might be referenced concurrently.
+   * So rows in the certificate table, that are not referenced by any endpoint, are expected - e.g.
+   * after an endpoint certificate was replaced or after a failed modification. They are small and
+   * don't harm.
+   *
+   * @param sCertificate
+   *        The certificate to store. May be <code>null</code>.
+   * @return The hash of the certificate or <code>null</code> if the certificate is empty.
+   */
+  @Nullable
+  private String _storeCertificate (@Nullable final String sCertificate)
+  {
+    if (StringHelper.isEmpty (sCertificate))
+      return null;
+
+    final String sHash = SMPCertificateCache.getCertificateHash (sCertificate);
+    if (!m_aCertificates.containsKey (sHash))
+    {
+      final String sCountSQL = "SELECT COUNT(*) FROM " + m_sTableNameC + " WHERE hash=?";
+      final DBExecutor aExecutor = newExecutor ();
+      final EDatabaseSystemType eDBType = SMPDataSourceSingleton.getDatabaseType ();
+      final boolean bNativeInsertIfAbsent = eDBType == EDatabaseSystemType.MYSQL ||
+                                            eDBType == EDatabaseSystemType.POSTGRESQL;
+      // Avoid the expected duplicate key errors if it cannot be handled by the database
+      if (bNativeInsertIfAbsent ||
+          aExecutor.queryCount (sCountSQL, new ConstantPreparedStatementDataProvider (sHash)) == 0)
+      {
+        final long nCreated = aExecutor.insertOrUpdateOrDelete (_getInsertCertificateSQL (eDBType),
+                                                                new ConstantPreparedStatementDataProvider (sHash,
+                                                                                                           sCertificate));
+        // Already present or just created by someone else (duplicate key)
+        if (nCreated != 1 &&
+            aExecutor.queryCount (sCountSQL, new ConstantPreparedStatementDataProvider (sHash)) == 0)
+          throw new IllegalStateException ("Failed to store endpoint certificate with hash '" + sHash + "'");
+      }
+      m_aCertificates.put (sHash, SMPCertificateCache.getInterned (sCertificate));
+    }
+    return sHash;
+  }
+
+  public boolean isCacheEnabled ()
+  {
+    return m_aCache != null;
+  }
+
+  /**
+   * @return The service information cache or <code>null</code> if the cache is disabled.
+   * @since 8.2.1
+   */
+  @Nullable
+  public SMPJdbcLookupCache <ICommonsList <ISMPServiceInformation>> getCache ()
+  {
+    return m_aCache;
+  }
+
+  /**
+   * Set the cache for service information lookups by service group and document type.
+   *
+   * @param aCache
+   *        The cache to use. May be <code>null</code> to disable caching.
+   * @since 8.2.1
+   */
+  public void setCache (@Nullable final SMPJdbcLookupCache <ICommonsList <ISMPServiceInformation>> aCache)
+  {
+    m_aCache = aCache;
+  }
+
+  @NonNull
+  private static String _getCacheKey (@NonNull final IParticipantIdentifier aParticipantID)
+  {
+    return aParticipantID.getURIEncoded ();
+  }
+
+  /**
+   * Remove all cached service information objects of the provided service group. This is needed,
+   * if the service information was modified outside of this manager (e.g. by deleting the service
+   * group).
+   *
+   * @param aParticipantID
+   *        The service group ID to invalidate. May not be <code>null</code>.
+   * @since 8.2.1
+   */
+  public void invalidateCacheOfServiceGroup (@NonNull final IParticipantIdentifier aParticipantID)
+  {
+    if (m_aCache != null)
+      m_aCache.invalidate (_getCacheKey (aParticipantID));
+  }
+
+  private void _invalidateCache (@NonNull final ISMPServiceInformation aSMPServiceInformation)
+  {
+    invalidateCacheOfServiceGroup (aSMPServiceInformation.getServiceGroupParticipantIdentifier ());
+  }
+
+  private void _invalidateCacheCompletely ()
+  {
+    if (m_aCache != null)
+      m_aCache.invalidateAll ();
+    // The affected participants are unknown, so no callback can be invoked
+    SMPServiceMetadataResponseCache.clearIfInstantiated ();
+    // Bulk modifications are not performed in a transaction
+    SMPCacheChangeLogJDBC.addChangeIfStarted (newExecutor (),
+                                              SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_INFORMATION,
+                                              SMPCacheChangeLogJDBC.KEY_ALL);
   }
 
   @NonNull
@@ -141,6 +322,21 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
 
     final MutableBoolean aUpdated = new MutableBoolean (false);
 
+    // Store all certificates first - only the hashes are referenced from the endpoints
+    final ICommonsMap <String, String> aCertHashes = new CommonsHashMap <> ();
+    try
+    {
+      for (final ISMPProcess aProcess : aSMPServiceInformation.getAllProcesses ())
+        for (final ISMPEndpoint aEndpoint : aProcess.getAllEndpoints ())
+          if (aEndpoint.hasCertificate ())
+            aCertHashes.computeIfAbsent (aEndpoint.getCertificate (), this::_storeCertificate);
+    }
+    catch (final RuntimeException ex)
+    {
+      LOGGER.error ("Failed to store the endpoint certificates", ex);
+      return ESuccess.FAILURE;
+    }
+
     final DBExecutor aExecutor = newExecutor ();
     final ESuccess eSuccess = aExecutor.performInTransaction ( () -> {
       // Simply delete the old one
@@ -161,50 +357,77 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
                                                                                    aSMPServiceInformation.getExtensions ()
                                                                                                          .getExtensionsAsJsonString ()));
 
+      // Insert all processes and all endpoints with as few statements as possible
+      final EDatabaseSystemType eDBType = SMPDataSourceSingleton.getDatabaseType ();
+      final SMPJdbcMultiRowInsert aProcessInsert = new SMPJdbcMultiRowInsert (eDBType,
+                                                                              m_sTableNameP,
+                                                                              "businessIdentifierScheme",
+                                                                              "businessIdentifier",
+                                                                              "documentIdentifierScheme",
+                                                                              "documentIdentifier",
+                                                                              "processIdentifierType",
+                                                                              "processIdentifier",
+                                                                              "extension");
+      final SMPJdbcMultiRowInsert aEndpointInsert = new SMPJdbcMultiRowInsert (eDBType,
+                                                                               m_sTableNameE,
+                                                                               "id",
+                                                                               "businessIdentifierScheme",
+                                                                               "businessIdentifier",
+                                                                               "documentIdentifierScheme",
+                                                                               "documentIdentifier",
+                                                                               "processIdentifierType",
+                                                                               "processIdentifier",
+                                                                               "certificatehash",
+                                                                               "endpointReference",
+                                                                               "minimumAuthenticationLevel",
+                                                                               "requireBusinessLevelSignature",
+                                                                               "serviceActivationDate",
+                                                                               "serviceDescription",
+                                                                               "serviceExpirationDate",
+                                                                               "technicalContactUrl",
+                                                                               "technicalInformationUrl",
+                                                                               "transportProfile",
+                                                                               "extension");
       for (final ISMPProcess aProcess : aSMPServiceInformation.getAllProcesses ())
       {
         final IProcessIdentifier aProcessID = aProcess.getProcessIdentifier ();
-        aExecutor.insertOrUpdateOrDelete ("INSERT INTO " +
-                                          m_sTableNameP +
-                                          " (businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, processIdentifierType, processIdentifier, extension) VALUES (?, ?, ?, ?, ?, ?, ?)",
-                                          new ConstantPreparedStatementDataProvider (aPID.getScheme (),
-                                                                                     aPID.getValue (),
-                                                                                     aDocTypeID.getScheme (),
-                                                                                     aDocTypeID.getValue (),
-                                                                                     aProcessID.getScheme (),
-                                                                                     aProcessID.getValue (),
-                                                                                     aProcess.getExtensions ()
-                                                                                             .getExtensionsAsJsonString ()));
-        // Insert new endpoints
+        aProcessInsert.addRow (aPID.getScheme (),
+                               aPID.getValue (),
+                               aDocTypeID.getScheme (),
+                               aDocTypeID.getValue (),
+                               aProcessID.getScheme (),
+                               aProcessID.getValue (),
+                               aProcess.getExtensions ().getExtensionsAsJsonString ());
         for (final ISMPEndpoint aEndpoint : aProcess.getAllEndpoints ())
         {
-          aExecutor.insertOrUpdateOrDelete ("INSERT INTO " +
-                                            m_sTableNameE +
-                                            " (id, businessIdentifierScheme, businessIdentifier, documentIdentifierScheme, documentIdentifier, processIdentifierType, processIdentifier," +
-                                            " certificate, endpointReference, minimumAuthenticationLevel, requireBusinessLevelSignature, serviceActivationDate, serviceDescription, serviceExpirationDate, technicalContactUrl, technicalInformationUrl, transportProfile," +
-                                            " extension) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
-                                            new ConstantPreparedStatementDataProvider (aEndpoint.getID (),
-                                                                                       aPID.getScheme (),
-                                                                                       aPID.getValue (),
-                                                                                       aDocTypeID.getScheme (),
-                                                                                       aDocTypeID.getValue (),
-                                                                                       aProcessID.getScheme (),
-                                                                                       aProcessID.getValue (),
-                                                                                       aEndpoint.getCertificate (),
-                                                                                       aEndpoint.getEndpointReference (),
-                                                                                       aEndpoint.getMinimumAuthenticationLevel (),
-                                                                                       Boolean.valueOf (aEndpoint.isRequireBusinessLevelSignature ()),
-                                                                                       DBValueHelper.toTimestamp (aEndpoint.getServiceActivationDateTime ()),
-                                                                                       aEndpoint.getServiceDescription (),
-                                                                                       DBValueHelper.toTimestamp (aEndpoint.getServiceExpirationDateTime ()),
-                                                                                       aEndpoint.getTechnicalContactUrl (),
-                                                                                       aEndpoint.getTechnicalInformationUrl (),
-                                                                                       aEndpoint.getTransportProfile (),
-                                                                                       aEndpoint.getExtensions ()
-                                                                                                .getExtensionsAsJsonString ()));
+          aEndpointInsert.addRow (aEndpoint.getID (),
+                                  aPID.getScheme (),
+                                  aPID.getValue (),
+                                  aDocTypeID.getScheme (),
+                                  aDocTypeID.getValue (),
+                                  aProcessID.getScheme (),
+                                  aProcessID.getValue (),
+                                  aCertHashes.get (aEndpoint.getCertificate ()),
+                                  aEndpoint.getEndpointReference (),
+                                  aEndpoint.getMinimumAuthenticationLevel (),
+                                  Boolean.valueOf (aEndpoint.isRequireBusinessLevelSignature ()),
+                                  DBValueHelper.toTimestamp (aEndpoint.getServiceActivationDateTime ()),
+                                  aEndpoint.getServiceDescription (),
+                                  DBValueHelper.toTimestamp (aEndpoint.getServiceExpirationDateTime ()),
+                                  aEndpoint.getTechnicalContactUrl (),
+                                  aEndpoint.getTechnicalInformationUrl (),
+                                  aEndpoint.getTransportProfile (),
+                                  aEndpoint.getExtensions ().getExtensionsAsJsonString ());
         }
       }
+      // Processes must be inserted before the endpoints
+      aProcessInsert.execute (aExecutor);
+      aEndpointInsert.execute (aExecutor);
     });
+
+    // Invalidate in any case, as it is unknown what was rolled back
+    _invalidateCache (aSMPServiceInformation);
+
     if (eSuccess.isFailure ())
       return ESuccess.FAILURE;
 
@@ -286,6 +509,9 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
                                                                                                          aDocTypeID.getScheme (),
                                                                                                          aDocTypeID.getValue ()));
       ret.set (Long.valueOf (nCountEP + nCountProc + nCountSM));
+      SMPCacheChangeLogJDBC.addChangeIfStarted (aExecutor,
+                                                SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_INFORMATION,
+                                                _getCacheKey (aPID));
     });
     if (eSuccess.isFailure ())
       return EChange.UNCHANGED;
@@ -299,7 +525,9 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
       return EChange.UNCHANGED;
 
     // Main deletion
-    if (_deleteSMPServiceInformationNoCallback (newExecutor (), aSMPServiceInformation).isUnchanged ())
+    final EChange eDeleted = _deleteSMPServiceInformationNoCallback (newExecutor (), aSMPServiceInformation);
+    _invalidateCache (aSMPServiceInformation);
+    if (eDeleted.isUnchanged ())
     {
       AuditHelper.onAuditDeleteFailure (SMPServiceInformation.OT, "no-such-id", aSMPServiceInformation.getID ());
       return EChange.UNCHANGED;
@@ -342,7 +570,13 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
                                                               new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
                                                                                                          aParticipantID.getValue ()));
       ret.set (Long.valueOf (nCountEP + nCountProc + nCountSM));
+      SMPCacheChangeLogJDBC.addChangeIfStarted (aExecutor,
+                                                SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_INFORMATION,
+                                                _getCacheKey (aParticipantID));
     });
+
+    invalidateCacheOfServiceGroup (aParticipantID);
+
     if (eSuccess.isFailure () || ret.get ().longValue () <= 0)
     {
       AuditHelper.onAuditDeleteFailure (SMPServiceInformation.OT, "no-such-id", aParticipantID.getURIEncoded ());
@@ -392,11 +626,16 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
                                                                                                            aProcessID.getScheme (),
                                                                                                            aProcessID.getValue ()));
       ret.set (Long.valueOf (nCountEP + nCountProc));
+      SMPCacheChangeLogJDBC.addChangeIfStarted (aExecutor,
+                                                SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_INFORMATION,
+                                                _getCacheKey (aPID));
     });
-    if (eSuccess.isFailure ())
+    _invalidateCache (aSMPServiceInformation);
+    if (eSuccess.isFailure () || ret.get ().longValue () == 0)
       return EChange.UNCHANGED;
 
-    return EChange.valueOf (ret.get ().longValue () > 0);
+    m_aCBs.forEach (x -> x.onSMPServiceInformationUpdated (aSMPServiceInformation));
+    return EChange.CHANGED;
   }
 
   @NonNull
@@ -408,88 +647,227 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     return ret;
   }
 
-  public void forEachSMPServiceInformation (@NonNull final Consumer <? super ISMPServiceInformation> aConsumer)
+  /**
+   * Builds service information objects from the rows of the ordered service information join.
+   * Only the service information currently read is kept in memory.
+   */
+  static final class StreamingServiceInformationBuilder implements SMPJdbcStreamingQuery.IRowHandler
   {
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sm.businessIdentifierScheme, sm.businessIdentifier, sm.documentIdentifierScheme, sm.documentIdentifier, sm.extension," +
-                                                                          "   sp.processIdentifierType, sp.processIdentifier, sp.extension," +
-                                                                          "   se.id, se.transportProfile, se.endpointReference, se.requireBusinessLevelSignature, se.minimumAuthenticationLevel," +
-                                                                          "     se.serviceActivationDate, se.serviceExpirationDate, se.certificate, se.serviceDescription," +
-                                                                          "     se.technicalContactUrl, se.technicalInformationUrl, se.extension" +
-                                                                          " FROM " +
-                                                                          m_sTableNameSM +
-                                                                          " sm" +
-                                                                          " INNER JOIN " +
-                                                                          m_sTableNameP +
-                                                                          " sp" +
-                                                                          "   ON sm.businessIdentifierScheme=sp.businessIdentifierScheme AND sm.businessIdentifier=sp.businessIdentifier" +
-                                                                          "   AND sm.documentIdentifierScheme=sp.documentIdentifierScheme AND sm.documentIdentifier=sp.documentIdentifier" +
-                                                                          " INNER JOIN " +
-                                                                          m_sTableNameE +
-                                                                          " se" +
-                                                                          "   ON sp.businessIdentifierScheme=se.businessIdentifierScheme AND sp.businessIdentifier=se.businessIdentifier" +
-                                                                          "   AND sp.documentIdentifierScheme=se.documentIdentifierScheme AND sp.documentIdentifier=se.documentIdentifier" +
-                                                                          "   AND sp.processIdentifierType=se.processIdentifierType AND sp.processIdentifier=se.processIdentifier");
+    /**
+     * Callback for each completely read service information.
+     */
+    @FunctionalInterface
+    interface IServiceInformationHandler
+    {
+      void onServiceInformation (@NonNull IParticipantIdentifier aParticipantID,
+                                 @NonNull IDocumentTypeIdentifier aDocTypeID,
+                                 @NonNull ICommonsList <SMPProcess> aProcesses,
+                                 @Nullable String sExtension);
+    }
 
-    final ICommonsMap <IParticipantIdentifier, ICommonsMap <DocTypeAndExtension, ICommonsMap <SMPProcess, ICommonsList <SMPEndpoint>>>> aGrouping = new CommonsHashMap <> ();
-    if (aDBResult != null)
-      for (final DBResultRow aDBRow : aDBResult)
+    private final IServiceInformationHandler m_aHandler;
+    private final UnaryOperator <String> m_aCertificateResolver;
+    private IParticipantIdentifier m_aParticipantID;
+    private IDocumentTypeIdentifier m_aDocTypeID;
+    private String m_sExtension;
+    private ICommonsList <SMPProcess> m_aProcesses = new CommonsArrayList <> ();
+    private SMPProcess m_aProcess;
+    private final ICommonsList <SMPEndpoint> m_aEndpoints = new CommonsArrayList <> ();
+
+    StreamingServiceInformationBuilder (@NonNull final IServiceInformationHandler aHandler,
+                                        @NonNull final UnaryOperator <String> aCertificateResolver)
+    {
+      m_aHandler = aHandler;
+      m_aCertificateResolver = aCertificateResolver;
+    }
+
+    private void _finishProcess ()
+    {
+      if (m_aProcess != null)
       {
-        // Participant ID
-        final IParticipantIdentifier aParticipantID = new SimpleParticipantIdentifier (aDBRow.getAsString (0),
-                                                                                       aDBRow.getAsString (1));
-        // Document type ID and extension
-        final IDocumentTypeIdentifier aDocTypeID = new SimpleDocumentTypeIdentifier (aDBRow.getAsString (2),
-                                                                                     aDBRow.getAsString (3));
-        final String sServiceInformationExtension = aDBRow.getAsString (4);
-        // Process without endpoints
-        final SMPProcess aProcess = new SMPProcess (new SimpleProcessIdentifier (aDBRow.getAsString (5),
-                                                                                 aDBRow.getAsString (6)),
-                                                    null,
-                                                    aDBRow.getAsString (7));
-        // Don't add endpoint to process, because that impacts
-        // SMPProcess.equals/hashcode
-        final SMPEndpoint aEndpoint = new SMPEndpoint (aDBRow.getAsString (8),
-                                                       aDBRow.getAsString (9),
-                                                       aDBRow.getAsString (10),
-                                                       aDBRow.getAsBoolean (11,
-                                                                            SMPEndpoint.DEFAULT_REQUIRES_BUSINESS_LEVEL_SIGNATURE),
-                                                       aDBRow.getAsString (12),
-                                                       aDBRow.getAsXMLOffsetDateTime (13),
-                                                       aDBRow.getAsXMLOffsetDateTime (14),
-                                                       aDBRow.getAsString (15),
-                                                       aDBRow.getAsString (16),
-                                                       aDBRow.getAsString (17),
-                                                       aDBRow.getAsString (18),
-                                                       aDBRow.getAsString (19));
-        aGrouping.computeIfAbsent (aParticipantID, k -> new CommonsHashMap <> ())
-                 .computeIfAbsent (new DocTypeAndExtension (aDocTypeID, sServiceInformationExtension),
-                                   k -> new CommonsHashMap <> ())
-                 .computeIfAbsent (aProcess, k -> new CommonsArrayList <> ())
-                 .add (aEndpoint);
+        m_aProcess.addEndpoints (m_aEndpoints);
+        m_aProcesses.add (m_aProcess);
+        m_aEndpoints.clear ();
+        m_aProcess = null;
       }
+    }
 
-    // Per participant ID
-    for (final Map.Entry <IParticipantIdentifier, ICommonsMap <DocTypeAndExtension, ICommonsMap <SMPProcess, ICommonsList <SMPEndpoint>>>> aEntry : aGrouping.entrySet ())
+    void finishServiceInformation ()
     {
-      final IParticipantIdentifier aParticipantID = aEntry.getKey ();
+      _finishProcess ();
+      if (m_aParticipantID != null)
+      {
+        m_aHandler.onServiceInformation (m_aParticipantID, m_aDocTypeID, m_aProcesses, m_sExtension);
+        m_aProcesses = new CommonsArrayList <> ();
+        m_aParticipantID = null;
+      }
+    }
 
-      // Per document type ID
-      for (final Map.Entry <DocTypeAndExtension, ICommonsMap <SMPProcess, ICommonsList <SMPEndpoint>>> aEntry2 : aEntry.getValue ()
-                                                                                                                       .entrySet ())
+    public void handleRow (@NonNull final ResultSet aRS) throws SQLException
+    {
+      // Participant ID and document type ID
+      final IParticipantIdentifier aParticipantID = new SimpleParticipantIdentifier (aRS.getString (1),
+                                                                                     aRS.getString (2));
+      final IDocumentTypeIdentifier aDocTypeID = new SimpleDocumentTypeIdentifier (aRS.getString (3),
+                                                                                   aRS.getString (4));
+      if (!aParticipantID.equals (m_aParticipantID) || !aDocTypeID.equals (m_aDocTypeID))
       {
-        // Flatten list
-        final ICommonsList <SMPProcess> aProcesses = new CommonsArrayList <> ();
-        for (final Map.Entry <SMPProcess, ICommonsList <SMPEndpoint>> aEntry3 : aEntry2.getValue ().entrySet ())
-        {
-          final SMPProcess aProcess = aEntry3.getKey ();
-          aProcess.addEndpoints (aEntry3.getValue ());
-          aProcesses.add (aProcess);
-        }
+        // The rows are ordered, so the previous service information is complete
+        finishServiceInformation ();
+        m_aParticipantID = aParticipantID;
+        m_aDocTypeID = aDocTypeID;
+        m_sExtension = aRS.getString (5);
+      }
 
-        final DocTypeAndExtension aDE = aEntry2.getKey ();
-        aConsumer.accept (new SMPServiceInformation (aParticipantID, aDE.m_aDocTypeID, aProcesses, aDE.m_sExt));
+      final IProcessIdentifier aProcessID = new SimpleProcessIdentifier (aRS.getString (6), aRS.getString (7));
+      if (m_aProcess == null || !aProcessID.equals (m_aProcess.getProcessIdentifier ()))
+      {
+        _finishProcess ();
+        m_aProcess = new SMPProcess (aProcessID, null, aRS.getString (8));
       }
+
+      m_aEndpoints.add (new SMPEndpoint (aRS.getString (9),
+                                         aRS.getString (10),
+                                         aRS.getString (11),
+                                         TypeConverter.convertToBoolean (aRS.getObject (12),
+                                                                         SMPEndpoint.DEFAULT_REQUIRES_BUSINESS_LEVEL_SIGNATURE),
+                                         aRS.getString (13),
+                                         TypeConverter.convert (aRS.getTimestamp (14), XMLOffsetDateTime.class),
+                                         TypeConverter.convert (aRS.getTimestamp (15), XMLOffsetDateTime.class),
+                                         m_aCertificateResolver.apply (aRS.getString (16)),
+                                         aRS.getString (17),
+                                         aRS.getString (18),
+                                         aRS.getString (19),
+                                         aRS.getString (20)));
+    }
+  }
+
+  /**
+   * Get the query of the service information join, ordered in a way that allows to build one
+   * service information after the other.
+   *
+   * @param sCondition
+   *        The optional SQL condition to restrict the rows. May be <code>null</code>.
+   * @return The SQL query. Never <code>null</code>.
+   */
+  @NonNull
+  private String _getOrderedServiceInformationSQL (@Nullable final String sCondition)
+  {
+    return "SELECT sm.businessIdentifierScheme, sm.businessIdentifier, sm.documentIdentifierScheme, sm.documentIdentifier, sm.extension," +
+           "   sp.processIdentifierType, sp.processIdentifier, sp.extension," +
+           "   se.id, se.transportProfile, se.endpointReference, se.requireBusinessLevelSignature, se.minimumAuthenticationLevel," +
+           "     se.serviceActivationDate, se.serviceExpirationDate, se.certificatehash, se.serviceDescription," +
+           "     se.technicalContactUrl, se.technicalInformationUrl, se.extension" +
+           " FROM " +
+           m_sTableNameSM +
+           " sm" +
+           " INNER JOIN " +
+           m_sTableNameP +
+           " sp" +
+           "   ON sm.businessIdentifierScheme=sp.businessIdentifierScheme AND sm.businessIdentifier=sp.businessIdentifier" +
+           "   AND sm.documentIdentifierScheme=sp.documentIdentifierScheme AND sm.documentIdentifier=sp.documentIdentifier" +
+           " INNER JOIN " +
+           m_sTableNameE +
+           " se" +
+           "   ON sp.businessIdentifierScheme=se.businessIdentifierScheme AND sp.businessIdentifier=se.businessIdentifier" +
+           "   AND sp.documentIdentifierScheme=se.documentIdentifierScheme AND sp.documentIdentifier=se.documentIdentifier" +
+           "   AND sp.processIdentifierType=se.processIdentifierType AND sp.processIdentifier=se.processIdentifier" +
+           (sCondition == null ? "" : " WHERE " + sCondition) +
+           " ORDER BY sm.businessIdentifierScheme, sm.businessIdentifier, sm.documentIdentifierScheme, sm.documentIdentifier," +
+           "   sp.processIdentifierType, sp.processIdentifier";
+  }
+
+  /**
+   * Load all certificates that are not yet cached. Certificates are never modified or deleted, so
+   * if the number of cached certificates equals the number of stored certificates, all of them are
+   * cached.
+   */
+  private void _preloadCertificates ()
+  {
+    final DBExecutor aExecutor = newExecutor ();
+    if (m_aCertificates.size () < aExecutor.queryCount ("SELECT COUNT(*) FROM " + m_sTableNameC))
+    {
+      final ICommonsList <DBResultRow> aDBResult = aExecutor.queryAll ("SELECT hash, certificate FROM " + m_sTableNameC);
+      if (aDBResult != null)
+        for (final DBResultRow aRow : aDBResult)
+          m_aCertificates.computeIfAbsent (aRow.getAsString (0),
+                                           k -> SMPCertificateCache.getInterned (aRow.getAsString (1)));
+    }
+  }
+
+  /**
+   * Stream the service information matching the provided condition. All certificates are loaded
+   * upfront, so that no second database connection is needed while the streaming connection is
+   * open. Only certificates stored concurrently are resolved with a separate connection.
+   *
+   * @param sCondition
+   *        The optional SQL condition to restrict the rows. May be <code>null</code>.
+   * @param aParams
+   *        The parameters of the condition. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer for each service information. May not be <code>null</code>.
+   * @throws IllegalStateException
+   *         In case of a database error
+   */
+  private void _forEachOrderedServiceInformation (@Nullable final String sCondition,
+                                                  @NonNull final Object [] aParams,
+                                                  @NonNull final Consumer <? super ISMPServiceInformation> aConsumer)
+  {
+    _preloadCertificates ();
+
+    final StreamingServiceInformationBuilder aBuilder = new StreamingServiceInformationBuilder ( (aPID,
+                                                                                                  aDocTypeID,
+                                                                                                  aProcesses,
+                                                                                                  sExt) -> {
+      aConsumer.accept (new SMPServiceInformation (aPID, aDocTypeID, aProcesses, sExt));
+    }, this::_getCertificateOfHash);
+    try
+    {
+      SMPJdbcStreamingQuery.forEachRow (SMPDataSourceSingleton.getInstance ().getDataSourceProvider ().getDataSource (),
+                                        SMPDataSourceSingleton.getDatabaseType (),
+                                        _getOrderedServiceInformationSQL (sCondition),
+                                        aParams,
+                                        SMPJdbcStreamingQuery.DEFAULT_FETCH_SIZE,
+                                        aBuilder);
+      // Emit the last one
+      aBuilder.finishServiceInformation ();
     }
+    catch (final SQLException ex)
+    {
+      // Don't pretend that all service information was iterated
+      throw new IllegalStateException ("Failed to iterate the service information", ex);
+    }
+  }
+
+  public void forEachSMPServiceInformation (@NonNull final Consumer <? super ISMPServiceInformation> aConsumer)
+  {
+    ValueEnforcer.notNull (aConsumer, "Consumer");
+
+    _forEachOrderedServiceInformation (null, new Object [0], aConsumer);
+  }
+
+  @NonNull
+  public Stream <ISMPServiceInformation> streamAllSMPServiceInformationOrderedByServiceGroup ()
+  {
+    // The service group IDs are sorted in Java, independent of the database collation. Only the
+    // service information of a limited number of service groups is kept in memory.
+    final ICommonsList <String> aServiceGroupIDs = SMPJdbcServiceGroupKeys.getAllSortedServiceGroupIDs (newExecutor (),
+                                                                                                        m_sTableNameSM);
+    return new SMPServiceGroupPageIterator <> (aServiceGroupIDs,
+                                               SMPJdbcServiceGroupKeys.MAX_SERVICE_GROUPS_PER_QUERY,
+                                               this::_getAllSMPServiceInformationOfServiceGroupIDs,
+                                               ISMPServiceInformation.comparator ()).stream ();
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  private ICommonsList <ISMPServiceInformation> _getAllSMPServiceInformationOfServiceGroupIDs (@NonNull final ICommonsList <String> aServiceGroupIDs)
+  {
+    final ICommonsList <ISMPServiceInformation> ret = new CommonsArrayList <> ();
+    final SMPJdbcServiceGroupKeys aKeys = SMPJdbcServiceGroupKeys.create ("sm", aServiceGroupIDs);
+    if (aKeys != null)
+      _forEachOrderedServiceInformation (aKeys.getCondition (), aKeys.getParams (), ret::add);
+    return ret;
   }
 
   @Nonnegative
@@ -509,7 +887,7 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
       final ICommonsList <DBResultRow> aDBResult = aExecutor.queryAll ("SELECT sm.documentIdentifierScheme, sm.documentIdentifier, sm.extension," +
                                                                        "   sp.processIdentifierType, sp.processIdentifier, sp.extension," +
                                                                        "   se.id, se.transportProfile, se.endpointReference, se.requireBusinessLevelSignature, se.minimumAuthenticationLevel," +
-                                                                       "     se.serviceActivationDate, se.serviceExpirationDate, se.certificate, se.serviceDescription," +
+                                                                       "     se.serviceActivationDate, se.serviceExpirationDate, se.certificatehash, se.serviceDescription," +
                                                                        "     se.technicalContactUrl, se.technicalInformationUrl, se.extension" +
                                                                        " FROM " +
                                                                        m_sTableNameSM +
@@ -552,7 +930,7 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
                                                          aDBRow.getAsString (10),
                                                          aDBRow.getAsXMLOffsetDateTime (11),
                                                          aDBRow.getAsXMLOffsetDateTime (12),
-                                                         aDBRow.getAsString (13),
+                                                         _getCertificateOfHash (aDBRow.getAsString (13)),
                                                          aDBRow.getAsString (14),
                                                          aDBRow.getAsString (15),
                                                          aDBRow.getAsString (16),
@@ -610,19 +988,43 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     return ret;
   }
 
-  @Nullable
-  public ISMPServiceInformation getSMPServiceInformationOfServiceGroupAndDocumentType (@Nullable final IParticipantIdentifier aParticipantID,
-                                                                                       @Nullable final IDocumentTypeIdentifier aDocTypeID)
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (@Nullable final IParticipantIdentifier aParticipantID)
   {
-    if (aParticipantID == null)
-      return null;
-    if (aDocTypeID == null)
-      return null;
+    final ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> ret = new CommonsLinkedHashMap <> ();
+    if (aParticipantID != null)
+    {
+      // Endpoints are linked to the service information via the same 4 key columns
+      final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sm.documentIdentifierScheme, sm.documentIdentifier, COUNT(se.id)" +
+                                                                            " FROM " +
+                                                                            m_sTableNameSM +
+                                                                            " sm" +
+                                                                            " LEFT OUTER JOIN " +
+                                                                            m_sTableNameE +
+                                                                            " se" +
+                                                                            "   ON sm.businessIdentifierScheme=se.businessIdentifierScheme AND sm.businessIdentifier=se.businessIdentifier" +
+                                                                            "   AND sm.documentIdentifierScheme=se.documentIdentifierScheme AND sm.documentIdentifier=se.documentIdentifier" +
+                                                                            " WHERE sm.businessIdentifierScheme=? AND sm.businessIdentifier=?" +
+                                                                            " GROUP BY sm.documentIdentifierScheme, sm.documentIdentifier",
+                                                                            new ConstantPreparedStatementDataProvider (aParticipantID.getScheme (),
+                                                                                                                       aParticipantID.getValue ()));
+      if (aDBResult != null)
+        for (final DBResultRow aRow : aDBResult)
+          ret.put (new SimpleDocumentTypeIdentifier (aRow.getAsString (0), aRow.getAsString (1)),
+                   Integer.valueOf (aRow.getAsInt (2, 0)));
+    }
+    return ret;
+  }
 
+  @Nullable
+  private ISMPServiceInformation _getSMPServiceInformationOfServiceGroupAndDocumentType (@NonNull final IParticipantIdentifier aParticipantID,
+                                                                                         @NonNull final IDocumentTypeIdentifier aDocTypeID)
+  {
     final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT sm.extension," +
                                                                           "   sp.processIdentifierType, sp.processIdentifier, sp.extension," +
                                                                           "   se.id, se.transportProfile, se.endpointReference, se.requireBusinessLevelSignature, se.minimumAuthenticationLevel," +
-                                                                          "     se.serviceActivationDate, se.serviceExpirationDate, se.certificate, se.serviceDescription," +
+                                                                          "     se.serviceActivationDate, se.serviceExpirationDate, se.certificatehash, se.serviceDescription," +
                                                                           "     se.technicalContactUrl, se.technicalInformationUrl, se.extension" +
                                                                           " FROM " +
                                                                           m_sTableNameSM +
@@ -663,7 +1065,7 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
                                                        aDBRow.getAsString (8),
                                                        aDBRow.getAsXMLOffsetDateTime (9),
                                                        aDBRow.getAsXMLOffsetDateTime (10),
-                                                       aDBRow.getAsString (11),
+                                                       _getCertificateOfHash (aDBRow.getAsString (11)),
                                                        aDBRow.getAsString (12),
                                                        aDBRow.getAsString (13),
                                                        aDBRow.getAsString (14),
@@ -684,6 +1086,72 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     return null;
   }
 
+  @Nullable
+  public ISMPServiceInformation getSMPServiceInformationOfServiceGroupAndDocumentType (@Nullable final IParticipantIdentifier aParticipantID,
+                                                                                       @Nullable final IDocumentTypeIdentifier aDocTypeID)
+  {
+    if (aParticipantID == null)
+      return null;
+    if (aDocTypeID == null)
+      return null;
+
+    final SMPJdbcLookupCache <ICommonsList <ISMPServiceInformation>> aCache = m_aCache;
+    if (aCache == null)
+      return _getSMPServiceInformationOfServiceGroupAndDocumentType (aParticipantID, aDocTypeID);
+
+    final String sCacheKey = _getCacheKey (aParticipantID);
+    ICommonsList <ISMPServiceInformation> aCached = aCache.getFromCache (sCacheKey);
+    if (aCached == null)
+    {
+      // Determine the generation before reading, so that a concurrent modification is not lost
+      final long nGeneration = aCache.getCurrentGeneration ();
+      // Empty lists are cached as well, so that unknown participants are not queried again
+      aCached = _getAllSMPServiceInformationOfServiceGroup (newExecutor (), aParticipantID);
+      aCache.putInCache (nGeneration, sCacheKey, aCached);
+    }
+    final ISMPServiceInformation ret = aCached.findFirst (x -> x.getDocumentTypeIdentifier ()
+                                                                .hasSameContent (aDocTypeID));
+    // Never hand out the cached object, as callers modify the returned object before merging it
+    return ret == null ? null : _getCopy (ret);
+  }
+
+  /**
+   * Create a deep copy of a cached service information.
+   *
+   * @param aSI
+   *        The cached service information. May not be <code>null</code>.
+   * @return The new service information. Never <code>null</code>.
+   */
+  @NonNull
+  private static SMPServiceInformation _getCopy (@NonNull final ISMPServiceInformation aSI)
+  {
+    final ICommonsList <SMPProcess> aProcesses = new CommonsArrayList <> (aSI.getProcessCount ());
+    for (final ISMPProcess aProcess : aSI.getAllProcesses ())
+    {
+      final ICommonsList <SMPEndpoint> aEndpoints = new CommonsArrayList <> (aProcess.getEndpointCount ());
+      for (final ISMPEndpoint aEndpoint : aProcess.getAllEndpoints ())
+        aEndpoints.add (new SMPEndpoint (aEndpoint.getID (),
+                                         aEndpoint.getTransportProfile (),
+                                         aEndpoint.getEndpointReference (),
+                                         aEndpoint.isRequireBusinessLevelSignature (),
+                                         aEndpoint.getMinimumAuthenticationLevel (),
+                                         aEndpoint.getServiceActivationDateTime (),
+                                         aEndpoint.getServiceExpirationDateTime (),
+                                         aEndpoint.getCertificate (),
+                                         aEndpoint.getServiceDescription (),
+                                         aEndpoint.getTechnicalContactUrl (),
+                                         aEndpoint.getTechnicalInformationUrl (),
+                                         aEndpoint.getExtensions ().getExtensionsAsJsonString ()));
+      aProcesses.add (new SMPProcess (aProcess.getProcessIdentifier (),
+                                      aEndpoints,
+                                      aProcess.getExtensions ().getExtensionsAsJsonString ()));
+    }
+    return new SMPServiceInformation (aSI.getServiceGroupParticipantIdentifier (),
+                                      aSI.getDocumentTypeIdentifier (),
+                                      aProcesses,
+                                      aSI.getExtensions ().getExtensionsAsJsonString ());
+  }
+
   public boolean containsAnyEndpointWithTransportProfile (@Nullable final String sTransportProfileID)
   {
     if (StringHelper.isEmpty (sTransportProfileID))
@@ -730,17 +1198,23 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
   public ICommonsMap <String, IEndpointUsageInfo> getEndpointCertificateUsageMap ()
   {
     final ICommonsMap <String, IEndpointUsageInfo> ret = new CommonsHashMap <> ();
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT certificate, businessIdentifierScheme, businessIdentifier FROM " +
+    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT certificatehash, businessIdentifierScheme, businessIdentifier FROM " +
                                                                           m_sTableNameE);
     if (aDBResult != null)
+    {
+      // Normalize each distinct certificate only once
+      final ICommonsMap <String, String> aNormalizedCerts = new CommonsHashMap <> ();
       for (final DBResultRow aRow : aDBResult)
       {
-        final String sNormalizedCert = SMPCertificateHelper.getNormalizedCert (aRow.getAsString (0));
+        final String sHash = StringHelper.getNotNull (aRow.getAsString (0));
+        final String sNormalizedCert = aNormalizedCerts.computeIfAbsent (sHash,
+                                                                         k -> SMPCertificateHelper.getNormalizedCert (_getCertificateOfHash (k)));
         final String sServiceGroupID = CIdentifier.getURIEncoded (aRow.getAsString (1), aRow.getAsString (2));
 
         final IEndpointUsageInfo aInfo = ret.computeIfAbsent (sNormalizedCert, k -> new EndpointUsageInfo ());
         ((EndpointUsageInfo) aInfo).incrementForServiceGroupID (sServiceGroupID);
       }
+    }
     return ret;
   }
 
@@ -752,20 +1226,29 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
     ValueEnforcer.notNull (sOldURL, "OldURL");
     ValueEnforcer.notNull (sNewURL, "NewURL");
 
+    final long ret;
     if (aServiceGroupID != null)
     {
-      return newExecutor ().insertOrUpdateOrDelete ("UPDATE " +
-                                                    m_sTableNameE +
-                                                    " SET endpointReference=? WHERE endpointReference=? AND businessIdentifierScheme=? AND businessIdentifier=?",
-                                                    new ConstantPreparedStatementDataProvider (sNewURL,
-                                                                                               sOldURL,
-                                                                                               aServiceGroupID.getScheme (),
-                                                                                               aServiceGroupID.getValue ()));
+      ret = newExecutor ().insertOrUpdateOrDelete ("UPDATE " +
+                                                   m_sTableNameE +
+                                                   " SET endpointReference=? WHERE endpointReference=? AND businessIdentifierScheme=? AND businessIdentifier=?",
+                                                   new ConstantPreparedStatementDataProvider (sNewURL,
+                                                                                              sOldURL,
+                                                                                              aServiceGroupID.getScheme (),
+                                                                                              aServiceGroupID.getValue ()));
+    }
+    else
+    {
+      ret = newExecutor ().insertOrUpdateOrDelete ("UPDATE " +
+                                                   m_sTableNameE +
+                                                   " SET endpointReference=? WHERE endpointReference=?",
+                                                   new ConstantPreparedStatementDataProvider (sNewURL, sOldURL));
     }
-    return newExecutor ().insertOrUpdateOrDelete ("UPDATE " +
-                                                  m_sTableNameE +
-                                                  " SET endpointReference=? WHERE endpointReference=?",
-                                                  new ConstantPreparedStatementDataProvider (sNewURL, sOldURL));
+
+    // The affected entries are unknown
+    if (ret > 0)
+      _invalidateCacheCompletely ();
+    return ret;
   }
 
   @Nonnegative
@@ -776,30 +1259,33 @@ public final class SMPServiceInformationManagerJDBC extends AbstractJDBCEnabledM
 
     final String sOldCertNormalized = SMPCertificateHelper.getNormalizedCert (sOldCert);
 
-    // Get all distinct certificate values
-    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT DISTINCT certificate FROM " +
-                                                                          m_sTableNameE +
-                                                                          " WHERE certificate IS NOT NULL");
+    // Only the few distinct certificates of the store need to be compared
+    final ICommonsList <DBResultRow> aDBResult = newExecutor ().queryAll ("SELECT hash, certificate FROM " + m_sTableNameC);
     long nEndpointsChanged = 0;
     if (aDBResult != null)
     {
+      String sNewHash = null;
       for (final DBResultRow aRow : aDBResult)
       {
-        final String sStoredCert = aRow.getAsString (0);
-        if (StringHelper.isNotEmpty (sStoredCert))
+        final String sStoredHash = aRow.getAsString (0);
+        final String sStoredCertNormalized = SMPCertificateHelper.getNormalizedCert (aRow.getAsString (1));
+        if (sOldCertNormalized.equals (sStoredCertNormalized))
         {
-          final String sStoredCertNormalized = SMPCertificateHelper.getNormalizedCert (sStoredCert);
-          if (sOldCertNormalized.equals (sStoredCertNormalized))
-          {
+          if (sNewHash == null)
+            sNewHash = _storeCertificate (sNewCert);
+          if (!sStoredHash.equals (sNewHash))
             nEndpointsChanged += newExecutor ().insertOrUpdateOrDelete ("UPDATE " +
                                                                         m_sTableNameE +
-                                                                        " SET certificate=? WHERE certificate=?",
-                                                                        new ConstantPreparedStatementDataProvider (sNewCert,
-                                                                                                                   sStoredCert));
-          }
+                                                                        " SET certificatehash=? WHERE certificatehash=?",
+                                                                        new ConstantPreparedStatementDataProvider (sNewHash,
+                                                                                                                   sStoredHash));
         }
       }
     }
+
+    // The affected entries are unknown
+    if (nEndpointsChanged > 0)
+      _invalidateCacheCompletely ();
     return nEndpointsChanged;
   }
 }
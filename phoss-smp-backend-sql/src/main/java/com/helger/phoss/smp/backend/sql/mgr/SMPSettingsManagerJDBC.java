@@ -16,7 +16,10 @@
  */
 package com.helger.phoss.smp.backend.sql.mgr;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import org.jspecify.annotations.NonNull;
@@ -30,6 +33,7 @@ import com.helger.annotation.style.ReturnsMutableObject;
 import com.helger.annotation.style.UsedViaReflection;
 import com.helger.base.callback.CallbackList;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.equals.EqualsHelper;
 import com.helger.base.state.EChange;
 import com.helger.base.state.ESuccess;
 import com.helger.base.string.StringHelper;
@@ -56,6 +60,8 @@ import com.helger.web.scope.singleton.AbstractRequestWebSingleton;
 
 public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implements ISMPSettingsManager
 {
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPSettingsManagerJDBC.class);
+
   private static final String SMP_REST_WRITABLE_API_DISABLED = "smp-rest-writable-api-disabled";
   private static final String DIRECTORY_INTEGRATION_REQUIRED = "directory-required";
   private static final String DIRECTORY_INTEGRATION_ENABLED = "directory-enabled";
@@ -64,9 +70,30 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
   private static final String SML_REQUIRED = "sml-required";
   private static final String SML_ENABLED = "sml-enabled";
   private static final String SML_INFO_ID = "smlinfo-id";
+  // Changed with every settings update, so that other nodes can detect changes cheaply
+  private static final String SETTINGS_VERSION = "settings-version";
+
+  /**
+   * The application wide cached settings together with the version they were read with.
+   */
+  private static final class CachedSettings
+  {
+    private final ISMPSettings m_aSettings;
+    private final String m_sVersion;
+    private final long m_nCheckedNanos;
+
+    CachedSettings (@NonNull final ISMPSettings aSettings, @Nullable final String sVersion, final long nCheckedNanos)
+    {
+      m_aSettings = aSettings;
+      m_sVersion = sVersion;
+      m_nCheckedNanos = nCheckedNanos;
+    }
+  }
 
   private final String m_sTableName;
   private final CallbackList <ISMPSettingsCallback> m_aCallbacks = new CallbackList <> ();
+  private Duration m_aCacheRevalidationInterval;
+  private final AtomicReference <CachedSettings> m_aCachedSettings = new AtomicReference <> ();
 
   /**
    * Constructor
@@ -84,6 +111,41 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
     m_sTableName = sTableNamePrefix + "smp_settings";
   }
 
+  public boolean isCacheEnabled ()
+  {
+    return m_aCacheRevalidationInterval != null;
+  }
+
+  /**
+   * @return The interval after which the application wide cached settings are checked against the
+   *         database or <code>null</code> if the settings are read once per request.
+   * @since 8.2.1
+   */
+  @Nullable
+  public Duration getCacheRevalidationInterval ()
+  {
+    return m_aCacheRevalidationInterval;
+  }
+
+  /**
+   * Enable or disable the application wide settings cache. If enabled, the settings are kept in
+   * memory and only a single settings version value is read from the database, after the provided
+   * interval elapsed. The version changes with every settings update, also if the update happened
+   * on another node sharing the same database.
+   *
+   * @param aCacheRevalidationInterval
+   *        The interval after which the cached settings are checked against the database. May be
+   *        <code>null</code> to disable caching and read the settings once per request.
+   * @since 8.2.1
+   */
+  public void setCacheRevalidationInterval (@Nullable final Duration aCacheRevalidationInterval)
+  {
+    if (aCacheRevalidationInterval != null)
+      ValueEnforcer.isFalse (aCacheRevalidationInterval.isNegative (), "CacheRevalidationInterval may not be negative");
+    m_aCacheRevalidationInterval = aCacheRevalidationInterval;
+    m_aCachedSettings.set (null);
+  }
+
   @NonNull
   @ReturnsMutableObject
   public final CallbackList <ISMPSettingsCallback> callbacks ()
@@ -176,8 +238,12 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
   private static ISMPSettings _createSettingsFromDB (@NonNull final SMPSettingsManagerJDBC aMgr)
   {
     // Queries DB
-    final ICommonsMap <String, String> aValues = aMgr.getAllSettingsValuesFromDB ();
+    return _createSettings (aMgr.getAllSettingsValuesFromDB ());
+  }
 
+  @NonNull
+  private static ISMPSettings _createSettings (@NonNull final Map <String, String> aValues)
+  {
     final SMPSettings ret = SMPSettings.createInitializedFromConfiguration ();
     ret.setRESTWritableAPIDisabled (StringParser.parseBool (aValues.get (SMP_REST_WRITABLE_API_DISABLED),
                                                             ret.isRESTWritableAPIDisabled ()));
@@ -219,9 +285,14 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
       ISMPSettings ret = m_aSMPSettings;
       if (ret == null)
       {
-        if (LOGGER.isDebugEnabled ())
-          LOGGER.debug ("Loading SMP settings from DB");
-        ret = m_aSMPSettings = _createSettingsFromDB (aMgr);
+        if (aMgr.isCacheEnabled ())
+          ret = m_aSMPSettings = aMgr._getCachedSettings (false);
+        else
+        {
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Loading SMP settings from DB");
+          ret = m_aSMPSettings = _createSettingsFromDB (aMgr);
+        }
       }
       else
       {
@@ -246,6 +317,76 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
     }
   }
 
+  @NonNull
+  private CachedSettings _loadCachedSettings ()
+  {
+    // Queries DB
+    final ICommonsMap <String, String> aValues = getAllSettingsValuesFromDB ();
+    return new CachedSettings (_createSettings (aValues), aValues.get (SETTINGS_VERSION), System.nanoTime ());
+  }
+
+  /**
+   * Get the application wide cached settings. If the revalidation interval elapsed, the settings
+   * version is read from the DB and the settings are only reloaded, if the version changed.
+   *
+   * @param bForceRevalidation
+   *        <code>true</code> to check the settings version independent of the revalidation
+   *        interval.
+   */
+  @NonNull
+  private ISMPSettings _getCachedSettings (final boolean bForceRevalidation)
+  {
+    final CachedSettings aCached = m_aCachedSettings.get ();
+    if (aCached == null)
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Loading SMP settings from DB into the cache");
+      final CachedSettings aLoaded = _loadCachedSettings ();
+      m_aCachedSettings.compareAndSet (null, aLoaded);
+      return aLoaded.m_aSettings;
+    }
+
+    final long nNow = System.nanoTime ();
+    if (!bForceRevalidation && nNow - aCached.m_nCheckedNanos < m_aCacheRevalidationInterval.toNanos ())
+      return aCached.m_aSettings;
+
+    // Cheap check if the settings were changed, maybe by another node
+    final String sVersion = getSettingsValue (SETTINGS_VERSION);
+    final CachedSettings aNew;
+    if (EqualsHelper.equals (sVersion, aCached.m_sVersion))
+      aNew = new CachedSettings (aCached.m_aSettings, aCached.m_sVersion, nNow);
+    else
+    {
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("The SMP settings version changed - reloading SMP settings from DB");
+      aNew = _loadCachedSettings ();
+    }
+    // Don't overwrite settings that were updated in the meantime
+    m_aCachedSettings.compareAndSet (aCached, aNew);
+    return aNew.m_aSettings;
+  }
+
+  /**
+   * Check if two settings have the same values.
+   *
+   * @param aSettings1
+   *        The first settings. May not be <code>null</code>.
+   * @param aSettings2
+   *        The second settings. May not be <code>null</code>.
+   * @return <code>true</code> if all values that can be updated are equal.
+   */
+  static boolean isSameSettings (@NonNull final ISMPSettings aSettings1, @NonNull final ISMPSettings aSettings2)
+  {
+    return aSettings1.isRESTWritableAPIDisabled () == aSettings2.isRESTWritableAPIDisabled () &&
+           aSettings1.isDirectoryIntegrationEnabled () == aSettings2.isDirectoryIntegrationEnabled () &&
+           aSettings1.isDirectoryIntegrationRequired () == aSettings2.isDirectoryIntegrationRequired () &&
+           aSettings1.isDirectoryIntegrationAutoUpdate () == aSettings2.isDirectoryIntegrationAutoUpdate () &&
+           EqualsHelper.equals (aSettings1.getDirectoryHostName (), aSettings2.getDirectoryHostName ()) &&
+           aSettings1.isSMLEnabled () == aSettings2.isSMLEnabled () &&
+           aSettings1.isSMLRequired () == aSettings2.isSMLRequired () &&
+           EqualsHelper.equals (aSettings1.getSMLInfoID (), aSettings2.getSMLInfoID ());
+  }
+
   @NonNull
   public ISMPSettings getSettings ()
   {
@@ -273,12 +414,29 @@ public class SMPSettingsManagerJDBC extends AbstractJDBCEnabledManager implement
     aMap.putIn (SML_REQUIRED, bSMLRequired);
     aMap.putIn (SML_INFO_ID, sSMLInfoID);
 
+    // Don't write anything (and don't change the version) if nothing changed. The cached settings
+    // are revalidated against the version in the DB, so that changes of other nodes are considered
+    final ISMPSettings aOldSettings = isCacheEnabled () ? _getCachedSettings (true) : _createSettingsFromDB (this);
+    if (isSameSettings (aOldSettings, _createSettings (aMap)))
+      return EChange.UNCHANGED;
+
+    // Make the change visible to the caches of all nodes
+    aMap.putIn (SETTINGS_VERSION, UUID.randomUUID ().toString ());
+
     // Save
     if (setSettingsValuesInDB (aMap).isFailure ())
       return EChange.UNCHANGED;
 
     // Re-read the settings from the DB
-    final ISMPSettings aNewSettings = _createSettingsFromDB (this);
+    final ISMPSettings aNewSettings;
+    if (isCacheEnabled ())
+    {
+      final CachedSettings aLoaded = _loadCachedSettings ();
+      m_aCachedSettings.set (aLoaded);
+      aNewSettings = aLoaded.m_aSettings;
+    }
+    else
+      aNewSettings = _createSettingsFromDB (this);
 
     // Ensure the settings cached in the current request are up to date as well
     if (WebScopeManager.isRequestScopePresent ())
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.migration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Map;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.phoss.smp.backend.sql.SMPDBExecutor;
+import com.helger.phoss.smp.security.SMPCertificateCache;
+
+/**
+ * Move all endpoint certificates into the content addressed certificate store, created in V36. Each
+ * distinct certificate is stored only once and the endpoints only reference the hash of the
+ * certificate.<br>
+ * The endpoints are processed in pages ordered by ID, so that only the endpoints of a single page
+ * and the hashes of the distinct certificates are kept in memory.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+public final class V37__MigrateEndpointCertificatesToStore extends BaseJavaMigration
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (V37__MigrateEndpointCertificatesToStore.class);
+  private static final int PAGE_SIZE = 1_000;
+
+  @Override
+  public void migrate (@NonNull final Context context) throws Exception
+  {
+    LOGGER.info ("Migrating all endpoint certificates to the certificate store");
+
+    final String sTableNameE = SMPDBExecutor.TABLE_NAME_PREFIX + "smp_endpoint";
+    final String sTableNameC = SMPDBExecutor.TABLE_NAME_PREFIX + "smp_certificate";
+    final Connection aConnection = context.getConnection ();
+
+    // The hashes of all certificates already stored
+    final ICommonsSet <String> aStoredHashes = new CommonsHashSet <> ();
+    int nEndpointCount = 0;
+
+    try (final PreparedStatement aSelectPS = aConnection.prepareStatement ("SELECT id, certificate FROM " +
+                                                                           sTableNameE +
+                                                                           " WHERE certificatehash IS NULL AND id>? ORDER BY id");
+         final PreparedStatement aInsertPS = aConnection.prepareStatement ("INSERT INTO " +
+                                                                           sTableNameC +
+                                                                           " (hash, certificate) VALUES (?, ?)");
+         final PreparedStatement aUpdatePS = aConnection.prepareStatement ("UPDATE " +
+                                                                           sTableNameE +
+                                                                           " SET certificatehash=?, certificate=NULL WHERE id=?"))
+    {
+      // Database independent way to limit the result size
+      aSelectPS.setMaxRows (PAGE_SIZE);
+
+      String sLastID = "";
+      int nRowsInPage;
+      do
+      {
+        // Endpoint ID to hash
+        final ICommonsOrderedMap <String, String> aEndpoints = new CommonsLinkedHashMap <> ();
+        nRowsInPage = 0;
+        aSelectPS.setString (1, sLastID);
+        try (final ResultSet aRS = aSelectPS.executeQuery ())
+        {
+          while (aRS.next ())
+          {
+            ++nRowsInPage;
+            sLastID = aRS.getString (1);
+            final String sCert = aRS.getString (2);
+            if (StringHelper.isNotEmpty (sCert))
+            {
+              final String sHash = SMPCertificateCache.getCertificateHash (sCert);
+              // Store only one instance per distinct certificate
+              if (aStoredHashes.add (sHash))
+              {
+                aInsertPS.setString (1, sHash);
+                aInsertPS.setString (2, sCert);
+                aInsertPS.executeUpdate ();
+              }
+              aEndpoints.put (sLastID, sHash);
+            }
+          }
+        }
+
+        if (aEndpoints.isNotEmpty ())
+        {
+          for (final Map.Entry <String, String> aEntry : aEndpoints.entrySet ())
+          {
+            aUpdatePS.setString (1, aEntry.getValue ());
+            aUpdatePS.setString (2, aEntry.getKey ());
+            aUpdatePS.addBatch ();
+          }
+          aUpdatePS.executeBatch ();
+          nEndpointCount += aEndpoints.size ();
+        }
+      } while (nRowsInPage == PAGE_SIZE);
+    }
+
+    LOGGER.info ("Finished migrating the certificates of " +
+                 nEndpointCount +
+                 " endpoints to " +
+                 aStoredHashes.size () +
+                 " distinct certificates");
+  }
+}
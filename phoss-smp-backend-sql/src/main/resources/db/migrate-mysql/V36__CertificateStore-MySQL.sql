@@ -0,0 +1,25 @@
+--
+-- Copyright (C) 2019-2026 Philip Helger and contributors
+-- philip[at]helger[dot]com
+--
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.
+-- You may obtain a copy of the License at
+--
+--         http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing, software
+-- distributed under the License is distributed on an "AS IS" BASIS,
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+-- See the License for the specific language governing permissions and
+-- limitations under the License.
+--
+
+CREATE TABLE `smp_certificate` (
+  `hash`        varchar(64) NOT NULL COMMENT 'Hex encoded SHA-256 hash of the certificate',
+  `certificate` longtext    NOT NULL COMMENT 'The certificate',
+  PRIMARY KEY (`hash`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='SMP Certificate Store';
+
+ALTER TABLE `smp_endpoint` ADD COLUMN `certificatehash` varchar(64) NULL COMMENT 'Reference to smp_certificate';
+ALTER TABLE `smp_endpoint` MODIFY `certificate` longtext NULL;
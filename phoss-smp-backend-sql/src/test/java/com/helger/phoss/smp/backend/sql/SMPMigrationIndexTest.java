@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsSet;
+
+/**
+ * Test that the Flyway migration scripts of all supported databases create an index for the
+ * columns used by the hot lookups.
+ *
+ * @author Philip Helger
+ */
+public final class SMPMigrationIndexTest
+{
+  private static final String [] DB_NAMES = { "db2", "mysql", "oracle", "postgresql", "sqlserver" };
+
+  /** Table and leading index column of the hot lookups */
+  private static final String [] REQUIRED_INDEXES = { "smp_bce.pid",
+                                                      "smp_ownership.username",
+                                                      "smp_endpoint.endpointreference",
+                                                      "smp_endpoint.certificatehash",
+                                                      "smp_audit.dt" };
+
+  private static final Pattern PATTERN_CREATE_INDEX = Pattern.compile ("CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+\\w+\\s+ON\\s+(\\w+)\\s*\\(\\s*(\\w+)",
+                                                                       Pattern.CASE_INSENSITIVE);
+  private static final Pattern PATTERN_ALTER_ADD_INDEX = Pattern.compile ("ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+(?:INDEX|KEY)\\s+\\w+\\s*\\(\\s*(\\w+)",
+                                                                          Pattern.CASE_INSENSITIVE);
+  private static final Pattern PATTERN_CREATE_TABLE = Pattern.compile ("CREATE\\s+TABLE\\s+(\\w+)",
+                                                                       Pattern.CASE_INSENSITIVE);
+  // Must start the line, so that foreign keys are not matched
+  private static final Pattern PATTERN_TABLE_KEY = Pattern.compile ("^\\s*(?:PRIMARY\\s+|UNIQUE\\s+)?KEY\\s+(?:\\w+\\s+)?\\(\\s*(\\w+)",
+                                                                    Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+
+  private static void _addIndex (final ICommonsSet <String> aIndexes, final String sTable, final String sColumn)
+  {
+    aIndexes.add ((sTable + "." + sColumn).toLowerCase (Locale.ROOT));
+  }
+
+  private static ICommonsSet <String> _getAllIndexedColumns (final String sDBName) throws IOException
+  {
+    final File aDir = new File ("src/main/resources/db/migrate-" + sDBName);
+    assertTrue (aDir.getAbsolutePath (), aDir.isDirectory ());
+
+    final ICommonsSet <String> ret = new CommonsHashSet <> ();
+    for (final File aFile : aDir.listFiles ((d, n) -> n.endsWith (".sql")))
+    {
+      // Quoting and comments are not relevant for the check
+      final String sContent = Files.readString (aFile.toPath (), StandardCharsets.UTF_8)
+                                   .replaceAll ("--[^\n]*", "")
+                                   .replace ("`", "");
+      for (final String sStatement : sContent.split (";"))
+      {
+        Matcher aMatcher = PATTERN_CREATE_INDEX.matcher (sStatement);
+        while (aMatcher.find ())
+          _addIndex (ret, aMatcher.group (1), aMatcher.group (2));
+
+        aMatcher = PATTERN_ALTER_ADD_INDEX.matcher (sStatement);
+        while (aMatcher.find ())
+          _addIndex (ret, aMatcher.group (1), aMatcher.group (2));
+
+        // Inline keys, as used by MySQL
+        aMatcher = PATTERN_CREATE_TABLE.matcher (sStatement);
+        if (aMatcher.find ())
+        {
+          final String sTable = aMatcher.group (1);
+          final Matcher aKeyMatcher = PATTERN_TABLE_KEY.matcher (sStatement);
+          while (aKeyMatcher.find ())
+            _addIndex (ret, sTable, aKeyMatcher.group (1));
+        }
+      }
+    }
+    return ret;
+  }
+
+  @Test
+  public void testHotLookupsAreIndexed () throws IOException
+  {
+    for (final String sDBName : DB_NAMES)
+    {
+      final ICommonsSet <String> aIndexes = _getAllIndexedColumns (sDBName);
+      for (final String sRequired : REQUIRED_INDEXES)
+        assertTrue ("Missing index on " + sRequired + " for " + sDBName, aIndexes.contains (sRequired));
+    }
+  }
+}
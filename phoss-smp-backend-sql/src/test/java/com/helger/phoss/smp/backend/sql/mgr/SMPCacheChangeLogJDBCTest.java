@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.phoss.smp.backend.sql.mgr.SMPCacheChangeLogJDBC.ChangeEntry;
+import com.helger.photon.core.mock.PhotonCoreTestRule;
+
+/**
+ * Test class for class {@link SMPCacheChangeLogJDBC}. Only the database independent parts are
+ * tested.
+ *
+ * @author Philip Helger
+ */
+public final class SMPCacheChangeLogJDBCTest
+{
+  private static final String TYPE = SMPCacheChangeLogJDBC.CACHE_TYPE_SERVICE_GROUP;
+
+  @Rule
+  public final PhotonCoreTestRule m_aRule = new PhotonCoreTestRule ();
+
+  @NonNull
+  private static SMPCacheChangeLogJDBC _createChangeLog (@NonNull final ICommonsList <String> aInvalidated)
+  {
+    final SMPCacheChangeLogJDBC ret = SMPCacheChangeLogJDBC.getInstance ();
+    ret.registerInvalidator (TYPE, aInvalidated::add);
+    return ret;
+  }
+
+  @NonNull
+  private static ICommonsList <ChangeEntry> _entries (final long... aIDs)
+  {
+    final ICommonsList <ChangeEntry> ret = new CommonsArrayList <> ();
+    for (final long nID : aIDs)
+      ret.add (new ChangeEntry (nID, TYPE, "key" + nID));
+    return ret;
+  }
+
+  @Test
+  public void testSequential ()
+  {
+    final ICommonsList <String> aInvalidated = new CommonsArrayList <> ();
+    final SMPCacheChangeLogJDBC aChangeLog = _createChangeLog (aInvalidated);
+    aChangeLog.initLastID (10);
+    assertEquals (10, aChangeLog.getPollFromID (0));
+
+    // Entries up to the last ID were already present at startup
+    assertEquals (2, aChangeLog.processChanges (_entries (9, 10, 11, 12), 0));
+    assertEquals (new CommonsArrayList <> ("key11", "key12"), aInvalidated);
+    assertEquals (0, aChangeLog.getGapCount ());
+    assertEquals (12, aChangeLog.getPollFromID (0));
+
+    // Same entries again
+    assertEquals (0, aChangeLog.processChanges (_entries (11, 12), 0));
+    assertEquals (2, aInvalidated.size ());
+
+    // Unknown cache types are ignored
+    assertEquals (1, aChangeLog.processChanges (new CommonsArrayList <> (new ChangeEntry (13, "unknown", "x")), 0));
+    assertEquals (2, aInvalidated.size ());
+    assertEquals (13, aChangeLog.getPollFromID (0));
+  }
+
+  @Test
+  public void testGapClosedByLateCommit ()
+  {
+    final ICommonsList <String> aInvalidated = new CommonsArrayList <> ();
+    final SMPCacheChangeLogJDBC aChangeLog = _createChangeLog (aInvalidated);
+    aChangeLog.initLastID (0);
+
+    // IDs 2 and 3 are not yet committed
+    assertEquals (2, aChangeLog.processChanges (_entries (1, 4), 0));
+    assertEquals (2, aChangeLog.getGapCount ());
+    // Read again starting before the first gap
+    assertEquals (1, aChangeLog.getPollFromID (0));
+
+    // ID 3 gets committed
+    assertEquals (1, aChangeLog.processChanges (_entries (3, 4), 0));
+    assertEquals (new CommonsArrayList <> ("key1", "key4", "key3"), aInvalidated);
+    assertEquals (1, aChangeLog.getGapCount ());
+    assertEquals (1, aChangeLog.getPollFromID (0));
+
+    // ID 2 gets committed together with a new entry
+    assertEquals (2, aChangeLog.processChanges (_entries (2, 3, 4, 5), 0));
+    assertEquals (new CommonsArrayList <> ("key1", "key4", "key3", "key2", "key5"), aInvalidated);
+    assertEquals (0, aChangeLog.getGapCount ());
+    assertEquals (5, aChangeLog.getPollFromID (0));
+  }
+
+  @Test
+  public void testGapTimeout ()
+  {
+    final ICommonsList <String> aInvalidated = new CommonsArrayList <> ();
+    final SMPCacheChangeLogJDBC aChangeLog = _createChangeLog (aInvalidated);
+    aChangeLog.initLastID (0);
+
+    // ID 2 is e.g. a rolled back transaction
+    assertEquals (2, aChangeLog.processChanges (_entries (1, 3), 0));
+    assertEquals (1, aChangeLog.getPollFromID (TimeUnit.SECONDS.toNanos (29)));
+    assertEquals (1, aChangeLog.getGapCount ());
+
+    // Gap is given up after the timeout
+    assertEquals (3, aChangeLog.getPollFromID (TimeUnit.SECONDS.toNanos (31)));
+    assertEquals (0, aChangeLog.getGapCount ());
+  }
+
+  @Test
+  public void testMaxGaps ()
+  {
+    final ICommonsList <String> aInvalidated = new CommonsArrayList <> ();
+    final SMPCacheChangeLogJDBC aChangeLog = _createChangeLog (aInvalidated);
+    aChangeLog.initLastID (0);
+
+    // Huge jump - only the last gaps are remembered
+    assertEquals (1, aChangeLog.processChanges (_entries (5_000), 0));
+    assertEquals (1_000, aChangeLog.getGapCount ());
+    assertEquals (3_999, aChangeLog.getPollFromID (0));
+  }
+
+  @Test
+  public void testRestart ()
+  {
+    final ICommonsList <String> aInvalidated = new CommonsArrayList <> ();
+    final SMPCacheChangeLogJDBC aChangeLog = _createChangeLog (aInvalidated);
+    aChangeLog.initLastID (0);
+    assertEquals (2, aChangeLog.processChanges (_entries (1, 3), 0));
+    assertEquals (1, aChangeLog.getGapCount ());
+
+    // After a restart the caches are empty, so old entries and gaps are irrelevant
+    aChangeLog.initLastID (7);
+    assertEquals (0, aChangeLog.getGapCount ());
+    assertEquals (7, aChangeLog.getPollFromID (0));
+    assertEquals (1, aChangeLog.processChanges (_entries (2, 6, 7, 8), 0));
+    assertEquals (new CommonsArrayList <> ("key1", "key3", "key8"), aInvalidated);
+
+    // Negative values (empty table) are handled
+    aChangeLog.initLastID (-1);
+    assertEquals (0, aChangeLog.getPollFromID (0));
+  }
+
+  @Test
+  public void testKeyAllFallback ()
+  {
+    assertEquals ("iso6523-actorid-upis::9915:test",
+                  SMPCacheChangeLogJDBC.getStoredKey ("iso6523-actorid-upis::9915:test"));
+    final String sMaxKey = StringHelper.getRepeated ('a', SMPCacheChangeLogJDBC.MAX_LEN_KEY);
+    assertEquals (sMaxKey, SMPCacheChangeLogJDBC.getStoredKey (sMaxKey));
+    assertEquals (SMPCacheChangeLogJDBC.KEY_ALL, SMPCacheChangeLogJDBC.getStoredKey (sMaxKey + "a"));
+
+    // KEY_ALL is passed to the invalidator
+    final ICommonsList <String> aInvalidated = new CommonsArrayList <> ();
+    final SMPCacheChangeLogJDBC aChangeLog = _createChangeLog (aInvalidated);
+    aChangeLog.initLastID (0);
+    assertEquals (1,
+                  aChangeLog.processChanges (new CommonsArrayList <> (new ChangeEntry (1,
+                                                                                      TYPE,
+                                                                                      SMPCacheChangeLogJDBC.KEY_ALL)),
+                                             0));
+    assertTrue (aInvalidated.contains (SMPCacheChangeLogJDBC.KEY_ALL));
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link SMPJdbcLookupCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPJdbcLookupCacheTest
+{
+  @Test
+  public void testBasic ()
+  {
+    final SMPJdbcLookupCache <String> aCache = new SMPJdbcLookupCache <> ("test", Duration.ofMinutes (1), 10);
+    assertNull (aCache.getFromCache ("a"));
+    assertEquals (0, aCache.getHitCount ());
+    assertEquals (1, aCache.getMissCount ());
+
+    aCache.putInCache ("a", "va");
+    aCache.putInCache ("b", "vb");
+    assertEquals ("va", aCache.getFromCache ("a"));
+    assertEquals ("vb", aCache.getFromCache ("b"));
+    assertEquals (2, aCache.getHitCount ());
+
+    aCache.invalidate ("a");
+    assertNull (aCache.getFromCache ("a"));
+    assertEquals ("vb", aCache.getFromCache ("b"));
+    assertEquals (1, aCache.getInvalidationCount ());
+
+    aCache.invalidateAll ();
+    assertNull (aCache.getFromCache ("b"));
+    assertEquals (2, aCache.getInvalidationCount ());
+    assertEquals (3, aCache.getHitCount ());
+    assertEquals (3, aCache.getMissCount ());
+  }
+
+  @Test
+  public void testGeneration ()
+  {
+    final SMPJdbcLookupCache <String> aCache = new SMPJdbcLookupCache <> ("test", Duration.ofMinutes (1), 10);
+    final long nGeneration = aCache.getCurrentGeneration ();
+    assertTrue (aCache.putInCache (nGeneration, "a", "va"));
+    assertEquals ("va", aCache.getFromCache ("a"));
+
+    // Read started before the invalidation of another key
+    final long nOldGeneration = aCache.getCurrentGeneration ();
+    aCache.invalidate ("b");
+    assertFalse (aCache.putInCache (nOldGeneration, "b", "vb"));
+    assertNull (aCache.getFromCache ("b"));
+    assertEquals ("va", aCache.getFromCache ("a"));
+
+    // Read started before a complete invalidation
+    final long nOldGeneration2 = aCache.getCurrentGeneration ();
+    aCache.invalidateAll ();
+    assertFalse (aCache.putInCache (nOldGeneration2, "a", "va2"));
+    assertNull (aCache.getFromCache ("a"));
+
+    assertTrue (aCache.putInCache (aCache.getCurrentGeneration (), "a", "va3"));
+    assertEquals ("va3", aCache.getFromCache ("a"));
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.helger.db.api.EDatabaseSystemType;
+
+/**
+ * Test class for class {@link SMPJdbcMultiRowInsert}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPJdbcMultiRowInsertTest
+{
+  @Test
+  public void testGetInsertSQL ()
+  {
+    SMPJdbcMultiRowInsert aInsert = new SMPJdbcMultiRowInsert (EDatabaseSystemType.POSTGRESQL, "smp.t", "a", "b");
+    assertEquals ("INSERT INTO smp.t (a, b) VALUES (?, ?)", aInsert.getInsertSQL (1));
+    assertEquals ("INSERT INTO smp.t (a, b) VALUES (?, ?), (?, ?)", aInsert.getInsertSQL (2));
+
+    aInsert = new SMPJdbcMultiRowInsert (EDatabaseSystemType.ORACLE, "t", "a", "b");
+    assertEquals ("INSERT ALL INTO t (a, b) VALUES (?, ?) INTO t (a, b) VALUES (?, ?) SELECT 1 FROM DUAL",
+                  aInsert.getInsertSQL (2));
+  }
+
+  @Test
+  public void testAddRow ()
+  {
+    final SMPJdbcMultiRowInsert aInsert = new SMPJdbcMultiRowInsert (EDatabaseSystemType.MYSQL, "t", "a", "b");
+    assertEquals (0, aInsert.getRowCount ());
+    aInsert.addRow ("x", null);
+    aInsert.addRow ("y", Integer.valueOf (1));
+    assertEquals (2, aInsert.getRowCount ());
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testAddRowWrongCount ()
+  {
+    new SMPJdbcMultiRowInsert (EDatabaseSystemType.MYSQL, "t", "a", "b").addRow ("x");
+  }
+}
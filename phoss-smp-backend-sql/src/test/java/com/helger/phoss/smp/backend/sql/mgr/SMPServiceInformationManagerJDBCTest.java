@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.UnaryOperator;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.backend.sql.mgr.SMPServiceInformationManagerJDBC.StreamingServiceInformationBuilder;
+import com.helger.phoss.smp.backend.sql.mgr.SMPServiceInformationManagerJDBC.StreamingServiceInformationBuilder.IServiceInformationHandler;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+
+/**
+ * Test class for class {@link SMPServiceInformationManagerJDBC}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPServiceInformationManagerJDBCTest
+{
+  private static final class ReadServiceInformation
+  {
+    private final IParticipantIdentifier m_aParticipantID;
+    private final IDocumentTypeIdentifier m_aDocTypeID;
+    private final ICommonsList <SMPProcess> m_aProcesses;
+
+    ReadServiceInformation (@NonNull final IParticipantIdentifier aParticipantID,
+                            @NonNull final IDocumentTypeIdentifier aDocTypeID,
+                            @NonNull final ICommonsList <SMPProcess> aProcesses)
+    {
+      m_aParticipantID = aParticipantID;
+      m_aDocTypeID = aDocTypeID;
+      m_aProcesses = aProcesses;
+    }
+  }
+
+  @NonNull
+  private static ResultSet _createRow (@NonNull final String sParticipantID,
+                                       @NonNull final String sDocTypeID,
+                                       @NonNull final String sProcessID,
+                                       @NonNull final String sEndpointID,
+                                       @Nullable final String sCertificateHash)
+  {
+    // Same column order as the ordered service information query
+    final Object [] aRow = { "iso6523-actorid-upis",
+                             sParticipantID,
+                             "busdox-docid-qns",
+                             sDocTypeID,
+                             null,
+                             "cenbii-procid-ubl",
+                             sProcessID,
+                             null,
+                             sEndpointID,
+                             "peppol-transport-as4-v2_0",
+                             "https://ap.example.org/as4",
+                             Boolean.FALSE,
+                             null,
+                             null,
+                             null,
+                             sCertificateHash,
+                             "desc",
+                             "contact@example.org",
+                             null,
+                             null };
+    return (ResultSet) Proxy.newProxyInstance (SMPServiceInformationManagerJDBCTest.class.getClassLoader (),
+                                               new Class <?> [] { ResultSet.class },
+                                               (aProxy, aMethod, aArgs) -> {
+                                                 switch (aMethod.getName ())
+                                                 {
+                                                   case "getString":
+                                                   case "getObject":
+                                                   case "getTimestamp":
+                                                     return aRow[((Integer) aArgs[0]).intValue () - 1];
+                                                   default:
+                                                     throw new UnsupportedOperationException (aMethod.getName ());
+                                                 }
+                                               });
+  }
+
+  @Test
+  public void testStreamingBuilder () throws SQLException
+  {
+    final ICommonsList <ReadServiceInformation> aRead = new CommonsArrayList <> ();
+    final IServiceInformationHandler aHandler = (aPID,
+                                                 aDocTypeID,
+                                                 aProcesses,
+                                                 sExt) -> aRead.add (new ReadServiceInformation (aPID, aDocTypeID, aProcesses));
+    final ICommonsList <String> aResolvedHashes = new CommonsArrayList <> ();
+    final UnaryOperator <String> aCertificateResolver = sHash -> {
+      if (sHash == null)
+        return null;
+      aResolvedHashes.add (sHash);
+      return "cert-" + sHash;
+    };
+    final StreamingServiceInformationBuilder aBuilder = new StreamingServiceInformationBuilder (aHandler,
+                                                                                                aCertificateResolver);
+
+    // The rows are ordered by participant, document type and process
+    aBuilder.handleRow (_createRow ("9915:a", "doc1", "proc1", "ep1", "h1"));
+    aBuilder.handleRow (_createRow ("9915:a", "doc1", "proc1", "ep2", "h1"));
+    aBuilder.handleRow (_createRow ("9915:a", "doc1", "proc2", "ep3", null));
+    aBuilder.handleRow (_createRow ("9915:a", "doc2", "proc1", "ep4", "h2"));
+    // Same process and document type, but a different participant
+    aBuilder.handleRow (_createRow ("9915:b", "doc2", "proc1", "ep5", "h2"));
+
+    // The last service information is only emitted when finishing
+    assertEquals (2, aRead.size ());
+    aBuilder.finishServiceInformation ();
+    assertEquals (3, aRead.size ());
+
+    // Finishing again has no effect
+    aBuilder.finishServiceInformation ();
+    assertEquals (3, aRead.size ());
+
+    ReadServiceInformation aSI = aRead.get (0);
+    assertEquals ("9915:a", aSI.m_aParticipantID.getValue ());
+    assertEquals ("doc1", aSI.m_aDocTypeID.getValue ());
+    assertEquals (2, aSI.m_aProcesses.size ());
+    assertEquals ("proc1", aSI.m_aProcesses.get (0).getProcessIdentifier ().getValue ());
+    assertEquals (2, aSI.m_aProcesses.get (0).getEndpointCount ());
+    final ISMPEndpoint aEP1 = aSI.m_aProcesses.get (0).getEndpointOfID ("ep1");
+    assertEquals ("cert-h1", aEP1.getCertificate ());
+    assertEquals ("https://ap.example.org/as4", aEP1.getEndpointReference ());
+    assertFalse (aEP1.isRequireBusinessLevelSignature ());
+    assertEquals ("proc2", aSI.m_aProcesses.get (1).getProcessIdentifier ().getValue ());
+    assertEquals (1, aSI.m_aProcesses.get (1).getEndpointCount ());
+    assertNull (aSI.m_aProcesses.get (1).getEndpointOfID ("ep3").getCertificate ());
+
+    aSI = aRead.get (1);
+    assertEquals ("9915:a", aSI.m_aParticipantID.getValue ());
+    assertEquals ("doc2", aSI.m_aDocTypeID.getValue ());
+    assertEquals (1, aSI.m_aProcesses.size ());
+    assertEquals (1, aSI.m_aProcesses.get (0).getEndpointCount ());
+    assertNotNull (aSI.m_aProcesses.get (0).getEndpointOfID ("ep4"));
+
+    aSI = aRead.get (2);
+    assertEquals ("9915:b", aSI.m_aParticipantID.getValue ());
+    assertEquals ("doc2", aSI.m_aDocTypeID.getValue ());
+    assertEquals (1, aSI.m_aProcesses.size ());
+    assertEquals (1, aSI.m_aProcesses.get (0).getEndpointCount ());
+    assertEquals ("cert-h2", aSI.m_aProcesses.get (0).getEndpointOfID ("ep5").getCertificate ());
+
+    // Each endpoint with a certificate was resolved
+    assertEquals (new CommonsArrayList <> ("h1", "h1", "h2", "h2"), aResolvedHashes);
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.sql.mgr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.helger.base.state.EChange;
+import com.helger.base.state.ESuccess;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.phoss.smp.settings.SMPSettings;
+import com.helger.photon.core.mock.PhotonCoreTestRule;
+
+/**
+ * Test class for class {@link SMPSettingsManagerJDBC}. The database is replaced by an in-memory
+ * map.
+ *
+ * @author Philip Helger
+ */
+public final class SMPSettingsManagerJDBCTest
+{
+  private static final class InMemorySettingsManager extends SMPSettingsManagerJDBC
+  {
+    private final ICommonsMap <String, String> m_aValues = new CommonsHashMap <> ();
+    private final AtomicInteger m_aWrites = new AtomicInteger (0);
+
+    InMemorySettingsManager ()
+    {
+      super ( () -> {
+        throw new IllegalStateException ("No DB access expected");
+      }, "");
+    }
+
+    @Override
+    @NonNull
+    public ESuccess setSettingsValuesInDB (@NonNull final Map <String, String> aEntries)
+    {
+      m_aWrites.incrementAndGet ();
+      m_aValues.putAll (aEntries);
+      return ESuccess.SUCCESS;
+    }
+
+    @Override
+    @NonNull
+    public ICommonsMap <String, String> getAllSettingsValuesFromDB ()
+    {
+      return m_aValues.getClone ();
+    }
+
+    @Override
+    @Nullable
+    public String getSettingsValue (@Nullable final String sKey)
+    {
+      return m_aValues.get (sKey);
+    }
+  }
+
+  @Rule
+  public final PhotonCoreTestRule m_aRule = new PhotonCoreTestRule ();
+
+  @NonNull
+  private static EChange _update (@NonNull final SMPSettingsManagerJDBC aMgr,
+                                  final boolean bDirectoryIntegrationEnabled,
+                                  @Nullable final String sSMLInfoID)
+  {
+    return aMgr.updateSettings (false, bDirectoryIntegrationEnabled, false, true, "", true, false, sSMLInfoID);
+  }
+
+  private static void _testUnchangedUpdate (@NonNull final InMemorySettingsManager aMgr)
+  {
+    final AtomicInteger aCallbacks = new AtomicInteger (0);
+    aMgr.callbacks ().add (x -> aCallbacks.incrementAndGet ());
+
+    assertTrue (_update (aMgr, true, "sml1").isChanged ());
+    assertEquals (1, aMgr.m_aWrites.get ());
+    assertEquals (1, aCallbacks.get ());
+    final String sVersion = aMgr.getSettingsValue ("settings-version");
+    assertNotNull (sVersion);
+
+    // Same values again - nothing is written and the version is unchanged
+    assertTrue (_update (aMgr, true, "sml1").isUnchanged ());
+    assertEquals (1, aMgr.m_aWrites.get ());
+    assertEquals (1, aCallbacks.get ());
+    assertEquals (sVersion, aMgr.getSettingsValue ("settings-version"));
+
+    // A real change
+    assertTrue (_update (aMgr, true, "sml2").isChanged ());
+    assertEquals (2, aMgr.m_aWrites.get ());
+    assertEquals (2, aCallbacks.get ());
+    assertNotEquals (sVersion, aMgr.getSettingsValue ("settings-version"));
+    assertEquals ("sml2", aMgr.getSettings ().getSMLInfoID ());
+  }
+
+  @Test
+  public void testUnchangedUpdateWithCache ()
+  {
+    final InMemorySettingsManager aMgr = new InMemorySettingsManager ();
+    aMgr.setCacheRevalidationInterval (Duration.ofHours (1));
+    _testUnchangedUpdate (aMgr);
+  }
+
+  @Test
+  public void testUnchangedUpdateWithoutCache ()
+  {
+    final InMemorySettingsManager aMgr = new InMemorySettingsManager ();
+    assertFalse (aMgr.isCacheEnabled ());
+    _testUnchangedUpdate (aMgr);
+  }
+
+  @Test
+  public void testUnchangedUpdateAfterChangeOfOtherNode ()
+  {
+    final InMemorySettingsManager aMgr = new InMemorySettingsManager ();
+    aMgr.setCacheRevalidationInterval (Duration.ofHours (1));
+    assertTrue (_update (aMgr, true, "sml1").isChanged ());
+
+    // Another node changes the settings - not yet visible in the cache
+    aMgr.m_aValues.put ("smlinfo-id", "sml2");
+    aMgr.m_aValues.put ("settings-version", "other-node");
+
+    // The update to the old cached values is still performed
+    assertTrue (_update (aMgr, true, "sml1").isChanged ());
+    assertEquals ("sml1", aMgr.m_aValues.get ("smlinfo-id"));
+  }
+
+  @Test
+  public void testIsSameSettings ()
+  {
+    final SMPSettings a = SMPSettings.createEmpty ();
+    final SMPSettings b = SMPSettings.createEmpty ();
+    assertTrue (SMPSettingsManagerJDBC.isSameSettings (a, b));
+
+    b.setDirectoryHostName ("https://directory.example.org");
+    assertFalse (SMPSettingsManagerJDBC.isSameSettings (a, b));
+    a.setDirectoryHostName ("https://directory.example.org");
+    assertTrue (SMPSettingsManagerJDBC.isSameSettings (a, b));
+
+    b.setSMLEnabled (!a.isSMLEnabled ());
+    assertFalse (SMPSettingsManagerJDBC.isSameSettings (a, b));
+  }
+}
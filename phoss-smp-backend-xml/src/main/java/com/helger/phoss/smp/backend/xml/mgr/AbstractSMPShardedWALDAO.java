@@ -0,0 +1,809 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.xml.mgr;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.concurrent.ExecutorServiceHelper;
+import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.id.IHasID;
+import com.helger.base.state.EChange;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.dao.DAOException;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupPageIterator;
+import com.helger.photon.io.WebFileIO;
+import com.helger.photon.io.dao.AbstractPhotonMapBasedWALDAO;
+import com.helger.xml.microdom.IMicroDocument;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.serialize.MicroReader;
+
+/**
+ * Base class for the XML managers of objects that belong to a service group. The objects are
+ * distributed over a fixed number of shards based on the hash code of the service group ID. Each
+ * shard is a separate {@link AbstractPhotonMapBasedWALDAO} with its own file, so that a
+ * modification only requires the affected shard file to be rewritten. All shards are read in
+ * parallel upon startup.<br>
+ * With a shard count of 1 the original file name is used, so that the file layout is identical to
+ * previous versions. If a shard count &gt; 1 is used and the original file is present, its content
+ * is distributed over the shards and the original file is renamed afterwards. The shard count may
+ * be increased later on, but never decreased.<br>
+ * Optionally a binary snapshot can be used for faster reading (see {@link ISMPSnapshotCodec}). The
+ * snapshot is written next to each XML file every time the XML file is written, and after the XML
+ * file was read. It is only used instead of the XML file if the XML file was not modified since
+ * then and if there are no pending WAL changes. The XML file always stays the primary storage, so the snapshot files can be deleted
+ * at any time.<br>
+ * Optionally an explicit item converter can be used instead of the globally registered micro type
+ * converter, so that e.g. the service group manager to resolve against can be provided explicitly.
+ *
+ * @author Philip Helger
+ * @param <INTERFACETYPE>
+ *        The interface type of the managed objects
+ * @param <IMPLTYPE>
+ *        The implementation type of the managed objects
+ * @since 8.2.1
+ */
+@ThreadSafe
+public abstract class AbstractSMPShardedWALDAO <INTERFACETYPE extends IHasID <String>, IMPLTYPE extends INTERFACETYPE>
+{
+  /** The default number of shards - 1 means the legacy single file */
+  public static final int DEFAULT_SHARD_COUNT = 1;
+  /** The maximum number of shards */
+  public static final int MAX_SHARD_COUNT = 256;
+  /** The file extension appended to the XML filename for the binary snapshot */
+  public static final String SNAPSHOT_FILE_EXTENSION = ".snapshot";
+
+  private static final int SNAPSHOT_MAGIC = 0x534d5053;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (AbstractSMPShardedWALDAO.class);
+
+  /**
+   * A single shard - makes the protected methods of the DAO accessible and writes the snapshot
+   * whenever the XML file was written.
+   *
+   * @param <I>
+   *        Interface type
+   * @param <C>
+   *        Implementation type
+   */
+  private static final class ShardDAO <I extends IHasID <String>, C extends I> extends
+                                       AbstractPhotonMapBasedWALDAO <I, C>
+  {
+    private final ISMPSnapshotCodec <C> m_aSnapshotCodec;
+    private final Function <IMicroElement, C> m_aItemConverter;
+
+    ShardDAO (@NonNull final Class <C> aImplClass,
+              @NonNull @Nonempty final String sFilename,
+              final boolean bDoInitialRead,
+              @Nullable final ISMPSnapshotCodec <C> aSnapshotCodec,
+              @Nullable final Function <IMicroElement, C> aItemConverter) throws DAOException
+    {
+      // The initial read is performed afterwards, because it requires the fields
+      super (aImplClass, sFilename, new InitSettings <C> ().setDoInitialRead (false));
+      m_aSnapshotCodec = aSnapshotCodec;
+      m_aItemConverter = aItemConverter;
+      if (bDoInitialRead)
+        initialRead ();
+    }
+
+    @Override
+    @NonNull
+    protected EChange onRead (@NonNull final IMicroDocument aDoc)
+    {
+      final Function <IMicroElement, C> aItemConverter = m_aItemConverter;
+      if (aItemConverter == null)
+        return super.onRead (aDoc);
+
+      // Read all child elements independent of the name - like the default implementation
+      aDoc.getDocumentElement ().forAllChildElements (eItem -> onRecoveryCreate (aItemConverter.apply (eItem)));
+      return EChange.UNCHANGED;
+    }
+
+    @Override
+    @Nullable
+    protected C convertWALStringToNative (@NonNull final String sElement)
+    {
+      final Function <IMicroElement, C> aItemConverter = m_aItemConverter;
+      if (aItemConverter == null)
+        return super.convertWALStringToNative (sElement);
+
+      final IMicroDocument aDoc = MicroReader.readMicroXML (sElement);
+      return aDoc == null || aDoc.getDocumentElement () == null ? null
+                                                                 : aItemConverter.apply (aDoc.getDocumentElement ());
+    }
+
+    @Override
+    protected void afterWriteToFile (@NonNull @Nonempty final String sFilename, @NonNull final File aFile)
+    {
+      super.afterWriteToFile (sFilename, aFile);
+
+      final ISMPSnapshotCodec <C> aSnapshotCodec = m_aSnapshotCodec;
+      if (aSnapshotCodec != null)
+      {
+        // Called while the XML file is written in the write lock, so the content is identical
+        final ICommonsList <C> aItems = new CommonsArrayList <> ();
+        forEachValue (aItems::add);
+        _writeSnapshot (_getSnapshotFile (aFile), aFile, aItems, aSnapshotCodec);
+      }
+    }
+
+    void addSnapshotItems (@NonNull final ICommonsList <C> aItems)
+    {
+      // Not a modification - just like reading the XML file
+      m_aRWLock.writeLocked ( () -> aItems.forEach (this::onRecoveryCreate));
+    }
+
+    void createItem (@NonNull final C aItem)
+    {
+      m_aRWLock.writeLocked ( () -> { internalCreateItem (aItem); });
+    }
+
+    void updateItem (@NonNull final C aItem)
+    {
+      m_aRWLock.writeLocked ( () -> { internalUpdateItem (aItem); });
+    }
+
+    @Nullable
+    C deleteItem (@Nullable final String sID)
+    {
+      return m_aRWLock.writeLockedGet ( () -> internalDeleteItem (sID));
+    }
+
+    @Nullable
+    C getItemOfID (@Nullable final String sID)
+    {
+      return getOfID (sID);
+    }
+
+    boolean containsItemWithID (@Nullable final String sID)
+    {
+      return containsWithID (sID);
+    }
+
+    void forEachItem (@NonNull final Consumer <? super C> aConsumer)
+    {
+      forEachValue (aConsumer);
+    }
+
+    void findAllItems (@NonNull final Predicate <? super C> aFilter, @NonNull final Consumer <? super C> aConsumer)
+    {
+      findAll (aFilter, aConsumer);
+    }
+
+    @Nullable
+    C findFirstItem (@NonNull final Predicate <? super C> aFilter)
+    {
+      return findFirst (aFilter);
+    }
+
+    @Nonnegative
+    int getItemCount ()
+    {
+      return size ();
+    }
+
+    void runWithoutAutoSave (@NonNull final Runnable aRunnable)
+    {
+      performWithoutAutoSave (aRunnable);
+    }
+
+    void flush ()
+    {
+      // Writes e.g. the changes recovered from a WAL file, so that nothing is written later on
+      writeToFileOnPendingChanges ();
+    }
+  }
+
+  protected final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+
+  private final Function <? super INTERFACETYPE, String> m_aShardKeyFct;
+  private final boolean m_bIDIsShardKey;
+  private final ICommonsList <ShardDAO <INTERFACETYPE, IMPLTYPE>> m_aShards;
+
+  /**
+   * Constructor
+   *
+   * @param aImplClass
+   *        The implementation class. May not be <code>null</code>.
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @param aShardKeyFct
+   *        The function to determine the shard key (the service group ID) of an object. May not be
+   *        <code>null</code>.
+   * @param bIDIsShardKey
+   *        <code>true</code> if the ID of each object is identical to the shard key. In that case
+   *        lookups by ID only need to query a single shard.
+   * @throws DAOException
+   *         In case reading a file failed or if the shard count was decreased
+   */
+  protected AbstractSMPShardedWALDAO (@NonNull final Class <IMPLTYPE> aImplClass,
+                                      @NonNull @Nonempty final String sFilename,
+                                      @Nonnegative final int nShardCount,
+                                      @NonNull final Function <? super INTERFACETYPE, String> aShardKeyFct,
+                                      final boolean bIDIsShardKey) throws DAOException
+  {
+    this (aImplClass, sFilename, nShardCount, aShardKeyFct, bIDIsShardKey, null, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param aImplClass
+   *        The implementation class. May not be <code>null</code>.
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @param aShardKeyFct
+   *        The function to determine the shard key (the service group ID) of an object. May not be
+   *        <code>null</code>.
+   * @param bIDIsShardKey
+   *        <code>true</code> if the ID of each object is identical to the shard key. In that case
+   *        lookups by ID only need to query a single shard.
+   * @param aSnapshotCodec
+   *        The codec for binary snapshots. May be <code>null</code> to not use snapshots.
+   * @param aItemConverter
+   *        The converter from the XML element of a single item to the item. May be
+   *        <code>null</code> to use the globally registered micro type converter.
+   * @throws DAOException
+   *         In case reading a file failed or if the shard count was decreased
+   */
+  protected AbstractSMPShardedWALDAO (@NonNull final Class <IMPLTYPE> aImplClass,
+                                      @NonNull @Nonempty final String sFilename,
+                                      @Nonnegative final int nShardCount,
+                                      @NonNull final Function <? super INTERFACETYPE, String> aShardKeyFct,
+                                      final boolean bIDIsShardKey,
+                                      @Nullable final ISMPSnapshotCodec <IMPLTYPE> aSnapshotCodec,
+                                      @Nullable final Function <IMicroElement, IMPLTYPE> aItemConverter) throws DAOException
+  {
+    ValueEnforcer.notNull (aImplClass, "ImplClass");
+    ValueEnforcer.notEmpty (sFilename, "Filename");
+    ValueEnforcer.isBetweenInclusive (nShardCount, "ShardCount", 1, MAX_SHARD_COUNT);
+    ValueEnforcer.notNull (aShardKeyFct, "ShardKeyFct");
+
+    // Check that no shard got lost
+    final String sLostShardFilename = getShardFilename (sFilename, nShardCount == 1 ? 0 : nShardCount);
+    if (WebFileIO.getDataIO ().getFile (sLostShardFilename).exists ())
+      throw new DAOException ("The XML file '" +
+                              sLostShardFilename +
+                              "' exists, but the configured shard count is " +
+                              nShardCount +
+                              ". Decreasing the shard count is not supported.");
+
+    m_aShardKeyFct = aShardKeyFct;
+    m_bIDIsShardKey = bIDIsShardKey;
+    m_aShards = _readShards (aImplClass, sFilename, nShardCount, aSnapshotCodec, aItemConverter);
+
+    if (nShardCount > 1)
+    {
+      final File aLegacyFile = WebFileIO.getDataIO ().getFile (sFilename);
+      if (aLegacyFile.exists ())
+        _migrateLegacyFile (aImplClass, sFilename, aItemConverter);
+
+      _moveMisplacedItems ();
+    }
+  }
+
+  /**
+   * Check if there are pending WAL changes for the provided XML file. This is the case if any other
+   * file starting with the name of the XML file was modified after the XML file.
+   */
+  private static boolean _hasPendingChanges (@NonNull final File aXMLFile)
+  {
+    final File aDir = aXMLFile.getParentFile ();
+    if (aDir == null)
+      return false;
+
+    final String sName = aXMLFile.getName ();
+    final long nXMLLastModified = aXMLFile.lastModified ();
+    final File [] aSiblings = aDir.listFiles ( (d, n) -> n.startsWith (sName) &&
+                                                          !n.equals (sName) &&
+                                                          !n.startsWith (sName + SNAPSHOT_FILE_EXTENSION));
+    if (aSiblings != null)
+      for (final File aSibling : aSiblings)
+        if (aSibling.lastModified () > nXMLLastModified)
+          return true;
+    return false;
+  }
+
+  @NonNull
+  private static File _getSnapshotFile (@NonNull final File aXMLFile)
+  {
+    return new File (aXMLFile.getParentFile (), aXMLFile.getName () + SNAPSHOT_FILE_EXTENSION);
+  }
+
+  @Nullable
+  private static <C> ICommonsList <C> _readSnapshot (@NonNull final File aSnapshotFile,
+                                                     @NonNull final File aXMLFile,
+                                                     @NonNull final ISMPSnapshotCodec <C> aCodec)
+  {
+    try (final DataInputStream aDIS = new DataInputStream (new BufferedInputStream (new FileInputStream (aSnapshotFile))))
+    {
+      if (aDIS.readInt () != SNAPSHOT_MAGIC || aDIS.readInt () != aCodec.getFormatVersion ())
+      {
+        LOGGER.info ("Ignoring snapshot file '" + aSnapshotFile.getName () + "' with a different format");
+        return null;
+      }
+      if (aDIS.readLong () != aXMLFile.lastModified () || aDIS.readLong () != aXMLFile.length ())
+      {
+        // The XML file was written after the snapshot
+        return null;
+      }
+      return aCodec.readItems (aDIS);
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      LOGGER.warn ("Failed to read snapshot file '" + aSnapshotFile.getName () + "' - using the XML file instead", ex);
+      return null;
+    }
+  }
+
+  private static <C> void _writeSnapshot (@NonNull final File aSnapshotFile,
+                                          @NonNull final File aXMLFile,
+                                          @NonNull final ICommonsList <C> aItems,
+                                          @NonNull final ISMPSnapshotCodec <C> aCodec)
+  {
+    final File aTempFile = new File (aSnapshotFile.getParentFile (), aSnapshotFile.getName () + ".tmp");
+    try
+    {
+      try (final DataOutputStream aDOS = new DataOutputStream (new BufferedOutputStream (new FileOutputStream (aTempFile))))
+      {
+        aDOS.writeInt (SNAPSHOT_MAGIC);
+        aDOS.writeInt (aCodec.getFormatVersion ());
+        aDOS.writeLong (aXMLFile.lastModified ());
+        aDOS.writeLong (aXMLFile.length ());
+        aCodec.writeItems (aItems, aDOS);
+      }
+      Files.move (aTempFile.toPath (), aSnapshotFile.toPath (), StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (final IOException | RuntimeException ex)
+    {
+      LOGGER.warn ("Failed to write snapshot file '" + aSnapshotFile.getName () + "'", ex);
+    }
+  }
+
+  @NonNull
+  private static <I extends IHasID <String>, C extends I> ShardDAO <I, C> _readShard (@NonNull final Class <C> aImplClass,
+                                                                                     @NonNull @Nonempty final String sFilename,
+                                                                                     @Nullable final ISMPSnapshotCodec <C> aSnapshotCodec,
+                                                                                     @Nullable final Function <IMicroElement, C> aItemConverter) throws DAOException
+  {
+    if (aSnapshotCodec == null)
+      return new ShardDAO <> (aImplClass, sFilename, true, null, aItemConverter);
+
+    final File aXMLFile = WebFileIO.getDataIO ().getFile (sFilename);
+    final File aSnapshotFile = _getSnapshotFile (aXMLFile);
+    if (aXMLFile.exists () && !_hasPendingChanges (aXMLFile) && aSnapshotFile.exists ())
+    {
+      final ICommonsList <C> aItems = _readSnapshot (aSnapshotFile, aXMLFile, aSnapshotCodec);
+      if (aItems != null)
+      {
+        final ShardDAO <I, C> ret = new ShardDAO <> (aImplClass, sFilename, false, aSnapshotCodec, aItemConverter);
+        ret.addSnapshotItems (aItems);
+        LOGGER.info ("Read " + aItems.size () + " items from snapshot file '" + aSnapshotFile.getName () + "'");
+        return ret;
+      }
+    }
+
+    final ShardDAO <I, C> ret = new ShardDAO <> (aImplClass, sFilename, true, aSnapshotCodec, aItemConverter);
+    if (aXMLFile.exists () && !_hasPendingChanges (aXMLFile))
+    {
+      // The data is identical to the XML file - remember it for the next time
+      final ICommonsList <C> aItems = new CommonsArrayList <> ();
+      ret.forEachItem (aItems::add);
+      _writeSnapshot (aSnapshotFile, aXMLFile, aItems, aSnapshotCodec);
+    }
+    return ret;
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  private static <I extends IHasID <String>, C extends I> ICommonsList <ShardDAO <I, C>> _readShards (@NonNull final Class <C> aImplClass,
+                                                                                                     @NonNull @Nonempty final String sFilename,
+                                                                                                     @Nonnegative final int nShardCount,
+                                                                                                     @Nullable final ISMPSnapshotCodec <C> aSnapshotCodec,
+                                                                                                     @Nullable final Function <IMicroElement, C> aItemConverter) throws DAOException
+  {
+    if (nShardCount == 1)
+    {
+      // Legacy layout
+      return new CommonsArrayList <> (_readShard (aImplClass, sFilename, aSnapshotCodec, aItemConverter));
+    }
+
+    final ExecutorService aES = Executors.newFixedThreadPool (Math.min (nShardCount,
+                                                                        Runtime.getRuntime ().availableProcessors ()));
+    try
+    {
+      final ICommonsList <Future <ShardDAO <I, C>>> aFutures = new CommonsArrayList <> (nShardCount);
+      for (int i = 0; i < nShardCount; ++i)
+      {
+        final String sShardFilename = getShardFilename (sFilename, i);
+        aFutures.add (aES.submit ( () -> _readShard (aImplClass, sShardFilename, aSnapshotCodec, aItemConverter)));
+      }
+
+      final ICommonsList <ShardDAO <I, C>> ret = new CommonsArrayList <> (nShardCount);
+      for (final Future <ShardDAO <I, C>> aFuture : aFutures)
+        ret.add (aFuture.get ());
+      return ret;
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      throw new DAOException ("Interrupted while reading the shards of '" + sFilename + "'", ex);
+    }
+    catch (final ExecutionException ex)
+    {
+      if (ex.getCause () instanceof DAOException)
+        throw (DAOException) ex.getCause ();
+      throw new DAOException ("Failed to read the shards of '" + sFilename + "'", ex.getCause ());
+    }
+    finally
+    {
+      ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aES);
+    }
+  }
+
+  private void _migrateLegacyFile (@NonNull final Class <IMPLTYPE> aImplClass,
+                                   @NonNull @Nonempty final String sFilename,
+                                   @Nullable final Function <IMicroElement, IMPLTYPE> aItemConverter) throws DAOException
+  {
+    LOGGER.info ("Distributing the content of the XML file '" + sFilename + "' over " + m_aShards.size () + " shards");
+
+    final ShardDAO <INTERFACETYPE, IMPLTYPE> aLegacyDAO = new ShardDAO <> (aImplClass, sFilename, true, null, aItemConverter);
+    performWithoutAutoSave ( () -> aLegacyDAO.forEachItem (this::_createOrUpdateInShard));
+
+    // The legacy DAO must not write its file after it was renamed
+    aLegacyDAO.flush ();
+    WebFileIO.getDataIO ().renameFile (sFilename, sFilename + ".migrated");
+    LOGGER.info ("Finished distributing " + aLegacyDAO.getItemCount () + " items of the XML file '" + sFilename + "'");
+  }
+
+  private void _createOrUpdateInShard (@NonNull final IMPLTYPE aItem)
+  {
+    // In case a previous migration or move was interrupted
+    final ShardDAO <INTERFACETYPE, IMPLTYPE> aShard = _getShardOfItem (aItem);
+    if (aShard.containsItemWithID (aItem.getID ()))
+      aShard.updateItem (aItem);
+    else
+      aShard.createItem (aItem);
+  }
+
+  private void _moveMisplacedItems ()
+  {
+    // Required if the shard count was increased
+    final int nShardCount = m_aShards.size ();
+    for (int i = 0; i < nShardCount; ++i)
+    {
+      final int nShardIndex = i;
+      final ShardDAO <INTERFACETYPE, IMPLTYPE> aShard = m_aShards.get (i);
+      final ICommonsList <IMPLTYPE> aMisplaced = new CommonsArrayList <> ();
+      aShard.findAllItems (x -> getShardIndex (m_aShardKeyFct.apply (x), nShardCount) != nShardIndex,
+                           aMisplaced::add);
+      if (aMisplaced.isNotEmpty ())
+      {
+        LOGGER.info ("Moving " + aMisplaced.size () + " items of shard " + nShardIndex + " to their new shards");
+        for (final IMPLTYPE aItem : aMisplaced)
+        {
+          // Create first, so that an interruption never loses an item
+          _createOrUpdateInShard (aItem);
+          aShard.deleteItem (aItem.getID ());
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the index of the shard the provided key belongs to. The result is stable across JVMs,
+   * because {@link String#hashCode()} is well defined.
+   *
+   * @param sShardKey
+   *        The shard key (the service group ID). May not be <code>null</code>.
+   * @param nShardCount
+   *        The number of shards. Must be &gt; 0.
+   * @return The 0-based shard index. Always &ge; 0 and &lt; shard count.
+   */
+  @Nonnegative
+  public static int getShardIndex (@NonNull final String sShardKey, @Nonnegative final int nShardCount)
+  {
+    ValueEnforcer.notNull (sShardKey, "ShardKey");
+    ValueEnforcer.isGT0 (nShardCount, "ShardCount");
+    return Math.floorMod (sShardKey.hashCode (), nShardCount);
+  }
+
+  /**
+   * Get the filename of a single shard. E.g. <code>smp-servicegroup.xml</code> becomes
+   * <code>smp-servicegroup-shard-007.xml</code>.
+   *
+   * @param sFilename
+   *        The base filename. May not be <code>null</code>.
+   * @param nShardIndex
+   *        The 0-based shard index.
+   * @return The filename of the shard. Never <code>null</code>.
+   */
+  @NonNull
+  @Nonempty
+  public static String getShardFilename (@NonNull @Nonempty final String sFilename, @Nonnegative final int nShardIndex)
+  {
+    ValueEnforcer.notEmpty (sFilename, "Filename");
+    ValueEnforcer.isGE0 (nShardIndex, "ShardIndex");
+
+    final String sSuffix = String.format (Locale.ROOT, "-shard-%03d", Integer.valueOf (nShardIndex));
+    final int nDot = sFilename.lastIndexOf ('.');
+    if (nDot <= sFilename.lastIndexOf ('/'))
+      return sFilename + sSuffix;
+    return sFilename.substring (0, nDot) + sSuffix + sFilename.substring (nDot);
+  }
+
+  /**
+   * @return The number of shards used. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getShardCount ()
+  {
+    return m_aShards.size ();
+  }
+
+  @NonNull
+  private ShardDAO <INTERFACETYPE, IMPLTYPE> _getShardOfKey (@NonNull final String sShardKey)
+  {
+    if (m_aShards.size () == 1)
+      return m_aShards.get (0);
+    return m_aShards.get (getShardIndex (sShardKey, m_aShards.size ()));
+  }
+
+  @NonNull
+  private ShardDAO <INTERFACETYPE, IMPLTYPE> _getShardOfItem (@NonNull final INTERFACETYPE aItem)
+  {
+    return _getShardOfKey (m_aShardKeyFct.apply (aItem));
+  }
+
+  @Nullable
+  private ShardDAO <INTERFACETYPE, IMPLTYPE> _getShardOfID (@Nullable final String sID)
+  {
+    if (sID == null)
+      return null;
+    if (m_bIDIsShardKey || m_aShards.size () == 1)
+      return _getShardOfKey (sID);
+    return m_aShards.findFirst (x -> x.containsItemWithID (sID));
+  }
+
+  @NonNull
+  protected final IMPLTYPE internalCreateItem (@NonNull final IMPLTYPE aItem)
+  {
+    _getShardOfItem (aItem).createItem (aItem);
+    return aItem;
+  }
+
+  @NonNull
+  protected final IMPLTYPE internalUpdateItem (@NonNull final IMPLTYPE aItem)
+  {
+    _getShardOfItem (aItem).updateItem (aItem);
+    return aItem;
+  }
+
+  @Nullable
+  protected final IMPLTYPE internalDeleteItem (@Nullable final String sID)
+  {
+    final ShardDAO <INTERFACETYPE, IMPLTYPE> aShard = _getShardOfID (sID);
+    return aShard == null ? null : aShard.deleteItem (sID);
+  }
+
+  @Nullable
+  protected final IMPLTYPE getOfID (@Nullable final String sID)
+  {
+    final ShardDAO <INTERFACETYPE, IMPLTYPE> aShard = _getShardOfID (sID);
+    return aShard == null ? null : aShard.getItemOfID (sID);
+  }
+
+  protected final boolean containsWithID (@Nullable final String sID)
+  {
+    final ShardDAO <INTERFACETYPE, IMPLTYPE> aShard = _getShardOfID (sID);
+    return aShard != null && aShard.containsItemWithID (sID);
+  }
+
+  /**
+   * Find all objects with the provided shard key that match the filter. Only the one shard
+   * containing the shard key is queried.
+   *
+   * @param sShardKey
+   *        The shard key (the service group ID). May not be <code>null</code>.
+   * @param aFilter
+   *        The filter to apply. Should check the shard key as well. May not be <code>null</code>.
+   * @param aConsumer
+   *        The consumer to invoke for all matches. May not be <code>null</code>.
+   */
+  protected final void findAllOfShardKey (@NonNull final String sShardKey,
+                                          @NonNull final Predicate <? super IMPLTYPE> aFilter,
+                                          @NonNull final Consumer <? super IMPLTYPE> aConsumer)
+  {
+    _getShardOfKey (sShardKey).findAllItems (aFilter, aConsumer);
+  }
+
+  /**
+   * Find the first object with the provided shard key that matches the filter. Only the one shard
+   * containing the shard key is queried.
+   *
+   * @param sShardKey
+   *        The shard key (the service group ID). May not be <code>null</code>.
+   * @param aFilter
+   *        The filter to apply. Should check the shard key as well. May not be <code>null</code>.
+   * @return <code>null</code> if no such object exists.
+   */
+  @Nullable
+  protected final IMPLTYPE findFirstOfShardKey (@NonNull final String sShardKey,
+                                                @NonNull final Predicate <? super IMPLTYPE> aFilter)
+  {
+    return _getShardOfKey (sShardKey).findFirstItem (aFilter);
+  }
+
+  protected final void findAll (@NonNull final Predicate <? super IMPLTYPE> aFilter,
+                                @NonNull final Consumer <? super IMPLTYPE> aConsumer)
+  {
+    for (final ShardDAO <INTERFACETYPE, IMPLTYPE> aShard : m_aShards)
+      aShard.findAllItems (aFilter, aConsumer);
+  }
+
+  @Nullable
+  protected final IMPLTYPE findFirst (@NonNull final Predicate <? super IMPLTYPE> aFilter)
+  {
+    for (final ShardDAO <INTERFACETYPE, IMPLTYPE> aShard : m_aShards)
+    {
+      final IMPLTYPE ret = aShard.findFirstItem (aFilter);
+      if (ret != null)
+        return ret;
+    }
+    return null;
+  }
+
+  protected final boolean containsAny (@NonNull final Predicate <? super IMPLTYPE> aFilter)
+  {
+    return findFirst (aFilter) != null;
+  }
+
+  protected final void forEachValue (@NonNull final Consumer <? super IMPLTYPE> aConsumer)
+  {
+    for (final ShardDAO <INTERFACETYPE, IMPLTYPE> aShard : m_aShards)
+      aShard.forEachItem (aConsumer);
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  protected final ICommonsList <INTERFACETYPE> getAll ()
+  {
+    return getAll (null);
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  protected final ICommonsList <INTERFACETYPE> getAll (@Nullable final Predicate <? super IMPLTYPE> aFilter)
+  {
+    final ICommonsList <INTERFACETYPE> ret = new CommonsArrayList <> ();
+    if (aFilter == null)
+      forEachValue (ret::add);
+    else
+      findAll (aFilter, ret::add);
+    return ret;
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  protected final ICommonsSet <String> getAllIDs ()
+  {
+    final ICommonsSet <String> ret = new CommonsHashSet <> ();
+    forEachValue (x -> ret.add (x.getID ()));
+    return ret;
+  }
+
+  /**
+   * Get all objects ordered by their shard key (the service group ID), as a stream that reads the
+   * objects of a limited number of shard keys at a time. Only the sorted shard keys are copied
+   * upfront.
+   *
+   * @param aComparator
+   *        The comparator to use. Must order by the shard key first. May not be <code>null</code>.
+   * @return A new stream. Never <code>null</code>.
+   * @see SMPServiceGroupPageIterator
+   */
+  @NonNull
+  protected final Stream <INTERFACETYPE> streamOrderedByShardKey (@NonNull final Comparator <? super INTERFACETYPE> aComparator)
+  {
+    final ICommonsSet <String> aShardKeys = new CommonsHashSet <> ();
+    forEachValue (x -> aShardKeys.add (m_aShardKeyFct.apply (x)));
+    return new SMPServiceGroupPageIterator <INTERFACETYPE> (aShardKeys.getSorted (Comparator.naturalOrder ()),
+                                                            SMPServiceGroupPageIterator.DEFAULT_PAGE_SIZE,
+                                                            aPageKeys -> {
+                                                              final ICommonsList <INTERFACETYPE> ret = new CommonsArrayList <> ();
+                                                              for (final String sShardKey : aPageKeys)
+                                                                findAllOfShardKey (sShardKey,
+                                                                                   x -> sShardKey.equals (m_aShardKeyFct.apply (x)),
+                                                                                   ret::add);
+                                                              return ret;
+                                                            },
+                                                            aComparator).stream ();
+  }
+
+  @Nonnegative
+  protected final long getCount (@NonNull final Predicate <? super IMPLTYPE> aFilter)
+  {
+    final long [] ret = { 0 };
+    findAll (aFilter, x -> ret[0]++);
+    return ret[0];
+  }
+
+  @Nonnegative
+  protected final int size ()
+  {
+    int ret = 0;
+    for (final ShardDAO <INTERFACETYPE, IMPLTYPE> aShard : m_aShards)
+      ret += aShard.getItemCount ();
+    return ret;
+  }
+
+  private void _performWithoutAutoSave (@Nonnegative final int nShardIndex, @NonNull final Runnable aRunnable)
+  {
+    if (nShardIndex == m_aShards.size ())
+      aRunnable.run ();
+    else
+      m_aShards.get (nShardIndex).runWithoutAutoSave ( () -> _performWithoutAutoSave (nShardIndex + 1, aRunnable));
+  }
+
+  /**
+   * Perform the provided action without automatically saving each modification. Modified shards
+   * are written afterwards.
+   *
+   * @param aRunnable
+   *        The action to perform. May not be <code>null</code>.
+   */
+  protected final void performWithoutAutoSave (@NonNull final Runnable aRunnable)
+  {
+    ValueEnforcer.notNull (aRunnable, "Runnable");
+    _performWithoutAutoSave (0, aRunnable);
+  }
+}
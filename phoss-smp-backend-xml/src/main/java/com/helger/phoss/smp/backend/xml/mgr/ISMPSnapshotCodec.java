@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.xml.mgr;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * Encoder and decoder for the binary snapshot of the objects of a single XML file. The snapshot is
+ * only a faster readable copy of the XML file and is never the only source of data.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The implementation type of the objects
+ * @since 8.2.1
+ */
+public interface ISMPSnapshotCodec <T>
+{
+  /**
+   * @return The version of the binary format. Must be changed whenever the format changes, so that
+   *         old snapshots are ignored. Must be &gt; 0.
+   */
+  @Nonnegative
+  int getFormatVersion ();
+
+  /**
+   * Write all provided objects.
+   *
+   * @param aItems
+   *        The objects to write. May not be <code>null</code>.
+   * @param aDOS
+   *        The stream to write to. May not be <code>null</code>.
+   * @throws IOException
+   *         In case of a write error
+   */
+  void writeItems (@NonNull ICommonsList <T> aItems, @NonNull DataOutputStream aDOS) throws IOException;
+
+  /**
+   * Read all objects previously written by {@link #writeItems(ICommonsList, DataOutputStream)}.
+   *
+   * @param aDIS
+   *        The stream to read from. May not be <code>null</code>.
+   * @return The list of all read objects. Never <code>null</code>.
+   * @throws IOException
+   *         In case of a read error or an inconsistent snapshot
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  ICommonsList <T> readItems (@NonNull DataInputStream aDIS) throws IOException;
+}
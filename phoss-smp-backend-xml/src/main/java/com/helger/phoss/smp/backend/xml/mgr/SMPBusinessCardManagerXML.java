@@ -17,6 +17,7 @@
 package com.helger.phoss.smp.backend.xml.mgr;
 
 import java.util.Collection;
+import java.util.stream.Stream;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -36,20 +37,22 @@ import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsSet;
 import com.helger.dao.DAOException;
 import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardCallback;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCard;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardEntity;
+import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardMicroTypeConverter;
 import com.helger.photon.audit.AuditHelper;
-import com.helger.photon.io.dao.AbstractPhotonMapBasedWALDAO;
 
 /**
  * Manager for all {@link SMPBusinessCard} objects.
  *
  * @author Philip Helger
  */
-public final class SMPBusinessCardManagerXML extends AbstractPhotonMapBasedWALDAO <ISMPBusinessCard, SMPBusinessCard>
+public final class SMPBusinessCardManagerXML extends AbstractSMPShardedWALDAO <ISMPBusinessCard, SMPBusinessCard>
                                              implements
                                              ISMPBusinessCardManager
 {
@@ -59,7 +62,52 @@ public final class SMPBusinessCardManagerXML extends AbstractPhotonMapBasedWALDA
 
   public SMPBusinessCardManagerXML (@NonNull @Nonempty final String sFilename) throws DAOException
   {
-    super (SMPBusinessCard.class, sFilename);
+    this (sFilename, DEFAULT_SHARD_COUNT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @throws DAOException
+   *         In case reading failed
+   * @since 8.2.1
+   */
+  public SMPBusinessCardManagerXML (@NonNull @Nonempty final String sFilename,
+                                    @Nonnegative final int nShardCount) throws DAOException
+  {
+    super (SMPBusinessCard.class, sFilename, nShardCount, ISMPBusinessCard::getID, true);
+  }
+
+  /**
+   * Constructor that parses the read service group IDs with the provided identifier factory
+   * instead of the one of the global {@link SMPMetaManager}.
+   *
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @param aIdentifierFactory
+   *        The identifier factory to parse the read service group IDs. May not be
+   *        <code>null</code>.
+   * @throws DAOException
+   *         In case reading failed
+   * @since 8.2.1
+   */
+  public SMPBusinessCardManagerXML (@NonNull @Nonempty final String sFilename,
+                                    @Nonnegative final int nShardCount,
+                                    @NonNull final IIdentifierFactory aIdentifierFactory) throws DAOException
+  {
+    super (SMPBusinessCard.class,
+           sFilename,
+           nShardCount,
+           ISMPBusinessCard::getID,
+           true,
+           null,
+           e -> SMPBusinessCardMicroTypeConverter.convertToNative (e, aIdentifierFactory));
   }
 
   @NonNull
@@ -184,6 +232,12 @@ public final class SMPBusinessCardManagerXML extends AbstractPhotonMapBasedWALDA
     return getAllIDs ();
   }
 
+  @NonNull
+  public Stream <ISMPBusinessCard> streamAllSMPBusinessCardsOrderedByID ()
+  {
+    return streamOrderedByShardKey (ISMPBusinessCard.comparator ());
+  }
+
   public boolean containsSMPBusinessCardOfID (@Nullable final IParticipantIdentifier aID)
   {
     return aID != null && containsWithID (aID.getURIEncoded ());
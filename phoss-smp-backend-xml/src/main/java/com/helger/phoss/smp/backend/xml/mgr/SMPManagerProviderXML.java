@@ -16,14 +16,39 @@
  */
 package com.helger.phoss.smp.backend.xml.mgr;
 
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.concurrent.SimpleReadWriteLock;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.exception.InitializationException;
 import com.helger.base.state.ETriState;
+import com.helger.base.timing.StopWatch;
 import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.dao.DAOException;
 import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
@@ -39,7 +64,14 @@ import com.helger.phoss.smp.settings.ISMPSettingsManager;
 import com.helger.phoss.smp.settings.SMPSettingsManagerXML;
 
 /**
- * {@link ISMPManagerProvider} implementation for this backend.
+ * {@link ISMPManagerProvider} implementation for this backend.<br>
+ * Since 8.2.1 the service groups, redirects, service information and business cards can be
+ * distributed over multiple files, based on {@link SMPServerConfiguration#getBackendXMLShardCount()}.
+ * Additionally the redirects, service information, participant migrations and business cards can
+ * be loaded concurrently, based on {@link SMPServerConfiguration#isBackendXMLParallelLoading()}.
+ * The service groups are always loaded before, because the other managers need to resolve them.
+ * The created service group manager is passed explicitly to the other managers, because the global
+ * {@link com.helger.phoss.smp.domain.SMPMetaManager} is not yet fully initialized while loading.
  *
  * @author Philip Helger
  */
@@ -54,8 +86,72 @@ public final class SMPManagerProviderXML implements ISMPManagerProvider
   public static final String SMP_PARTICIPANT_MIGRATION_XML = "smp-participant-migration.xml";
   public static final String SMP_BUSINESS_CARD_XML = "smp-business-card.xml";
 
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPManagerProviderXML.class);
+
+  /** The number of managers that are loaded in parallel */
+  private static final int PARALLEL_LOADER_COUNT = 4;
+
+  private static final class LoaderThreadFactory implements ThreadFactory
+  {
+    private final AtomicInteger m_aCounter = new AtomicInteger (0);
+
+    @NonNull
+    public Thread newThread (@NonNull final Runnable aRunnable)
+    {
+      final Thread ret = new Thread (aRunnable, "smp-xml-loader-" + m_aCounter.incrementAndGet ());
+      ret.setDaemon (true);
+      return ret;
+    }
+  }
+
+  private final ETriState m_eParallelLoading;
+  private final SimpleReadWriteLock m_aRWLock = new SimpleReadWriteLock ();
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsOrderedMap <String, Duration> m_aLoadDurations = new CommonsLinkedHashMap <> ();
+
+  // The service group manager that is passed to the other managers
+  private ISMPServiceGroupManager m_aServiceGroupMgr;
+
+  // Only used for parallel loading
+  private Future <ISMPRedirectManager> m_aRedirectMgr;
+  private Future <ISMPServiceInformationManager> m_aServiceInformationMgr;
+  private Future <ISMPParticipantMigrationManager> m_aParticipantMigrationMgr;
+  private Future <ISMPBusinessCardManager> m_aBusinessCardMgr;
+
   public SMPManagerProviderXML ()
-  {}
+  {
+    this (ETriState.UNDEFINED);
+  }
+
+  /**
+   * Constructor for testing purposes.
+   *
+   * @param eParallelLoading
+   *        <code>TRUE</code> or <code>FALSE</code> to enable or disable parallel loading,
+   *        <code>UNDEFINED</code> to use {@link SMPServerConfiguration#isBackendXMLParallelLoading()}.
+   *        May not be <code>null</code>.
+   */
+  SMPManagerProviderXML (@NonNull final ETriState eParallelLoading)
+  {
+    ValueEnforcer.notNull (eParallelLoading, "ParallelLoading");
+    m_eParallelLoading = eParallelLoading;
+  }
+
+  private boolean _isParallelLoading ()
+  {
+    return m_eParallelLoading.getAsBooleanValue (SMPServerConfiguration.isBackendXMLParallelLoading ());
+  }
+
+  public void beforeInitManagers ()
+  {
+    // In case the managers are initialized more than once
+    m_aServiceGroupMgr = null;
+    m_aRedirectMgr = null;
+    m_aServiceInformationMgr = null;
+    m_aParticipantMigrationMgr = null;
+    m_aBusinessCardMgr = null;
+    m_aRWLock.writeLocked (m_aLoadDurations::clear);
+  }
 
   @NonNull
   public ETriState getBackendConnectionEstablishedDefaultState ()
@@ -64,108 +160,257 @@ public final class SMPManagerProviderXML implements ISMPManagerProvider
   }
 
   @NonNull
-  public ISMLInfoManager createSMLInfoMgr ()
+  private <T> T _load (@NonNull @Nonempty final String sName, @NonNull final Callable <T> aLoader)
   {
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final T ret;
     try
     {
-      return new SMLInfoManagerXML (SML_INFO_XML);
+      ret = aLoader.call ();
     }
     catch (final DAOException ex)
     {
       throw new InitializationException (ex.getMessage (), ex);
     }
+    catch (final RuntimeException ex)
+    {
+      throw ex;
+    }
+    catch (final Exception ex)
+    {
+      throw new InitializationException ("Failed to load " + sName, ex);
+    }
+    aSW.stop ();
+
+    final Duration aDuration = aSW.getDuration ();
+    m_aRWLock.writeLocked ( () -> m_aLoadDurations.put (sName, aDuration));
+    LOGGER.info ("Loading " + sName + " took " + aDuration.toMillis () + " milliseconds");
+    return ret;
   }
 
   @NonNull
-  public ISMPSettingsManager createSettingsMgr ()
+  private static <T> T _getLoaded (@NonNull final Future <T> aFuture)
   {
     try
     {
-      return new SMPSettingsManagerXML (SMP_SETTINGS_XML);
+      return aFuture.get ();
     }
-    catch (final DAOException ex)
+    catch (final InterruptedException ex)
     {
-      throw new InitializationException (ex.getMessage (), ex);
+      Thread.currentThread ().interrupt ();
+      throw new InitializationException ("Interrupted while loading the XML backend data", ex);
+    }
+    catch (final ExecutionException ex)
+    {
+      if (ex.getCause () instanceof RuntimeException)
+        throw (RuntimeException) ex.getCause ();
+      throw new InitializationException ("Failed to load the XML backend data", ex.getCause ());
     }
   }
 
   @NonNull
-  public ISMPTransportProfileManager createTransportProfileMgr ()
+  private ISMPServiceGroupManager _getServiceGroupMgr ()
+  {
+    final ISMPServiceGroupManager ret = m_aServiceGroupMgr;
+    if (ret == null)
+      throw new IllegalStateException ("The service group manager must be created first");
+    return ret;
+  }
+
+  @NonNull
+  private ISMPRedirectManager _loadRedirectMgr (@NonNull final IIdentifierFactory aIdentifierFactory,
+                                                @NonNull final ISMPServiceGroupManager aServiceGroupMgr)
+  {
+    return _load ("redirects",
+                  () -> new SMPRedirectManagerXML (SMP_REDIRECT_XML,
+                                                   SMPServerConfiguration.getBackendXMLShardCount (),
+                                                   aIdentifierFactory,
+                                                   aServiceGroupMgr));
+  }
+
+  @NonNull
+  private ISMPServiceInformationManager _loadServiceInformationMgr (@NonNull final IIdentifierFactory aIdentifierFactory,
+                                                                    @NonNull final ISMPServiceGroupManager aServiceGroupMgr)
+  {
+    return _load ("service-information",
+                  () -> new SMPServiceInformationManagerXML (SMP_SERVICE_INFORMATION_XML,
+                                                             SMPServerConfiguration.getBackendXMLShardCount (),
+                                                             SMPServerConfiguration.isBackendXMLSnapshotEnabled (),
+                                                             aIdentifierFactory,
+                                                             aServiceGroupMgr));
+  }
+
+  @NonNull
+  private ISMPParticipantMigrationManager _loadParticipantMigrationMgr ()
+  {
+    return _load ("participant-migrations",
+                  () -> new SMPParticipantMigrationManagerXML (SMP_PARTICIPANT_MIGRATION_XML));
+  }
+
+  @NonNull
+  private ISMPBusinessCardManager _loadBusinessCardMgr (@NonNull final IIdentifierFactory aIdentifierFactory)
   {
+    return _load ("business-cards",
+                  () -> new SMPBusinessCardManagerXML (SMP_BUSINESS_CARD_XML,
+                                                       SMPServerConfiguration.getBackendXMLShardCount (),
+                                                       aIdentifierFactory));
+  }
+
+  private void _startParallelLoading (@NonNull final IIdentifierFactory aIdentifierFactory)
+  {
+    if (m_aRedirectMgr != null)
+      return;
+
+    // The service group manager was created before, because all other managers need to resolve
+    // service groups. It is passed explicitly, because the loader threads must not access the
+    // not yet initialized SMPMetaManager.
+    final ISMPServiceGroupManager aServiceGroupMgr = _getServiceGroupMgr ();
+    LOGGER.info ("Loading the XML backend data in parallel");
+
+    final ThreadPoolExecutor aExecutor = new ThreadPoolExecutor (PARALLEL_LOADER_COUNT,
+                                                                 PARALLEL_LOADER_COUNT,
+                                                                 0,
+                                                                 TimeUnit.MILLISECONDS,
+                                                                 new ArrayBlockingQueue <> (PARALLEL_LOADER_COUNT),
+                                                                 new LoaderThreadFactory (),
+                                                                 new ThreadPoolExecutor.AbortPolicy ());
     try
     {
-      return new SMPTransportProfileManagerXML (SMP_TRANSPORT_PROFILES_XML);
+      final CompletionService <Object> aCS = new ExecutorCompletionService <> (aExecutor);
+      final ICommonsList <Future <?>> aAll = new CommonsArrayList <> ();
+      final Future <ISMPRedirectManager> aRedirectMgr = _submit (aCS,
+                                                                 () -> _loadRedirectMgr (aIdentifierFactory,
+                                                                                         aServiceGroupMgr),
+                                                                 aAll);
+      final Future <ISMPServiceInformationManager> aServiceInformationMgr = _submit (aCS,
+                                                                                     () -> _loadServiceInformationMgr (aIdentifierFactory,
+                                                                                                                       aServiceGroupMgr),
+                                                                                     aAll);
+      final Future <ISMPParticipantMigrationManager> aParticipantMigrationMgr = _submit (aCS,
+                                                                                         this::_loadParticipantMigrationMgr,
+                                                                                         aAll);
+      final Future <ISMPBusinessCardManager> aBusinessCardMgr = _submit (aCS,
+                                                                         () -> _loadBusinessCardMgr (aIdentifierFactory),
+                                                                         aAll);
+
+      // Wait in completion order, so that the first failure is reported immediately and the other
+      // loaders are cancelled
+      try
+      {
+        for (int i = 0; i < aAll.size (); ++i)
+          _getLoaded (aCS.take ());
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        aAll.forEach (x -> x.cancel (true));
+        throw new InitializationException ("Interrupted while loading the XML backend data", ex);
+      }
+      catch (final RuntimeException ex)
+      {
+        aAll.forEach (x -> x.cancel (true));
+        throw ex;
+      }
+
+      m_aRedirectMgr = aRedirectMgr;
+      m_aServiceInformationMgr = aServiceInformationMgr;
+      m_aParticipantMigrationMgr = aParticipantMigrationMgr;
+      m_aBusinessCardMgr = aBusinessCardMgr;
     }
-    catch (final DAOException ex)
+    finally
     {
-      throw new InitializationException (ex.getMessage (), ex);
+      aExecutor.shutdownNow ();
     }
   }
 
+  @SuppressWarnings ("unchecked")
+  @NonNull
+  private static <T> Future <T> _submit (@NonNull final CompletionService <Object> aCS,
+                                         @NonNull final Callable <T> aLoader,
+                                         @NonNull final ICommonsList <Future <?>> aAll)
+  {
+    final Future <T> ret = (Future <T>) aCS.submit (aLoader::call);
+    aAll.add (ret);
+    return ret;
+  }
+
+  @NonNull
+  public ISMLInfoManager createSMLInfoMgr ()
+  {
+    return _load ("sml-info", () -> new SMLInfoManagerXML (SML_INFO_XML));
+  }
+
+  @NonNull
+  public ISMPSettingsManager createSettingsMgr ()
+  {
+    return _load ("settings", () -> new SMPSettingsManagerXML (SMP_SETTINGS_XML));
+  }
+
+  @NonNull
+  public ISMPTransportProfileManager createTransportProfileMgr ()
+  {
+    return _load ("transport-profiles", () -> new SMPTransportProfileManagerXML (SMP_TRANSPORT_PROFILES_XML));
+  }
+
   @NonNull
   public ISMPServiceGroupManager createServiceGroupMgr ()
   {
-    try
-    {
-      return new SMPServiceGroupManagerXML (SMP_SERVICE_GROUP_XML);
-    }
-    catch (final DAOException ex)
-    {
-      throw new InitializationException (ex.getMessage (), ex);
-    }
+    final ISMPServiceGroupManager ret = _load ("service-groups",
+                                               () -> new SMPServiceGroupManagerXML (SMP_SERVICE_GROUP_XML,
+                                                                                    SMPServerConfiguration.getBackendXMLShardCount ()));
+    m_aServiceGroupMgr = ret;
+    return ret;
   }
 
   @NonNull
   public ISMPRedirectManager createRedirectMgr (@NonNull final IIdentifierFactory aIdentifierFactory)
   {
-    try
+    if (_isParallelLoading ())
     {
-      return new SMPRedirectManagerXML (SMP_REDIRECT_XML);
-    }
-    catch (final DAOException ex)
-    {
-      throw new InitializationException (ex.getMessage (), ex);
+      _startParallelLoading (aIdentifierFactory);
+      return _getLoaded (m_aRedirectMgr);
     }
+    return _loadRedirectMgr (aIdentifierFactory, _getServiceGroupMgr ());
   }
 
   @NonNull
   public ISMPServiceInformationManager createServiceInformationMgr (@NonNull final IIdentifierFactory aIdentifierFactory)
   {
-    try
+    if (_isParallelLoading ())
     {
-      return new SMPServiceInformationManagerXML (SMP_SERVICE_INFORMATION_XML);
-    }
-    catch (final DAOException ex)
-    {
-      throw new InitializationException (ex.getMessage (), ex);
+      _startParallelLoading (aIdentifierFactory);
+      return _getLoaded (m_aServiceInformationMgr);
     }
+    return _loadServiceInformationMgr (aIdentifierFactory, _getServiceGroupMgr ());
   }
 
   @NonNull
   public ISMPParticipantMigrationManager createParticipantMigrationMgr ()
   {
-    try
-    {
-      return new SMPParticipantMigrationManagerXML (SMP_PARTICIPANT_MIGRATION_XML);
-    }
-    catch (final DAOException ex)
-    {
-      throw new InitializationException (ex.getMessage (), ex);
-    }
+    // Only uses the result of the parallel loading if it was started before, because the identifier
+    // factory is not available here
+    if (m_aParticipantMigrationMgr != null)
+      return _getLoaded (m_aParticipantMigrationMgr);
+    return _loadParticipantMigrationMgr ();
   }
 
   @Nullable
   public ISMPBusinessCardManager createBusinessCardMgr (@NonNull final IIdentifierFactory aIdentifierFactory,
                                                         @NonNull final ISMPServiceGroupManager aServiceGroupMgr)
   {
-    try
-    {
-      return new SMPBusinessCardManagerXML (SMP_BUSINESS_CARD_XML);
-    }
-    catch (final DAOException ex)
+    if (_isParallelLoading ())
     {
-      throw new InitializationException (ex.getMessage (), ex);
+      _startParallelLoading (aIdentifierFactory);
+      return _getLoaded (m_aBusinessCardMgr);
     }
+    return _loadBusinessCardMgr (aIdentifierFactory);
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, Duration> getManagerLoadDurations ()
+  {
+    return m_aRWLock.readLockedGet (m_aLoadDurations::getClone);
   }
 
   @Override
@@ -17,6 +17,7 @@
 package com.helger.phoss.smp.backend.xml.mgr;
 
 import java.security.cert.X509Certificate;
+import java.util.stream.Stream;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -38,19 +39,22 @@ import com.helger.collection.commons.ICommonsList;
 import com.helger.dao.DAOException;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.redirect.SMPRedirect;
+import com.helger.phoss.smp.domain.redirect.SMPRedirectMicroTypeConverter;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupProvider;
 import com.helger.photon.audit.AuditHelper;
-import com.helger.photon.io.dao.AbstractPhotonMapBasedWALDAO;
 
 /**
  * Manager for all {@link SMPRedirect} objects.
  *
  * @author Philip Helger
  */
-public final class SMPRedirectManagerXML extends AbstractPhotonMapBasedWALDAO <ISMPRedirect, SMPRedirect> implements
+public final class SMPRedirectManagerXML extends AbstractSMPShardedWALDAO <ISMPRedirect, SMPRedirect> implements
                                          ISMPRedirectManager
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (SMPRedirectManagerXML.class);
@@ -59,7 +63,56 @@ public final class SMPRedirectManagerXML extends AbstractPhotonMapBasedWALDAO <I
 
   public SMPRedirectManagerXML (@NonNull @Nonempty final String sFilename) throws DAOException
   {
-    super (SMPRedirect.class, sFilename);
+    this (sFilename, DEFAULT_SHARD_COUNT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @throws DAOException
+   *         In case reading failed
+   * @since 8.2.1
+   */
+  public SMPRedirectManagerXML (@NonNull @Nonempty final String sFilename,
+                                @Nonnegative final int nShardCount) throws DAOException
+  {
+    super (SMPRedirect.class, sFilename, nShardCount, ISMPRedirect::getServiceGroupID, false);
+  }
+
+  /**
+   * Constructor that resolves the read service groups via the provided service group provider
+   * instead of the global {@link SMPMetaManager}.
+   *
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @param aIdentifierFactory
+   *        The identifier factory to parse the read service group IDs. May not be
+   *        <code>null</code>.
+   * @param aSGProvider
+   *        The service group provider to resolve the read service groups. May not be
+   *        <code>null</code>.
+   * @throws DAOException
+   *         In case reading failed
+   * @since 8.2.1
+   */
+  public SMPRedirectManagerXML (@NonNull @Nonempty final String sFilename,
+                                @Nonnegative final int nShardCount,
+                                @NonNull final IIdentifierFactory aIdentifierFactory,
+                                @NonNull final ISMPServiceGroupProvider aSGProvider) throws DAOException
+  {
+    super (SMPRedirect.class,
+           sFilename,
+           nShardCount,
+           ISMPRedirect::getServiceGroupID,
+           false,
+           null,
+           e -> SMPRedirectMicroTypeConverter.convertToNative (e, aIdentifierFactory, aSGProvider));
   }
 
   @NonNull
@@ -237,10 +290,16 @@ public final class SMPRedirectManagerXML extends AbstractPhotonMapBasedWALDAO <I
   {
     final ICommonsList <ISMPRedirect> ret = new CommonsArrayList <> ();
     if (StringHelper.isNotEmpty (sServiceGroupID))
-      findAll (x -> x.getServiceGroupID ().equals (sServiceGroupID), ret::add);
+      findAllOfShardKey (sServiceGroupID, x -> x.getServiceGroupID ().equals (sServiceGroupID), ret::add);
     return ret;
   }
 
+  @NonNull
+  public Stream <ISMPRedirect> streamAllSMPRedirectsOrderedByServiceGroup ()
+  {
+    return streamOrderedByShardKey (ISMPRedirect.comparator ());
+  }
+
   @Nonnegative
   public long getSMPRedirectCount ()
   {
@@ -256,7 +315,9 @@ public final class SMPRedirectManagerXML extends AbstractPhotonMapBasedWALDAO <I
     if (aDocTypeID == null)
       return null;
 
-    return findFirst (x -> x.getServiceGroupID ().equals (aParticipantID.getURIEncoded ()) &&
-                           aDocTypeID.hasSameContent (x.getDocumentTypeIdentifier ()));
+    final String sServiceGroupID = aParticipantID.getURIEncoded ();
+    return findFirstOfShardKey (sServiceGroupID,
+                                x -> x.getServiceGroupID ().equals (sServiceGroupID) &&
+                                     aDocTypeID.hasSameContent (x.getDocumentTypeIdentifier ()));
   }
 }
@@ -16,6 +16,8 @@
  */
 package com.helger.phoss.smp.backend.xml.mgr;
 
+import java.util.Collection;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -29,6 +31,7 @@ import com.helger.base.callback.CallbackList;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.state.EChange;
 import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsSet;
 import com.helger.dao.DAOException;
@@ -50,14 +53,13 @@ import com.helger.phoss.smp.smlhook.IRegistrationHook;
 import com.helger.phoss.smp.smlhook.RegistrationHookException;
 import com.helger.phoss.smp.smlhook.RegistrationHookFactory;
 import com.helger.photon.audit.AuditHelper;
-import com.helger.photon.io.dao.AbstractPhotonMapBasedWALDAO;
 
 /**
  * Implementation of {@link ISMPServiceGroupManager} for the XML backend.
  *
  * @author Philip Helger
  */
-public final class SMPServiceGroupManagerXML extends AbstractPhotonMapBasedWALDAO <ISMPServiceGroup, SMPServiceGroup>
+public final class SMPServiceGroupManagerXML extends AbstractSMPShardedWALDAO <ISMPServiceGroup, SMPServiceGroup>
                                              implements
                                              ISMPServiceGroupManager
 {
@@ -67,7 +69,24 @@ public final class SMPServiceGroupManagerXML extends AbstractPhotonMapBasedWALDA
 
   public SMPServiceGroupManagerXML (@NonNull @Nonempty final String sFilename) throws DAOException
   {
-    super (SMPServiceGroup.class, sFilename);
+    this (sFilename, DEFAULT_SHARD_COUNT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @throws DAOException
+   *         In case reading failed
+   * @since 8.2.1
+   */
+  public SMPServiceGroupManagerXML (@NonNull @Nonempty final String sFilename,
+                                    @Nonnegative final int nShardCount) throws DAOException
+  {
+    super (SMPServiceGroup.class, sFilename, nShardCount, ISMPServiceGroup::getID, true);
   }
 
   @NonNull
@@ -348,6 +367,23 @@ public final class SMPServiceGroupManagerXML extends AbstractPhotonMapBasedWALDA
     return getAllIDs ();
   }
 
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <ISMPServiceGroup> getAllSMPServiceGroupsOfIDs (@NonNull final Collection <String> aServiceGroupIDs)
+  {
+    ValueEnforcer.notNull (aServiceGroupIDs, "ServiceGroupIDs");
+
+    final ICommonsList <ISMPServiceGroup> ret = new CommonsArrayList <> (aServiceGroupIDs.size ());
+    for (final String sServiceGroupID : aServiceGroupIDs)
+    {
+      final ISMPServiceGroup aServiceGroup = getOfID (sServiceGroupID);
+      // May have been deleted in the meantime
+      if (aServiceGroup != null)
+        ret.add (aServiceGroup);
+    }
+    return ret;
+  }
+
   @NonNull
   @ReturnsMutableCopy
   public ICommonsList <ISMPServiceGroup> getAllSMPServiceGroupsOfOwner (@NonNull final String sOwnerID)
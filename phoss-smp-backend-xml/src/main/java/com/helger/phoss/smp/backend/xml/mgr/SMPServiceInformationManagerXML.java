@@ -17,6 +17,7 @@
 package com.helger.phoss.smp.backend.xml.mgr;
 
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -25,6 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonempty;
 import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.annotation.style.ReturnsMutableObject;
 import com.helger.base.callback.CallbackList;
@@ -36,14 +38,19 @@ import com.helger.base.state.ESuccess;
 import com.helger.base.string.StringHelper;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.dao.DAOException;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.IProcessIdentifier;
 import com.helger.phoss.smp.domain.serviceinfo.EndpointUsageInfo;
 import com.helger.phoss.smp.domain.serviceinfo.IEndpointUsageInfo;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupProvider;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
@@ -51,17 +58,20 @@ import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
 import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationMicroTypeConverter;
 import com.helger.phoss.smp.security.SMPCertificateHelper;
 import com.helger.photon.audit.AuditHelper;
-import com.helger.photon.io.dao.AbstractPhotonMapBasedWALDAO;
 
 /**
- * Manager for all {@link SMPServiceInformation} objects.
+ * Manager for all {@link SMPServiceInformation} objects.<br>
+ * Since 8.2.1 this manager maintains in-memory indexes by service group ID and by service group ID
+ * plus document type ID, so that the lookups used by the REST API don't need to scan all service
+ * information objects. The indexes are updated in the same write lock as the underlying map.
  *
  * @author Philip Helger
  */
 public final class SMPServiceInformationManagerXML extends
-                                                   AbstractPhotonMapBasedWALDAO <ISMPServiceInformation, SMPServiceInformation>
+                                                   AbstractSMPShardedWALDAO <ISMPServiceInformation, SMPServiceInformation>
                                                    implements
                                                    ISMPServiceInformationManager
 {
@@ -69,9 +79,174 @@ public final class SMPServiceInformationManagerXML extends
 
   private final CallbackList <ISMPServiceInformationCallback> m_aCBs = new CallbackList <> ();
 
+  // Service group ID to (service information ID to service information)
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, ICommonsOrderedMap <String, ISMPServiceInformation>> m_aIndexBySG = new CommonsHashMap <> ();
+  // Service group ID to (document type ID to service information)
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, ICommonsMap <String, ISMPServiceInformation>> m_aIndexBySGAndDocType = new CommonsHashMap <> ();
+
   public SMPServiceInformationManagerXML (@NonNull @Nonempty final String sFilename) throws DAOException
   {
-    super (SMPServiceInformation.class, sFilename);
+    this (sFilename, DEFAULT_SHARD_COUNT);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @throws DAOException
+   *         In case reading failed
+   * @since 8.2.1
+   */
+  public SMPServiceInformationManagerXML (@NonNull @Nonempty final String sFilename,
+                                          @Nonnegative final int nShardCount) throws DAOException
+  {
+    this (sFilename, nShardCount, false);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @param bUseSnapshot
+   *        <code>true</code> to use binary snapshot files for faster reading, <code>false</code> to
+   *        always read the XML files.
+   * @throws DAOException
+   *         In case reading failed
+   * @since 8.2.1
+   */
+  public SMPServiceInformationManagerXML (@NonNull @Nonempty final String sFilename,
+                                          @Nonnegative final int nShardCount,
+                                          final boolean bUseSnapshot) throws DAOException
+  {
+    this (sFilename, nShardCount, bUseSnapshot, null, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param sFilename
+   *        The base filename. May neither be <code>null</code> nor empty.
+   * @param nShardCount
+   *        The number of shards to use. Must be between 1 and {@link #MAX_SHARD_COUNT}.
+   * @param bUseSnapshot
+   *        <code>true</code> to use binary snapshot files for faster reading, <code>false</code> to
+   *        always read the XML files.
+   * @param aIdentifierFactory
+   *        The identifier factory to parse the read service group IDs. May be <code>null</code> to
+   *        use the one of the global {@link SMPMetaManager}.
+   * @param aSGProvider
+   *        The service group provider to resolve the read service groups. May be <code>null</code>
+   *        to use the service group manager of the global {@link SMPMetaManager}. Must be provided
+   *        if the identifier factory is provided.
+   * @throws DAOException
+   *         In case reading failed
+   * @since 8.2.1
+   */
+  public SMPServiceInformationManagerXML (@NonNull @Nonempty final String sFilename,
+                                          @Nonnegative final int nShardCount,
+                                          final boolean bUseSnapshot,
+                                          @Nullable final IIdentifierFactory aIdentifierFactory,
+                                          @Nullable final ISMPServiceGroupProvider aSGProvider) throws DAOException
+  {
+    super (SMPServiceInformation.class,
+           sFilename,
+           nShardCount,
+           ISMPServiceInformation::getServiceGroupID,
+           false,
+           bUseSnapshot ? aSGProvider == null ? new SMPServiceInformationSnapshotCodec ()
+                                              : new SMPServiceInformationSnapshotCodec (aIdentifierFactory,
+                                                                                        aSGProvider)
+                        : null,
+           aSGProvider == null ? null
+                               : e -> SMPServiceInformationMicroTypeConverter.convertToNative (e,
+                                                                                               aIdentifierFactory,
+                                                                                               aSGProvider));
+
+    // Build the indexes from the initially read data
+    m_aRWLock.writeLocked ( () -> forEachValue (this::_addToIndex));
+  }
+
+  // Must be called in the write lock
+  private void _addToIndex (@NonNull final ISMPServiceInformation aSI)
+  {
+    final String sServiceGroupID = aSI.getServiceGroupID ();
+    m_aIndexBySG.computeIfAbsent (sServiceGroupID, k -> new CommonsLinkedHashMap <> ()).put (aSI.getID (), aSI);
+
+    final String sDocTypeID = aSI.getDocumentTypeIdentifier ().getURIEncoded ();
+    final ICommonsMap <String, ISMPServiceInformation> aDocTypeMap = m_aIndexBySGAndDocType.computeIfAbsent (sServiceGroupID,
+                                                                                                           k -> new CommonsHashMap <> ());
+    final ISMPServiceInformation aExisting = aDocTypeMap.get (sDocTypeID);
+    if (aExisting == null)
+      aDocTypeMap.put (sDocTypeID, aSI);
+    else
+      if (!aExisting.getID ().equals (aSI.getID ()))
+        LOGGER.warn ("Found more than one entry for service group '" +
+                     sServiceGroupID +
+                     "' and document type '" +
+                     sDocTypeID +
+                     "'. This seems to be a bug! Using the first one.");
+  }
+
+  // Must be called in the write lock
+  private void _removeFromIndex (@NonNull final ISMPServiceInformation aSI)
+  {
+    final String sServiceGroupID = aSI.getServiceGroupID ();
+    final String sID = aSI.getID ();
+
+    final ICommonsOrderedMap <String, ISMPServiceInformation> aSGMap = m_aIndexBySG.get (sServiceGroupID);
+    if (aSGMap != null)
+    {
+      aSGMap.remove (sID);
+      if (aSGMap.isEmpty ())
+        m_aIndexBySG.remove (sServiceGroupID);
+    }
+
+    final ICommonsMap <String, ISMPServiceInformation> aDocTypeMap = m_aIndexBySGAndDocType.get (sServiceGroupID);
+    if (aDocTypeMap != null)
+    {
+      // Search by ID, in case the document type of the object was modified
+      if (aDocTypeMap.entrySet ().removeIf (e -> e.getValue ().getID ().equals (sID)) && aSGMap != null)
+      {
+        // Re-add an eventually hidden duplicate entry
+        for (final ISMPServiceInformation aOther : aSGMap.values ())
+          aDocTypeMap.putIfAbsent (aOther.getDocumentTypeIdentifier ().getURIEncoded (), aOther);
+      }
+      if (aDocTypeMap.isEmpty ())
+        m_aIndexBySGAndDocType.remove (sServiceGroupID);
+    }
+  }
+
+  // Must be called in the write lock
+  private void _createItem (@NonNull final SMPServiceInformation aSI)
+  {
+    internalCreateItem (aSI);
+    _addToIndex (aSI);
+  }
+
+  // Must be called in the write lock
+  private void _updateItem (@NonNull final SMPServiceInformation aSI)
+  {
+    internalUpdateItem (aSI);
+    _removeFromIndex (aSI);
+    _addToIndex (aSI);
+  }
+
+  // Must be called in the write lock
+  @Nullable
+  private SMPServiceInformation _deleteItem (@Nullable final String sID)
+  {
+    final SMPServiceInformation ret = internalDeleteItem (sID);
+    if (ret != null)
+      _removeFromIndex (ret);
+    return ret;
   }
 
   @NonNull
@@ -126,7 +301,7 @@ public final class SMPServiceInformationManagerXML extends
     if (bChangeExisting)
     {
       // Edit existing
-      m_aRWLock.writeLocked ( () -> { internalUpdateItem (aOldInformation); });
+      m_aRWLock.writeLocked ( () -> { _updateItem (aOldInformation); });
 
       AuditHelper.onAuditModifySuccess (SMPServiceInformation.OT,
                                         "set-all",
@@ -151,11 +326,11 @@ public final class SMPServiceInformationManagerXML extends
         if (aOldInformation != null)
         {
           // Delete only if present
-          final SMPServiceInformation aDeletedInformation = internalDeleteItem (aOldInformation.getID ());
+          final SMPServiceInformation aDeletedInformation = _deleteItem (aOldInformation.getID ());
           bRemovedOld = EqualsHelper.identityEqual (aDeletedInformation, aOldInformation);
         }
 
-        internalCreateItem (aSMPServiceInformation);
+        _createItem (aSMPServiceInformation);
       }
       finally
       {
@@ -211,7 +386,7 @@ public final class SMPServiceInformationManagerXML extends
     m_aRWLock.writeLock ().lock ();
     try
     {
-      final SMPServiceInformation aRealServiceInformation = internalDeleteItem (aSMPServiceInformation.getID ());
+      final SMPServiceInformation aRealServiceInformation = _deleteItem (aSMPServiceInformation.getID ());
       if (aRealServiceInformation == null)
       {
         AuditHelper.onAuditDeleteFailure (SMPServiceInformation.OT, aSMPServiceInformation.getID (), "no-such-id");
@@ -284,7 +459,7 @@ public final class SMPServiceInformationManagerXML extends
       }
 
       // Save changes
-      internalUpdateItem (aRealServiceInformation);
+      _updateItem (aRealServiceInformation);
     }
     finally
     {
@@ -297,6 +472,7 @@ public final class SMPServiceInformationManagerXML extends
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug ("deleteSMPProcess - success");
 
+    m_aCBs.forEach (x -> x.onSMPServiceInformationUpdated (aRealServiceInformation));
     return EChange.CHANGED;
   }
 
@@ -312,6 +488,12 @@ public final class SMPServiceInformationManagerXML extends
     forEachValue (aConsumer);
   }
 
+  @NonNull
+  public Stream <ISMPServiceInformation> streamAllSMPServiceInformationOrderedByServiceGroup ()
+  {
+    return streamOrderedByShardKey (ISMPServiceInformation.comparator ());
+  }
+
   @Nonnegative
   public long getSMPServiceInformationCount ()
   {
@@ -326,7 +508,11 @@ public final class SMPServiceInformationManagerXML extends
     if (aParticipantID != null)
     {
       final String sServiceGroupID = aParticipantID.getURIEncoded ();
-      findAll (x -> x.getServiceGroupID ().equals (sServiceGroupID), ret::add);
+      m_aRWLock.readLocked ( () -> {
+        final ICommonsOrderedMap <String, ISMPServiceInformation> aSGMap = m_aIndexBySG.get (sServiceGroupID);
+        if (aSGMap != null)
+          ret.addAll (aSGMap.values ());
+      });
     }
     return ret;
   }
@@ -339,9 +525,30 @@ public final class SMPServiceInformationManagerXML extends
     if (aParticipantID != null)
     {
       final String sServiceGroupID = aParticipantID.getURIEncoded ();
-      findAllMapped (aSI -> aSI.getServiceGroupID ().equals (sServiceGroupID),
-                     ISMPServiceInformation::getDocumentTypeIdentifier,
-                     ret::add);
+      m_aRWLock.readLocked ( () -> {
+        final ICommonsOrderedMap <String, ISMPServiceInformation> aSGMap = m_aIndexBySG.get (sServiceGroupID);
+        if (aSGMap != null)
+          for (final ISMPServiceInformation aSI : aSGMap.values ())
+            ret.add (aSI.getDocumentTypeIdentifier ());
+      });
+    }
+    return ret;
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (@Nullable final IParticipantIdentifier aParticipantID)
+  {
+    final ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> ret = new CommonsLinkedHashMap <> ();
+    if (aParticipantID != null)
+    {
+      final String sServiceGroupID = aParticipantID.getURIEncoded ();
+      m_aRWLock.readLocked ( () -> {
+        final ICommonsOrderedMap <String, ISMPServiceInformation> aSGMap = m_aIndexBySG.get (sServiceGroupID);
+        if (aSGMap != null)
+          for (final ISMPServiceInformation aSI : aSGMap.values ())
+            ret.put (aSI.getDocumentTypeIdentifier (), Integer.valueOf (aSI.getTotalEndpointCount ()));
+      });
     }
     return ret;
   }
@@ -356,20 +563,11 @@ public final class SMPServiceInformationManagerXML extends
       return null;
 
     final String sServiceGroupID = aParticipantID.getURIEncoded ();
-    final ICommonsList <ISMPServiceInformation> ret = getAll (aSI -> aSI.getServiceGroupID ()
-                                                                        .equals (sServiceGroupID) &&
-                                                                     aSI.getDocumentTypeIdentifier ()
-                                                                        .hasSameContent (aDocumentTypeIdentifier));
-
-    if (ret.isEmpty ())
-      return null;
-    if (ret.size () > 1)
-      LOGGER.warn ("Found more than one entry for service group '" +
-                   sServiceGroupID +
-                   "' and document type '" +
-                   aDocumentTypeIdentifier.getValue () +
-                   "'. This seems to be a bug! Using the first one.");
-    return ret.getFirstOrNull ();
+    final String sDocTypeID = aDocumentTypeIdentifier.getURIEncoded ();
+    return m_aRWLock.readLockedGet ( () -> {
+      final ICommonsMap <String, ISMPServiceInformation> aDocTypeMap = m_aIndexBySGAndDocType.get (sServiceGroupID);
+      return aDocTypeMap == null ? null : aDocTypeMap.get (sDocTypeID);
+    });
   }
 
   public boolean containsAnyEndpointWithTransportProfile (@Nullable final String sTransportProfileID)
@@ -432,6 +630,7 @@ public final class SMPServiceInformationManagerXML extends
     ValueEnforcer.notNull (sNewURL, "NewURL");
 
     final MutableLong aEndpointsChanged = new MutableLong (0);
+    final ICommonsList <ISMPServiceInformation> aChangedSIs = new CommonsArrayList <> ();
     performWithoutAutoSave ( () -> {
       final ICommonsList <ISMPServiceInformation> aAllSIs = getAllSMPServiceInformation ();
       for (final ISMPServiceInformation aSI : aAllSIs)
@@ -449,9 +648,14 @@ public final class SMPServiceInformationManagerXML extends
               aEndpointsChanged.inc ();
             }
         if (bSIChanged)
-          m_aRWLock.writeLocked ( () -> { internalUpdateItem ((SMPServiceInformation) aSI); });
+        {
+          m_aRWLock.writeLocked ( () -> { _updateItem ((SMPServiceInformation) aSI); });
+          aChangedSIs.add (aSI);
+        }
       }
     });
+    for (final ISMPServiceInformation aSI : aChangedSIs)
+      m_aCBs.forEach (x -> x.onSMPServiceInformationUpdated (aSI));
     return aEndpointsChanged.longValue ();
   }
 
@@ -464,6 +668,7 @@ public final class SMPServiceInformationManagerXML extends
     final String sOldCertNormalized = SMPCertificateHelper.getNormalizedCert (sOldCert);
 
     final MutableLong aEndpointsChanged = new MutableLong (0);
+    final ICommonsList <ISMPServiceInformation> aChangedSIs = new CommonsArrayList <> ();
     performWithoutAutoSave ( () -> {
       final ICommonsList <ISMPServiceInformation> aAllSIs = getAllSMPServiceInformation ();
       for (final ISMPServiceInformation aSI : aAllSIs)
@@ -485,9 +690,14 @@ public final class SMPServiceInformationManagerXML extends
             }
           }
         if (bSIChanged)
-          m_aRWLock.writeLocked ( () -> { internalUpdateItem ((SMPServiceInformation) aSI); });
+        {
+          m_aRWLock.writeLocked ( () -> { _updateItem ((SMPServiceInformation) aSI); });
+          aChangedSIs.add (aSI);
+        }
       }
     });
+    for (final ISMPServiceInformation aSI : aChangedSIs)
+      m_aCBs.forEach (x -> x.onSMPServiceInformationUpdated (aSI));
     return aEndpointsChanged.longValue ();
   }
 }
@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.xml.mgr;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.datetime.xml.XMLOffsetDateTime;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
+import com.helger.peppolid.simple.process.SimpleProcessIdentifier;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.extension.ISMPHasExtension;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupProvider;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.typeconvert.impl.TypeConverter;
+
+/**
+ * Binary snapshot format for {@link SMPServiceInformation} objects. It contains exactly the same
+ * information as the XML created by the micro type converters. All strings (identifier schemes,
+ * transport profiles, certificates etc.) are stored only once in a string table at the beginning
+ * and are referenced by index afterwards.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@Immutable
+public final class SMPServiceInformationSnapshotCodec implements ISMPSnapshotCodec <SMPServiceInformation>
+{
+  /** The current format version */
+  public static final int FORMAT_VERSION = 1;
+
+  private static final int NULL_INDEX = -1;
+
+  @NotThreadSafe
+  private static final class StringTable
+  {
+    private final ICommonsMap <String, Integer> m_aMap = new CommonsHashMap <> ();
+    private final ICommonsList <String> m_aList = new CommonsArrayList <> ();
+
+    void write (@NonNull final DataOutputStream aDOS, @Nullable final String s) throws IOException
+    {
+      if (s == null)
+        aDOS.writeInt (NULL_INDEX);
+      else
+        aDOS.writeInt (m_aMap.computeIfAbsent (s, k -> {
+          m_aList.add (k);
+          return Integer.valueOf (m_aList.size () - 1);
+        }).intValue ());
+    }
+  }
+
+  private final IIdentifierFactory m_aIdentifierFactory;
+  private final ISMPServiceGroupProvider m_aSGProvider;
+
+  /**
+   * Constructor that resolves the service groups via the global {@link SMPMetaManager}.
+   */
+  public SMPServiceInformationSnapshotCodec ()
+  {
+    m_aIdentifierFactory = null;
+    m_aSGProvider = null;
+  }
+
+  /**
+   * Constructor with an explicit service group provider.
+   *
+   * @param aIdentifierFactory
+   *        The identifier factory to parse the service group IDs. May not be <code>null</code>.
+   * @param aSGProvider
+   *        The service group provider to resolve the service groups. May not be <code>null</code>.
+   */
+  public SMPServiceInformationSnapshotCodec (@NonNull final IIdentifierFactory aIdentifierFactory,
+                                             @NonNull final ISMPServiceGroupProvider aSGProvider)
+  {
+    ValueEnforcer.notNull (aIdentifierFactory, "IdentifierFactory");
+    ValueEnforcer.notNull (aSGProvider, "SGProvider");
+    m_aIdentifierFactory = aIdentifierFactory;
+    m_aSGProvider = aSGProvider;
+  }
+
+  public int getFormatVersion ()
+  {
+    return FORMAT_VERSION;
+  }
+
+  @Nullable
+  private static String _getExtension (@NonNull final ISMPHasExtension aObj)
+  {
+    return aObj.getExtensions ().extensions ().isNotEmpty () ? aObj.getExtensions ().getExtensionsAsJsonString ()
+                                                             : null;
+  }
+
+  @Nullable
+  private static String _getDateTime (@Nullable final XMLOffsetDateTime aDT)
+  {
+    // Same representation as in XML
+    return aDT == null ? null : TypeConverter.convert (aDT, String.class);
+  }
+
+  private static void _writeEndpoint (@NonNull final DataOutputStream aDOS,
+                                      @NonNull final StringTable aST,
+                                      @NonNull final ISMPEndpoint aEndpoint) throws IOException
+  {
+    aST.write (aDOS, aEndpoint.getID ());
+    aST.write (aDOS, aEndpoint.getTransportProfile ());
+    aST.write (aDOS, aEndpoint.getEndpointReference ());
+    aDOS.writeBoolean (aEndpoint.isRequireBusinessLevelSignature ());
+    aST.write (aDOS, aEndpoint.getMinimumAuthenticationLevel ());
+    aST.write (aDOS, _getDateTime (aEndpoint.getServiceActivationDateTime ()));
+    aST.write (aDOS, _getDateTime (aEndpoint.getServiceExpirationDateTime ()));
+    aST.write (aDOS, aEndpoint.getCertificate ());
+    aST.write (aDOS, aEndpoint.getServiceDescription ());
+    aST.write (aDOS, aEndpoint.getTechnicalContactUrl ());
+    aST.write (aDOS, aEndpoint.getTechnicalInformationUrl ());
+    aST.write (aDOS, _getExtension (aEndpoint));
+  }
+
+  public void writeItems (@NonNull final ICommonsList <SMPServiceInformation> aItems,
+                          @NonNull final DataOutputStream aDOS) throws IOException
+  {
+    // Write the records first, to build the string table
+    final StringTable aST = new StringTable ();
+    final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+    try (final DataOutputStream aRecordDOS = new DataOutputStream (aBAOS))
+    {
+      for (final SMPServiceInformation aSI : aItems)
+      {
+        aST.write (aRecordDOS, aSI.getServiceGroupID ());
+        aST.write (aRecordDOS, aSI.getDocumentTypeIdentifier ().getScheme ());
+        aST.write (aRecordDOS, aSI.getDocumentTypeIdentifier ().getValue ());
+        aST.write (aRecordDOS, _getExtension (aSI));
+
+        final ICommonsList <ISMPProcess> aProcesses = aSI.getAllProcesses ();
+        aRecordDOS.writeInt (aProcesses.size ());
+        for (final ISMPProcess aProcess : aProcesses)
+        {
+          aST.write (aRecordDOS, aProcess.getProcessIdentifier ().getScheme ());
+          aST.write (aRecordDOS, aProcess.getProcessIdentifier ().getValue ());
+          aST.write (aRecordDOS, _getExtension (aProcess));
+
+          final ICommonsList <ISMPEndpoint> aEndpoints = aProcess.getAllEndpoints ();
+          aRecordDOS.writeInt (aEndpoints.size ());
+          for (final ISMPEndpoint aEndpoint : aEndpoints)
+            _writeEndpoint (aRecordDOS, aST, aEndpoint);
+        }
+      }
+    }
+
+    // String table
+    aDOS.writeInt (aST.m_aList.size ());
+    for (final String s : aST.m_aList)
+    {
+      final byte [] aBytes = s.getBytes (StandardCharsets.UTF_8);
+      aDOS.writeInt (aBytes.length);
+      aDOS.write (aBytes);
+    }
+
+    // Records
+    aDOS.writeInt (aItems.size ());
+    aBAOS.writeTo (aDOS);
+  }
+
+  @Nullable
+  private static String _readString (@NonNull final DataInputStream aDIS, @NonNull final String [] aStrings)
+                                                                                                           throws IOException
+  {
+    final int nIndex = aDIS.readInt ();
+    if (nIndex == NULL_INDEX)
+      return null;
+    if (nIndex < 0 || nIndex >= aStrings.length)
+      throw new IOException ("Invalid string table index " + nIndex);
+    return aStrings[nIndex];
+  }
+
+  @Nullable
+  private static XMLOffsetDateTime _readDateTime (@NonNull final DataInputStream aDIS,
+                                                  @NonNull final String [] aStrings) throws IOException
+  {
+    final String s = _readString (aDIS, aStrings);
+    return s == null ? null : TypeConverter.convert (s, XMLOffsetDateTime.class);
+  }
+
+  @NonNull
+  private static SMPEndpoint _readEndpoint (@NonNull final DataInputStream aDIS, @NonNull final String [] aStrings)
+                                                                                                                throws IOException
+  {
+    final String sID = _readString (aDIS, aStrings);
+    final String sTransportProfile = _readString (aDIS, aStrings);
+    final String sEndpointReference = _readString (aDIS, aStrings);
+    final boolean bRequireBusinessLevelSignature = aDIS.readBoolean ();
+    final String sMinimumAuthenticationLevel = _readString (aDIS, aStrings);
+    final XMLOffsetDateTime aServiceActivationDT = _readDateTime (aDIS, aStrings);
+    final XMLOffsetDateTime aServiceExpirationDT = _readDateTime (aDIS, aStrings);
+    final String sCertificate = _readString (aDIS, aStrings);
+    final String sServiceDescription = _readString (aDIS, aStrings);
+    final String sTechnicalContactUrl = _readString (aDIS, aStrings);
+    final String sTechnicalInformationUrl = _readString (aDIS, aStrings);
+    final String sExtension = _readString (aDIS, aStrings);
+    return new SMPEndpoint (sID,
+                            sTransportProfile,
+                            sEndpointReference,
+                            bRequireBusinessLevelSignature,
+                            sMinimumAuthenticationLevel,
+                            aServiceActivationDT,
+                            aServiceExpirationDT,
+                            sCertificate,
+                            sServiceDescription,
+                            sTechnicalContactUrl,
+                            sTechnicalInformationUrl,
+                            sExtension);
+  }
+
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsList <SMPServiceInformation> readItems (@NonNull final DataInputStream aDIS) throws IOException
+  {
+    if (m_aSGProvider != null)
+      return readItems (aDIS, m_aIdentifierFactory, m_aSGProvider);
+    return readItems (aDIS, SMPMetaManager.getIdentifierFactory (), SMPMetaManager.getServiceGroupMgr ());
+  }
+
+  /**
+   * Read all service information objects.
+   *
+   * @param aDIS
+   *        The stream to read from. May not be <code>null</code>.
+   * @param aIdentifierFactory
+   *        The identifier factory to parse the service group IDs. May not be <code>null</code>.
+   * @param aSGProvider
+   *        The service group provider to resolve the service groups. May not be <code>null</code>.
+   * @return The list of all read objects. Never <code>null</code>.
+   * @throws IOException
+   *         In case of a read error or an inconsistent snapshot
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsList <SMPServiceInformation> readItems (@NonNull final DataInputStream aDIS,
+                                                                @NonNull final IIdentifierFactory aIdentifierFactory,
+                                                                @NonNull final ISMPServiceGroupProvider aSGProvider) throws IOException
+  {
+    // String table
+    final int nStringCount = aDIS.readInt ();
+    if (nStringCount < 0)
+      throw new IOException ("Invalid string count " + nStringCount);
+    final String [] aStrings = new String [nStringCount];
+    for (int i = 0; i < nStringCount; ++i)
+    {
+      final int nLength = aDIS.readInt ();
+      if (nLength < 0)
+        throw new IOException ("Invalid string length " + nLength);
+      final byte [] aBytes = new byte [nLength];
+      aDIS.readFully (aBytes);
+      aStrings[i] = new String (aBytes, StandardCharsets.UTF_8);
+    }
+
+    // Records
+    final int nItemCount = aDIS.readInt ();
+    if (nItemCount < 0)
+      throw new IOException ("Invalid item count " + nItemCount);
+    final ICommonsList <SMPServiceInformation> ret = new CommonsArrayList <> (nItemCount);
+    // Service group ID to participant ID
+    final ICommonsMap <String, IParticipantIdentifier> aParticipantIDs = new CommonsHashMap <> ();
+    for (int i = 0; i < nItemCount; ++i)
+    {
+      final String sServiceGroupID = _readString (aDIS, aStrings);
+      IParticipantIdentifier aParticipantID = aParticipantIDs.get (sServiceGroupID);
+      if (aParticipantID == null)
+      {
+        final ISMPServiceGroup aServiceGroup = aSGProvider.getSMPServiceGroupOfID (aIdentifierFactory.parseParticipantIdentifier (sServiceGroupID));
+        if (aServiceGroup == null)
+          throw new IOException ("Failed to resolve service group with ID '" + sServiceGroupID + "'");
+        aParticipantID = aServiceGroup.getParticipantIdentifier ();
+        aParticipantIDs.put (sServiceGroupID, aParticipantID);
+      }
+      final SimpleDocumentTypeIdentifier aDocTypeID = new SimpleDocumentTypeIdentifier (_readString (aDIS, aStrings),
+                                                                                        _readString (aDIS, aStrings));
+      final String sSIExtension = _readString (aDIS, aStrings);
+
+      final int nProcessCount = aDIS.readInt ();
+      final ICommonsList <SMPProcess> aProcesses = new CommonsArrayList <> (Math.max (nProcessCount, 0));
+      for (int j = 0; j < nProcessCount; ++j)
+      {
+        final SimpleProcessIdentifier aProcessID = new SimpleProcessIdentifier (_readString (aDIS, aStrings),
+                                                                                _readString (aDIS, aStrings));
+        final String sProcessExtension = _readString (aDIS, aStrings);
+
+        final int nEndpointCount = aDIS.readInt ();
+        final ICommonsList <SMPEndpoint> aEndpoints = new CommonsArrayList <> (Math.max (nEndpointCount, 0));
+        for (int k = 0; k < nEndpointCount; ++k)
+          aEndpoints.add (_readEndpoint (aDIS, aStrings));
+        aProcesses.add (new SMPProcess (aProcessID, aEndpoints, sProcessExtension));
+      }
+      ret.add (new SMPServiceInformation (aParticipantID, aDocTypeID, aProcesses, sSIExtension));
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.xml.mgr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Comparator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.base.compare.ESortOrder;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.dao.DAOException;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * Test class for class {@link AbstractSMPShardedWALDAO}.
+ *
+ * @author Philip Helger
+ */
+public final class AbstractSMPShardedWALDAOTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testShardIndex ()
+  {
+    // Must be stable
+    assertEquals (0, AbstractSMPShardedWALDAO.getShardIndex ("iso6523-actorid-upis::0088:abc", 1));
+    for (int i = 0; i < 1000; ++i)
+    {
+      final String sKey = "iso6523-actorid-upis::9915:" + i;
+      final int nIndex = AbstractSMPShardedWALDAO.getShardIndex (sKey, 16);
+      assertTrue (nIndex >= 0 && nIndex < 16);
+      assertEquals (nIndex, AbstractSMPShardedWALDAO.getShardIndex (sKey, 16));
+    }
+  }
+
+  @Test
+  public void testShardFilename ()
+  {
+    assertEquals ("smp-servicegroup-shard-000.xml", AbstractSMPShardedWALDAO.getShardFilename ("smp-servicegroup.xml", 0));
+    assertEquals ("smp-redirect-shard-255.xml", AbstractSMPShardedWALDAO.getShardFilename ("smp-redirect.xml", 255));
+    assertEquals ("dir/file-shard-007", AbstractSMPShardedWALDAO.getShardFilename ("dir/file", 7));
+    assertEquals ("a.b/file-shard-001", AbstractSMPShardedWALDAO.getShardFilename ("a.b/file", 1));
+  }
+
+  @Test
+  public void testShardedServiceGroups () throws DAOException, SMPServerException
+  {
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final SMPServiceGroupManagerXML aMgr = new SMPServiceGroupManagerXML ("test-sharded-servicegroup.xml", 4);
+    assertEquals (4, aMgr.getShardCount ());
+    assertEquals (0, aMgr.getSMPServiceGroupCount ());
+
+    final int nCount = 50;
+    for (int i = 0; i < nCount; ++i)
+    {
+      final IParticipantIdentifier aPI = aIdentifierFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                         "0088:sharded" + i);
+      assertNotNull (aMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null, null, false));
+    }
+    assertEquals (nCount, aMgr.getSMPServiceGroupCount ());
+    assertEquals (nCount, aMgr.getAllSMPServiceGroups ().size ());
+    assertEquals (nCount, aMgr.getAllSMPServiceGroupIDs ().size ());
+    assertEquals (nCount, aMgr.getSMPServiceGroupCountOfOwner (CSecurity.USER_ADMINISTRATOR_ID));
+
+    // Paged iteration in ID order over all shards
+    final ICommonsList <String> aSortedIDs = aMgr.getAllSMPServiceGroupIDs ().getSorted (Comparator.naturalOrder ());
+    final ICommonsList <String> aPagedIDs = new CommonsArrayList <> ();
+    for (final ISMPServiceGroup aSG : aMgr.iterateSMPServiceGroups (20, ESortOrder.ASCENDING))
+      aPagedIDs.add (aSG.getID ());
+    assertEquals (aSortedIDs, aPagedIDs);
+
+    // Resolve by ID - unknown IDs are ignored
+    final ICommonsList <String> aPageIDs = new CommonsArrayList <> (aSortedIDs.subList (10, 20));
+    aPageIDs.add ("iso6523-actorid-upis::0088:unknown");
+    assertEquals (aSortedIDs.subList (10, 20),
+                  aMgr.getAllSMPServiceGroupsOfIDs (aPageIDs)
+                      .getAllMapped (ISMPServiceGroup::getID)
+                      .getSortedInline (Comparator.naturalOrder ()));
+
+    aPagedIDs.clear ();
+    for (final ISMPServiceGroup aSG : aMgr.iterateSMPServiceGroups (7, ESortOrder.DESCENDING))
+      aPagedIDs.add (aSG.getID ());
+    assertEquals (aMgr.getAllSMPServiceGroupIDs ().getSorted (Comparator.reverseOrder ()), aPagedIDs);
+
+    for (int i = 0; i < nCount; ++i)
+    {
+      final IParticipantIdentifier aPI = aIdentifierFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                         "0088:sharded" + i);
+      assertTrue (aMgr.containsSMPServiceGroupWithID (aPI));
+      assertNotNull (aMgr.getSMPServiceGroupOfID (aPI));
+      assertTrue (aMgr.deleteSMPServiceGroup (aPI, false).isChanged ());
+      assertFalse (aMgr.containsSMPServiceGroupWithID (aPI));
+    }
+    assertEquals (0, aMgr.getSMPServiceGroupCount ());
+  }
+
+  @Test
+  public void testIncreaseShardCount () throws DAOException, SMPServerException
+  {
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final String sFilename = "test-resharded-servicegroup.xml";
+    final int nCount = 30;
+    final ICommonsList <IParticipantIdentifier> aPIs = new CommonsArrayList <> ();
+    for (int i = 0; i < nCount; ++i)
+      aPIs.add (aIdentifierFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                "0088:resharded" + i));
+
+    // Legacy single file
+    final SMPServiceGroupManagerXML aLegacyMgr = new SMPServiceGroupManagerXML (sFilename, 1);
+    for (final IParticipantIdentifier aPI : aPIs)
+      assertNotNull (aLegacyMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null, null, false));
+
+    // Distribute the legacy file over the shards
+    final SMPServiceGroupManagerXML aMgr2 = new SMPServiceGroupManagerXML (sFilename, 2);
+    assertEquals (nCount, aMgr2.getSMPServiceGroupCount ());
+    for (final IParticipantIdentifier aPI : aPIs)
+      assertTrue (aMgr2.containsSMPServiceGroupWithID (aPI));
+
+    // Move the items to their new shards
+    final SMPServiceGroupManagerXML aMgr4 = new SMPServiceGroupManagerXML (sFilename, 4);
+    assertEquals (4, aMgr4.getShardCount ());
+    assertEquals (nCount, aMgr4.getSMPServiceGroupCount ());
+    assertEquals (nCount, aMgr4.getAllSMPServiceGroupIDs ().size ());
+    for (final IParticipantIdentifier aPI : aPIs)
+    {
+      assertTrue (aMgr4.containsSMPServiceGroupWithID (aPI));
+      assertTrue (aMgr4.deleteSMPServiceGroup (aPI, false).isChanged ());
+    }
+    assertEquals (0, aMgr4.getSMPServiceGroupCount ());
+  }
+}
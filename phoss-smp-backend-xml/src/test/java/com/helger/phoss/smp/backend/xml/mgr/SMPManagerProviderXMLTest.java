@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.xml.mgr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Duration;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.base.state.ETriState;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.phoss.smp.domain.ISMPManagerProvider;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
+import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * Test class for class {@link SMPManagerProviderXML}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPManagerProviderXMLTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testLoadDurations ()
+  {
+    final ISMPManagerProvider aProvider = SMPMetaManager.getManagerProvider ();
+    assertTrue (aProvider instanceof SMPManagerProviderXML);
+
+    final ICommonsOrderedMap <String, Duration> aDurations = aProvider.getManagerLoadDurations ();
+    assertNotNull (aDurations);
+    assertEquals (8, aDurations.size ());
+    for (final String sName : new String [] { "sml-info",
+                                              "settings",
+                                              "transport-profiles",
+                                              "service-groups",
+                                              "redirects",
+                                              "service-information",
+                                              "participant-migrations",
+                                              "business-cards" })
+      assertTrue (sName, aDurations.containsKey (sName));
+    assertEquals ("sml-info", aDurations.keySet ().iterator ().next ());
+  }
+
+  /**
+   * Load all managers in the same order as the SMPMetaManager does and return the IDs of all
+   * loaded objects.
+   */
+  @NonNull
+  private static ICommonsList <String> _loadAllIDs (@NonNull final ETriState eParallelLoading)
+  {
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final SMPManagerProviderXML aProvider = new SMPManagerProviderXML (eParallelLoading);
+    aProvider.beforeInitManagers ();
+
+    final ISMPServiceGroupManager aSGMgr = aProvider.createServiceGroupMgr ();
+    final ISMPRedirectManager aRedirectMgr = aProvider.createRedirectMgr (aIdentifierFactory);
+    final ISMPServiceInformationManager aSIMgr = aProvider.createServiceInformationMgr (aIdentifierFactory);
+    assertNotNull (aProvider.createParticipantMigrationMgr ());
+    final ISMPBusinessCardManager aBCMgr = aProvider.createBusinessCardMgr (aIdentifierFactory, aSGMgr);
+    assertEquals (5, aProvider.getManagerLoadDurations ().size ());
+
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    ret.addAll (new CommonsArrayList <> (aSGMgr.getAllSMPServiceGroupIDs ()).getSortedInline (String::compareTo));
+    ret.addAll (aRedirectMgr.getAllSMPRedirects ().getAllMapped (ISMPRedirect::getID).getSortedInline (String::compareTo));
+    ret.addAll (aSIMgr.getAllSMPServiceInformation ()
+                      .getAllMapped (ISMPServiceInformation::getID)
+                      .getSortedInline (String::compareTo));
+    ret.addAll (aBCMgr.getAllSMPBusinessCards ().getAllMapped (ISMPBusinessCard::getID).getSortedInline (String::compareTo));
+    return ret;
+  }
+
+  @Test
+  public void testParallelLoadingEqualsSequentialLoading () throws SMPServerException
+  {
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    final IParticipantIdentifier aPI = aIdentifierFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                       "0088:parallel");
+    aSGMgr.deleteSMPServiceGroupNoEx (aPI, true);
+    aSGMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null, null, true);
+    try
+    {
+      assertNotNull (SMPMetaManager.getRedirectMgr ()
+                                   .createOrUpdateSMPRedirect (aPI,
+                                                               aIdentifierFactory.createDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                                                "xml::parallel##doctype::1"),
+                                                               "bla",
+                                                               "foo",
+                                                               null,
+                                                               null));
+
+      final ICommonsList <String> aSequentialIDs = _loadAllIDs (ETriState.FALSE);
+      final ICommonsList <String> aParallelIDs = _loadAllIDs (ETriState.TRUE);
+      assertTrue (aSequentialIDs.contains (aPI.getURIEncoded ()));
+      assertEquals (aSequentialIDs, aParallelIDs);
+    }
+    finally
+    {
+      aSGMgr.deleteSMPServiceGroupNoEx (aPI, true);
+    }
+  }
+}
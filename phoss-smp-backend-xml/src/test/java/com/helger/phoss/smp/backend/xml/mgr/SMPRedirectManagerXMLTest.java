@@ -22,10 +22,14 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
+import java.util.stream.Stream;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TestRule;
 
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
@@ -147,4 +151,50 @@ public final class SMPRedirectManagerXMLTest
       aServiceGroupMgr.deleteSMPServiceGroup (aPI, true);
     }
   }
+
+  @Test
+  public void testStreamOrderedByServiceGroup () throws SMPServerException
+  {
+    final IUser aTestUser = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+    assertNotNull (aTestUser);
+
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
+    assertEquals (0, aRedirectMgr.getSMPRedirectCount ());
+
+    final ICommonsList <IParticipantIdentifier> aPIs = new CommonsArrayList <> ();
+    for (final String sValue : new String [] { "0088:stream3", "0088:stream1", "0088:stream2" })
+      aPIs.add (aIdentifierFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                sValue));
+    try
+    {
+      for (final IParticipantIdentifier aPI : aPIs)
+      {
+        aServiceGroupMgr.createSMPServiceGroup (aTestUser.getID (), aPI, null, null, true);
+        for (final String sDocType : new String [] { "xml::b##doctype::1", "xml::a##doctype::1" })
+          assertNotNull (aRedirectMgr.createOrUpdateSMPRedirect (aPI,
+                                                                 aIdentifierFactory.createDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                                                  sDocType),
+                                                                 "bla",
+                                                                 "foo",
+                                                                 null,
+                                                                 null));
+      }
+
+      final ICommonsList <ISMPRedirect> aStreamed = new CommonsArrayList <> ();
+      try (final Stream <ISMPRedirect> aStream = aRedirectMgr.streamAllSMPRedirectsOrderedByServiceGroup ())
+      {
+        aStream.forEach (aStreamed::add);
+      }
+      assertEquals (6, aStreamed.size ());
+      assertEquals (aRedirectMgr.getAllSMPRedirects ().getSortedInline (ISMPRedirect.comparator ()), aStreamed);
+      assertEquals (aPIs.get (1).getURIEncoded (), aStreamed.getFirstOrNull ().getServiceGroupID ());
+    }
+    finally
+    {
+      for (final IParticipantIdentifier aPI : aPIs)
+        aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, true);
+    }
+  }
 }
@@ -18,6 +18,7 @@ package com.helger.phoss.smp.backend.xml.mgr;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Rule;
@@ -26,6 +27,7 @@ import org.junit.rules.TestRule;
 
 import com.helger.collection.CollectionFind;
 import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.datetime.helper.PDTFactory;
 import com.helger.datetime.xml.XMLOffsetDateTime;
 import com.helger.peppolid.IDocumentTypeIdentifier;
@@ -34,6 +36,7 @@ import com.helger.peppolid.IProcessIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.peppolid.factory.PeppolIdentifierFactory;
 import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
@@ -45,6 +48,7 @@ import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
 import com.helger.phoss.smp.exception.SMPServerException;
 import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.phoss.smp.restapi.SMPServiceMetadataResponseCache;
 import com.helger.photon.security.CSecurity;
 import com.helger.photon.security.mgr.PhotonSecurityManager;
 import com.helger.photon.security.user.IUser;
@@ -231,6 +235,71 @@ public final class SMPServiceInformationManagerXMLTest
                                     .get (1)
                                     .getEndpointCount ());
       }
+
+      {
+        // Add a second document type - check the indexed lookups
+        final IDocumentTypeIdentifier aDocTypeID2 = aIdentifierFactory.createDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                                     "xml::xml##testdoctype::2");
+        final SMPEndpoint aEP = new SMPEndpoint ("epid",
+                                                 "tp",
+                                                 "http://localhost/as2",
+                                                 false,
+                                                 "minauth",
+                                                 aStartDT,
+                                                 aEndDT,
+                                                 "cert",
+                                                 "sd",
+                                                 "tc",
+                                                 "ti",
+                                                 "<extep />");
+        final SMPProcess aProcess = new SMPProcess (aProcessID, new CommonsArrayList <> (aEP), "<extproc />");
+        assertTrue (aServiceInformationMgr.mergeSMPServiceInformation (new SMPServiceInformation (aPI,
+                                                                                                  aDocTypeID2,
+                                                                                                  new CommonsArrayList <> (aProcess),
+                                                                                                  null))
+                                          .isSuccess ());
+
+        assertEquals (2, aServiceInformationMgr.getSMPServiceInformationCount ());
+        assertEquals (2, aServiceInformationMgr.getAllSMPServiceInformationOfServiceGroup (aPI).size ());
+        assertEquals (2, aServiceInformationMgr.getAllSMPDocumentTypesOfServiceGroup (aPI).size ());
+        final ISMPServiceInformation aSI2 = aServiceInformationMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPI,
+                                                                                                                          aDocTypeID2);
+        assertNotNull (aSI2);
+        assertTrue (aSI2.getDocumentTypeIdentifier ().hasSameContent (aDocTypeID2));
+        final ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> aEndpointCounts = aServiceInformationMgr.getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (aPI);
+        assertEquals (2, aEndpointCounts.size ());
+        assertEquals (Integer.valueOf (1), aEndpointCounts.get (aSI2.getDocumentTypeIdentifier ()));
+
+        assertTrue (aServiceInformationMgr.deleteSMPServiceInformation (aSI2).isChanged ());
+        assertNull (aServiceInformationMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPI, aDocTypeID2));
+        assertNotNull (aServiceInformationMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPI, aDocTypeID));
+        assertEquals (1, aServiceInformationMgr.getAllSMPServiceInformationOfServiceGroup (aPI).size ());
+        assertEquals (1, aServiceInformationMgr.getAllSMPDocumentTypesOfServiceGroup (aPI).size ());
+        assertEquals (1, aServiceInformationMgr.getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (aPI).size ());
+      }
+
+      {
+        // Bulk modifications and process deletion drop the cached responses
+        final SMPServiceMetadataResponseCache aCache = SMPServiceMetadataResponseCache.getInstance ();
+        aCache.clear ();
+        final byte [] aBytes = { 1, 2, 3 };
+        aCache.putResponse (aCache.getCurrentGeneration (), ESMPRESTType.PEPPOL, aPI, aDocTypeID, aBytes);
+        assertNotNull (aCache.getResponse (ESMPRESTType.PEPPOL, aPI, aDocTypeID));
+        assertEquals (1, aServiceInformationMgr.updateAllEndpointURLs (aPI, "http://localhost/as2", "http://localhost/as2-new"));
+        assertNull (aCache.getResponse (ESMPRESTType.PEPPOL, aPI, aDocTypeID));
+
+        aCache.putResponse (aCache.getCurrentGeneration (), ESMPRESTType.PEPPOL, aPI, aDocTypeID, aBytes);
+        assertEquals (3, aServiceInformationMgr.updateAllEndpointCertificates ("cert", "cert2"));
+        assertNull (aCache.getResponse (ESMPRESTType.PEPPOL, aPI, aDocTypeID));
+
+        aCache.putResponse (aCache.getCurrentGeneration (), ESMPRESTType.PEPPOL, aPI, aDocTypeID, aBytes);
+        final ISMPServiceInformation aSI = aServiceInformationMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPI,
+                                                                                                                         aDocTypeID);
+        assertNotNull (aSI);
+        assertTrue (aServiceInformationMgr.deleteSMPProcess (aSI, aSI.getProcessOfID (aProcessID)).isChanged ());
+        assertNull (aCache.getResponse (ESMPRESTType.PEPPOL, aPI, aDocTypeID));
+        aCache.clear ();
+      }
     }
     finally
     {
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.backend.xml.mgr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.datetime.helper.PDTFactory;
+import com.helger.datetime.xml.XMLOffsetDateTime;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.IProcessIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.serviceinfo.SMPEndpoint;
+import com.helger.phoss.smp.domain.serviceinfo.SMPProcess;
+import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformation;
+import com.helger.phoss.smp.exception.SMPServerException;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+
+/**
+ * Test class for class {@link SMPServiceInformationSnapshotCodec}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPServiceInformationSnapshotCodecTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testRoundtrip () throws IOException, SMPServerException
+  {
+    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    final IParticipantIdentifier aPI = aIdentifierFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                                       "0088:snapshot");
+    aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, true);
+    assertNotNull (aServiceGroupMgr.createSMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null, null, false));
+    try
+    {
+      final XMLOffsetDateTime aStartDT = PDTFactory.getCurrentXMLOffsetDateTime ();
+      final IProcessIdentifier aProcessID = aIdentifierFactory.createProcessIdentifier (PeppolIdentifierHelper.DEFAULT_PROCESS_SCHEME,
+                                                                                        "testproc");
+      final ICommonsList <SMPServiceInformation> aItems = new CommonsArrayList <> ();
+      for (int i = 0; i < 3; ++i)
+      {
+        final IDocumentTypeIdentifier aDocTypeID = aIdentifierFactory.createDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                                    "xml::xml##testdoctype" + i + "::1");
+        final SMPEndpoint aEP1 = new SMPEndpoint ("epid",
+                                                  "tp",
+                                                  "http://localhost/as2",
+                                                  false,
+                                                  "minauth",
+                                                  aStartDT,
+                                                  aStartDT.plusYears (1),
+                                                  "cert",
+                                                  "sd",
+                                                  "tc",
+                                                  "ti",
+                                                  "<extep />");
+        final SMPEndpoint aEP2 = new SMPEndpoint ("epid",
+                                                  "tp2",
+                                                  "http://localhost/as4",
+                                                  true,
+                                                  null,
+                                                  null,
+                                                  null,
+                                                  "cert",
+                                                  "sd",
+                                                  "tc",
+                                                  null,
+                                                  null);
+        final SMPProcess aProcess = new SMPProcess (aProcessID, new CommonsArrayList <> (aEP1, aEP2), null);
+        aItems.add (new SMPServiceInformation (aPI, aDocTypeID, new CommonsArrayList <> (aProcess), i == 0 ? "<extsi />" : null));
+      }
+
+      final ByteArrayOutputStream aBAOS = new ByteArrayOutputStream ();
+      final SMPServiceInformationSnapshotCodec aCodec = new SMPServiceInformationSnapshotCodec ();
+      try (final DataOutputStream aDOS = new DataOutputStream (aBAOS))
+      {
+        aCodec.writeItems (aItems, aDOS);
+      }
+
+      final ICommonsList <SMPServiceInformation> aRead;
+      try (final DataInputStream aDIS = new DataInputStream (new ByteArrayInputStream (aBAOS.toByteArray ())))
+      {
+        aRead = aCodec.readItems (aDIS);
+      }
+      assertEquals (aItems.size (), aRead.size ());
+      for (int i = 0; i < aItems.size (); ++i)
+      {
+        final SMPServiceInformation aSrc = aItems.get (i);
+        final SMPServiceInformation aDst = aRead.get (i);
+        assertEquals (aSrc.getID (), aDst.getID ());
+        assertEquals (aSrc.getServiceGroupID (), aDst.getServiceGroupID ());
+        assertEquals (aSrc.getDocumentTypeIdentifier (), aDst.getDocumentTypeIdentifier ());
+        assertEquals (aSrc.getExtensions ().extensions ().size (), aDst.getExtensions ().extensions ().size ());
+        assertEquals (aSrc.getAllProcesses (), aDst.getAllProcesses ());
+      }
+    }
+    finally
+    {
+      aServiceGroupMgr.deleteSMPServiceGroupNoEx (aPI, true);
+    }
+  }
+}
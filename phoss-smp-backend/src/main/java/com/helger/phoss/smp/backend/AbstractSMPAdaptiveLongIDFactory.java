@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.backend;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.id.factory.ILongIDFactory;
+import com.helger.base.tostring.ToStringGenerator;
+
+/**
+ * Abstract persisting long ID factory that reserves blocks of IDs from the persistence layer. In
+ * contrast to a fixed block size, the block size is doubled whenever a block was consumed quickly
+ * (e.g. during an import) and halved again if a block lasted long. Additionally a complete range of
+ * IDs can be reserved at once for bulk operations.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@ThreadSafe
+public abstract class AbstractSMPAdaptiveLongIDFactory implements ILongIDFactory
+{
+  /** The default minimum number of values to reserve with a single IO action */
+  public static final int DEFAULT_MIN_RESERVE_COUNT = 20;
+  /** The default maximum number of values to reserve with a single IO action */
+  public static final int DEFAULT_MAX_RESERVE_COUNT = 10_000;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (AbstractSMPAdaptiveLongIDFactory.class);
+
+  // If a block was consumed faster than this, the next one is larger
+  private static final long GROW_THRESHOLD_NANOS = TimeUnit.SECONDS.toNanos (1);
+  // If a block lasted longer than this, the next one is smaller
+  private static final long SHRINK_THRESHOLD_NANOS = TimeUnit.MINUTES.toNanos (1);
+
+  private final Lock m_aLock = new ReentrantLock ();
+  private final int m_nMinReserveCount;
+  private final int m_nMaxReserveCount;
+  // All the following fields are guarded by m_aLock
+  private int m_nReserveCount;
+  private long m_nNextID = 0;
+  // Exclusive
+  private long m_nLastID = 0;
+  private boolean m_bReservedBefore = false;
+  private long m_nLastReserveNanos;
+
+  /**
+   * Constructor
+   *
+   * @param nMinReserveCount
+   *        The minimum number of IDs to reserve per persistence layer access. Must be &gt; 0.
+   * @param nMaxReserveCount
+   *        The maximum number of IDs to reserve per persistence layer access. Must be &ge;
+   *        nMinReserveCount.
+   */
+  protected AbstractSMPAdaptiveLongIDFactory (@Nonnegative final int nMinReserveCount,
+                                              @Nonnegative final int nMaxReserveCount)
+  {
+    ValueEnforcer.isGT0 (nMinReserveCount, "MinReserveCount");
+    ValueEnforcer.isTrue (nMaxReserveCount >= nMinReserveCount,
+                          () -> "MaxReserveCount (" +
+                                nMaxReserveCount +
+                                ") must be >= MinReserveCount (" +
+                                nMinReserveCount +
+                                ")");
+    m_nMinReserveCount = nMinReserveCount;
+    m_nMaxReserveCount = nMaxReserveCount;
+    m_nReserveCount = nMinReserveCount;
+  }
+
+  /**
+   * @return The minimum number of IDs reserved per persistence layer access. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getMinReserveCount ()
+  {
+    return m_nMinReserveCount;
+  }
+
+  /**
+   * @return The maximum number of IDs reserved per persistence layer access. Always &gt; 0.
+   */
+  @Nonnegative
+  public final int getMaxReserveCount ()
+  {
+    return m_nMaxReserveCount;
+  }
+
+  /**
+   * @return The number of IDs the last block reservation used. Always between min and max reserve
+   *         count.
+   */
+  @Nonnegative
+  public final int getCurrentReserveCount ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      return m_nReserveCount;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Atomically read the current counter value from the persistence layer and increase it by the
+   * provided number of IDs.
+   *
+   * @param nReserveCount
+   *        The number of IDs to reserve. Always &gt; 0.
+   * @return The first reserved ID, so the IDs from the returned value (incl.) to returned value +
+   *         nReserveCount (excl.) are reserved.
+   */
+  protected abstract long readAndUpdateIDCounter (@Nonnegative int nReserveCount);
+
+  private void _adaptReserveCount ()
+  {
+    final long nNow = System.nanoTime ();
+    if (m_bReservedBefore)
+    {
+      final long nElapsed = nNow - m_nLastReserveNanos;
+      final int nOldReserveCount = m_nReserveCount;
+      if (nElapsed < GROW_THRESHOLD_NANOS)
+        m_nReserveCount = (int) Math.min (m_nReserveCount * 2L, m_nMaxReserveCount);
+      else
+        if (nElapsed > SHRINK_THRESHOLD_NANOS)
+          m_nReserveCount = Math.max (m_nReserveCount / 2, m_nMinReserveCount);
+
+      if (m_nReserveCount != nOldReserveCount && LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Changed ID reserve count from " + nOldReserveCount + " to " + m_nReserveCount);
+    }
+    m_bReservedBefore = true;
+    m_nLastReserveNanos = nNow;
+  }
+
+  public final long getNewID ()
+  {
+    m_aLock.lock ();
+    try
+    {
+      if (m_nNextID >= m_nLastID)
+      {
+        // Current block is exhausted
+        _adaptReserveCount ();
+        final long nFirstID = readAndUpdateIDCounter (m_nReserveCount);
+        ValueEnforcer.isGE0 (nFirstID, "FirstID");
+        m_nNextID = nFirstID;
+        m_nLastID = nFirstID + m_nReserveCount;
+      }
+      return m_nNextID++;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  /**
+   * Reserve a contiguous range of IDs in one shot. This is meant for bulk operations that know
+   * upfront how many IDs they need. If the current block has enough IDs left, they are taken from
+   * there, otherwise a single persistence layer access reserves the whole range.
+   *
+   * @param nCount
+   *        The number of IDs to reserve. Must be &gt; 0.
+   * @return The first reserved ID, so the IDs from the returned value (incl.) to returned value +
+   *         nCount (excl.) are reserved.
+   */
+  public final long reserveIDRange (@Nonnegative final int nCount)
+  {
+    ValueEnforcer.isGT0 (nCount, "Count");
+
+    m_aLock.lock ();
+    try
+    {
+      if (m_nLastID - m_nNextID >= nCount)
+      {
+        final long ret = m_nNextID;
+        m_nNextID += nCount;
+        return ret;
+      }
+
+      // Keep the rest of the current block for single IDs
+      final long ret = readAndUpdateIDCounter (nCount);
+      ValueEnforcer.isGE0 (ret, "FirstID");
+      return ret;
+    }
+    finally
+    {
+      m_aLock.unlock ();
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("MinReserveCount", m_nMinReserveCount)
+                                       .append ("MaxReserveCount", m_nMaxReserveCount)
+                                       .getToString ();
+  }
+}
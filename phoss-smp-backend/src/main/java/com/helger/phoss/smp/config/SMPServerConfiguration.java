@@ -45,6 +45,9 @@ public final class SMPServerConfiguration
   private static final Set <String> WARNED_DEPRECATED_KEYS = ConcurrentHashMap.newKeySet ();
 
   public static final String KEY_SMP_BACKEND = "smp.backend";
+  public static final String KEY_SMP_BACKEND_XML_SHARDCOUNT = "smp.backend.xml.shardcount";
+  public static final String KEY_SMP_BACKEND_XML_PARALLEL_LOADING = "smp.backend.xml.parallelloading";
+  public static final String KEY_SMP_BACKEND_XML_SNAPSHOT_ENABLED = "smp.backend.xml.snapshot.enabled";
 
   public static final String KEY_SMP_KEYSTORE_TYPE = "smp.keystore.type";
   public static final String KEY_SMP_KEYSTORE_PATH = "smp.keystore.path";
@@ -67,6 +70,16 @@ public final class SMPServerConfiguration
   public static final String KEY_SMP_REST_REMOTE_QUERY_API_DISABLED = "smp.rest.remote.queryapi.disabled";
   public static final String KEY_SMP_REST_DELETE_NOT_FOUND_AS_OK = "smp.rest.delete.notfound.as.ok";
   public static final String KEY_SMP_REST_AUTH_ERRORDETAILS = "smp.rest.auth.errordetails";
+  public static final String KEY_SMP_REST_AUTH_CACHE_ENABLED = "smp.rest.auth.cache.enabled";
+  public static final String KEY_SMP_REST_AUTH_CACHE_TTL = "smp.rest.auth.cache.ttl";
+  public static final String KEY_SMP_REST_AUTH_CACHE_MAXSIZE = "smp.rest.auth.cache.maxsize";
+  public static final String KEY_SMP_REST_SERVICEMETADATA_CACHE_ENABLED = "smp.rest.servicemetadata.cache.enabled";
+  public static final String KEY_SMP_REST_SERVICEMETADATA_CACHE_TTL = "smp.rest.servicemetadata.cache.ttl";
+  public static final String KEY_SMP_REST_SERVICEMETADATA_CACHE_MAXSIZE = "smp.rest.servicemetadata.cache.maxsize";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_API_CACHE_ENABLED = "smp.rest.remote.queryapi.cache.enabled";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_API_CACHE_LOOKUP_TTL = "smp.rest.remote.queryapi.cache.lookup.ttl";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_API_CACHE_RESULT_TTL = "smp.rest.remote.queryapi.cache.result.ttl";
+  public static final String KEY_SMP_REST_REMOTE_QUERY_API_CACHE_MAXSIZE = "smp.rest.remote.queryapi.cache.maxsize";
 
   public static final String KEY_SMP_STATUS_ENABLED = "smp.status.enabled";
   public static final String KEY_SMP_STATUS_SHOW_CERTIFICATE_DATES = "smp.status.show.certificate.dates";
@@ -97,6 +110,9 @@ public final class SMPServerConfiguration
   public static final String KEY_SMP_HREDELIVERY_EXTENSION = "smp.hredelivery.extension";
   public static final String KEY_SMP_HREDELIVERY_ACCESSPOINTOIB = "smp.hredelivery.accesspointoib";
 
+  public static final int DEFAULT_SMP_BACKEND_XML_SHARDCOUNT = 1;
+  public static final boolean DEFAULT_SMP_BACKEND_XML_PARALLEL_LOADING = false;
+  public static final boolean DEFAULT_SMP_BACKEND_XML_SNAPSHOT_ENABLED = false;
   public static final boolean DEFAULT_SMP_FORCEROOT = false;
   public static final ESMPIdentifierType DEFAULT_SMP_IDENTIFIER_TYPE = ESMPIdentifierType.PEPPOL;
   public static final ESMPRESTType DEFAULT_SMP_REST_TYPE = ESMPRESTType.PEPPOL;
@@ -106,6 +122,16 @@ public final class SMPServerConfiguration
   public static final boolean DEFAULT_SMP_REST_DELETE_NOT_FOUND_AS_OK = false;
   @ChangeNextMajorRelease ("Change default to false")
   public static final boolean DEFAULT_SMP_REST_AUTH_ERRORDETAILS = true;
+  public static final boolean DEFAULT_SMP_REST_AUTH_CACHE_ENABLED = false;
+  public static final Duration DEFAULT_SMP_REST_AUTH_CACHE_TTL = Duration.ofMinutes (1);
+  public static final int DEFAULT_SMP_REST_AUTH_CACHE_MAXSIZE = 1_000;
+  public static final boolean DEFAULT_SMP_REST_SERVICEMETADATA_CACHE_ENABLED = false;
+  public static final Duration DEFAULT_SMP_REST_SERVICEMETADATA_CACHE_TTL = Duration.ofHours (1);
+  public static final int DEFAULT_SMP_REST_SERVICEMETADATA_CACHE_MAXSIZE = 10_000;
+  public static final boolean DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_ENABLED = true;
+  public static final Duration DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_LOOKUP_TTL = Duration.ofMinutes (10);
+  public static final Duration DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_RESULT_TTL = Duration.ofMinutes (1);
+  public static final int DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_MAXSIZE = 10_000;
 
   public static final boolean DEFAULT_SMP_STATUS_ENABLED = true;
   public static final boolean DEFAULT_SMP_STATUS_SHOW_CERTIFICATE_DATES = false;
@@ -141,6 +167,41 @@ public final class SMPServerConfiguration
     return _getConfig ().getAsString (KEY_SMP_BACKEND);
   }
 
+  /**
+   * @return The number of files (shards) over which the service groups, service information,
+   *         redirects and business cards are distributed by the XML backend. The default is 1
+   *         which means one file per object type. The value may be increased later on but never
+   *         decreased. Property <code>smp.backend.xml.shardcount</code>.
+   * @since 8.2.1
+   */
+  public static int getBackendXMLShardCount ()
+  {
+    return _getConfig ().getAsInt (KEY_SMP_BACKEND_XML_SHARDCOUNT, DEFAULT_SMP_BACKEND_XML_SHARDCOUNT);
+  }
+
+  /**
+   * @return <code>true</code> if the XML backend should load the redirects, service information,
+   *         participant migrations and business cards concurrently upon startup, <code>false</code>
+   *         to load them one after the other. By default it is disabled. Property
+   *         <code>smp.backend.xml.parallelloading</code>.
+   * @since 8.2.1
+   */
+  public static boolean isBackendXMLParallelLoading ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_BACKEND_XML_PARALLEL_LOADING, DEFAULT_SMP_BACKEND_XML_PARALLEL_LOADING);
+  }
+
+  /**
+   * @return <code>true</code> if the XML backend should keep binary snapshots of the service
+   *         information files to speed up startup, <code>false</code> if not. By default it is
+   *         disabled. Property <code>smp.backend.xml.snapshot.enabled</code>.
+   * @since 8.2.1
+   */
+  public static boolean isBackendXMLSnapshotEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_BACKEND_XML_SNAPSHOT_ENABLED, DEFAULT_SMP_BACKEND_XML_SNAPSHOT_ENABLED);
+  }
+
   /**
    * @return The type to the keystore. This is usually JKS. Property <code>smp.keystore.type</code>.
    * @since 5.0.4
@@ -355,6 +416,152 @@ public final class SMPServerConfiguration
     return _getConfig ().getAsBoolean (KEY_SMP_REST_AUTH_ERRORDETAILS, DEFAULT_SMP_REST_AUTH_ERRORDETAILS);
   }
 
+  /**
+   * @return <code>true</code> if successfully verified REST API credentials should be cached in
+   *         memory, <code>false</code> if not. By default it is disabled, because the cache is
+   *         only node-local: in a multi-node setup a password change, a disabled or deleted user
+   *         or a revoked token is only effective on the other nodes after the TTL. Property
+   *         <code>smp.rest.auth.cache.enabled</code>.
+   * @since 8.2.1
+   */
+  public static boolean isRestAuthCacheEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_AUTH_CACHE_ENABLED, DEFAULT_SMP_REST_AUTH_CACHE_ENABLED);
+  }
+
+  /**
+   * @return The maximum time verified REST API credentials are kept in the cache. Uses the duration
+   *         grammar (e.g. <code>30s</code>). Defaults to {@link #DEFAULT_SMP_REST_AUTH_CACHE_TTL}.
+   *         Property <code>smp.rest.auth.cache.ttl</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  public static Duration getRestAuthCacheTTL ()
+  {
+    final Duration ret = _getConfig ().getAsConfigDuration (KEY_SMP_REST_AUTH_CACHE_TTL,
+                                                            sMsg -> LOGGER.warn ("Failed to parse configuration key '" +
+                                                                                 KEY_SMP_REST_AUTH_CACHE_TTL +
+                                                                                 "' as duration: " +
+                                                                                 sMsg));
+    return ret != null ? ret : DEFAULT_SMP_REST_AUTH_CACHE_TTL;
+  }
+
+  /**
+   * @return The maximum number of verified REST API credentials kept in the cache. Defaults to
+   *         {@link #DEFAULT_SMP_REST_AUTH_CACHE_MAXSIZE}. Property
+   *         <code>smp.rest.auth.cache.maxsize</code>.
+   * @since 8.2.1
+   */
+  public static int getRestAuthCacheMaxSize ()
+  {
+    return _getConfig ().getAsInt (KEY_SMP_REST_AUTH_CACHE_MAXSIZE, DEFAULT_SMP_REST_AUTH_CACHE_MAXSIZE);
+  }
+
+  /**
+   * @return <code>true</code> if the signed ServiceMetadata responses should be cached in memory,
+   *         <code>false</code> if not. By default it is disabled. Property
+   *         <code>smp.rest.servicemetadata.cache.enabled</code>.
+   * @since 8.2.1
+   */
+  public static boolean isRestServiceMetadataCacheEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_SERVICEMETADATA_CACHE_ENABLED,
+                                       DEFAULT_SMP_REST_SERVICEMETADATA_CACHE_ENABLED);
+  }
+
+  /**
+   * @return The maximum time a signed ServiceMetadata response is kept in the cache. Uses the
+   *         duration grammar (e.g. <code>30m</code>). Defaults to
+   *         {@link #DEFAULT_SMP_REST_SERVICEMETADATA_CACHE_TTL}. Property
+   *         <code>smp.rest.servicemetadata.cache.ttl</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  public static Duration getRestServiceMetadataCacheTTL ()
+  {
+    final Duration ret = _getConfig ().getAsConfigDuration (KEY_SMP_REST_SERVICEMETADATA_CACHE_TTL,
+                                                            sMsg -> LOGGER.warn ("Failed to parse configuration key '" +
+                                                                                 KEY_SMP_REST_SERVICEMETADATA_CACHE_TTL +
+                                                                                 "' as duration: " +
+                                                                                 sMsg));
+    return ret != null ? ret : DEFAULT_SMP_REST_SERVICEMETADATA_CACHE_TTL;
+  }
+
+  /**
+   * @return The maximum number of signed ServiceMetadata responses kept in the cache. Defaults to
+   *         {@link #DEFAULT_SMP_REST_SERVICEMETADATA_CACHE_MAXSIZE}. Property
+   *         <code>smp.rest.servicemetadata.cache.maxsize</code>.
+   * @since 8.2.1
+   */
+  public static int getRestServiceMetadataCacheMaxSize ()
+  {
+    return _getConfig ().getAsInt (KEY_SMP_REST_SERVICEMETADATA_CACHE_MAXSIZE,
+                                   DEFAULT_SMP_REST_SERVICEMETADATA_CACHE_MAXSIZE);
+  }
+
+  /**
+   * @return <code>true</code> if the remote query API should cache the SMP lookups and the
+   *         successful remote results in memory, <code>false</code> if not. Property
+   *         <code>smp.rest.remote.queryapi.cache.enabled</code>.
+   * @since 8.2.1
+   */
+  public static boolean isRestRemoteQueryAPICacheEnabled ()
+  {
+    return _getConfig ().getAsBoolean (KEY_SMP_REST_REMOTE_QUERY_API_CACHE_ENABLED,
+                                       DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_ENABLED);
+  }
+
+  @NonNull
+  private static Duration _getDuration (@NonNull final String sKey, @NonNull final Duration aDefault)
+  {
+    final Duration ret = _getConfig ().getAsConfigDuration (sKey,
+                                                            sMsg -> LOGGER.warn ("Failed to parse configuration key '" +
+                                                                                 sKey +
+                                                                                 "' as duration: " +
+                                                                                 sMsg));
+    return ret != null ? ret : aDefault;
+  }
+
+  /**
+   * @return The maximum time the resolved SMP of a participant (DNS lookup) is cached by the remote
+   *         query API. Uses the duration grammar (e.g. <code>10m</code>). Defaults to
+   *         {@link #DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_LOOKUP_TTL}. Property
+   *         <code>smp.rest.remote.queryapi.cache.lookup.ttl</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  public static Duration getRestRemoteQueryAPICacheLookupTTL ()
+  {
+    return _getDuration (KEY_SMP_REST_REMOTE_QUERY_API_CACHE_LOOKUP_TTL,
+                         DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_LOOKUP_TTL);
+  }
+
+  /**
+   * @return The maximum time a successful remote result is cached by the remote query API. Uses the
+   *         duration grammar (e.g. <code>1m</code>). Defaults to
+   *         {@link #DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_RESULT_TTL}. Property
+   *         <code>smp.rest.remote.queryapi.cache.result.ttl</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  public static Duration getRestRemoteQueryAPICacheResultTTL ()
+  {
+    return _getDuration (KEY_SMP_REST_REMOTE_QUERY_API_CACHE_RESULT_TTL,
+                         DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_RESULT_TTL);
+  }
+
+  /**
+   * @return The maximum number of lookups and of results each cached by the remote query API.
+   *         Defaults to {@link #DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_MAXSIZE}. Property
+   *         <code>smp.rest.remote.queryapi.cache.maxsize</code>.
+   * @since 8.2.1
+   */
+  public static int getRestRemoteQueryAPICacheMaxSize ()
+  {
+    return _getConfig ().getAsInt (KEY_SMP_REST_REMOTE_QUERY_API_CACHE_MAXSIZE,
+                                   DEFAULT_SMP_REST_REMOTE_QUERY_API_CACHE_MAXSIZE);
+  }
+
   /**
    * @return <code>true</code> if the status servlet at <code>/smp-status/</code> is enabled,
    *         <code>false</code> if it is disabled. By default it is enabled.
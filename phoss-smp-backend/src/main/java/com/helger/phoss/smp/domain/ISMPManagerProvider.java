@@ -10,10 +10,15 @@
  */
 package com.helger.phoss.smp.domain;
 
+import java.time.Duration;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
+import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.base.state.ETriState;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.pmigration.ISMPParticipantMigrationManager;
@@ -117,4 +122,18 @@ public interface ISMPManagerProvider
   @Nullable
   ISMPBusinessCardManager createBusinessCardMgr (@NonNull IIdentifierFactory aIdentifierFactory,
                                                  @NonNull ISMPServiceGroupManager aServiceGroupMgr);
+
+  /**
+   * @return The time it took to load the data of the different managers, in the order the
+   *         managers were loaded. The key is a short name of the manager. Only backends that
+   *         need to load data upon startup provide information here. Never <code>null</code> but
+   *         maybe empty.
+   * @since 8.2.1
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  default ICommonsOrderedMap <String, Duration> getManagerLoadDurations ()
+  {
+    return new CommonsLinkedHashMap <> ();
+  }
 }
@@ -40,6 +40,7 @@ import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.serviceinfo.LoggingSMPServiceInformationCallback;
 import com.helger.phoss.smp.domain.sml.ISMLInfoManager;
 import com.helger.phoss.smp.domain.transportprofile.ISMPTransportProfileManager;
+import com.helger.phoss.smp.restapi.SMPServiceMetadataResponseCache;
 import com.helger.phoss.smp.security.SMPKeyManager;
 import com.helger.phoss.smp.security.SMPTrustManager;
 import com.helger.phoss.smp.settings.ISMPSettings;
@@ -125,6 +126,12 @@ public final class SMPMetaManager extends AbstractGlobalSingleton
     m_aRedirectMgr.redirectCallbacks ().add (new LoggingSMPRedirectCallback ());
     m_aServiceInformationMgr.serviceInformationCallbacks ().add (new LoggingSMPServiceInformationCallback ());
 
+    // Keep the signed response cache consistent (does nothing if the cache is not used)
+    m_aServiceGroupMgr.serviceGroupCallbacks ().add (SMPServiceMetadataResponseCache.getInvalidationCallback ());
+    m_aRedirectMgr.redirectCallbacks ().add (SMPServiceMetadataResponseCache.getInvalidationCallback ());
+    m_aServiceInformationMgr.serviceInformationCallbacks ()
+                            .add (SMPServiceMetadataResponseCache.getInvalidationCallback ());
+
     if (m_aBusinessCardMgr != null)
     {
       // If service group is deleted, also delete respective business card
@@ -11,6 +11,7 @@
 package com.helger.phoss.smp.domain.businesscard;
 
 import java.util.Collection;
+import java.util.stream.Stream;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -80,6 +81,24 @@ public interface ISMPBusinessCardManager
   @ReturnsMutableCopy
   ICommonsList <ISMPBusinessCard> getAllSMPBusinessCards ();
 
+  /**
+   * Get all business cards ordered by their ID, which is the service group ID (see
+   * {@link ISMPBusinessCard#comparator()}). This allows to process the business cards of many
+   * service groups in a single sequential pass, instead of querying them service group by service
+   * group. The returned stream must be closed by the caller, as it may be backed by an open
+   * database cursor.
+   * The default implementation reads all objects into memory, so backends with many objects should
+   * provide an implementation that only reads one page after the other.
+   *
+   * @return A new stream of all business cards. Never <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  default Stream <ISMPBusinessCard> streamAllSMPBusinessCardsOrderedByID ()
+  {
+    return getAllSMPBusinessCards ().getSortedInline (ISMPBusinessCard.comparator ()).stream ();
+  }
+
   /**
    * @return All contained SMP business card IDs. Never <code>null</code> but maybe empty.
    * @since 5.6.0
@@ -123,7 +123,23 @@ public final class SMPBusinessCardMicroTypeConverter implements IMicroTypeConver
   @NonNull
   public SMPBusinessCard convertToNative (@NonNull final IMicroElement aElement)
   {
-    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    return convertToNative (aElement, SMPMetaManager.getIdentifierFactory ());
+  }
+
+  /**
+   * Convert the provided element without accessing the global {@link SMPMetaManager}.
+   *
+   * @param aElement
+   *        The element to convert. May not be <code>null</code>.
+   * @param aIdentifierFactory
+   *        The identifier factory to use. May not be <code>null</code>.
+   * @return The converted object. Never <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  public static SMPBusinessCard convertToNative (@NonNull final IMicroElement aElement,
+                                                 @NonNull final IIdentifierFactory aIdentifierFactory)
+  {
     final String sServiceGroupID = aElement.getAttributeValue (ATTR_SERVICE_GROUP_ID);
 
     final IParticipantIdentifier aParticipantID = aIdentifierFactory.parseParticipantIdentifier (sServiceGroupID);
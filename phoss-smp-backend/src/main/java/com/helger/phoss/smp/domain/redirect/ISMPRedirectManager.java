@@ -11,6 +11,7 @@
 package com.helger.phoss.smp.domain.redirect;
 
 import java.security.cert.X509Certificate;
+import java.util.stream.Stream;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -99,6 +100,23 @@ public interface ISMPRedirectManager
   @ReturnsMutableCopy
   ICommonsList <ISMPRedirect> getAllSMPRedirects ();
 
+  /**
+   * Get all redirects ordered by their service group ID (see {@link ISMPRedirect#comparator()}).
+   * This allows to process all redirects of many service groups in a single sequential pass,
+   * instead of querying them service group by service group. The returned stream must be closed by
+   * the caller, as it may be backed by an open database cursor.
+   * The default implementation reads all objects into memory, so backends with many objects should
+   * provide an implementation that only reads one page after the other.
+   *
+   * @return A new stream of all redirects. Never <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  default Stream <ISMPRedirect> streamAllSMPRedirectsOrderedByServiceGroup ()
+  {
+    return getAllSMPRedirects ().getSortedInline (ISMPRedirect.comparator ()).stream ();
+  }
+
   /**
    * Get all redirects of the passed service group.
    *
@@ -10,6 +10,9 @@
  */
 package com.helger.phoss.smp.domain.servicegroup;
 
+import java.util.Collection;
+import java.util.Comparator;
+
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
@@ -19,7 +22,10 @@ import com.helger.annotation.Nonnegative;
 import com.helger.annotation.style.ReturnsMutableCopy;
 import com.helger.annotation.style.ReturnsMutableObject;
 import com.helger.base.callback.CallbackList;
+import com.helger.base.compare.ESortOrder;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.state.EChange;
+import com.helger.collection.commons.CommonsHashSet;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsSet;
 import com.helger.peppolid.IParticipantIdentifier;
@@ -182,6 +188,59 @@ public interface ISMPServiceGroupManager extends ISMPServiceGroupProvider
   @ReturnsMutableCopy
   ICommonsSet <String> getAllSMPServiceGroupIDs ();
 
+  /**
+   * Get all service groups with the provided IDs. This is used to resolve a single page of service
+   * groups while iterating. The default implementation is based on
+   * {@link #getAllSMPServiceGroups()} and should be overridden by the implementations.
+   *
+   * @param aServiceGroupIDs
+   *        The IDs of the service groups to resolve. May not be <code>null</code>.
+   * @return A non-<code>null</code> but maybe empty list of the service groups, in arbitrary order.
+   *         IDs without a service group are ignored.
+   * @see #iterateSMPServiceGroups(int, ESortOrder)
+   * @since 8.2.1
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  default ICommonsList <ISMPServiceGroup> getAllSMPServiceGroupsOfIDs (@NonNull final Collection <String> aServiceGroupIDs)
+  {
+    ValueEnforcer.notNull (aServiceGroupIDs, "ServiceGroupIDs");
+
+    final ICommonsSet <String> aIDs = new CommonsHashSet <> (aServiceGroupIDs);
+    return getAllSMPServiceGroups ().getAll (x -> aIDs.contains (x.getID ()));
+  }
+
+  /**
+   * Get an {@link Iterable} over all service groups, ordered by the service group ID (see
+   * {@link ISMPServiceGroup#comparator()}). When iterating, all service group IDs are read and
+   * sorted once, and the service groups are then resolved page by page via
+   * {@link #getAllSMPServiceGroupsOfIDs(Collection)}. So only the IDs and a single page of service
+   * groups are kept in memory at a time. Service groups that are created while iterating are not
+   * part of the iteration, and service groups that are deleted while iterating may or may not be
+   * part of it.
+   *
+   * @param nPageSize
+   *        The number of service groups to read at once. Must be &gt; 0.
+   * @param eSortOrder
+   *        The sort order of the service group IDs. May not be <code>null</code>.
+   * @return A new iterable. Never <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  default Iterable <ISMPServiceGroup> iterateSMPServiceGroups (@Nonnegative final int nPageSize,
+                                                               @NonNull final ESortOrder eSortOrder)
+  {
+    ValueEnforcer.isGT0 (nPageSize, "PageSize");
+    ValueEnforcer.notNull (eSortOrder, "SortOrder");
+
+    final Comparator <ISMPServiceGroup> aComparator = ISMPServiceGroup.comparator ();
+    return () -> new SMPServiceGroupPageIterator <> (SMPServiceGroupPageIterator.getSortedServiceGroupIDs (this,
+                                                                                                           eSortOrder),
+                                                     nPageSize,
+                                                     this::getAllSMPServiceGroupsOfIDs,
+                                                     eSortOrder.isAscending () ? aComparator : aComparator.reversed ());
+  }
+
   /**
    * Get all service groups that belong to the passed owner ID.
    *
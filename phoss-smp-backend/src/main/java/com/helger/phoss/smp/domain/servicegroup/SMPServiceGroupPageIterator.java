@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.servicegroup;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.compare.ESortOrder;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+
+/**
+ * An {@link Iterator} over objects that belong to service groups, that reads the objects page by
+ * page along a sorted list of service group IDs. The service group IDs are sorted once in Java, so
+ * the order is always the one of {@link String#compareTo(String)} on the service group ID (see
+ * {@link ISMPServiceGroup#comparator()}) - independent of the collation of a database. Each page
+ * of service group IDs is resolved by key, so objects are neither skipped nor returned twice if
+ * service groups are created or deleted while iterating. Only the IDs and the current page are kept
+ * in memory.
+ *
+ * @author Philip Helger
+ * @param <T>
+ *        The type of objects to iterate
+ * @since 8.2.1
+ */
+@NotThreadSafe
+public final class SMPServiceGroupPageIterator <T> implements Iterator <T>
+{
+  /** The default number of service groups to read at once */
+  public static final int DEFAULT_PAGE_SIZE = 1_000;
+
+  private final ICommonsList <String> m_aSortedServiceGroupIDs;
+  private final int m_nPageSize;
+  private final Function <? super ICommonsList <String>, ? extends Iterable <? extends T>> m_aPageLoader;
+  private final Comparator <? super T> m_aPageComparator;
+  private final ICommonsList <T> m_aPage;
+  private int m_nNextIDIndex = 0;
+  private int m_nIndexInPage = 0;
+
+  /**
+   * Constructor
+   *
+   * @param aSortedServiceGroupIDs
+   *        The sorted service group IDs to iterate. May not be <code>null</code>.
+   * @param nPageSize
+   *        The number of service group IDs to resolve at once. Must be &gt; 0.
+   * @param aPageLoader
+   *        The function that resolves all objects of the provided service group IDs. Service group
+   *        IDs without objects must be ignored. May not be <code>null</code>.
+   * @param aPageComparator
+   *        The comparator used to order the objects of a single page. It must order by the service
+   *        group ID in the same order as the provided IDs. May not be <code>null</code>.
+   */
+  public SMPServiceGroupPageIterator (@NonNull final ICommonsList <String> aSortedServiceGroupIDs,
+                                      @Nonnegative final int nPageSize,
+                                      @NonNull final Function <? super ICommonsList <String>, ? extends Iterable <? extends T>> aPageLoader,
+                                      @NonNull final Comparator <? super T> aPageComparator)
+  {
+    ValueEnforcer.notNull (aSortedServiceGroupIDs, "SortedServiceGroupIDs");
+    ValueEnforcer.isGT0 (nPageSize, "PageSize");
+    ValueEnforcer.notNull (aPageLoader, "PageLoader");
+    ValueEnforcer.notNull (aPageComparator, "PageComparator");
+    m_aSortedServiceGroupIDs = aSortedServiceGroupIDs;
+    m_nPageSize = nPageSize;
+    m_aPageLoader = aPageLoader;
+    m_aPageComparator = aPageComparator;
+    m_aPage = new CommonsArrayList <> (nPageSize);
+  }
+
+  private void _readNextPage ()
+  {
+    m_aPage.clear ();
+    m_nIndexInPage = 0;
+    // Skip pages without objects
+    while (m_aPage.isEmpty () && m_nNextIDIndex < m_aSortedServiceGroupIDs.size ())
+    {
+      final int nEndIndex = Math.min (m_nNextIDIndex + m_nPageSize, m_aSortedServiceGroupIDs.size ());
+      final ICommonsList <String> aPageIDs = new CommonsArrayList <> (m_aSortedServiceGroupIDs.subList (m_nNextIDIndex,
+                                                                                                        nEndIndex));
+      m_nNextIDIndex = nEndIndex;
+      for (final T aItem : m_aPageLoader.apply (aPageIDs))
+        m_aPage.add (aItem);
+      m_aPage.sort (m_aPageComparator);
+    }
+  }
+
+  public boolean hasNext ()
+  {
+    if (m_nIndexInPage >= m_aPage.size ())
+      _readNextPage ();
+    return m_nIndexInPage < m_aPage.size ();
+  }
+
+  @NonNull
+  public T next ()
+  {
+    if (!hasNext ())
+      throw new NoSuchElementException ();
+    return m_aPage.get (m_nIndexInPage++);
+  }
+
+  /**
+   * @return A new sequential stream over the remaining objects of this iterator. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public Stream <T> stream ()
+  {
+    return StreamSupport.stream (Spliterators.spliteratorUnknownSize (this,
+                                                                      Spliterator.ORDERED | Spliterator.NONNULL),
+                                 false);
+  }
+
+  /**
+   * Get all service group IDs of the provided manager sorted in the provided order. This is the
+   * snapshot of service group IDs an iteration is based on.
+   *
+   * @param aServiceGroupMgr
+   *        The service group manager to query. May not be <code>null</code>.
+   * @param eSortOrder
+   *        The sort order to use. May not be <code>null</code>.
+   * @return A new list with all service group IDs. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsList <String> getSortedServiceGroupIDs (@NonNull final ISMPServiceGroupManager aServiceGroupMgr,
+                                                                @NonNull final ESortOrder eSortOrder)
+  {
+    ValueEnforcer.notNull (aServiceGroupMgr, "ServiceGroupMgr");
+    ValueEnforcer.notNull (eSortOrder, "SortOrder");
+    return aServiceGroupMgr.getAllSMPServiceGroupIDs ()
+                           .getSorted (eSortOrder.isAscending () ? Comparator.naturalOrder ()
+                                                                 : Comparator.reverseOrder ());
+  }
+}
@@ -10,6 +10,7 @@
  */
 package com.helger.phoss.smp.domain.serviceinfo;
 
+import java.security.cert.X509Certificate;
 import java.time.LocalDate;
 
 import org.jspecify.annotations.NonNull;
@@ -22,6 +23,7 @@ import com.helger.base.id.IHasID;
 import com.helger.base.string.StringHelper;
 import com.helger.datetime.xml.XMLOffsetDateTime;
 import com.helger.phoss.smp.domain.extension.ISMPHasExtension;
+import com.helger.phoss.smp.security.SMPCertificateCache;
 
 /**
  * Represents a single SMP endpoint that is contained in a single {@link ISMPProcess}.
@@ -162,6 +164,17 @@ public interface ISMPEndpoint extends ISMPHasExtension, IHasID <String>
     return StringHelper.isNotEmpty (getCertificate ());
   }
 
+  /**
+   * @return The parsed certificate of the recipient AP or <code>null</code> if no certificate is
+   *         present or if it cannot be parsed. The parsed certificate is cached.
+   * @since 8.2.1
+   */
+  @Nullable
+  default X509Certificate getCertificateAsX509 ()
+  {
+    return SMPCertificateCache.getX509Certificate (getCertificate ());
+  }
+
   /**
    * @return A human readable description of the service
    */
@@ -11,6 +11,7 @@
 package com.helger.phoss.smp.domain.serviceinfo;
 
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -23,6 +24,7 @@ import com.helger.base.state.EChange;
 import com.helger.base.state.ESuccess;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.IProcessIdentifier;
@@ -134,6 +136,24 @@ public interface ISMPServiceInformationManager
    */
   void forEachSMPServiceInformation (@NonNull Consumer <? super ISMPServiceInformation> aConsumer);
 
+  /**
+   * Get all service information objects ordered by their service group ID (see
+   * {@link ISMPServiceInformation#comparator()}). This allows to process all service information
+   * objects of many service groups in a single sequential pass, instead of querying them service
+   * group by service group. The returned stream must be closed by the caller, as it may be backed
+   * by an open database cursor.
+   * The default implementation reads all objects into memory, so backends with many objects should
+   * provide an implementation that only reads one page after the other.
+   *
+   * @return A new stream of all service information objects. Never <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  default Stream <ISMPServiceInformation> streamAllSMPServiceInformationOrderedByServiceGroup ()
+  {
+    return getAllSMPServiceInformation ().getSortedInline (ISMPServiceInformation.comparator ()).stream ();
+  }
+
   /**
    * @return The count of all service information objects. Always &ge; 0.
    */
@@ -171,6 +191,25 @@ public interface ISMPServiceInformationManager
   @ReturnsMutableCopy
   ICommonsList <IDocumentTypeIdentifier> getAllSMPDocumentTypesOfServiceGroup (@Nullable IParticipantIdentifier aParticipantID);
 
+  /**
+   * Get all SMP document types that are registered for the provided service group together with
+   * the total number of endpoints of each service information. This is the bulk version of
+   * {@link #getAllSMPDocumentTypesOfServiceGroup(IParticipantIdentifier)} combined with
+   * {@link #getSMPServiceInformationOfServiceGroupAndDocumentType(IParticipantIdentifier, IDocumentTypeIdentifier)}
+   * and is meant to build the REST service group response with a single backend query.
+   *
+   * @param aParticipantID
+   *        The service group ID of interest. May be <code>null</code>.
+   * @return Never <code>null</code> but maybe empty map from document type identifier to the
+   *         number of endpoints (&ge; 0) of the respective service information. An empty result
+   *         means that either a non-existing service group was passed <b>or</b> that no service
+   *         information objects exist for the provided service group.
+   * @since 8.2.1
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (@Nullable IParticipantIdentifier aParticipantID);
+
   /**
    * Get the service information for the passed tuple of service group and document type identifier.
    *
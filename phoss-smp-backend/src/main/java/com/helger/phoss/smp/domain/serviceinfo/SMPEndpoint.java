@@ -25,7 +25,7 @@ import com.helger.datetime.helper.PDTFactory;
 import com.helger.datetime.xml.XMLOffsetDateTime;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.extension.AbstractSMPHasExtension;
-import com.helger.security.certificate.CertificateDecodeHelper;
+import com.helger.phoss.smp.security.SMPCertificateCache;
 import com.helger.security.certificate.CertificateHelper;
 import com.helger.smpclient.peppol.utils.W3CEndpointReferenceHelper;
 import com.helger.xsds.bdxr.smp2.bc.ContentBinaryObjectType;
@@ -162,7 +162,8 @@ public class SMPEndpoint extends AbstractSMPHasExtension implements ISMPEndpoint
 
   public final void setCertificate (@Nullable final String sCertificate)
   {
-    m_sCertificate = sCertificate;
+    // Only very few distinct certificates are used by many endpoints
+    m_sCertificate = SMPCertificateCache.getInterned (sCertificate);
   }
 
   @Nullable
@@ -254,9 +255,7 @@ public class SMPEndpoint extends AbstractSMPHasExtension implements ISMPEndpoint
       ret.setActivationDate (m_aServiceActivationDT.toLocalDate ());
     if (m_aServiceExpirationDT != null)
       ret.setExpirationDate (m_aServiceExpirationDT.toLocalDate ());
-    final X509Certificate aX509Cert = new CertificateDecodeHelper ().source (m_sCertificate)
-                                                                    .pemEncoded (true)
-                                                                    .getDecodedOrNull ();
+    final X509Certificate aX509Cert = getCertificateAsX509 ();
     if (aX509Cert != null)
     {
       final com.helger.xsds.bdxr.smp2.ac.CertificateType aCert = new com.helger.xsds.bdxr.smp2.ac.CertificateType ();
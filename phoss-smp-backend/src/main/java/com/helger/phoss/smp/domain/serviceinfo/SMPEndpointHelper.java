@@ -18,11 +18,17 @@ import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.id.factory.GlobalIDFactory;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
 import com.helger.datetime.format.PDTToString;
 import com.helger.datetime.helper.PDTFactory;
 import com.helger.datetime.period.LocalDatePeriod;
+import com.helger.phoss.smp.backend.AbstractSMPAdaptiveLongIDFactory;
 
 /**
  * Helper class to deal with specific
@@ -82,4 +88,36 @@ public final class SMPEndpointHelper
   {
     return GlobalIDFactory.getNewPersistentStringID ();
   }
+
+  /**
+   * Create multiple unique endpoint IDs at once. If the persistent ID factory supports it, the IDs
+   * are reserved as a single range, so that only one persistence layer access is needed.
+   *
+   * @param nCount
+   *        The number of IDs to create. Must be &ge; 0.
+   * @return A list with the provided number of unique IDs. Never <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public static ICommonsList <String> createUniqueEndpointIDs (@Nonnegative final int nCount)
+  {
+    ValueEnforcer.isGE0 (nCount, "Count");
+
+    final ICommonsList <String> ret = new CommonsArrayList <> (nCount);
+    if (nCount > 0)
+    {
+      if (GlobalIDFactory.getPersistentLongIDFactory () instanceof final AbstractSMPAdaptiveLongIDFactory aIDFactory)
+      {
+        // Same layout as the default persistent string ID factory
+        final long nFirstID = aIDFactory.reserveIDRange (nCount);
+        for (int i = 0; i < nCount; ++i)
+          ret.add (GlobalIDFactory.DEFAULT_PREFIX + (nFirstID + i));
+      }
+      else
+        for (int i = 0; i < nCount; ++i)
+          ret.add (createUniqueEndpointID ());
+    }
+    return ret;
+  }
 }
@@ -62,7 +62,26 @@ public final class SMPServiceInformationMicroTypeConverter implements IMicroType
   public static SMPServiceInformation convertToNative (@NonNull final IMicroElement aElement,
                                                        @NonNull final ISMPServiceGroupProvider aSGProvider)
   {
-    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+    return convertToNative (aElement, SMPMetaManager.getIdentifierFactory (), aSGProvider);
+  }
+
+  /**
+   * Convert the provided element without accessing the global {@link SMPMetaManager}.
+   *
+   * @param aElement
+   *        The element to convert. May not be <code>null</code>.
+   * @param aIdentifierFactory
+   *        The identifier factory to use. May not be <code>null</code>.
+   * @param aSGProvider
+   *        The service group provider to resolve the service group. May not be <code>null</code>.
+   * @return The converted object. Never <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  public static SMPServiceInformation convertToNative (@NonNull final IMicroElement aElement,
+                                                       @NonNull final IIdentifierFactory aIdentifierFactory,
+                                                       @NonNull final ISMPServiceGroupProvider aSGProvider)
+  {
     final String sServiceGroupID = aElement.getAttributeValue (ATTR_SERVICE_GROUP_ID);
     final ISMPServiceGroup aServiceGroup = aSGProvider.getSMPServiceGroupOfID (aIdentifierFactory.parseParticipantIdentifier (sServiceGroupID));
     if (aServiceGroup == null)
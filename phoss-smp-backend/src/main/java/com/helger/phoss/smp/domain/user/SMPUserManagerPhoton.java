@@ -87,7 +87,8 @@ public final class SMPUserManagerPhoton
   /**
    * Check if the provided credentials are valid. This checks if the user exists, if it is not
    * deleted, if the password matches and if the user is not disabled. If valid, the resolved user
-   * is returned.
+   * is returned. Successfully verified credentials are remembered in the
+   * {@link SMPVerifiedCredentialCache} for a short time, if it is enabled.
    *
    * @param aCredentials
    *        The credentials to check. May not be <code>null</code>.
@@ -106,10 +107,30 @@ public final class SMPUserManagerPhoton
     ValueEnforcer.notNull (aCredentials, "Credentials");
 
     final IUserManager aUserMgr = PhotonSecurityManager.getUserMgr ();
+    final SMPVerifiedCredentialCache aCache = SMPVerifiedCredentialCache.isEnabled () ? SMPVerifiedCredentialCache.getInstance ()
+                                                                                      : null;
 
     if (aCredentials.hasBasicAuth ())
     {
       final BasicAuthClientCredentials aBasicAuth = aCredentials.getBasicAuth ();
+
+      String sCacheKey = null;
+      long nCacheGeneration = 0;
+      if (aCache != null)
+      {
+        sCacheKey = aCache.getBasicAuthKey (aBasicAuth.getUserName (), aBasicAuth.getPassword ());
+        final IUser aCachedUser = aCache.getUser (sCacheKey);
+        if (aCachedUser != null)
+        {
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("The provided BasicAuth credentials resolved to the cached user '" +
+                          aCachedUser.getLoginName () +
+                          "'");
+          return aCachedUser;
+        }
+        nCacheGeneration = aCache.getCurrentGeneration ();
+      }
+
       final IUser aUser = aUserMgr.getUserOfLoginName (aBasicAuth.getUserName ());
       if (aUser == null || aUser.isDeleted ())
       {
@@ -132,6 +153,8 @@ public final class SMPUserManagerPhoton
       if (LOGGER.isDebugEnabled ())
         LOGGER.debug ("The provided BasicAuth credentials resolved to the user '" + aUser.getLoginName () + "'");
 
+      if (aCache != null)
+        aCache.putUser (nCacheGeneration, sCacheKey, aUser, null);
       return aUser;
     }
 
@@ -142,6 +165,22 @@ public final class SMPUserManagerPhoton
       final String sTokenString = aCredentials.getBearerToken ();
       // Never log or return the Bearer token itself
       final String sMaskedToken = _getMaskedToken (sTokenString);
+
+      String sCacheKey = null;
+      long nCacheGeneration = 0;
+      if (aCache != null)
+      {
+        sCacheKey = aCache.getBearerTokenKey (sTokenString);
+        final IUser aCachedUser = aCache.getUser (sCacheKey);
+        if (aCachedUser != null)
+        {
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("The provided Bearer token resolved to the cached user '" + aCachedUser.getLoginName () + "'");
+          return aCachedUser;
+        }
+        nCacheGeneration = aCache.getCurrentGeneration ();
+      }
+
       final IUserToken aUserToken = aUserTokenMgr.getUserTokenOfTokenString (sTokenString);
       if (aUserToken == null)
       {
@@ -174,6 +213,8 @@ public final class SMPUserManagerPhoton
       if (LOGGER.isDebugEnabled ())
         LOGGER.debug ("The provided Bearer token resolved to the user '" + aUser.getLoginName () + "'");
 
+      if (aCache != null)
+        aCache.putUser (nCacheGeneration, sCacheKey, aUser, aUserToken);
       return aUser;
     }
 
@@ -0,0 +1,423 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.user;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.annotation.style.UsedViaReflection;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.photon.security.token.accesstoken.IAccessToken;
+import com.helger.photon.security.token.user.IUserToken;
+import com.helger.photon.security.token.user.IUserTokenModificationCallback;
+import com.helger.photon.security.user.IUser;
+import com.helger.photon.security.user.IUserModificationCallback;
+import com.helger.scope.singleton.AbstractGlobalSingleton;
+
+/**
+ * An optional in-memory cache for successfully verified REST API credentials, so that the slow
+ * password hash (for Basic Auth) respectively the backend lookup (for Bearer tokens) is not needed
+ * for every single request. The credentials themselves are never stored - the cache key is a
+ * digest of the credentials with a random salt that is created per instance. Only successful
+ * verifications are cached. Entries are dropped whenever the respective user or user token is
+ * modified, disabled or deleted (see {@link #getInvalidationCallback()}). The cache is only
+ * node-local - in a multi-node setup other nodes only see changes after the configured TTL, so
+ * revoked credentials remain usable there until then. That is why the cache is disabled by default.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@ThreadSafe
+public final class SMPVerifiedCredentialCache extends AbstractGlobalSingleton
+{
+  /**
+   * The callback that drops all cached credentials of a user or user token upon modification.
+   *
+   * @author Philip Helger
+   */
+  public static final class InvalidationCallback implements IUserModificationCallback, IUserTokenModificationCallback
+  {
+    private InvalidationCallback ()
+    {}
+
+    private static void _invalidateUser (@NonNull final String sUserID)
+    {
+      final SMPVerifiedCredentialCache aCache = getGlobalSingletonIfInstantiated (SMPVerifiedCredentialCache.class);
+      if (aCache != null)
+        aCache.invalidateUser (sUserID);
+    }
+
+    private static void _invalidateUserToken (@NonNull final String sUserTokenID)
+    {
+      final SMPVerifiedCredentialCache aCache = getGlobalSingletonIfInstantiated (SMPVerifiedCredentialCache.class);
+      if (aCache != null)
+        aCache.invalidateUserToken (sUserTokenID);
+    }
+
+    @Override
+    public void onUserUpdated (@NonNull @Nonempty final String sUserID)
+    {
+      _invalidateUser (sUserID);
+    }
+
+    @Override
+    public void onUserPasswordChanged (@NonNull @Nonempty final String sUserID)
+    {
+      _invalidateUser (sUserID);
+    }
+
+    @Override
+    public void onUserDeleted (@NonNull @Nonempty final String sUserID)
+    {
+      _invalidateUser (sUserID);
+    }
+
+    @Override
+    public void onUserEnabled (@NonNull @Nonempty final String sUserID, final boolean bEnabled)
+    {
+      _invalidateUser (sUserID);
+    }
+
+    @Override
+    public void onUserTokenUpdated (@NonNull @Nonempty final String sUserTokenID)
+    {
+      _invalidateUserToken (sUserTokenID);
+    }
+
+    @Override
+    public void onUserTokenDeleted (@NonNull @Nonempty final String sUserTokenID)
+    {
+      _invalidateUserToken (sUserTokenID);
+    }
+
+    @Override
+    public void onUserTokenCreateAccessToken (@NonNull @Nonempty final String sUserTokenID,
+                                              @NonNull final IAccessToken aAccessToken)
+    {
+      // The previous access token is revoked
+      _invalidateUserToken (sUserTokenID);
+    }
+
+    @Override
+    public void onUserTokenRevokeAccessToken (@NonNull @Nonempty final String sUserTokenID)
+    {
+      _invalidateUserToken (sUserTokenID);
+    }
+  }
+
+  /**
+   * A single verified credential.
+   *
+   * @author Philip Helger
+   */
+  private static final class CachedCredential
+  {
+    private final IUser m_aUser;
+    private final String m_sUserTokenID;
+    private final long m_nExpirationMillis;
+
+    CachedCredential (@NonNull final IUser aUser,
+                      @Nullable final String sUserTokenID,
+                      final long nExpirationMillis)
+    {
+      m_aUser = aUser;
+      m_sUserTokenID = sUserTokenID;
+      m_nExpirationMillis = nExpirationMillis;
+    }
+
+    boolean isExpired (final long nNowMillis)
+    {
+      return nNowMillis >= m_nExpirationMillis;
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPVerifiedCredentialCache.class);
+  private static final InvalidationCallback INVALIDATION_CALLBACK = new InvalidationCallback ();
+  private static final byte KEY_TYPE_BASIC_AUTH = 'B';
+  private static final byte KEY_TYPE_BEARER_TOKEN = 'T';
+
+  private final Duration m_aTTL;
+  private final int m_nMaxSize;
+  private final byte [] m_aSalt = new byte [32];
+  private final ICommonsMap <String, CachedCredential> m_aMap = new CommonsHashMap <> ();
+  // Incremented on every invalidation, to avoid that credentials verified concurrently to a
+  // modification are added to the cache
+  private long m_nGeneration = 0;
+  private final AtomicLong m_aHits = new AtomicLong ();
+  private final AtomicLong m_aMisses = new AtomicLong ();
+  private final AtomicLong m_aInvalidations = new AtomicLong ();
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated (forRemoval = false)
+  @UsedViaReflection
+  public SMPVerifiedCredentialCache ()
+  {
+    m_aTTL = SMPServerConfiguration.getRestAuthCacheTTL ();
+    m_nMaxSize = Math.max (1, SMPServerConfiguration.getRestAuthCacheMaxSize ());
+    new SecureRandom ().nextBytes (m_aSalt);
+  }
+
+  @NonNull
+  public static SMPVerifiedCredentialCache getInstance ()
+  {
+    return getGlobalSingleton (SMPVerifiedCredentialCache.class);
+  }
+
+  /**
+   * @return <code>true</code> if the cache is enabled in the configuration, <code>false</code> if
+   *         not.
+   * @see SMPServerConfiguration#isRestAuthCacheEnabled()
+   */
+  public static boolean isEnabled ()
+  {
+    return SMPServerConfiguration.isRestAuthCacheEnabled ();
+  }
+
+  /**
+   * @return The callback to be registered on the user manager and the user token manager so that
+   *         the cache stays consistent. Never <code>null</code>. The callback does nothing if the
+   *         cache was never instantiated.
+   */
+  @NonNull
+  public static InvalidationCallback getInvalidationCallback ()
+  {
+    return INVALIDATION_CALLBACK;
+  }
+
+  @NonNull
+  private String _getKey (final byte nType, @NonNull final String... aParts)
+  {
+    final MessageDigest aMD;
+    try
+    {
+      aMD = MessageDigest.getInstance ("SHA-256");
+    }
+    catch (final NoSuchAlgorithmException ex)
+    {
+      throw new IllegalStateException ("SHA-256 is not supported", ex);
+    }
+    aMD.update (m_aSalt);
+    aMD.update (nType);
+    for (final String sPart : aParts)
+    {
+      // Separator, so that the parts cannot be shifted
+      aMD.update ((byte) 0);
+      aMD.update (sPart.getBytes (StandardCharsets.UTF_8));
+    }
+    return Base64.getEncoder ().encodeToString (aMD.digest ());
+  }
+
+  /**
+   * Get the cache key of Basic Auth credentials.
+   *
+   * @param sUserName
+   *        The user name. May not be <code>null</code>.
+   * @param sPassword
+   *        The password. May not be <code>null</code>.
+   * @return The salted digest of the credentials. Never <code>null</code>.
+   */
+  @NonNull
+  public String getBasicAuthKey (@NonNull final String sUserName, @NonNull final String sPassword)
+  {
+    ValueEnforcer.notNull (sUserName, "UserName");
+    ValueEnforcer.notNull (sPassword, "Password");
+    return _getKey (KEY_TYPE_BASIC_AUTH, sUserName, sPassword);
+  }
+
+  /**
+   * Get the cache key of a Bearer token.
+   *
+   * @param sTokenString
+   *        The Bearer token. May not be <code>null</code>.
+   * @return The salted digest of the token. Never <code>null</code>.
+   */
+  @NonNull
+  public String getBearerTokenKey (@NonNull final String sTokenString)
+  {
+    ValueEnforcer.notNull (sTokenString, "TokenString");
+    return _getKey (KEY_TYPE_BEARER_TOKEN, sTokenString);
+  }
+
+  /**
+   * @return The current generation, which must be passed to
+   *         {@link #putUser(long, String, IUser, IUserToken)}. It must be determined before the
+   *         credentials are verified.
+   */
+  public long getCurrentGeneration ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nGeneration);
+  }
+
+  /**
+   * Get the user of previously verified credentials.
+   *
+   * @param sKey
+   *        The cache key as created by {@link #getBasicAuthKey(String, String)} or
+   *        {@link #getBearerTokenKey(String)}. May not be <code>null</code>.
+   * @return <code>null</code> if the credentials are not cached or if the entry is expired.
+   */
+  @Nullable
+  public IUser getUser (@NonNull final String sKey)
+  {
+    ValueEnforcer.notNull (sKey, "Key");
+
+    final CachedCredential aCredential = m_aRWLock.readLockedGet ( () -> m_aMap.get (sKey));
+    if (aCredential == null || aCredential.isExpired (System.currentTimeMillis ()))
+    {
+      m_aMisses.incrementAndGet ();
+      return null;
+    }
+    m_aHits.incrementAndGet ();
+    return aCredential.m_aUser;
+  }
+
+  /**
+   * Remember successfully verified credentials. If the cache was invalidated since the passed
+   * generation was retrieved, the credentials are not cached, because they might be stale.
+   *
+   * @param nGeneration
+   *        The generation as determined by {@link #getCurrentGeneration()} before the credentials
+   *        were verified.
+   * @param sKey
+   *        The cache key as created by {@link #getBasicAuthKey(String, String)} or
+   *        {@link #getBearerTokenKey(String)}. May not be <code>null</code>.
+   * @param aUser
+   *        The verified user. May not be <code>null</code>.
+   * @param aUserToken
+   *        The user token, the Bearer token belongs to. Must be <code>null</code> for Basic Auth.
+   */
+  public void putUser (final long nGeneration,
+                       @NonNull final String sKey,
+                       @NonNull final IUser aUser,
+                       @Nullable final IUserToken aUserToken)
+  {
+    ValueEnforcer.notNull (sKey, "Key");
+    ValueEnforcer.notNull (aUser, "User");
+
+    final long nNowMillis = System.currentTimeMillis ();
+    final CachedCredential aCredential = new CachedCredential (aUser,
+                                                               aUserToken == null ? null : aUserToken.getID (),
+                                                               nNowMillis + m_aTTL.toMillis ());
+
+    m_aRWLock.writeLocked ( () -> {
+      if (nGeneration != m_nGeneration)
+      {
+        // Modified in the meantime
+        return;
+      }
+
+      if (m_aMap.size () >= m_nMaxSize && !m_aMap.containsKey (sKey))
+      {
+        m_aMap.entrySet ().removeIf (aEntry -> aEntry.getValue ().isExpired (nNowMillis));
+        if (m_aMap.size () >= m_nMaxSize)
+        {
+          // Still full - keep the existing entries
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Verified credential cache is full (" + m_aMap.size () + " entries)");
+          return;
+        }
+      }
+
+      m_aMap.put (sKey, aCredential);
+    });
+  }
+
+  /**
+   * Remove all cached credentials of the provided user, including the ones of all Bearer tokens of
+   * that user.
+   *
+   * @param sUserID
+   *        The user ID. May not be <code>null</code>.
+   */
+  public void invalidateUser (@NonNull final String sUserID)
+  {
+    ValueEnforcer.notNull (sUserID, "UserID");
+
+    m_aRWLock.writeLocked ( () -> {
+      m_nGeneration++;
+      m_aMap.entrySet ().removeIf (aEntry -> sUserID.equals (aEntry.getValue ().m_aUser.getID ()));
+    });
+    m_aInvalidations.incrementAndGet ();
+  }
+
+  /**
+   * Remove all cached credentials of the provided user token.
+   *
+   * @param sUserTokenID
+   *        The user token ID. May not be <code>null</code>.
+   */
+  public void invalidateUserToken (@NonNull final String sUserTokenID)
+  {
+    ValueEnforcer.notNull (sUserTokenID, "UserTokenID");
+
+    m_aRWLock.writeLocked ( () -> {
+      m_nGeneration++;
+      m_aMap.entrySet ().removeIf (aEntry -> sUserTokenID.equals (aEntry.getValue ().m_sUserTokenID));
+    });
+    m_aInvalidations.incrementAndGet ();
+  }
+
+  /**
+   * Remove all cached credentials.
+   */
+  public void clear ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_nGeneration++;
+      m_aMap.clear ();
+    });
+    m_aInvalidations.incrementAndGet ();
+    LOGGER.info ("Cleared the verified credential cache");
+  }
+
+  /**
+   * @return The number of cached credentials, including the expired ones. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aRWLock.readLockedInt (m_aMap::size);
+  }
+
+  /**
+   * @return The statistics of this cache as a map from name to value. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsMap <String, Long> getStatistics ()
+  {
+    final ICommonsMap <String, Long> ret = new CommonsHashMap <> ();
+    ret.put ("size", Long.valueOf (getSize ()));
+    ret.put ("hits", Long.valueOf (m_aHits.get ()));
+    ret.put ("misses", Long.valueOf (m_aMisses.get ()));
+    ret.put ("invalidations", Long.valueOf (m_aInvalidations.get ()));
+    return ret;
+  }
+}
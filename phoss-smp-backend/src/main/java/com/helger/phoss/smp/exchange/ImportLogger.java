@@ -12,6 +12,7 @@ package com.helger.phoss.smp.exchange;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
@@ -29,6 +30,14 @@ final class ImportLogger
   private final List <ImportActionItem> m_aThreadSafeActionList;
   private final ImportSummary m_aImportSummary;
   private final String m_sLogPrefix;
+  private final AtomicInteger m_aErrorCount = new AtomicInteger (0);
+  // Only used if the number of listed items is limited
+  private final int m_nMaxListedItemsPerLevel;
+  private final AtomicInteger m_aInfoCount = new AtomicInteger (0);
+  private final AtomicInteger m_aWarningCount = new AtomicInteger (0);
+  private final AtomicInteger m_aBatchInfoCount = new AtomicInteger (0);
+  private final AtomicInteger m_aBatchWarningCount = new AtomicInteger (0);
+  private final AtomicInteger m_aBatchErrorCount = new AtomicInteger (0);
 
   /**
    * Ctor
@@ -43,72 +52,202 @@ final class ImportLogger
   ImportLogger (@NonNull final ICommonsList <ImportActionItem> aActionList,
                 @NonNull final ImportSummary aImportSummary,
                 final int nImportCount)
+  {
+    this (aActionList, aImportSummary, nImportCount, -1);
+  }
+
+  /**
+   * Ctor
+   *
+   * @param aActionList
+   *        Action list to be filled. May not be <code>null</code>.
+   * @param aImportSummary
+   *        Summary object to be filled. May not be <code>null</code>.
+   * @param nImportCount
+   *        How many SG imports were run before? Each run gets its unique index
+   * @param nMaxListedItemsPerLevel
+   *        If &ge; 0, infos are only counted and only the first warnings and errors up to this
+   *        number are added to the action list, so that the size of the action list does not
+   *        depend on the amount of imported data. Use {@link #flushBatch(int)} and
+   *        {@link #addSummary()} to get the counts. If &lt; 0 all items are added to the action
+   *        list.
+   * @since 8.2.1
+   */
+  ImportLogger (@NonNull final ICommonsList <ImportActionItem> aActionList,
+                @NonNull final ImportSummary aImportSummary,
+                final int nImportCount,
+                final int nMaxListedItemsPerLevel)
   {
     // Make sure it is thread-safe
     m_aThreadSafeActionList = Collections.synchronizedList (aActionList);
     m_aImportSummary = aImportSummary;
     m_sLogPrefix = "[SG-IMPORT-" + nImportCount + "] ";
+    m_nMaxListedItemsPerLevel = nMaxListedItemsPerLevel;
+  }
+
+  private boolean _isLimited ()
+  {
+    return m_nMaxListedItemsPerLevel >= 0;
+  }
+
+  private void _addInfo (@NonNull final ImportActionItem aItem)
+  {
+    if (_isLimited ())
+    {
+      m_aInfoCount.incrementAndGet ();
+      m_aBatchInfoCount.incrementAndGet ();
+    }
+    else
+      m_aThreadSafeActionList.add (aItem);
+  }
+
+  private void _addWarning (@NonNull final ImportActionItem aItem)
+  {
+    if (_isLimited ())
+    {
+      m_aBatchWarningCount.incrementAndGet ();
+      if (m_aWarningCount.incrementAndGet () > m_nMaxListedItemsPerLevel)
+        return;
+    }
+    m_aThreadSafeActionList.add (aItem);
+  }
+
+  private void _addError (@NonNull final ImportActionItem aItem)
+  {
+    final int nErrorCount = m_aErrorCount.incrementAndGet ();
+    if (_isLimited ())
+    {
+      m_aBatchErrorCount.incrementAndGet ();
+      if (nErrorCount > m_nMaxListedItemsPerLevel)
+        return;
+    }
+    m_aThreadSafeActionList.add (aItem);
   }
 
   public void detail (@Nullable final String pi, @NonNull final String msg)
   {
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug (m_sLogPrefix + (pi == null ? "" : "[" + pi + "] ") + msg);
-    m_aThreadSafeActionList.add (ImportActionItem.createInfo (pi, msg));
+    _addInfo (ImportActionItem.createInfo (pi, msg));
   }
 
   public void success (@NonNull final String pi, @NonNull final String msg)
   {
     if (LOGGER.isDebugEnabled ())
       LOGGER.debug (m_sLogPrefix + "[" + pi + "] " + msg);
-    m_aThreadSafeActionList.add (ImportActionItem.createSuccess (pi, msg));
+    _addInfo (ImportActionItem.createSuccess (pi, msg));
   }
 
   public void info (@NonNull final String msg)
   {
     LOGGER.info (m_sLogPrefix + msg);
-    m_aThreadSafeActionList.add (ImportActionItem.createInfo (null, msg));
+    _addInfo (ImportActionItem.createInfo (null, msg));
   }
 
   public void warn (@NonNull final String msg)
   {
     LOGGER.info (m_sLogPrefix + msg);
-    m_aThreadSafeActionList.add (ImportActionItem.createWarning (null, msg));
+    _addWarning (ImportActionItem.createWarning (null, msg));
   }
 
   public void warn (@NonNull final String pi, @NonNull final String msg)
   {
     LOGGER.info (m_sLogPrefix + "[" + pi + "] " + msg);
-    m_aThreadSafeActionList.add (ImportActionItem.createWarning (pi, msg));
+    _addWarning (ImportActionItem.createWarning (pi, msg));
   }
 
   public void error (@NonNull final String msg)
   {
     LOGGER.error (m_sLogPrefix + msg);
-    m_aThreadSafeActionList.add (ImportActionItem.createError (null, msg, null));
+    _addError (ImportActionItem.createError (null, msg, null));
   }
 
   public void error (@NonNull final String msg, @Nullable final Exception ex)
   {
     LOGGER.error (m_sLogPrefix + msg, ex);
-    m_aThreadSafeActionList.add (ImportActionItem.createError (null, msg, ex));
+    _addError (ImportActionItem.createError (null, msg, ex));
   }
 
   public void error (@NonNull final String pi, @NonNull final String msg)
   {
     LOGGER.error (m_sLogPrefix + "[" + pi + "] " + msg);
-    m_aThreadSafeActionList.add (ImportActionItem.createError (pi, msg, null));
+    _addError (ImportActionItem.createError (pi, msg, null));
   }
 
   public void error (@NonNull final String pi, @NonNull final String msg, @Nullable final Exception ex)
   {
     LOGGER.error (m_sLogPrefix + "[" + pi + "] " + msg, ex);
-    m_aThreadSafeActionList.add (ImportActionItem.createError (pi, msg, ex));
+    _addError (ImportActionItem.createError (pi, msg, ex));
   }
 
   public boolean containsAnyError ()
   {
-    return m_aThreadSafeActionList.stream ().anyMatch (ImportActionItem::isError);
+    return m_aErrorCount.get () > 0;
+  }
+
+  /**
+   * @return The number of errors logged so far. Always &ge; 0.
+   * @since 8.2.1
+   */
+  public int getErrorCount ()
+  {
+    return m_aErrorCount.get ();
+  }
+
+  /**
+   * Log the counts of the items of the batch that was just processed and reset them. Only has an
+   * effect if the number of listed items is limited.
+   *
+   * @param nBatchIndex
+   *        The 1-based index of the batch, for logging only.
+   * @since 8.2.1
+   */
+  public void flushBatch (final int nBatchIndex)
+  {
+    if (_isLimited ())
+      LOGGER.info (m_sLogPrefix +
+                   "Batch " +
+                   nBatchIndex +
+                   " finished with " +
+                   m_aBatchInfoCount.getAndSet (0) +
+                   " infos, " +
+                   m_aBatchWarningCount.getAndSet (0) +
+                   " warnings and " +
+                   m_aBatchErrorCount.getAndSet (0) +
+                   " errors");
+  }
+
+  /**
+   * Add a single item with the total counts to the action list. Only has an effect if the number
+   * of listed items is limited.
+   *
+   * @since 8.2.1
+   */
+  public void addSummary ()
+  {
+    if (!_isLimited ())
+      return;
+
+    final int nWarnings = m_aWarningCount.get ();
+    final int nErrors = m_aErrorCount.get ();
+    final String sMsg = "Import finished with " +
+                        m_aInfoCount.get () +
+                        " infos (not listed), " +
+                        nWarnings +
+                        " warnings" +
+                        (nWarnings > m_nMaxListedItemsPerLevel ? " (only the first " +
+                                                                 m_nMaxListedItemsPerLevel +
+                                                                 " are listed)"
+                                                               : "") +
+                        " and " +
+                        nErrors +
+                        " errors" +
+                        (nErrors > m_nMaxListedItemsPerLevel ? " (only the first " +
+                                                               m_nMaxListedItemsPerLevel +
+                                                               " are listed)"
+                                                             : "");
+    LOGGER.info (m_sLogPrefix + sMsg);
+    m_aThreadSafeActionList.add (ImportActionItem.createInfo (null, sMsg));
   }
 
   public void onSuccess (@NonNull final EImportSummaryAction eAction)
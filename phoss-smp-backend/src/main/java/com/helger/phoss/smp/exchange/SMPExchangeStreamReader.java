@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.string.StringHelper;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroElement;
+
+/**
+ * A streaming reader for the SMP exchange XML format (see {@link CSMPExchange}). In contrast to
+ * reading the whole document into memory, only the direct children of the root element (service
+ * groups and business cards) are read one after the other, each as a separate
+ * {@link IMicroElement}. This keeps the memory consumption independent of the size of the
+ * exchange file.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@NotThreadSafe
+public final class SMPExchangeStreamReader implements AutoCloseable
+{
+  private final XMLStreamReader m_aReader;
+  private final IMicroElement m_eRoot;
+  private boolean m_bEndOfRoot = false;
+
+  /**
+   * Constructor. Reads everything up to and including the start of the root element.
+   *
+   * @param aIS
+   *        The input stream to read from. May not be <code>null</code>. It is not closed by this
+   *        class.
+   * @throws XMLStreamException
+   *         If the input stream cannot be parsed or contains no root element
+   */
+  public SMPExchangeStreamReader (@NonNull final InputStream aIS) throws XMLStreamException
+  {
+    ValueEnforcer.notNull (aIS, "InputStream");
+
+    final XMLInputFactory aFactory = XMLInputFactory.newInstance ();
+    // Avoid XXE
+    aFactory.setProperty (XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    aFactory.setProperty (XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    aFactory.setProperty (XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    m_aReader = aFactory.createXMLStreamReader (aIS);
+
+    // Skip prolog, comments etc.
+    while (m_aReader.hasNext () && m_aReader.next () != XMLStreamConstants.START_ELEMENT)
+    {}
+    if (!m_aReader.isStartElement ())
+      throw new XMLStreamException ("The XML payload contains no root element");
+
+    // The root element without children
+    m_eRoot = _createElementWithAttributes ();
+  }
+
+  @NonNull
+  private IMicroElement _createElementWithAttributes ()
+  {
+    final String sNamespaceURI = m_aReader.getNamespaceURI ();
+    final IMicroElement ret = new MicroElement (StringHelper.isEmpty (sNamespaceURI) ? null : sNamespaceURI,
+                                                m_aReader.getLocalName ());
+    final int nAttrCount = m_aReader.getAttributeCount ();
+    for (int i = 0; i < nAttrCount; ++i)
+    {
+      final String sAttrNamespaceURI = m_aReader.getAttributeNamespace (i);
+      if (StringHelper.isEmpty (sAttrNamespaceURI))
+        ret.setAttribute (m_aReader.getAttributeLocalName (i), m_aReader.getAttributeValue (i));
+      else
+        ret.setAttribute (sAttrNamespaceURI, m_aReader.getAttributeLocalName (i), m_aReader.getAttributeValue (i));
+    }
+    return ret;
+  }
+
+  /**
+   * Read the complete element the reader is currently positioned on (a start element). Afterwards
+   * the reader is positioned on the matching end element.
+   */
+  @NonNull
+  private IMicroElement _readCurrentElement () throws XMLStreamException
+  {
+    final IMicroElement ret = _createElementWithAttributes ();
+    IMicroElement eCur = ret;
+    while (true)
+    {
+      switch (m_aReader.next ())
+      {
+        case XMLStreamConstants.START_ELEMENT:
+        {
+          final IMicroElement eChild = _createElementWithAttributes ();
+          eCur.addChild (eChild);
+          eCur = eChild;
+          break;
+        }
+        case XMLStreamConstants.END_ELEMENT:
+          if (eCur == ret)
+            return ret;
+          eCur = (IMicroElement) eCur.getParent ();
+          break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+        case XMLStreamConstants.SPACE:
+          eCur.appendText (m_aReader.getText ());
+          break;
+        case XMLStreamConstants.END_DOCUMENT:
+          throw new XMLStreamException ("Unexpected end of document inside element '" + ret.getTagName () + "'");
+        default:
+          // Ignore comments, processing instructions etc.
+          break;
+      }
+    }
+  }
+
+  /**
+   * @return The root element, with all attributes but without any children. Never
+   *         <code>null</code>.
+   */
+  @NonNull
+  public IMicroElement getRootElement ()
+  {
+    return m_eRoot;
+  }
+
+  /**
+   * Read the next direct child element of the root element.
+   *
+   * @return The next child element with all its descendants or <code>null</code> if the end of the
+   *         root element was reached.
+   * @throws XMLStreamException
+   *         If the XML is not well-formed
+   */
+  @Nullable
+  public IMicroElement readNextChildElement () throws XMLStreamException
+  {
+    while (!m_bEndOfRoot && m_aReader.hasNext ())
+    {
+      final int nEventType = m_aReader.next ();
+      if (nEventType == XMLStreamConstants.START_ELEMENT)
+        return _readCurrentElement ();
+      if (nEventType == XMLStreamConstants.END_ELEMENT)
+        m_bEndOfRoot = true;
+    }
+    return null;
+  }
+
+  public void close () throws XMLStreamException
+  {
+    m_aReader.close ();
+  }
+}
@@ -10,12 +10,26 @@
  */
 package com.helger.phoss.smp.exchange;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.concurrent.Immutable;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.compare.ESortOrder;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.domain.SMPMetaManager;
@@ -25,6 +39,7 @@ import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardMicroTypeConverte
 import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
 import com.helger.phoss.smp.domain.redirect.ISMPRedirectManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupPageIterator;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.serviceinfo.SMPEndpointMicroTypeConverter;
@@ -34,6 +49,8 @@ import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.microdom.IMicroElement;
 import com.helger.xml.microdom.MicroDocument;
 import com.helger.xml.microdom.convert.MicroTypeConverter;
+import com.helger.xml.microdom.serialize.MicroWriter;
+import com.helger.xml.serialize.write.XMLWriterSettings;
 
 /**
  * Export Service Groups to XML.
@@ -44,71 +61,343 @@ import com.helger.xml.microdom.convert.MicroTypeConverter;
 @Immutable
 public final class ServiceGroupExport
 {
+  /**
+   * The number of service groups after which the output stream is flushed in the streaming export.
+   *
+   * @since 8.2.1
+   */
+  public static final int STREAMING_FLUSH_INTERVAL = 100;
+
   private static final Logger LOGGER = LoggerFactory.getLogger (ServiceGroupExport.class);
 
   private ServiceGroupExport ()
   {}
 
   /**
-   * Create XML export data for the provided service groups.
+   * Provides all entities of a single service group during an export.
    *
-   * @param aServiceGroups
-   *        The service groups to export. May not be <code>null</code> but maybe empty.
-   * @param bIncludeBusinessCards
-   *        <code>true</code> to include Business Cards, <code>false</code> to skip them
-   * @return The created XML document. Never <code>null</code>.
+   * @param <T>
+   *        The entity type
+   */
+  @FunctionalInterface
+  private interface IServiceGroupEntityLookup <T> extends AutoCloseable
+  {
+    /**
+     * Get all entities of the provided service group, in the order in which they are exported.
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    ICommonsList <T> getAllOfServiceGroup (@NonNull ISMPServiceGroup aServiceGroup);
+
+    default void close ()
+    {}
+  }
+
+  /**
+   * Merge-join helper for a stream of entities that is ordered by service group ID. The service
+   * groups passed to {@link #getAllOfServiceGroup(ISMPServiceGroup)} must be in ascending ID order
+   * as well. This allows to retrieve the entities of all service groups in a single pass, instead
+   * of one query per service group. As the stream is already ordered, the entities are returned in
+   * the order in which they are exported.
+   *
+   * @param <T>
+   *        The entity type
+   */
+  private static final class OrderedServiceGroupCursor <T> implements IServiceGroupEntityLookup <T>
+  {
+    private final Stream <T> m_aStream;
+    private final Iterator <T> m_aIterator;
+    private final Function <? super T, String> m_aServiceGroupIDGetter;
+    private T m_aNext;
+
+    OrderedServiceGroupCursor (@NonNull final Stream <T> aStream,
+                               @NonNull final Function <? super T, String> aServiceGroupIDGetter)
+    {
+      m_aStream = aStream;
+      m_aIterator = aStream.iterator ();
+      m_aServiceGroupIDGetter = aServiceGroupIDGetter;
+      m_aNext = m_aIterator.hasNext () ? m_aIterator.next () : null;
+    }
+
+    /**
+     * Get all entities of the provided service group. Entities of service groups with a smaller ID
+     * are not part of the export and are skipped.
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    public ICommonsList <T> getAllOfServiceGroup (@NonNull final ISMPServiceGroup aServiceGroup)
+    {
+      final String sServiceGroupID = aServiceGroup.getID ();
+      final ICommonsList <T> ret = new CommonsArrayList <> ();
+      while (m_aNext != null)
+      {
+        final int nCompare = m_aServiceGroupIDGetter.apply (m_aNext).compareTo (sServiceGroupID);
+        if (nCompare > 0)
+        {
+          // Belongs to a later service group
+          break;
+        }
+        if (nCompare == 0)
+          ret.add (m_aNext);
+        m_aNext = m_aIterator.hasNext () ? m_aIterator.next () : null;
+      }
+      return ret;
+    }
+
+    public void close ()
+    {
+      m_aStream.close ();
+    }
+  }
+
+  /**
+   * Check if the entities of the service groups to be exported should be read in bulk. This is the
+   * case, if all service groups are exported or if the export covers at least half of all service
+   * groups. Otherwise the entities are read service group by service group, to avoid reading the
+   * complete data of e.g. a large installation for the export of a single service group.
+   */
+  private static boolean _isBulkFetch (@Nullable final ICommonsList <ISMPServiceGroup> aServiceGroups)
+  {
+    if (aServiceGroups == null)
+      return true;
+    final int nServiceGroupCount = aServiceGroups.size ();
+    return nServiceGroupCount > 0 &&
+           nServiceGroupCount * 2L >= SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupCount ();
+  }
+
+  /**
+   * Get the service groups to be exported in ascending ID order. Explicitly provided service groups
+   * are sorted. If no service groups are provided, all service groups are read page by page from
+   * the service group manager, so that they are never all in memory at once.
    */
   @NonNull
-  public static IMicroDocument createExportDataXMLVer10 (@NonNull final ICommonsList <ISMPServiceGroup> aServiceGroups,
-                                                         final boolean bIncludeBusinessCards)
+  private static Iterable <ISMPServiceGroup> _getSortedServiceGroups (@Nullable final ICommonsList <ISMPServiceGroup> aServiceGroups)
   {
-    ValueEnforcer.notNull (aServiceGroups, "ServiceGroups");
+    if (aServiceGroups != null)
+      return aServiceGroups.getSorted (ISMPServiceGroup.comparator ());
+    return SMPMetaManager.getServiceGroupMgr ()
+                         .iterateSMPServiceGroups (SMPServiceGroupPageIterator.DEFAULT_PAGE_SIZE, ESortOrder.ASCENDING);
+  }
+
+  @NonNull
+  private static IServiceGroupEntityLookup <ISMPServiceInformation> _openServiceInformationLookup (final boolean bBulkFetch)
+  {
+    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    if (bBulkFetch)
+      return new OrderedServiceGroupCursor <> (aServiceInfoMgr.streamAllSMPServiceInformationOrderedByServiceGroup (),
+                                               ISMPServiceInformation::getServiceGroupID);
+    return x -> aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (x.getParticipantIdentifier ())
+                               .getSortedInline (ISMPServiceInformation.comparator ());
+  }
+
+  @NonNull
+  private static IServiceGroupEntityLookup <ISMPRedirect> _openRedirectLookup (final boolean bBulkFetch)
+  {
+    final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
+    if (bBulkFetch)
+      return new OrderedServiceGroupCursor <> (aRedirectMgr.streamAllSMPRedirectsOrderedByServiceGroup (),
+                                               ISMPRedirect::getServiceGroupID);
+    return x -> aRedirectMgr.getAllSMPRedirectsOfServiceGroup (x.getParticipantIdentifier ())
+                            .getSortedInline (ISMPRedirect.comparator ());
+  }
+
+  @NonNull
+  private static IServiceGroupEntityLookup <ISMPBusinessCard> _openBusinessCardLookup (final boolean bBulkFetch)
+  {
+    final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+    if (bBulkFetch)
+      return new OrderedServiceGroupCursor <> (aBusinessCardMgr.streamAllSMPBusinessCardsOrderedByID (),
+                                               ISMPBusinessCard::getID);
+    return x -> {
+      final ICommonsList <ISMPBusinessCard> ret = new CommonsArrayList <> ();
+      final ISMPBusinessCard aBusinessCard = aBusinessCardMgr.getSMPBusinessCardOfID (x.getParticipantIdentifier ());
+      if (aBusinessCard != null)
+        ret.add (aBusinessCard);
+      return ret;
+    };
+  }
+
+  /**
+   * Create the XML element of a single service group, including all service information and
+   * redirects.
+   */
+  @NonNull
+  private static IMicroElement _createServiceGroupElement (@NonNull final ISMPServiceGroup aServiceGroup,
+                                                          @NonNull final IServiceGroupEntityLookup <ISMPServiceInformation> aServiceInfoLookup,
+                                                          @NonNull final IServiceGroupEntityLookup <ISMPRedirect> aRedirectLookup)
+  {
+    final IMicroElement eServiceGroup = MicroTypeConverter.convertToMicroElement (aServiceGroup,
+                                                                                  CSMPExchange.ELEMENT_SERVICEGROUP);
+
+    // Add all service information
+    for (final ISMPServiceInformation aServiceInfo : aServiceInfoLookup.getAllOfServiceGroup (aServiceGroup))
+    {
+      final IMicroElement eServiceInfo = MicroTypeConverter.convertToMicroElement (aServiceInfo,
+                                                                                   CSMPExchange.ELEMENT_SERVICEINFO);
+      // Remove the "id" attribute from all endpoints because we cannot guarantee it's uniqueness
+      // over multiple installations
+      for (final var eProcess : eServiceInfo.getAllChildElements (SMPServiceInformationMicroTypeConverter.ELEMENT_PROCESS))
+        for (final var eEndpoint : eProcess.getAllChildElements (SMPProcessMicroTypeConverter.ELEMENT_ENDPOINT))
+          eEndpoint.removeAttribute (SMPEndpointMicroTypeConverter.ATTR_ID);
+
+      eServiceGroup.addChild (eServiceInfo);
+    }
+
+    // Add all redirects
+    for (final ISMPRedirect aRedirect : aRedirectLookup.getAllOfServiceGroup (aServiceGroup))
+    {
+      eServiceGroup.addChild (MicroTypeConverter.convertToMicroElement (aRedirect, CSMPExchange.ELEMENT_REDIRECT));
+    }
+    return eServiceGroup;
+  }
+
+  @NonNull
+  private static IMicroElement _createBusinessCardElement (@NonNull final ISMPBusinessCard aBusinessCard)
+  {
+    return SMPBusinessCardMicroTypeConverter.convertToMicroElement (aBusinessCard,
+                                                                    null,
+                                                                    CSMPExchange.ELEMENT_BUSINESSCARD,
+                                                                    true);
+  }
 
+  @NonNull
+  private static IMicroDocument _createExportDataXMLVer10 (@Nullable final ICommonsList <ISMPServiceGroup> aServiceGroups,
+                                                          final boolean bIncludeBusinessCards)
+  {
+    final long nTotal = aServiceGroups != null ? aServiceGroups.size ()
+                                               : SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupCount ();
     LOGGER.info ("Start creating Service Group export data XML v1.0 for " +
-                 aServiceGroups.size () +
+                 nTotal +
                  " entries - " +
                  (bIncludeBusinessCards ? "incl. Business Cards" : "excl. Business Cards"));
 
-    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
-    final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
-
     final IMicroDocument aDoc = new MicroDocument ();
     final IMicroElement eRoot = aDoc.addElement (CSMPExchange.ELEMENT_SMP_DATA);
     eRoot.setAttribute (CSMPExchange.ATTR_VERSION, CSMPExchange.VERSION_10);
     eRoot.setAttribute (CSMPExchange.ATTR_SMP_VERSION, CSMPServer.getVersionNumber ());
 
-    final ICommonsList <ISMPServiceGroup> aSortedServiceGroups = aServiceGroups.getSorted (ISMPServiceGroup.comparator ());
+    // The entities are merge-joined with the service groups sorted by ID
+    final Iterable <ISMPServiceGroup> aSortedServiceGroups = _getSortedServiceGroups (aServiceGroups);
+    final boolean bBulkFetch = _isBulkFetch (aServiceGroups);
 
     // Add all service groups
-    int nCount = 0;
-    for (final ISMPServiceGroup aServiceGroup : aSortedServiceGroups)
+    try (final var aServiceInfoLookup = _openServiceInformationLookup (bBulkFetch);
+         final var aRedirectLookup = _openRedirectLookup (bBulkFetch))
     {
-      if ((++nCount % 1_000) == 0)
-        LOGGER.info ("  Now at " + nCount + " of " + aServiceGroups.size ());
+      int nCount = 0;
+      for (final ISMPServiceGroup aServiceGroup : aSortedServiceGroups)
+      {
+        if ((++nCount % 1_000) == 0)
+          LOGGER.info ("  Now at " + nCount + " of " + nTotal);
+
+        eRoot.addChild (_createServiceGroupElement (aServiceGroup, aServiceInfoLookup, aRedirectLookup));
+      }
+    }
 
-      final IMicroElement eServiceGroup = eRoot.addChild (MicroTypeConverter.convertToMicroElement (aServiceGroup,
-                                                                                                    CSMPExchange.ELEMENT_SERVICEGROUP));
+    // Add Business cards only if PD integration is enabled
+    if (bIncludeBusinessCards)
+    {
+      LOGGER.info ("  Now exporting business groups");
 
-      // Add all service information
-      final ICommonsList <ISMPServiceInformation> aAllServiceInfos = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aServiceGroup.getParticipantIdentifier ());
-      for (final ISMPServiceInformation aServiceInfo : aAllServiceInfos.getSortedInline (ISMPServiceInformation.comparator ()))
+      // Add all business cards
+      try (final var aBusinessCardLookup = _openBusinessCardLookup (bBulkFetch))
       {
-        final IMicroElement eServiceInfo = MicroTypeConverter.convertToMicroElement (aServiceInfo,
-                                                                                     CSMPExchange.ELEMENT_SERVICEINFO);
-        // Remove the "id" attribute from all endpoints because we cannot guarantee it's uniqueness
-        // over multiple installations
-        for (final var eProcess : eServiceInfo.getAllChildElements (SMPServiceInformationMicroTypeConverter.ELEMENT_PROCESS))
-          for (final var eEndpoint : eProcess.getAllChildElements (SMPProcessMicroTypeConverter.ELEMENT_ENDPOINT))
-            eEndpoint.removeAttribute (SMPEndpointMicroTypeConverter.ATTR_ID);
-
-        eServiceGroup.addChild (eServiceInfo);
+        for (final ISMPServiceGroup aServiceGroup : aSortedServiceGroups)
+          for (final ISMPBusinessCard aBusinessCard : aBusinessCardLookup.getAllOfServiceGroup (aServiceGroup))
+            eRoot.addChild (_createBusinessCardElement (aBusinessCard));
       }
+    }
+
+    if (LOGGER.isDebugEnabled ())
+      LOGGER.debug ("Finished creating Service Group XML data");
+
+    return aDoc;
+  }
+
+  /**
+   * Create XML export data for the provided service groups.
+   *
+   * @param aServiceGroups
+   *        The service groups to export. May not be <code>null</code> but maybe empty.
+   * @param bIncludeBusinessCards
+   *        <code>true</code> to include Business Cards, <code>false</code> to skip them
+   * @return The created XML document. Never <code>null</code>.
+   * @see #writeExportDataXMLVer10(ICommonsList, boolean, OutputStream) for a streaming version
+   */
+  @NonNull
+  public static IMicroDocument createExportDataXMLVer10 (@NonNull final ICommonsList <ISMPServiceGroup> aServiceGroups,
+                                                         final boolean bIncludeBusinessCards)
+  {
+    ValueEnforcer.notNull (aServiceGroups, "ServiceGroups");
+
+    return _createExportDataXMLVer10 (aServiceGroups, bIncludeBusinessCards);
+  }
+
+  /**
+   * Create XML export data for all service groups. The service groups are read page by page from
+   * the service group manager.
+   *
+   * @param bIncludeBusinessCards
+   *        <code>true</code> to include Business Cards, <code>false</code> to skip them
+   * @return The created XML document. Never <code>null</code>.
+   * @see #writeExportDataXMLVer10(boolean, OutputStream) for a streaming version
+   * @since 8.2.1
+   */
+  @NonNull
+  public static IMicroDocument createExportDataXMLVer10 (final boolean bIncludeBusinessCards)
+  {
+    return _createExportDataXMLVer10 (null, bIncludeBusinessCards);
+  }
+
+  private static void _writeExportDataXMLVer10 (@Nullable final ICommonsList <ISMPServiceGroup> aServiceGroups,
+                                                final boolean bIncludeBusinessCards,
+                                                @NonNull final OutputStream aOS) throws IOException
+  {
+    final long nTotal = aServiceGroups != null ? aServiceGroups.size ()
+                                               : SMPMetaManager.getServiceGroupMgr ().getSMPServiceGroupCount ();
+    LOGGER.info ("Start writing Service Group export data XML v1.0 for " +
+                 nTotal +
+                 " entries - " +
+                 (bIncludeBusinessCards ? "incl. Business Cards" : "excl. Business Cards"));
+
+    final XMLWriterSettings aXWS = new XMLWriterSettings ();
+
+    final Writer aWriter = new BufferedWriter (new OutputStreamWriter (aOS, StandardCharsets.UTF_8));
 
-      // Add all redirects
-      final ICommonsList <ISMPRedirect> aAllRedirects = aRedirectMgr.getAllSMPRedirectsOfServiceGroup (aServiceGroup.getParticipantIdentifier ());
-      for (final ISMPRedirect aServiceInfo : aAllRedirects.getSortedInline (ISMPRedirect.comparator ()))
+    // The root element is written manually, so that the children can be written one by one
+    aWriter.write ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    aWriter.write ("<" +
+                   CSMPExchange.ELEMENT_SMP_DATA +
+                   " " +
+                   CSMPExchange.ATTR_VERSION +
+                   "=\"" +
+                   CSMPExchange.VERSION_10 +
+                   "\" " +
+                   CSMPExchange.ATTR_SMP_VERSION +
+                   "=\"" +
+                   CSMPServer.getVersionNumber () +
+                   "\">\n");
+
+    // The entities are merge-joined with the service groups sorted by ID
+    final Iterable <ISMPServiceGroup> aSortedServiceGroups = _getSortedServiceGroups (aServiceGroups);
+    final boolean bBulkFetch = _isBulkFetch (aServiceGroups);
+
+    // Write all service groups
+    try (final var aServiceInfoLookup = _openServiceInformationLookup (bBulkFetch);
+         final var aRedirectLookup = _openRedirectLookup (bBulkFetch))
+    {
+      int nCount = 0;
+      for (final ISMPServiceGroup aServiceGroup : aSortedServiceGroups)
       {
-        eServiceGroup.addChild (MicroTypeConverter.convertToMicroElement (aServiceInfo, CSMPExchange.ELEMENT_REDIRECT));
+        if ((++nCount % 1_000) == 0)
+          LOGGER.info ("  Now at " + nCount + " of " + nTotal);
+
+        aWriter.write (MicroWriter.getNodeAsString (_createServiceGroupElement (aServiceGroup,
+                                                                                 aServiceInfoLookup,
+                                                                                 aRedirectLookup),
+                                                    aXWS));
+        if ((nCount % STREAMING_FLUSH_INTERVAL) == 0)
+          aWriter.flush ();
       }
     }
 
@@ -117,24 +406,75 @@ public final class ServiceGroupExport
     {
       LOGGER.info ("  Now exporting business groups");
 
-      // Add all business cards
-      final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
-      for (final ISMPServiceGroup aServiceGroup : aSortedServiceGroups)
+      // Write all business cards
+      try (final var aBusinessCardLookup = _openBusinessCardLookup (bBulkFetch))
       {
-        final ISMPBusinessCard aBusinessCard = aBusinessCardMgr.getSMPBusinessCardOfID (aServiceGroup.getParticipantIdentifier ());
-        if (aBusinessCard != null)
+        int nCount = 0;
+        for (final ISMPServiceGroup aServiceGroup : aSortedServiceGroups)
         {
-          eRoot.addChild (SMPBusinessCardMicroTypeConverter.convertToMicroElement (aBusinessCard,
-                                                                                   null,
-                                                                                   CSMPExchange.ELEMENT_BUSINESSCARD,
-                                                                                   true));
+          for (final ISMPBusinessCard aBusinessCard : aBusinessCardLookup.getAllOfServiceGroup (aServiceGroup))
+            aWriter.write (MicroWriter.getNodeAsString (_createBusinessCardElement (aBusinessCard), aXWS));
+          if ((++nCount % STREAMING_FLUSH_INTERVAL) == 0)
+            aWriter.flush ();
         }
       }
     }
 
+    aWriter.write ("</" + CSMPExchange.ELEMENT_SMP_DATA + ">\n");
+    aWriter.flush ();
+
     if (LOGGER.isDebugEnabled ())
-      LOGGER.debug ("Finished creating Service Group XML data");
+      LOGGER.debug ("Finished writing Service Group XML data");
+  }
 
-    return aDoc;
+  /**
+   * Write XML export data for the provided service groups directly to the provided output stream.
+   * The content is the same as the one of
+   * {@link #createExportDataXMLVer10(ICommonsList, boolean)}, but only the data of a single service
+   * group is kept in memory at a time, so that the memory consumption does not depend on the number
+   * of service groups. The output stream is flushed every {@link #STREAMING_FLUSH_INTERVAL} service
+   * groups, so that the client receives data continuously.
+   *
+   * @param aServiceGroups
+   *        The service groups to export. May not be <code>null</code> but maybe empty.
+   * @param bIncludeBusinessCards
+   *        <code>true</code> to include Business Cards, <code>false</code> to skip them
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. It is flushed but not
+   *        closed by this method.
+   * @throws IOException
+   *         In case writing fails, e.g. because the client closed the connection
+   * @since 8.2.1
+   */
+  public static void writeExportDataXMLVer10 (@NonNull final ICommonsList <ISMPServiceGroup> aServiceGroups,
+                                              final boolean bIncludeBusinessCards,
+                                              @NonNull final OutputStream aOS) throws IOException
+  {
+    ValueEnforcer.notNull (aServiceGroups, "ServiceGroups");
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    _writeExportDataXMLVer10 (aServiceGroups, bIncludeBusinessCards, aOS);
+  }
+
+  /**
+   * Write XML export data for all service groups directly to the provided output stream. The
+   * service groups are read page by page from the service group manager, so neither the service
+   * groups nor the created XML are completely in memory at any time.
+   *
+   * @param bIncludeBusinessCards
+   *        <code>true</code> to include Business Cards, <code>false</code> to skip them
+   * @param aOS
+   *        The output stream to write to. May not be <code>null</code>. It is flushed but not
+   *        closed by this method.
+   * @throws IOException
+   *         In case writing fails, e.g. because the client closed the connection
+   * @since 8.2.1
+   */
+  public static void writeExportDataXMLVer10 (final boolean bIncludeBusinessCards,
+                                              @NonNull final OutputStream aOS) throws IOException
+  {
+    ValueEnforcer.notNull (aOS, "OutputStream");
+
+    _writeExportDataXMLVer10 (null, bIncludeBusinessCards, aOS);
   }
 }
@@ -18,6 +18,9 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.xml.stream.XMLStreamException;
 
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
@@ -28,11 +31,11 @@ import com.helger.annotation.concurrent.Immutable;
 import com.helger.annotation.concurrent.NotThreadSafe;
 import com.helger.base.concurrent.ExecutorServiceHelper;
 import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.numeric.mutable.MutableInt;
 import com.helger.base.timing.StopWatch;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.CommonsConcurrentHashMap;
 import com.helger.collection.commons.CommonsHashMap;
-import com.helger.collection.commons.CommonsHashSet;
 import com.helger.collection.commons.CommonsLinkedHashMap;
 import com.helger.collection.commons.ICommonsIterable;
 import com.helger.collection.commons.ICommonsList;
@@ -58,6 +61,9 @@ import com.helger.phoss.smp.domain.serviceinfo.SMPServiceInformationMicroTypeCon
 import com.helger.phoss.smp.exception.SMPServerException;
 import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.phoss.smp.settings.SMPSettings;
+import com.helger.phoss.smp.smlhook.IRegistrationHook;
+import com.helger.phoss.smp.smlhook.RegistrationHookException;
+import com.helger.phoss.smp.smlhook.RegistrationHookFactory;
 import com.helger.photon.security.mgr.PhotonSecurityManager;
 import com.helger.photon.security.user.IUser;
 import com.helger.photon.security.user.IUserManager;
@@ -103,6 +109,22 @@ public final class ServiceGroupImport
     }
   }
 
+  /**
+   * The default number of Service Groups respectively Business Cards that are read and imported at
+   * once in the streaming import.
+   *
+   * @since 8.2.1
+   */
+  public static final int DEFAULT_STREAMING_BATCH_SIZE = 1_000;
+
+  /**
+   * The maximum number of warnings and errors each that are added to the action list by the
+   * streaming import. Infos are only counted.
+   *
+   * @since 8.2.1
+   */
+  public static final int STREAMING_MAX_LISTED_ITEMS_PER_LEVEL = 100;
+
   private static final Logger LOGGER = LoggerFactory.getLogger (ServiceGroupImport.class);
   private static final AtomicInteger COUNTER = new AtomicInteger (0);
 
@@ -111,12 +133,15 @@ public final class ServiceGroupImport
 
   private static void _analyzeXML (@NonNull final ImportLogger aImportLogger,
                                    @Nonnegative final int nImportThreadCount,
-                                   @NonNull final IMicroElement eRoot,
+                                   @NonNull final Iterable <IMicroElement> aServiceGroupElements,
+                                   @NonNull final Iterable <IMicroElement> aBusinessCardElements,
                                    @NonNull final IUser aDefaultOwner,
                                    final boolean bOverwriteExisting,
                                    @NonNull final ICommonsSet <String> aAllExistingServiceGroupIDs,
                                    @NonNull final ICommonsSet <String> aAllExistingBusinessCardIDs,
                                    final boolean bDirectoryIntegrationEnabled,
+                                   @NonNull final Set <String> aThreadSafeReadServiceGroupIDs,
+                                   @NonNull final Set <String> aThreadSafeReadBusinessCardIDs,
                                    @NonNull final ICommonsOrderedMap <ISMPServiceGroup, InternalImportData> aServiceGroupsToImport,
                                    @NonNull final ICommonsMap <String, ISMPServiceGroup> aServiceGroupsToDelete,
                                    @NonNull final ICommonsOrderedMap <String, ISMPBusinessCard> aBusinessCardsToImport,
@@ -125,7 +150,7 @@ public final class ServiceGroupImport
     final IUserManager aUserMgr = PhotonSecurityManager.getUserMgr ();
     final StopWatch aSW = StopWatch.createdStarted ();
 
-    aImportLogger.info ("Starting analysis of source XML file in " + nImportThreadCount + " parallel threads");
+    aImportLogger.info ("Starting analysis of source XML data in " + nImportThreadCount + " parallel threads");
 
     // Use a separate cache to avoid unnecessary amount of DB calls for users
     final ICommonsMap <String, IUser> aThreadSafeOwnerCache = new CommonsConcurrentHashMap <> ();
@@ -158,91 +183,90 @@ public final class ServiceGroupImport
       final AtomicInteger aSGCount = new AtomicInteger (0);
       // Safe to run in parallelStream
       // 1. Read service group and service information
-      eRoot.forAllChildElements (IMicroElement.filterName (CSMPExchange.ELEMENT_SERVICEGROUP),
-                                 eServiceGroup -> aExecutorSvc.submit ( () -> {
-                                   // Convert XML to domain object
-                                   final ISMPServiceGroup aServiceGroup;
-                                   try
-                                   {
-                                     aServiceGroup = SMPServiceGroupMicroTypeConverter.convertToNative (eServiceGroup,
-                                                                                                        sUserID -> aThreadSafeOwnerCache.computeIfAbsent (sUserID,
-                                                                                                                                                          aUserResolverViaMgr));
-                                   }
-                                   catch (final RuntimeException ex)
-                                   {
-                                     aImportLogger.error ("Error parsing Service Group - will ignore it. Source element:\n" +
-                                                          MicroWriter.getNodeAsString (eServiceGroup),
-                                                          ex);
-                                     return;
-                                   }
-
-                                   final String sServiceGroupID = aServiceGroup.getID ();
-                                   final boolean bIsServiceGroupContained = aAllExistingServiceGroupIDs.contains (sServiceGroupID);
-                                   if (!bIsServiceGroupContained || bOverwriteExisting)
-                                   {
-                                     if (aThreadSafeServiceGroupsToImport.containsKey (aServiceGroup))
-                                     {
-                                       aImportLogger.error (sServiceGroupID,
-                                                            "The Service Group with ID '" +
-                                                                             sServiceGroupID +
-                                                                             "' is already contained in the file. Will overwrite the previous definition.");
-                                     }
-
-                                     // Remember to create/overwrite the service group
-                                     final InternalImportData aImportData = new InternalImportData ();
-                                     aThreadSafeServiceGroupsToImport.put (aServiceGroup, aImportData);
-                                     if (bIsServiceGroupContained)
-                                       aThreadSafeServiceGroupsToDelete.put (sServiceGroupID, aServiceGroup);
-                                     aImportLogger.success (sServiceGroupID,
-                                                            "Will " +
-                                                                             (bIsServiceGroupContained ? "overwrite"
-                                                                                                       : "import") +
-                                                                             " Service Group");
-
-                                     // read all contained service information
-                                     {
-                                       int nSICount = 0;
-                                       for (final IMicroElement eServiceInfo : eServiceGroup.getAllChildElements (CSMPExchange.ELEMENT_SERVICEINFO))
-                                       {
-                                         final ISMPServiceInformation aServiceInfo = SMPServiceInformationMicroTypeConverter.convertToNative (eServiceInfo,
-                                                                                                                                              x -> aServiceGroup);
-                                         aImportData.addServiceInfo (aServiceInfo);
-                                         ++nSICount;
-                                       }
-                                       aImportLogger.detail (sServiceGroupID,
-                                                             "Read " +
-                                                                              nSICount +
-                                                                              " Service Information " +
-                                                                              (nSICount == 1 ? "element" : "elements") +
-                                                                              " of Service Group");
-                                     }
-
-                                     // read all contained redirects
-                                     {
-                                       int nRDCount = 0;
-                                       for (final IMicroElement eRedirect : eServiceGroup.getAllChildElements (CSMPExchange.ELEMENT_REDIRECT))
-                                       {
-                                         final ISMPRedirect aRedirect = SMPRedirectMicroTypeConverter.convertToNative (eRedirect,
-                                                                                                                       x -> aServiceGroup);
-                                         aImportData.addRedirect (aRedirect);
-                                         ++nRDCount;
-                                       }
-                                       aImportLogger.detail (sServiceGroupID,
-                                                             "Read " +
-                                                                              nRDCount +
-                                                                              " Redirect " +
-                                                                              (nRDCount == 1 ? "element" : "elements") +
-                                                                              " of Service Group");
-                                     }
-                                   }
-                                   else
-                                   {
-                                     aImportLogger.warn (sServiceGroupID, "Ignoring already existing Service Group");
-                                   }
-                                   final int nCount = aSGCount.incrementAndGet ();
-                                   if ((nCount % 1_000) == 0)
-                                     LOGGER.info ("  Evaluated " + nCount + " Service Groups so far");
-                                 }));
+      aServiceGroupElements.forEach (eServiceGroup -> aExecutorSvc.submit ( () -> {
+        // Convert XML to domain object
+        final ISMPServiceGroup aServiceGroup;
+        try
+        {
+          aServiceGroup = SMPServiceGroupMicroTypeConverter.convertToNative (eServiceGroup,
+                                                                             sUserID -> aThreadSafeOwnerCache.computeIfAbsent (sUserID,
+                                                                                                                               aUserResolverViaMgr));
+        }
+        catch (final RuntimeException ex)
+        {
+          aImportLogger.error ("Error parsing Service Group - will ignore it. Source element:\n" +
+                               MicroWriter.getNodeAsString (eServiceGroup),
+                               ex);
+          return;
+        }
+
+        final String sServiceGroupID = aServiceGroup.getID ();
+        final boolean bIsServiceGroupContained = aAllExistingServiceGroupIDs.contains (sServiceGroupID);
+        if (!bIsServiceGroupContained || bOverwriteExisting)
+        {
+          if (!aThreadSafeReadServiceGroupIDs.add (sServiceGroupID))
+          {
+            aImportLogger.error (sServiceGroupID,
+                                 "The Service Group with ID '" +
+                                                  sServiceGroupID +
+                                                  "' is already contained in the file. Will overwrite the previous definition.");
+          }
+
+          // Remember to create/overwrite the service group
+          final InternalImportData aImportData = new InternalImportData ();
+          aThreadSafeServiceGroupsToImport.put (aServiceGroup, aImportData);
+          if (bIsServiceGroupContained)
+            aThreadSafeServiceGroupsToDelete.put (sServiceGroupID, aServiceGroup);
+          aImportLogger.success (sServiceGroupID,
+                                 "Will " +
+                                                  (bIsServiceGroupContained ? "overwrite"
+                                                                            : "import") +
+                                                  " Service Group");
+
+          // read all contained service information
+          {
+            int nSICount = 0;
+            for (final IMicroElement eServiceInfo : eServiceGroup.getAllChildElements (CSMPExchange.ELEMENT_SERVICEINFO))
+            {
+              final ISMPServiceInformation aServiceInfo = SMPServiceInformationMicroTypeConverter.convertToNative (eServiceInfo,
+                                                                                                                   x -> aServiceGroup);
+              aImportData.addServiceInfo (aServiceInfo);
+              ++nSICount;
+            }
+            aImportLogger.detail (sServiceGroupID,
+                                  "Read " +
+                                                   nSICount +
+                                                   " Service Information " +
+                                                   (nSICount == 1 ? "element" : "elements") +
+                                                   " of Service Group");
+          }
+
+          // read all contained redirects
+          {
+            int nRDCount = 0;
+            for (final IMicroElement eRedirect : eServiceGroup.getAllChildElements (CSMPExchange.ELEMENT_REDIRECT))
+            {
+              final ISMPRedirect aRedirect = SMPRedirectMicroTypeConverter.convertToNative (eRedirect,
+                                                                                            x -> aServiceGroup);
+              aImportData.addRedirect (aRedirect);
+              ++nRDCount;
+            }
+            aImportLogger.detail (sServiceGroupID,
+                                  "Read " +
+                                                   nRDCount +
+                                                   " Redirect " +
+                                                   (nRDCount == 1 ? "element" : "elements") +
+                                                   " of Service Group");
+          }
+        }
+        else
+        {
+          aImportLogger.warn (sServiceGroupID, "Ignoring already existing Service Group");
+        }
+        final int nCount = aSGCount.incrementAndGet ();
+        if ((nCount % 1_000) == 0)
+          LOGGER.info ("  Evaluated " + nCount + " Service Groups so far");
+      }));
     }
 
     if (bDirectoryIntegrationEnabled)
@@ -256,67 +280,442 @@ public final class ServiceGroupImport
 
       final AtomicInteger aBCCount = new AtomicInteger (0);
       // Safe to run in parallelStream
-      eRoot.forAllChildElements (IMicroElement.filterName (CSMPExchange.ELEMENT_BUSINESSCARD),
-                                 eBusinessCard -> aExecutorSvc.submit ( () -> {
-                                   // Read business card
-                                   ISMPBusinessCard aBusinessCard = null;
-                                   try
-                                   {
-                                     aBusinessCard = new SMPBusinessCardMicroTypeConverter ().convertToNative (eBusinessCard);
-                                   }
-                                   catch (final RuntimeException ex)
-                                   {
-                                     // Service group not found
-                                     aImportLogger.error ("Business Card contains an invalid/unknown Service Group!",
-                                                          ex);
-                                   }
-
-                                   if (aBusinessCard == null)
-                                   {
-                                     aImportLogger.error ("Failed to read Business Card. Source element:\n" +
-                                                          MicroWriter.getNodeAsString (eBusinessCard));
-                                   }
-                                   else
-                                   {
-                                     final String sBusinessCardID = aBusinessCard.getID ();
-                                     final boolean bIsBusinessCardContained = aAllExistingBusinessCardIDs.contains (sBusinessCardID);
-                                     if (!bIsBusinessCardContained || bOverwriteExisting)
-                                     {
-                                       if (aThreadSafeBusinessCardsToImport.remove (sBusinessCardID) != null)
-                                       {
-                                         aImportLogger.error (sBusinessCardID,
-                                                              "The Business Card already contained in the file. Will overwrite the previous definition.");
-                                       }
-                                       aThreadSafeBusinessCardsToImport.put (sBusinessCardID, aBusinessCard);
-                                       if (bIsBusinessCardContained)
-                                       {
-                                         // BCs are deleted when the SGs are deleted
-                                         aThreadSafeBusinessCardsToDelete.putIfAbsent (sBusinessCardID, aBusinessCard);
-                                       }
-                                       aImportLogger.success (sBusinessCardID,
-                                                              "Will " +
-                                                                               (bIsBusinessCardContained ? "overwrite"
-                                                                                                         : "import") +
-                                                                               " Business Card");
-                                     }
-                                     else
-                                     {
-                                       aImportLogger.warn (sBusinessCardID,
-                                                           "Ignoring already existing Business Card '" +
-                                                                            sBusinessCardID +
-                                                                            "'");
-                                     }
-                                   }
-                                   final int nCount = aBCCount.incrementAndGet ();
-                                   if ((nCount % 1_000) == 0)
-                                     LOGGER.info ("  Evaluated " + nCount + " Business Cards so far");
-                                 }));
+      aBusinessCardElements.forEach (eBusinessCard -> aExecutorSvc.submit ( () -> {
+        // Read business card
+        ISMPBusinessCard aBusinessCard = null;
+        try
+        {
+          aBusinessCard = new SMPBusinessCardMicroTypeConverter ().convertToNative (eBusinessCard);
+        }
+        catch (final RuntimeException ex)
+        {
+          // Service group not found
+          aImportLogger.error ("Business Card contains an invalid/unknown Service Group!",
+                               ex);
+        }
+
+        if (aBusinessCard == null)
+        {
+          aImportLogger.error ("Failed to read Business Card. Source element:\n" +
+                               MicroWriter.getNodeAsString (eBusinessCard));
+        }
+        else
+        {
+          final String sBusinessCardID = aBusinessCard.getID ();
+          final boolean bIsBusinessCardContained = aAllExistingBusinessCardIDs.contains (sBusinessCardID);
+          if (!bIsBusinessCardContained || bOverwriteExisting)
+          {
+            if (!aThreadSafeReadBusinessCardIDs.add (sBusinessCardID))
+            {
+              aImportLogger.error (sBusinessCardID,
+                                   "The Business Card already contained in the file. Will overwrite the previous definition.");
+            }
+            aThreadSafeBusinessCardsToImport.put (sBusinessCardID, aBusinessCard);
+            if (bIsBusinessCardContained)
+            {
+              // BCs are deleted when the SGs are deleted
+              aThreadSafeBusinessCardsToDelete.putIfAbsent (sBusinessCardID, aBusinessCard);
+            }
+            aImportLogger.success (sBusinessCardID,
+                                   "Will " +
+                                                    (bIsBusinessCardContained ? "overwrite"
+                                                                              : "import") +
+                                                    " Business Card");
+          }
+          else
+          {
+            aImportLogger.warn (sBusinessCardID,
+                                "Ignoring already existing Business Card '" +
+                                                 sBusinessCardID +
+                                                 "'");
+          }
+        }
+        final int nCount = aBCCount.incrementAndGet ();
+        if ((nCount % 1_000) == 0)
+          LOGGER.info ("  Evaluated " + nCount + " Business Cards so far");
+      }));
     }
 
     ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
 
     aSW.stop ();
-    aImportLogger.info ("Finalized analysis of source XML file after " + aSW.getDuration ());
+    aImportLogger.info ("Finalized analysis of source XML data after " + aSW.getDuration ());
+  }
+
+  @Nonnegative
+  private static int _getImportThreadCount ()
+  {
+    // Minimum 1, default 8
+    return Math.max (1, SMPConfigProvider.getConfig ().getAsInt ("smp.sgimport.threadcount", 8));
+  }
+
+  /**
+   * Perform the actual import of the analyzed data. This is steps 1 to 5 of the import.
+   */
+  private static void _importData (@NonNull final ImportLogger aImportLogger,
+                                   @Nonnegative final int nImportThreadCount,
+                                   @NonNull final ISMPSettings aSettings,
+                                   final boolean bDirectoryIntegrationEnabled,
+                                   @NonNull final ICommonsOrderedMap <ISMPServiceGroup, InternalImportData> aServiceGroupsToImport,
+                                   @NonNull final ICommonsMap <String, ISMPServiceGroup> aServiceGroupsToDelete,
+                                   @NonNull final ICommonsOrderedMap <String, ISMPBusinessCard> aBusinessCardsToImport,
+                                   @NonNull final ICommonsMap <String, ISMPBusinessCard> aBusinessCardsToDelete,
+                                   @NonNull final Set <IParticipantIdentifier> aThreadSafeDeletedServiceGroups,
+                                   @NonNull final Set <String> aThreadSafeFailedServiceGroupIDs,
+                                   @NonNull final Set <IParticipantIdentifier> aServiceGroupsWithDocTypesForBC)
+  {
+    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
+    final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
+    final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
+
+    final boolean bOriginalPDAutoUpdate = bDirectoryIntegrationEnabled && aSettings.isDirectoryIntegrationAutoUpdate ();
+    if (aServiceGroupsToImport.isNotEmpty ())
+    {
+      try
+      {
+        // Disable auto update for SG/SI import
+        if (bOriginalPDAutoUpdate)
+          ((SMPSettings) aSettings).setDirectoryIntegrationAutoUpdate (false);
+
+        // Start importing
+        aImportLogger.info ("Import is now performed with " + nImportThreadCount + " parallel threads");
+
+        // 1. delete all existing service groups to be imported (if overwrite);
+        // this may implicitly delete business cards
+
+        if (aServiceGroupsToDelete.isNotEmpty ())
+        {
+          aImportLogger.info ("Trying to delete " + aServiceGroupsToDelete.size () + " Service Groups");
+          final StopWatch aSW = StopWatch.createdStarted ();
+          final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
+
+          // This requires more sophisticated threading, as scopes are needed
+          aServiceGroupsToDelete.entrySet ().forEach (aEntry -> aExecutorSvc.submit ( () -> {
+            try (final WebScoped aWebScoped = new WebScoped ())
+            {
+              final String sServiceGroupID = aEntry.getKey ();
+              final ISMPServiceGroup aDeleteServiceGroup = aEntry.getValue ();
+              final IParticipantIdentifier aPI = aDeleteServiceGroup.getParticipantIdentifier ();
+              try
+              {
+                // Delete locally only
+                if (aServiceGroupMgr.deleteSMPServiceGroup (aPI, false).isChanged ())
+                {
+                  aImportLogger.success (sServiceGroupID, "Successfully deleted Service Group");
+                  aThreadSafeDeletedServiceGroups.add (aPI);
+                  aImportLogger.onSuccess (EImportSummaryAction.DELETE_SG);
+                }
+                else
+                {
+                  aImportLogger.error (sServiceGroupID, "Failed to delete Service Group");
+                  aImportLogger.onError (EImportSummaryAction.DELETE_SG);
+                }
+              }
+              catch (final SMPServerException ex)
+              {
+                aImportLogger.error (sServiceGroupID, "Failed to delete Service Group", ex);
+                aImportLogger.onError (EImportSummaryAction.DELETE_SG);
+              }
+            }
+          }));
+
+          ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
+          aSW.stop ();
+          aImportLogger.info ("Service Group deletion is finalized after " + aSW.getDuration ());
+        }
+
+        // 2. create all service groups
+        {
+          aImportLogger.info ("Trying to create " + aServiceGroupsToImport.size () + " Service Groups");
+          final StopWatch aSW = StopWatch.createdStarted ();
+
+          // Create in SML only for newly created entries
+          // If the SG was deleted before, it was also only deleted locally and not in SML
+          final ICommonsList <IParticipantIdentifier> aSMLParticipantIDs = new CommonsArrayList <> ();
+          for (final ISMPServiceGroup aImportServiceGroup : aServiceGroupsToImport.keySet ())
+            if (!aServiceGroupsToDelete.containsKey (aImportServiceGroup.getID ()))
+              aSMLParticipantIDs.add (aImportServiceGroup.getParticipantIdentifier ());
+
+          // Register all of them in the SML at once, as this is a lot quicker than one by one
+          final IRegistrationHook aHook = RegistrationHookFactory.getInstance ();
+          final ICommonsMap <IParticipantIdentifier, RegistrationHookException> aSMLFailures = new CommonsHashMap <> ();
+          if (aSMLParticipantIDs.isNotEmpty ())
+          {
+            aImportLogger.info ("Trying to register " + aSMLParticipantIDs.size () + " Service Groups in the SML");
+            aSMLFailures.putAll (aHook.createServiceGroups (aSMLParticipantIDs));
+          }
+
+          final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
+
+          final AtomicInteger aSGCount = new AtomicInteger (0);
+          aServiceGroupsToImport.entrySet ().forEach (aEntry -> aExecutorSvc.submit ( () -> {
+            try (final WebScoped aWebScoped = new WebScoped ())
+            {
+              final ISMPServiceGroup aImportServiceGroup = aEntry.getKey ();
+              final String sServiceGroupID = aImportServiceGroup.getID ();
+
+              final IParticipantIdentifier aPI = aImportServiceGroup.getParticipantIdentifier ();
+
+              ISMPServiceGroup aNewServiceGroup = null;
+              final RegistrationHookException aSMLFailure = aSMLFailures.get (aPI);
+              if (aSMLFailure != null)
+              {
+                // E.g. if SML connection failed
+                aImportLogger.error (sServiceGroupID, "Error creating the new Service Group in the SML", aSMLFailure);
+
+                // Don't import the Business Card of it
+                aThreadSafeFailedServiceGroupIDs.add (sServiceGroupID);
+                aImportLogger.onError (EImportSummaryAction.CREATE_SG);
+              }
+              else
+              {
+                try
+                {
+                  // Already registered in SML above
+                  aNewServiceGroup = aServiceGroupMgr.createSMPServiceGroup (aImportServiceGroup.getOwnerID (),
+                                                                             aPI,
+                                                                             aImportServiceGroup.getExtensions ()
+                                                                                                .getExtensionsAsJsonString (),
+                                                                             aImportServiceGroup.getCustomProperties (),
+                                                                             false);
+                  aImportLogger.success (sServiceGroupID, "Successfully created Service Group");
+                  aImportLogger.onSuccess (EImportSummaryAction.CREATE_SG);
+                }
+                catch (final Exception ex)
+                {
+                  aImportLogger.error (sServiceGroupID, "Error creating the new Service Group", ex);
+
+                  // Don't import the Business Card of it
+                  aThreadSafeFailedServiceGroupIDs.add (sServiceGroupID);
+                  aImportLogger.onError (EImportSummaryAction.CREATE_SG);
+
+                  // Remove from SML again, if it was registered there
+                  if (!aServiceGroupsToDelete.containsKey (sServiceGroupID))
+                    try
+                    {
+                      aHook.undoCreateServiceGroup (aPI);
+                    }
+                    catch (final RegistrationHookException ex2)
+                    {
+                      aImportLogger.error (sServiceGroupID, "Failed to remove the Service Group from the SML again", ex2);
+                    }
+                }
+              }
+
+              if (aNewServiceGroup != null)
+              {
+                final IParticipantIdentifier aServiceGroupID = aImportServiceGroup.getParticipantIdentifier ();
+
+                // 3a. create all endpoints
+                for (final ISMPServiceInformation aServiceInfoToImport : aEntry.getValue ().getServiceInfo ())
+                {
+                  try
+                  {
+                    if (aServiceInfoMgr.mergeSMPServiceInformation (aServiceInfoToImport).isSuccess ())
+                    {
+                      aImportLogger.success (sServiceGroupID, "Successfully created Service Information");
+                      aImportLogger.onSuccess (EImportSummaryAction.CREATE_SI);
+                      if (bOriginalPDAutoUpdate)
+                        aServiceGroupsWithDocTypesForBC.add (aServiceGroupID);
+                    }
+                    else
+                    {
+                      aImportLogger.error (sServiceGroupID, "Error creating the new Service Information");
+                      aImportLogger.onError (EImportSummaryAction.CREATE_SI);
+                    }
+                  }
+                  catch (final Exception ex)
+                  {
+                    aImportLogger.error (sServiceGroupID, "Error creating the new Service Information", ex);
+                    aImportLogger.onError (EImportSummaryAction.CREATE_SI);
+                  }
+                }
+
+                // 3b. create all redirects
+                for (final ISMPRedirect aImportRedirect : aEntry.getValue ().getRedirects ())
+                {
+                  try
+                  {
+                    if (aRedirectMgr.createOrUpdateSMPRedirect (aNewServiceGroup.getParticipantIdentifier (),
+                                                                aImportRedirect.getDocumentTypeIdentifier (),
+                                                                aImportRedirect.getTargetHref (),
+                                                                aImportRedirect.getSubjectUniqueIdentifier (),
+                                                                aImportRedirect.getCertificate (),
+                                                                aImportRedirect.getExtensions ()
+                                                                               .getExtensionsAsJsonString ()) != null)
+                    {
+                      aImportLogger.success (sServiceGroupID, "Successfully created Redirect");
+                      aImportLogger.onSuccess (EImportSummaryAction.CREATE_REDIRECT);
+                      if (bOriginalPDAutoUpdate)
+                        aServiceGroupsWithDocTypesForBC.add (aServiceGroupID);
+                    }
+                    else
+                    {
+                      aImportLogger.success (sServiceGroupID, "Error creating the new Redirect");
+                      aImportLogger.onError (EImportSummaryAction.CREATE_REDIRECT);
+                    }
+                  }
+                  catch (final Exception ex)
+                  {
+                    aImportLogger.error (sServiceGroupID, "Error creating the new Redirect", ex);
+                    aImportLogger.onError (EImportSummaryAction.CREATE_REDIRECT);
+                  }
+                }
+              }
+              final int nCount = aSGCount.incrementAndGet ();
+              if ((nCount % 1_000) == 0)
+                LOGGER.info ("  Imported " + nCount + " Service Groups so far");
+            }
+          }));
+
+          ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
+          aSW.stop ();
+          aImportLogger.info ("Service Group creation is finalized after " + aSW.getDuration ());
+        }
+      }
+      finally
+      {
+        // Re-enable auto update again
+        if (bOriginalPDAutoUpdate)
+          ((SMPSettings) aSettings).setDirectoryIntegrationAutoUpdate (true);
+      }
+    }
+
+    if (bDirectoryIntegrationEnabled && aBusinessCardsToImport.isNotEmpty ())
+    {
+      // Business Cards of Service Groups that could not be created cannot be imported
+      aThreadSafeFailedServiceGroupIDs.forEach (aBusinessCardsToImport::remove);
+
+      // 4. delete all existing business cards to be imported (if overwrite)
+      // Note: if PD integration is disabled, the list is empty
+      if (aBusinessCardsToDelete.isNotEmpty ())
+      {
+        aImportLogger.info ("Trying to delete " + aBusinessCardsToDelete.size () + " Business Cards");
+        final StopWatch aSW = StopWatch.createdStarted ();
+        final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
+
+        aBusinessCardsToDelete.entrySet ().forEach (aEntry -> aExecutorSvc.submit ( () -> {
+          try (final WebScoped aWebScoped = new WebScoped ())
+          {
+            final String sServiceGroupID = aEntry.getKey ();
+            final ISMPBusinessCard aDeleteBusinessCard = aEntry.getValue ();
+
+            try
+            {
+              // No need to sync to the directory, because the update comes later anyway
+              if (aBusinessCardMgr.deleteSMPBusinessCard (aDeleteBusinessCard, false).isChanged ())
+              {
+                aImportLogger.success (sServiceGroupID, "Successfully deleted Business Card");
+                aImportLogger.onSuccess (EImportSummaryAction.DELETE_BC);
+              }
+              else
+              {
+                // If the service group to which the business card belongs was
+                // already deleted, don't display an error, as the business card
+                // was automatically deleted afterwards
+                if (!aThreadSafeDeletedServiceGroups.contains (aDeleteBusinessCard.getParticipantIdentifier ()))
+                {
+                  aImportLogger.error (sServiceGroupID, "Failed to delete Business Card");
+                  aImportLogger.onError (EImportSummaryAction.DELETE_BC);
+                }
+              }
+            }
+            catch (final Exception ex)
+            {
+              aImportLogger.error (sServiceGroupID, "Failed to delete Business Card", ex);
+              aImportLogger.onError (EImportSummaryAction.DELETE_BC);
+            }
+          }
+        }));
+
+        ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
+        aSW.stop ();
+        aImportLogger.info ("Business Card deletion is finalized after " + aSW.getDuration ());
+      }
+
+      // 5. create all new business cards
+      // Note: if PD integration is disabled, the list is empty
+      {
+        aImportLogger.info ("Trying to create " + aBusinessCardsToImport.size () + " Business Cards");
+        final StopWatch aSW = StopWatch.createdStarted ();
+        final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
+
+        final AtomicInteger aBCCount = new AtomicInteger (0);
+        aBusinessCardsToImport.values ().forEach (aImportBusinessCard -> aExecutorSvc.submit ( () -> {
+          try (final WebScoped aWebScoped = new WebScoped ())
+          {
+            final String sParticipantCardID = aImportBusinessCard.getID ();
+            final IParticipantIdentifier aParticipantID = aImportBusinessCard.getParticipantIdentifier ();
+
+            // Remove this ID from the the Service Groups that need a push, as the create call
+            // does it anyway
+            if (bOriginalPDAutoUpdate)
+              aServiceGroupsWithDocTypesForBC.remove (aParticipantID);
+
+            try
+            {
+              // Always sync to the Directory after the creation
+              if (aBusinessCardMgr.createOrUpdateSMPBusinessCard (aParticipantID,
+                                                                  aImportBusinessCard.getAllEntities (),
+                                                                  true) != null)
+              {
+                aImportLogger.success (sParticipantCardID, "Successfully created Business Card");
+                aImportLogger.onSuccess (EImportSummaryAction.CREATE_BC);
+              }
+              else
+              {
+                aImportLogger.error (sParticipantCardID, "Failed to create Business Card");
+                aImportLogger.onError (EImportSummaryAction.CREATE_BC);
+              }
+            }
+            catch (final Exception ex)
+            {
+              aImportLogger.error (sParticipantCardID, "Failed to create Business Card", ex);
+              aImportLogger.onError (EImportSummaryAction.CREATE_BC);
+            }
+
+            final int nCount = aBCCount.incrementAndGet ();
+            if ((nCount % 1_000) == 0)
+              LOGGER.info ("  Imported " + nCount + " Business Groups so far");
+          }
+        }));
+
+        ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
+        aSW.stop ();
+        aImportLogger.info ("Business Card creation is finalized after " + aSW.getDuration ());
+      }
+    }
+  }
+
+  /**
+   * Provide an additional update to the Peppol Directory for the affected participants remaining.
+   * This is step 6 of the import.
+   */
+  private static void _pushToDirectory (@NonNull final ImportLogger aImportLogger,
+                                        @Nonnegative final int nImportThreadCount,
+                                        @NonNull final IPeppolDirectoryPushCallback aMainPushToDirectory,
+                                        @NonNull final Set <IParticipantIdentifier> aServiceGroupsWithDocTypesForBC)
+  {
+    aImportLogger.info ("Trying to push " + aServiceGroupsWithDocTypesForBC.size () + " Business Cards");
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
+
+    final AtomicInteger aBCCount = new AtomicInteger (0);
+    aServiceGroupsWithDocTypesForBC.forEach (aParticipantID -> aExecutorSvc.submit ( () -> {
+      try (final WebScoped aWebScoped = new WebScoped ())
+      {
+        aMainPushToDirectory.pushToDirectory (aParticipantID);
+
+        final int nCount = aBCCount.incrementAndGet ();
+        if ((nCount % 1_000) == 0)
+          LOGGER.info ("  Pushed " + nCount + " Business Groups so far");
+      }
+    }));
+
+    ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
+    aSW.stop ();
+    aImportLogger.info ("Business Card pushing is finalized after " + aSW.getDuration ());
   }
 
   /**
@@ -340,6 +739,8 @@ public final class ServiceGroupImport
    *        The action list to be filled. May not be <code>null</code>.
    * @param aSummary
    *        The import summary to be filled. May not be <code>null</code>.
+   * @see #importXMLVer10(SMPExchangeStreamReader, boolean, IUser, ICommonsSet, ICommonsSet,
+   *      IPeppolDirectoryPushCallback, ICommonsList, ImportSummary) for a streaming version
    */
   public static void importXMLVer10 (@NonNull final IMicroElement eRoot,
                                      final boolean bOverwriteExisting,
@@ -371,18 +772,19 @@ public final class ServiceGroupImport
     final ICommonsOrderedMap <String, ISMPBusinessCard> aBusinessCardsToImport = new CommonsLinkedHashMap <> ();
     final ICommonsMap <String, ISMPBusinessCard> aBusinessCardsToDelete = new CommonsHashMap <> ();
 
-    // Minimum 1, default 8
-    final int nImportThreadCount = Math.max (1,
-                                             SMPConfigProvider.getConfig ().getAsInt ("smp.sgimport.threadcount", 8));
+    final int nImportThreadCount = _getImportThreadCount ();
 
     _analyzeXML (aImportLogger,
                  nImportThreadCount,
-                 eRoot,
+                 eRoot.getAllChildElements (CSMPExchange.ELEMENT_SERVICEGROUP),
+                 eRoot.getAllChildElements (CSMPExchange.ELEMENT_BUSINESSCARD),
                  aDefaultOwner,
                  bOverwriteExisting,
                  aAllExistingServiceGroupIDs,
                  aAllExistingBusinessCardIDs,
                  bDirectoryIntegrationEnabled,
+                 Collections.synchronizedSet (new HashSet <> ()),
+                 Collections.synchronizedSet (new HashSet <> ()),
                  aServiceGroupsToImport,
                  aServiceGroupsToDelete,
                  aBusinessCardsToImport,
@@ -400,317 +802,239 @@ public final class ServiceGroupImport
       }
       else
       {
-        final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-        final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
-        final ISMPRedirectManager aRedirectMgr = SMPMetaManager.getRedirectMgr ();
-        final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
-
-        // Filled in block 1, but needed later for PDF
-        final ICommonsSet <IParticipantIdentifier> aDeletedServiceGroups = new CommonsHashSet <> ();
-        final Set <IParticipantIdentifier> aThreadSafeDeletedServiceGroups = Collections.synchronizedSet (aDeletedServiceGroups);
-
         // Remember all the Participant IDs that could have an impact on the Directory
         final Set <IParticipantIdentifier> aServiceGroupsWithDocTypesForBC = Collections.synchronizedSet (new HashSet <> ());
 
-        final boolean bOriginalPDAutoUpdate = bDirectoryIntegrationEnabled &&
-                                              aSettings.isDirectoryIntegrationAutoUpdate ();
-        try
-        {
-          // Disable auto update for SG/SI import
-          if (bOriginalPDAutoUpdate)
-            ((SMPSettings) aSettings).setDirectoryIntegrationAutoUpdate (false);
-
-          // Start importing
-          aImportLogger.info ("Import is now performed with " + nImportThreadCount + " parallel threads");
-
-          // 1. delete all existing service groups to be imported (if overwrite);
-          // this may implicitly delete business cards
+        _importData (aImportLogger,
+                     nImportThreadCount,
+                     aSettings,
+                     bDirectoryIntegrationEnabled,
+                     aServiceGroupsToImport,
+                     aServiceGroupsToDelete,
+                     aBusinessCardsToImport,
+                     aBusinessCardsToDelete,
+                     Collections.synchronizedSet (new HashSet <> ()),
+                     Collections.synchronizedSet (new HashSet <> ()),
+                     aServiceGroupsWithDocTypesForBC);
 
-          if (aServiceGroupsToDelete.isNotEmpty ())
-          {
-            aImportLogger.info ("Trying to delete " + aServiceGroupsToDelete.size () + " Service Groups");
-            final StopWatch aSW = StopWatch.createdStarted ();
-            final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
-
-            // This requires more sophisticated threading, as scopes are needed
-            aServiceGroupsToDelete.entrySet ().forEach (aEntry -> aExecutorSvc.submit ( () -> {
-              try (final WebScoped aWebScoped = new WebScoped ())
-              {
-                final String sServiceGroupID = aEntry.getKey ();
-                final ISMPServiceGroup aDeleteServiceGroup = aEntry.getValue ();
-                final IParticipantIdentifier aPI = aDeleteServiceGroup.getParticipantIdentifier ();
-                try
-                {
-                  // Delete locally only
-                  if (aServiceGroupMgr.deleteSMPServiceGroup (aPI, false).isChanged ())
-                  {
-                    aImportLogger.success (sServiceGroupID, "Successfully deleted Service Group");
-                    aThreadSafeDeletedServiceGroups.add (aPI);
-                    aImportLogger.onSuccess (EImportSummaryAction.DELETE_SG);
-                  }
-                  else
-                  {
-                    aImportLogger.error (sServiceGroupID, "Failed to delete Service Group");
-                    aImportLogger.onError (EImportSummaryAction.DELETE_SG);
-                  }
-                }
-                catch (final SMPServerException ex)
-                {
-                  aImportLogger.error (sServiceGroupID, "Failed to delete Service Group", ex);
-                  aImportLogger.onError (EImportSummaryAction.DELETE_SG);
-                }
-              }
-            }));
-
-            ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
-            aSW.stop ();
-            aImportLogger.info ("Service Group deletion is finalized after " + aSW.getDuration ());
-          }
-
-          // 2. create all service groups
-          final Map <String, ISMPBusinessCard> aThreadSafeBusinessCardsToImport = Collections.synchronizedMap (aBusinessCardsToImport);
-
-          {
-            aImportLogger.info ("Trying to create " + aServiceGroupsToImport.size () + " Service Groups");
-            final StopWatch aSW = StopWatch.createdStarted ();
-            final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
+        if (bDirectoryIntegrationEnabled)
+          _pushToDirectory (aImportLogger, nImportThreadCount, aMainPushToDirectory, aServiceGroupsWithDocTypesForBC);
 
-            final AtomicInteger aSGCount = new AtomicInteger (0);
-            aServiceGroupsToImport.entrySet ().forEach (aEntry -> aExecutorSvc.submit ( () -> {
-              try (final WebScoped aWebScoped = new WebScoped ())
-              {
-                final ISMPServiceGroup aImportServiceGroup = aEntry.getKey ();
-                final String sServiceGroupID = aImportServiceGroup.getID ();
+        aImportLogger.info ("Import is finalized");
+      }
+  }
 
-                ISMPServiceGroup aNewServiceGroup = null;
-                try
-                {
-                  // Create in SML only for newly created entries
-                  // If the SG was deleted before, it was also only deleted locally and not in SML
-                  final boolean bCreateInSML = !aServiceGroupsToDelete.containsKey (sServiceGroupID);
-                  aNewServiceGroup = aServiceGroupMgr.createSMPServiceGroup (aImportServiceGroup.getOwnerID (),
-                                                                             aImportServiceGroup.getParticipantIdentifier (),
-                                                                             aImportServiceGroup.getExtensions ()
-                                                                                                .getExtensionsAsJsonString (),
-                                                                             aImportServiceGroup.getCustomProperties (),
-                                                                             bCreateInSML);
-                  aImportLogger.success (sServiceGroupID, "Successfully created Service Group");
-                  aImportLogger.onSuccess (EImportSummaryAction.CREATE_SG);
-                }
-                catch (final Exception ex)
-                {
-                  // E.g. if SML connection failed
-                  aImportLogger.error (sServiceGroupID, "Error creating the new Service Group", ex);
+  /**
+   * Import Service Groups and Business Cards from V1.0 format, reading the source data in a
+   * streaming way. The source is read in batches of at most
+   * <code>smp.sgimport.batchsize</code> (default {@value #DEFAULT_STREAMING_BATCH_SIZE}) elements,
+   * and each batch is analyzed and imported before the next batch is read. So the memory
+   * consumption does not depend on the size of the source.<br>
+   * In contrast to
+   * {@link #importXMLVer10(IMicroElement, boolean, IUser, ICommonsSet, ICommonsSet, IPeppolDirectoryPushCallback, ICommonsList, ImportSummary)}
+   * errors in the source data only prevent the import of the batch containing the error and of all
+   * subsequent batches - previous batches are already imported at that time.
+   *
+   * @param aReader
+   *        The stream reader positioned after the root element. May not be <code>null</code>. The
+   *        version of the root element must have been checked by the caller.
+   * @param bOverwriteExisting
+   *        <code>true</code> to overwrite existing items, <code>false</code> to skip them
+   * @param aDefaultOwner
+   *        The default owner to be used, in case no user can be deduced from the uploaded file. May
+   *        not be <code>null</code>.
+   * @param aAllExistingServiceGroupIDs
+   *        A read-only set with existing service group IDs. May not be <code>null</code>.
+   * @param aAllExistingBusinessCardIDs
+   *        A read-only set with existing service group IDs that have business cards. May not be
+   *        <code>null</code>.
+   * @param aMainPushToDirectory
+   *        The action to actually push data to Peppol Directory. May not be <code>null</code>.
+   * @param aActionList
+   *        The action list to be filled. May not be <code>null</code>. To keep the memory
+   *        consumption independent of the size of the source, it only receives the first
+   *        {@value #STREAMING_MAX_LISTED_ITEMS_PER_LEVEL} warnings and errors each, plus a final
+   *        summary with the total counts.
+   * @param aSummary
+   *        The import summary to be filled. May not be <code>null</code>.
+   * @since 8.2.1
+   */
+  public static void importXMLVer10 (@NonNull final SMPExchangeStreamReader aReader,
+                                     final boolean bOverwriteExisting,
+                                     @NonNull final IUser aDefaultOwner,
+                                     @NonNull final ICommonsSet <String> aAllExistingServiceGroupIDs,
+                                     @NonNull final ICommonsSet <String> aAllExistingBusinessCardIDs,
+                                     @NonNull final IPeppolDirectoryPushCallback aMainPushToDirectory,
+                                     @NonNull final ICommonsList <ImportActionItem> aActionList,
+                                     @NonNull final ImportSummary aSummary)
+  {
+    importXMLVer10 (aReader,
+                    SMPConfigProvider.getConfig ().getAsInt ("smp.sgimport.batchsize", DEFAULT_STREAMING_BATCH_SIZE),
+                    bOverwriteExisting,
+                    aDefaultOwner,
+                    aAllExistingServiceGroupIDs,
+                    aAllExistingBusinessCardIDs,
+                    aMainPushToDirectory,
+                    aActionList,
+                    aSummary);
+  }
 
-                  // Delete Business Card again, if already present
-                  aThreadSafeBusinessCardsToImport.remove (sServiceGroupID);
-                  aImportLogger.onError (EImportSummaryAction.CREATE_SG);
-                }
+  /**
+   * Streaming import with an explicit batch size - for testing only.
+   *
+   * @param nBatchSize
+   *        The maximum number of elements per batch. Values &lt; 1 are treated as 1.
+   * @see #importXMLVer10(SMPExchangeStreamReader, boolean, IUser, ICommonsSet, ICommonsSet,
+   *      IPeppolDirectoryPushCallback, ICommonsList, ImportSummary)
+   */
+  static void importXMLVer10 (@NonNull final SMPExchangeStreamReader aReader,
+                              final int nBatchSize,
+                              final boolean bOverwriteExisting,
+                              @NonNull final IUser aDefaultOwner,
+                              @NonNull final ICommonsSet <String> aAllExistingServiceGroupIDs,
+                              @NonNull final ICommonsSet <String> aAllExistingBusinessCardIDs,
+                              @NonNull final IPeppolDirectoryPushCallback aMainPushToDirectory,
+                              @NonNull final ICommonsList <ImportActionItem> aActionList,
+                              @NonNull final ImportSummary aSummary)
+  {
+    ValueEnforcer.notNull (aReader, "Reader");
+    ValueEnforcer.notNull (aDefaultOwner, "DefaultOwner");
+    ValueEnforcer.notNull (aAllExistingServiceGroupIDs, "AllExistingServiceGroupIDs");
+    ValueEnforcer.notNull (aAllExistingBusinessCardIDs, "AllExistingBusinessCardIDs");
+    ValueEnforcer.notNull (aActionList, "ActionList");
+    ValueEnforcer.notNull (aSummary, "Summary");
 
-                if (aNewServiceGroup != null)
-                {
-                  final IParticipantIdentifier aServiceGroupID = aImportServiceGroup.getParticipantIdentifier ();
+    // Make 'em thread-safe
+    // Only count the infos and list the first warnings and errors, so that the action list does not
+    // grow with the amount of imported data
+    final ImportLogger aImportLogger = new ImportLogger (aActionList,
+                                                         aSummary,
+                                                         COUNTER.incrementAndGet (),
+                                                         STREAMING_MAX_LISTED_ITEMS_PER_LEVEL);
+
+    final int nRealBatchSize = Math.max (1, nBatchSize);
+    LOGGER.info ("Starting streaming import of Service Groups from XML v1.0 in batches of " +
+                 nRealBatchSize +
+                 ", overwrite is " +
+                 (bOverwriteExisting ? "enabled" : "disabled"));
 
-                  // 3a. create all endpoints
-                  for (final ISMPServiceInformation aServiceInfoToImport : aEntry.getValue ().getServiceInfo ())
-                  {
-                    try
-                    {
-                      if (aServiceInfoMgr.mergeSMPServiceInformation (aServiceInfoToImport).isSuccess ())
-                      {
-                        aImportLogger.success (sServiceGroupID, "Successfully created Service Information");
-                        aImportLogger.onSuccess (EImportSummaryAction.CREATE_SI);
-                        if (bOriginalPDAutoUpdate)
-                          aServiceGroupsWithDocTypesForBC.add (aServiceGroupID);
-                      }
-                      else
-                      {
-                        aImportLogger.error (sServiceGroupID, "Error creating the new Service Information");
-                        aImportLogger.onError (EImportSummaryAction.CREATE_SI);
-                      }
-                    }
-                    catch (final Exception ex)
-                    {
-                      aImportLogger.error (sServiceGroupID, "Error creating the new Service Information", ex);
-                      aImportLogger.onError (EImportSummaryAction.CREATE_SI);
-                    }
-                  }
+    final ISMPSettings aSettings = SMPMetaManager.getSettings ();
+    final boolean bDirectoryIntegrationEnabled = aSettings.isDirectoryIntegrationEnabled ();
+    final int nImportThreadCount = _getImportThreadCount ();
+
+    // State across all batches - only identifiers are kept
+    final Set <String> aReadServiceGroupIDs = Collections.synchronizedSet (new HashSet <> ());
+    final Set <String> aReadBusinessCardIDs = Collections.synchronizedSet (new HashSet <> ());
+    final Set <IParticipantIdentifier> aDeletedServiceGroups = Collections.synchronizedSet (new HashSet <> ());
+    final Set <String> aFailedServiceGroupIDs = Collections.synchronizedSet (new HashSet <> ());
+    final Set <IParticipantIdentifier> aServiceGroupsWithDocTypesForBC = Collections.synchronizedSet (new HashSet <> ());
+    final MutableInt aImportedCount = new MutableInt (0);
+    final MutableInt aBatchCount = new MutableInt (0);
+
+    final ICommonsList <IMicroElement> aSGBatch = new CommonsArrayList <> ();
+    final ICommonsList <IMicroElement> aBCBatch = new CommonsArrayList <> ();
+
+    // Analyze and import a single batch
+    final Predicate <ICommonsList <IMicroElement>> aBatchProcessor = aBatch -> {
+      final boolean bIsSGBatch = aBatch == aSGBatch;
+      final ICommonsOrderedMap <ISMPServiceGroup, InternalImportData> aServiceGroupsToImport = new CommonsLinkedHashMap <> ();
+      final ICommonsMap <String, ISMPServiceGroup> aServiceGroupsToDelete = new CommonsHashMap <> ();
+      final ICommonsOrderedMap <String, ISMPBusinessCard> aBusinessCardsToImport = new CommonsLinkedHashMap <> ();
+      final ICommonsMap <String, ISMPBusinessCard> aBusinessCardsToDelete = new CommonsHashMap <> ();
+
+      final int nErrorsBefore = aImportLogger.getErrorCount ();
+      _analyzeXML (aImportLogger,
+                   nImportThreadCount,
+                   bIsSGBatch ? aBatch : new CommonsArrayList <> (),
+                   bIsSGBatch ? new CommonsArrayList <> () : aBatch,
+                   aDefaultOwner,
+                   bOverwriteExisting,
+                   aAllExistingServiceGroupIDs,
+                   aAllExistingBusinessCardIDs,
+                   bDirectoryIntegrationEnabled,
+                   aReadServiceGroupIDs,
+                   aReadBusinessCardIDs,
+                   aServiceGroupsToImport,
+                   aServiceGroupsToDelete,
+                   aBusinessCardsToImport,
+                   aBusinessCardsToDelete);
+      aBatch.clear ();
+
+      if (aImportLogger.getErrorCount () > nErrorsBefore)
+      {
+        aImportLogger.error ("Nothing more will be imported because of the previous errors.");
+        return false;
+      }
 
-                  // 3b. create all redirects
-                  for (final ISMPRedirect aImportRedirect : aEntry.getValue ().getRedirects ())
-                  {
-                    try
-                    {
-                      if (aRedirectMgr.createOrUpdateSMPRedirect (aNewServiceGroup.getParticipantIdentifier (),
-                                                                  aImportRedirect.getDocumentTypeIdentifier (),
-                                                                  aImportRedirect.getTargetHref (),
-                                                                  aImportRedirect.getSubjectUniqueIdentifier (),
-                                                                  aImportRedirect.getCertificate (),
-                                                                  aImportRedirect.getExtensions ()
-                                                                                 .getExtensionsAsJsonString ()) != null)
-                      {
-                        aImportLogger.success (sServiceGroupID, "Successfully created Redirect");
-                        aImportLogger.onSuccess (EImportSummaryAction.CREATE_REDIRECT);
-                        if (bOriginalPDAutoUpdate)
-                          aServiceGroupsWithDocTypesForBC.add (aServiceGroupID);
-                      }
-                      else
-                      {
-                        aImportLogger.success (sServiceGroupID, "Error creating the new Redirect");
-                        aImportLogger.onError (EImportSummaryAction.CREATE_REDIRECT);
-                      }
-                    }
-                    catch (final Exception ex)
-                    {
-                      aImportLogger.error (sServiceGroupID, "Error creating the new Redirect", ex);
-                      aImportLogger.onError (EImportSummaryAction.CREATE_REDIRECT);
-                    }
-                  }
-                }
-                final int nCount = aSGCount.incrementAndGet ();
-                if ((nCount % 1_000) == 0)
-                  LOGGER.info ("  Imported " + nCount + " Service Groups so far");
-              }
-            }));
+      _importData (aImportLogger,
+                   nImportThreadCount,
+                   aSettings,
+                   bDirectoryIntegrationEnabled,
+                   aServiceGroupsToImport,
+                   aServiceGroupsToDelete,
+                   aBusinessCardsToImport,
+                   aBusinessCardsToDelete,
+                   aDeletedServiceGroups,
+                   aFailedServiceGroupIDs,
+                   aServiceGroupsWithDocTypesForBC);
+      aImportedCount.inc (aServiceGroupsToImport.size () + aBusinessCardsToImport.size ());
+      aBatchCount.inc ();
+      aImportLogger.flushBatch (aBatchCount.intValue ());
+      return true;
+    };
 
-            ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
-            aSW.stop ();
-            aImportLogger.info ("Service Group creation is finalized after " + aSW.getDuration ());
-          }
-        }
-        finally
+    boolean bContinue = true;
+    try
+    {
+      IMicroElement eElement;
+      while (bContinue && (eElement = aReader.readNextChildElement ()) != null)
+      {
+        final String sTagName = eElement.getTagName ();
+        if (CSMPExchange.ELEMENT_SERVICEGROUP.equals (sTagName))
         {
-          // Re-enable auto update again
-          if (bOriginalPDAutoUpdate)
-            ((SMPSettings) aSettings).setDirectoryIntegrationAutoUpdate (true);
+          aSGBatch.add (eElement);
+          if (aSGBatch.size () >= nRealBatchSize)
+            bContinue = aBatchProcessor.test (aSGBatch);
         }
-
-        if (bDirectoryIntegrationEnabled)
-        {
-          // 4. delete all existing business cards to be imported (if overwrite)
-          // Note: if PD integration is disabled, the list is empty
-          if (aBusinessCardsToDelete.isNotEmpty ())
-          {
-            aImportLogger.info ("Trying to delete " + aBusinessCardsToDelete.size () + " Business Cards");
-            final StopWatch aSW = StopWatch.createdStarted ();
-            final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
-
-            aBusinessCardsToDelete.entrySet ().forEach (aEntry -> aExecutorSvc.submit ( () -> {
-              try (final WebScoped aWebScoped = new WebScoped ())
-              {
-                final String sServiceGroupID = aEntry.getKey ();
-                final ISMPBusinessCard aDeleteBusinessCard = aEntry.getValue ();
-
-                try
-                {
-                  // No need to sync to the directory, because the update comes later anyway
-                  if (aBusinessCardMgr.deleteSMPBusinessCard (aDeleteBusinessCard, false).isChanged ())
-                  {
-                    aImportLogger.success (sServiceGroupID, "Successfully deleted Business Card");
-                    aImportLogger.onSuccess (EImportSummaryAction.DELETE_BC);
-                  }
-                  else
-                  {
-                    // If the service group to which the business card belongs was
-                    // already deleted, don't display an error, as the business card
-                    // was automatically deleted afterwards
-                    if (!aThreadSafeDeletedServiceGroups.contains (aDeleteBusinessCard.getParticipantIdentifier ()))
-                    {
-                      aImportLogger.error (sServiceGroupID, "Failed to delete Business Card");
-                      aImportLogger.onError (EImportSummaryAction.DELETE_BC);
-                    }
-                  }
-                }
-                catch (final Exception ex)
-                {
-                  aImportLogger.error (sServiceGroupID, "Failed to delete Business Card", ex);
-                  aImportLogger.onError (EImportSummaryAction.DELETE_BC);
-                }
-              }
-            }));
-
-            ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
-            aSW.stop ();
-            aImportLogger.info ("Business Card deletion is finalized after " + aSW.getDuration ());
-          }
-
-          // 5. create all new business cards
-          // Note: if PD integration is disabled, the list is empty
+        else
+          if (CSMPExchange.ELEMENT_BUSINESSCARD.equals (sTagName))
           {
-            aImportLogger.info ("Trying to create " + aBusinessCardsToImport.size () + " Business Cards");
-            final StopWatch aSW = StopWatch.createdStarted ();
-            final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
-
-            final AtomicInteger aBCCount = new AtomicInteger (0);
-            aBusinessCardsToImport.values ().forEach (aImportBusinessCard -> aExecutorSvc.submit ( () -> {
-              try (final WebScoped aWebScoped = new WebScoped ())
-              {
-                final String sParticipantCardID = aImportBusinessCard.getID ();
-                final IParticipantIdentifier aParticipantID = aImportBusinessCard.getParticipantIdentifier ();
-
-                // Remove this ID from the the Service Groups that need a push, as the create call
-                // does it anyway
-                if (bOriginalPDAutoUpdate)
-                  aServiceGroupsWithDocTypesForBC.remove (aParticipantID);
-
-                try
-                {
-                  // Always sync to the Directory after the creation
-                  if (aBusinessCardMgr.createOrUpdateSMPBusinessCard (aParticipantID,
-                                                                      aImportBusinessCard.getAllEntities (),
-                                                                      true) != null)
-                  {
-                    aImportLogger.success (sParticipantCardID, "Successfully created Business Card");
-                    aImportLogger.onSuccess (EImportSummaryAction.CREATE_BC);
-                  }
-                  else
-                  {
-                    aImportLogger.error (sParticipantCardID, "Failed to create Business Card");
-                    aImportLogger.onError (EImportSummaryAction.CREATE_BC);
-                  }
-                }
-                catch (final Exception ex)
-                {
-                  aImportLogger.error (sParticipantCardID, "Failed to create Business Card", ex);
-                  aImportLogger.onError (EImportSummaryAction.CREATE_BC);
-                }
-
-                final int nCount = aBCCount.incrementAndGet ();
-                if ((nCount % 1_000) == 0)
-                  LOGGER.info ("  Imported " + nCount + " Business Groups so far");
-              }
-            }));
-
-            ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
-            aSW.stop ();
-            aImportLogger.info ("Business Card creation is finalized after " + aSW.getDuration ());
+            // Read them only if the Peppol Directory integration is enabled
+            if (bDirectoryIntegrationEnabled)
+            {
+              // The Service Groups must be present before the Business Cards
+              if (aSGBatch.isNotEmpty ())
+                bContinue = aBatchProcessor.test (aSGBatch);
+              aBCBatch.add (eElement);
+              if (bContinue && aBCBatch.size () >= nRealBatchSize)
+                bContinue = aBatchProcessor.test (aBCBatch);
+            }
           }
+      }
 
-          // 6. Provide an additional update to the Peppol Directory for the affected participants
-          // remaining
-          {
-            aImportLogger.info ("Trying to push " + aServiceGroupsWithDocTypesForBC.size () + " Business Cards");
-            final StopWatch aSW = StopWatch.createdStarted ();
-            final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (nImportThreadCount);
+      // Remaining elements
+      if (bContinue && aSGBatch.isNotEmpty ())
+        bContinue = aBatchProcessor.test (aSGBatch);
+      if (bContinue && aBCBatch.isNotEmpty ())
+        bContinue = aBatchProcessor.test (aBCBatch);
+    }
+    catch (final XMLStreamException ex)
+    {
+      aImportLogger.error ("Failed to read the XML source data. Nothing more will be imported.", ex);
+      bContinue = false;
+    }
 
-            final AtomicInteger aBCCount = new AtomicInteger (0);
-            aServiceGroupsWithDocTypesForBC.forEach (aParticipantID -> aExecutorSvc.submit ( () -> {
-              try (final WebScoped aWebScoped = new WebScoped ())
-              {
-                aMainPushToDirectory.pushToDirectory (aParticipantID);
+    if (aImportedCount.intValue () == 0 && bContinue)
+    {
+      aImportLogger.warn (bDirectoryIntegrationEnabled ? "Found neither a Service Group nor a Business Card to import."
+                                                       : "Found no Service Group to import.");
+    }
 
-                final int nCount = aBCCount.incrementAndGet ();
-                if ((nCount % 1_000) == 0)
-                  LOGGER.info ("  Pushed " + nCount + " Business Groups so far");
-              }
-            }));
+    // Push what was imported, even if the import was stopped
+    if (bDirectoryIntegrationEnabled && !aServiceGroupsWithDocTypesForBC.isEmpty ())
+      _pushToDirectory (aImportLogger, nImportThreadCount, aMainPushToDirectory, aServiceGroupsWithDocTypesForBC);
 
-            ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
-            aSW.stop ();
-            aImportLogger.info ("Business Card pushing is finalized after " + aSW.getDuration ());
-          }
-        }
-        aImportLogger.info ("Import is finalized");
-      }
+    aImportLogger.info ("Import is finalized");
+    aImportLogger.addSummary ();
   }
 }
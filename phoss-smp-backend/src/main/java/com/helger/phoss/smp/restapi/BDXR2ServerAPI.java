@@ -11,6 +11,8 @@
 package com.helger.phoss.smp.restapi;
 
 import java.security.cert.X509Certificate;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.jspecify.annotations.NonNull;
@@ -127,13 +129,13 @@ public final class BDXR2ServerAPI
       final ServiceGroupType aSG = aPathServiceGroup.getAsJAXBObjectBDXR2 ();
 
       // Then add the service metadata references
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aPathServiceGroupID))
+      for (final Map.Entry <IDocumentTypeIdentifier, Integer> aEntry : aServiceInfoMgr.getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (aPathServiceGroupID)
+                                                                                       .entrySet ())
       {
         // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPathServiceGroupID,
-                                                                                                                           aDocTypeID);
-        if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
+        if (aEntry.getValue ().intValue () > 0)
         {
+          final IDocumentTypeIdentifier aDocTypeID = aEntry.getKey ();
           final ServiceReferenceType aMetadataReference = new ServiceReferenceType ();
           {
             final IDType aID = new IDType ();
@@ -519,14 +521,18 @@ public final class BDXR2ServerAPI
               final ICommonsList <SMPEndpoint> aEndpoints = new CommonsArrayList <> ();
               // Map from TransportProfileID to list of validity periods
               final ICommonsMap <String, ICommonsList <LocalDatePeriod>> aValidityPeriods = new CommonsHashMap <> ();
-              for (final EndpointType aJAXBEndpoint : aPM.getEndpoint ())
+              final List <EndpointType> aJAXBEndpoints = aPM.getEndpoint ();
+              // Reserve all endpoint IDs at once
+              final Iterator <String> aEndpointIDs = SMPEndpointHelper.createUniqueEndpointIDs (aJAXBEndpoints.size ())
+                                                                      .iterator ();
+              for (final EndpointType aJAXBEndpoint : aJAXBEndpoints)
               {
                 // TODO BDXR2 use first cert only
                 byte [] aCertBytes = null;
                 if (aJAXBEndpoint.hasCertificateEntries ())
                   aCertBytes = aJAXBEndpoint.getCertificateAtIndex (0).getContentBinaryObjectValue ();
 
-                final SMPEndpoint aEndpoint = new SMPEndpoint (SMPEndpointHelper.createUniqueEndpointID (),
+                final SMPEndpoint aEndpoint = new SMPEndpoint (aEndpointIDs.next (),
                                                                aJAXBEndpoint.getTransportProfileIDValue (),
                                                                aJAXBEndpoint.getAddressURIValue (),
                                                                SMPEndpoint.DEFAULT_REQUIRES_BUSINESS_LEVEL_SIGNATURE,
@@ -11,6 +11,9 @@
 package com.helger.phoss.smp.restapi;
 
 import java.security.cert.X509Certificate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
@@ -120,13 +123,13 @@ public final class SMPServerAPI
 
       // Then add the service metadata references
       final ServiceMetadataReferenceCollectionType aRefCollection = new ServiceMetadataReferenceCollectionType ();
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aPathServiceGroupID))
+      for (final Map.Entry <IDocumentTypeIdentifier, Integer> aEntry : aServiceInfoMgr.getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (aPathServiceGroupID)
+                                                                                       .entrySet ())
       {
         // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPathServiceGroupID,
-                                                                                                                           aDocTypeID);
-        if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
+        if (aEntry.getValue ().intValue () > 0)
         {
+          final IDocumentTypeIdentifier aDocTypeID = aEntry.getKey ();
           final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
           aMetadataReference.setHref (m_aAPIDataProvider.getServiceMetadataReferenceHref (aPathServiceGroupID,
                                                                                           aDocTypeID));
@@ -247,13 +250,13 @@ public final class SMPServerAPI
       final ServiceMetadataReferenceCollectionType aRefCollection = new ServiceMetadataReferenceCollectionType ();
 
       // Then add the service metadata references
-      for (final IDocumentTypeIdentifier aDocTypeID : aServiceInfoMgr.getAllSMPDocumentTypesOfServiceGroup (aPathServiceGroupID))
+      for (final Map.Entry <IDocumentTypeIdentifier, Integer> aEntry : aServiceInfoMgr.getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (aPathServiceGroupID)
+                                                                                       .entrySet ())
       {
         // Ignore all service information without endpoints
-        final ISMPServiceInformation aServiceInfo = aServiceInfoMgr.getSMPServiceInformationOfServiceGroupAndDocumentType (aPathServiceGroupID,
-                                                                                                                           aDocTypeID);
-        if (aServiceInfo != null && aServiceInfo.getTotalEndpointCount () > 0)
+        if (aEntry.getValue ().intValue () > 0)
         {
+          final IDocumentTypeIdentifier aDocTypeID = aEntry.getKey ();
           final ServiceMetadataReferenceType aMetadataReference = new ServiceMetadataReferenceType ();
           aMetadataReference.setHref (m_aAPIDataProvider.getServiceMetadataReferenceHref (aPathServiceGroupID,
                                                                                           aDocTypeID));
@@ -627,10 +630,14 @@ public final class SMPServerAPI
             final ICommonsList <SMPEndpoint> aEndpoints = new CommonsArrayList <> ();
             // Map from TransportProfileID to list of validity periods
             final ICommonsMap <String, ICommonsList <LocalDatePeriod>> aValidityPeriods = new CommonsHashMap <> ();
-            for (final EndpointType aJAXBEndpoint : aJAXBProcess.getServiceEndpointList ().getEndpoint ())
+            final List <EndpointType> aJAXBEndpoints = aJAXBProcess.getServiceEndpointList ().getEndpoint ();
+            // Reserve all endpoint IDs at once
+            final Iterator <String> aEndpointIDs = SMPEndpointHelper.createUniqueEndpointIDs (aJAXBEndpoints.size ())
+                                                                    .iterator ();
+            for (final EndpointType aJAXBEndpoint : aJAXBEndpoints)
             {
               // Always assign a new unique ID, as the JAXB data model has no ID
-              final SMPEndpoint aEndpoint = new SMPEndpoint (SMPEndpointHelper.createUniqueEndpointID (),
+              final SMPEndpoint aEndpoint = new SMPEndpoint (aEndpointIDs.next (),
                                                              aJAXBEndpoint.getTransportProfile (),
                                                              W3CEndpointReferenceHelper.getAddress (aJAXBEndpoint.getEndpointReference ()),
                                                              aJAXBEndpoint.isRequireBusinessLevelSignature (),
@@ -0,0 +1,449 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.restapi;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.annotation.style.UsedViaReflection;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirect;
+import com.helger.phoss.smp.domain.redirect.ISMPRedirectCallback;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupCallback;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
+import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
+import com.helger.phoss.smp.security.ISMPKeyStoreReloadCallback;
+import com.helger.phoss.smp.security.SMPKeyManager;
+import com.helger.scope.singleton.AbstractGlobalSingleton;
+
+/**
+ * An optional in-memory cache for the final, signed ServiceMetadata responses. The cache key is the
+ * combination of REST type, participant identifier and document type identifier. Entries are
+ * dropped per participant whenever a service group, redirect or service information of that
+ * participant changes (see {@link #getInvalidationCallback()}), and completely when the signing key
+ * is reloaded (if the same callback is registered at {@link SMPKeyManager#keyStoreReloadCallbacks()}). The cache itself is only node-local - in a multi-node setup other nodes only see
+ * changes after the configured TTL, unless the backend propagates the changes of other nodes via
+ * {@link #invalidateParticipantIfInstantiated(String)} (e.g. the JDBC cache change log).
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@ThreadSafe
+public final class SMPServiceMetadataResponseCache extends AbstractGlobalSingleton
+{
+  /**
+   * The callback that drops all cached responses of a participant upon modification, and all cached
+   * responses upon a key store reload.
+   *
+   * @author Philip Helger
+   */
+  public static final class InvalidationCallback implements
+                                                   ISMPServiceGroupCallback,
+                                                   ISMPRedirectCallback,
+                                                   ISMPServiceInformationCallback,
+                                                   ISMPKeyStoreReloadCallback
+  {
+    private InvalidationCallback ()
+    {}
+
+    private static void _invalidate (@NonNull final IParticipantIdentifier aParticipantID)
+    {
+      final SMPServiceMetadataResponseCache aCache = getGlobalSingletonIfInstantiated (SMPServiceMetadataResponseCache.class);
+      if (aCache != null)
+        aCache.invalidateParticipant (aParticipantID);
+    }
+
+    @Override
+    public void onSMPServiceGroupCreated (@NonNull final ISMPServiceGroup aServiceGroup, final boolean bCreateInSML)
+    {
+      _invalidate (aServiceGroup.getParticipantIdentifier ());
+    }
+
+    @Override
+    public void onSMPServiceGroupUpdated (@NonNull final IParticipantIdentifier aParticipantID)
+    {
+      _invalidate (aParticipantID);
+    }
+
+    @Override
+    public void onSMPServiceGroupDeleted (@NonNull final IParticipantIdentifier aParticipantID,
+                                          final boolean bDeleteInSML)
+    {
+      _invalidate (aParticipantID);
+    }
+
+    @Override
+    public void onSMPRedirectCreated (@NonNull final ISMPRedirect aRedirect)
+    {
+      _invalidate (aRedirect.getServiceGroupParticipantIdentifier ());
+    }
+
+    @Override
+    public void onSMPRedirectUpdated (@NonNull final ISMPRedirect aRedirect)
+    {
+      _invalidate (aRedirect.getServiceGroupParticipantIdentifier ());
+    }
+
+    @Override
+    public void onSMPRedirectDeleted (@NonNull final ISMPRedirect aRedirect)
+    {
+      _invalidate (aRedirect.getServiceGroupParticipantIdentifier ());
+    }
+
+    @Override
+    public void onSMPServiceInformationCreated (@NonNull final ISMPServiceInformation aServiceInformation)
+    {
+      _invalidate (aServiceInformation.getServiceGroupParticipantIdentifier ());
+    }
+
+    @Override
+    public void onSMPServiceInformationUpdated (@NonNull final ISMPServiceInformation aServiceInformation)
+    {
+      _invalidate (aServiceInformation.getServiceGroupParticipantIdentifier ());
+    }
+
+    @Override
+    public void onSMPServiceInformationDeleted (@NonNull final ISMPServiceInformation aServiceInformation)
+    {
+      _invalidate (aServiceInformation.getServiceGroupParticipantIdentifier ());
+    }
+
+    @Override
+    public void onKeyStoreReloaded ()
+    {
+      // Previously signed responses must not be served anymore
+      clearIfInstantiated ();
+    }
+  }
+
+  /**
+   * A single cached response.
+   *
+   * @author Philip Helger
+   */
+  private static final class CachedResponse
+  {
+    private final byte [] m_aBytes;
+    private final long m_nExpirationMillis;
+
+    CachedResponse (final byte @NonNull [] aBytes, final long nExpirationMillis)
+    {
+      m_aBytes = aBytes;
+      m_nExpirationMillis = nExpirationMillis;
+    }
+
+    boolean isExpired (final long nNowMillis)
+    {
+      return nNowMillis >= m_nExpirationMillis;
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPServiceMetadataResponseCache.class);
+  private static final InvalidationCallback INVALIDATION_CALLBACK = new InvalidationCallback ();
+
+  private final Duration m_aTTL;
+  private final int m_nMaxSize;
+  // Participant bucket (case-insensitive) to cache key (case-sensitive) to response
+  private final ICommonsMap <String, ICommonsMap <String, CachedResponse>> m_aMap = new CommonsHashMap <> ();
+  private int m_nSize = 0;
+  // Incremented on every invalidation, to avoid that stale responses created concurrently to a
+  // modification are added to the cache
+  private long m_nGeneration = 0;
+  private final AtomicLong m_aHits = new AtomicLong ();
+  private final AtomicLong m_aMisses = new AtomicLong ();
+  private final AtomicLong m_aInvalidations = new AtomicLong ();
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated (forRemoval = false)
+  @UsedViaReflection
+  public SMPServiceMetadataResponseCache ()
+  {
+    m_aTTL = SMPServerConfiguration.getRestServiceMetadataCacheTTL ();
+    m_nMaxSize = Math.max (1, SMPServerConfiguration.getRestServiceMetadataCacheMaxSize ());
+  }
+
+  @NonNull
+  public static SMPServiceMetadataResponseCache getInstance ()
+  {
+    return getGlobalSingleton (SMPServiceMetadataResponseCache.class);
+  }
+
+  /**
+   * @return <code>true</code> if the cache is enabled in the configuration, <code>false</code> if
+   *         not.
+   * @see SMPServerConfiguration#isRestServiceMetadataCacheEnabled()
+   */
+  public static boolean isEnabled ()
+  {
+    return SMPServerConfiguration.isRestServiceMetadataCacheEnabled ();
+  }
+
+  /**
+   * @return The callback to be registered on the service group, redirect and service information
+   *         managers as well as on the {@link SMPKeyManager} so that the cache stays consistent.
+   *         Never <code>null</code>. The callback does nothing if the cache was never instantiated.
+   */
+  @NonNull
+  public static InvalidationCallback getInvalidationCallback ()
+  {
+    return INVALIDATION_CALLBACK;
+  }
+
+  /**
+   * Remove all entries from the cache, if it was instantiated. This must be called whenever the
+   * signing key changes.
+   */
+  public static void clearIfInstantiated ()
+  {
+    final SMPServiceMetadataResponseCache aCache = getGlobalSingletonIfInstantiated (SMPServiceMetadataResponseCache.class);
+    if (aCache != null)
+      aCache.clear ();
+  }
+
+  /**
+   * Remove all cached responses of the provided participant, if the cache was instantiated. This is
+   * meant for changes performed by other nodes.
+   *
+   * @param sURIEncodedParticipantID
+   *        The URI encoded participant identifier. May not be <code>null</code>.
+   */
+  public static void invalidateParticipantIfInstantiated (@NonNull final String sURIEncodedParticipantID)
+  {
+    final SMPServiceMetadataResponseCache aCache = getGlobalSingletonIfInstantiated (SMPServiceMetadataResponseCache.class);
+    if (aCache != null)
+      aCache.invalidateParticipant (sURIEncodedParticipantID);
+  }
+
+  @NonNull
+  private static String _getBucketKey (@NonNull final String sURIEncodedParticipantID)
+  {
+    // Case insensitive, so that invalidation also works for case insensitive identifier schemes
+    return sURIEncodedParticipantID.toLowerCase (Locale.ROOT);
+  }
+
+  @NonNull
+  private static String _getBucketKey (@NonNull final IParticipantIdentifier aParticipantID)
+  {
+    return _getBucketKey (aParticipantID.getURIEncoded ());
+  }
+
+  @NonNull
+  private static String _getEntryKey (@NonNull final ESMPRESTType eRESTType,
+                                      @NonNull final IParticipantIdentifier aParticipantID,
+                                      @NonNull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    return eRESTType.getID () + ' ' + aParticipantID.getURIEncoded () + ' ' + aDocTypeID.getURIEncoded ();
+  }
+
+  /**
+   * @return The current generation, which must be passed to
+   *         {@link #putResponse(long, ESMPRESTType, IParticipantIdentifier, IDocumentTypeIdentifier, byte[])}
+   *         . It must be determined before the response is created.
+   */
+  public long getCurrentGeneration ()
+  {
+    return m_aRWLock.readLockedLong ( () -> m_nGeneration);
+  }
+
+  /**
+   * Get a cached response.
+   *
+   * @param eRESTType
+   *        The REST type in use. May not be <code>null</code>.
+   * @param aParticipantID
+   *        The participant identifier. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        The document type identifier. May not be <code>null</code>.
+   * @return <code>null</code> if no such response is cached or if it is expired. The returned
+   *         array must not be modified.
+   */
+  public byte @Nullable [] getResponse (@NonNull final ESMPRESTType eRESTType,
+                                        @NonNull final IParticipantIdentifier aParticipantID,
+                                        @NonNull final IDocumentTypeIdentifier aDocTypeID)
+  {
+    ValueEnforcer.notNull (eRESTType, "RESTType");
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+    ValueEnforcer.notNull (aDocTypeID, "DocTypeID");
+
+    final String sBucketKey = _getBucketKey (aParticipantID);
+    final String sEntryKey = _getEntryKey (eRESTType, aParticipantID, aDocTypeID);
+    final CachedResponse aResponse = m_aRWLock.readLockedGet ( () -> {
+      final ICommonsMap <String, CachedResponse> aBucket = m_aMap.get (sBucketKey);
+      return aBucket == null ? null : aBucket.get (sEntryKey);
+    });
+    if (aResponse == null || aResponse.isExpired (System.currentTimeMillis ()))
+    {
+      m_aMisses.incrementAndGet ();
+      return null;
+    }
+    m_aHits.incrementAndGet ();
+    return aResponse.m_aBytes;
+  }
+
+  private void _removeExpiredEntries (final long nNowMillis)
+  {
+    // Must be called in the write lock
+    m_aMap.entrySet ().removeIf (aBucketEntry -> {
+      final ICommonsMap <String, CachedResponse> aBucket = aBucketEntry.getValue ();
+      final int nOldSize = aBucket.size ();
+      aBucket.entrySet ().removeIf (aEntry -> aEntry.getValue ().isExpired (nNowMillis));
+      m_nSize -= nOldSize - aBucket.size ();
+      return aBucket.isEmpty ();
+    });
+  }
+
+  /**
+   * Put a signed response into the cache. If the cache was invalidated since the passed generation
+   * was retrieved, the response is not cached, because it might be stale.
+   *
+   * @param nGeneration
+   *        The generation as determined by {@link #getCurrentGeneration()} before the response was
+   *        created.
+   * @param eRESTType
+   *        The REST type in use. May not be <code>null</code>.
+   * @param aParticipantID
+   *        The participant identifier. May not be <code>null</code>.
+   * @param aDocTypeID
+   *        The document type identifier. May not be <code>null</code>.
+   * @param aBytes
+   *        The serialized signed response. May not be <code>null</code>. The array must not be
+   *        modified after it was put into the cache.
+   */
+  public void putResponse (final long nGeneration,
+                           @NonNull final ESMPRESTType eRESTType,
+                           @NonNull final IParticipantIdentifier aParticipantID,
+                           @NonNull final IDocumentTypeIdentifier aDocTypeID,
+                           final byte @NonNull [] aBytes)
+  {
+    ValueEnforcer.notNull (eRESTType, "RESTType");
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+    ValueEnforcer.notNull (aDocTypeID, "DocTypeID");
+    ValueEnforcer.notNull (aBytes, "Bytes");
+
+    final String sBucketKey = _getBucketKey (aParticipantID);
+    final String sEntryKey = _getEntryKey (eRESTType, aParticipantID, aDocTypeID);
+    final long nNowMillis = System.currentTimeMillis ();
+    final CachedResponse aResponse = new CachedResponse (aBytes, nNowMillis + m_aTTL.toMillis ());
+
+    m_aRWLock.writeLocked ( () -> {
+      if (nGeneration != m_nGeneration)
+      {
+        // Modified in the meantime
+        return;
+      }
+
+      if (m_nSize >= m_nMaxSize)
+      {
+        _removeExpiredEntries (nNowMillis);
+        if (m_nSize >= m_nMaxSize)
+        {
+          // Still full - keep the existing entries
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("ServiceMetadata response cache is full (" + m_nSize + " entries)");
+          return;
+        }
+      }
+
+      if (m_aMap.computeIfAbsent (sBucketKey, k -> new CommonsHashMap <> ()).put (sEntryKey, aResponse) == null)
+        m_nSize++;
+    });
+  }
+
+  /**
+   * Remove all cached responses of the provided participant.
+   *
+   * @param aParticipantID
+   *        The participant identifier. May not be <code>null</code>.
+   */
+  public void invalidateParticipant (@NonNull final IParticipantIdentifier aParticipantID)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+
+    invalidateParticipant (aParticipantID.getURIEncoded ());
+  }
+
+  /**
+   * Remove all cached responses of the provided participant.
+   *
+   * @param sURIEncodedParticipantID
+   *        The URI encoded participant identifier as in
+   *        {@link IParticipantIdentifier#getURIEncoded()}. May not be <code>null</code>.
+   */
+  public void invalidateParticipant (@NonNull final String sURIEncodedParticipantID)
+  {
+    ValueEnforcer.notNull (sURIEncodedParticipantID, "URIEncodedParticipantID");
+
+    final String sBucketKey = _getBucketKey (sURIEncodedParticipantID);
+    m_aRWLock.writeLocked ( () -> {
+      m_nGeneration++;
+      final ICommonsMap <String, CachedResponse> aBucket = m_aMap.remove (sBucketKey);
+      if (aBucket != null)
+        m_nSize -= aBucket.size ();
+    });
+    m_aInvalidations.incrementAndGet ();
+  }
+
+  /**
+   * Remove all cached responses.
+   */
+  public void clear ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_nGeneration++;
+      m_aMap.clear ();
+      m_nSize = 0;
+    });
+    m_aInvalidations.incrementAndGet ();
+    LOGGER.info ("Cleared the ServiceMetadata response cache");
+  }
+
+  /**
+   * @return The number of cached responses, including the expired ones. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aRWLock.readLockedInt ( () -> m_nSize);
+  }
+
+  /**
+   * @return The statistics of this cache as a map from name to value. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsMap <String, Long> getStatistics ()
+  {
+    final ICommonsMap <String, Long> ret = new CommonsHashMap <> ();
+    ret.put ("size", Long.valueOf (getSize ()));
+    ret.put ("hits", Long.valueOf (m_aHits.get ()));
+    ret.put ("misses", Long.valueOf (m_aMisses.get ()));
+    ret.put ("invalidations", Long.valueOf (m_aInvalidations.get ()));
+    return ret;
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import com.helger.base.callback.ICallback;
+
+/**
+ * Interface for a callback that is invoked when the key store of the {@link SMPKeyManager} was
+ * reloaded.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@FunctionalInterface
+public interface ISMPKeyStoreReloadCallback extends ICallback
+{
+  /**
+   * Invoked after the key store was reloaded, independent of whether reloading was successful or
+   * not.
+   */
+  void onKeyStoreReloaded ();
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyStore;
+import java.security.NoSuchAlgorithmException;
+
+import javax.xml.crypto.MarshalException;
+import javax.xml.crypto.dsig.XMLSignatureException;
+
+import org.jspecify.annotations.NonNull;
+import org.w3c.dom.Element;
+
+import com.helger.phoss.smp.ESMPRESTType;
+
+/**
+ * Abstraction for creating an enveloped XMLDSig signature for a single REST type and a single
+ * signing key. Instances are created by {@link SMPKeyManager} every time the key store is
+ * (re-)loaded, so implementations may precompute everything that only depends on these two
+ * parameters. Implementations must be thread-safe.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+public interface ISMPXMLSigner
+{
+  /**
+   * Sign the provided element using XMLDSig. The signature is appended as the last child of the
+   * passed element.
+   *
+   * @param aElementToSign
+   *        The XML element to sign. May not be <code>null</code>.
+   * @throws NoSuchAlgorithmException
+   *         An algorithm is not supported by the underlying platform.
+   * @throws InvalidAlgorithmParameterException
+   *         Parameters for certain algorithms are invalid.
+   * @throws MarshalException
+   *         Marshalling the signature failed
+   * @throws XMLSignatureException
+   *         Some XMLDSig specific stuff failed
+   */
+  void signXML (@NonNull Element aElementToSign) throws NoSuchAlgorithmException,
+                                                 InvalidAlgorithmParameterException,
+                                                 MarshalException,
+                                                 XMLSignatureException;
+
+  /**
+   * Factory interface for {@link ISMPXMLSigner} objects.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  interface IFactory
+  {
+    /**
+     * Create a new signer.
+     *
+     * @param eRESTType
+     *        The REST type to sign for. May not be <code>null</code>.
+     * @param aKeyEntry
+     *        The key entry to sign with. May not be <code>null</code>.
+     * @return The new signer and never <code>null</code>.
+     */
+    @NonNull
+    ISMPXMLSigner create (@NonNull ESMPRESTType eRESTType, KeyStore.@NonNull PrivateKeyEntry aKeyEntry);
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.string.StringHelper;
+import com.helger.security.certificate.CertificateDecodeHelper;
+
+/**
+ * A global cache for the certificate strings of endpoints. Usually there are only very few distinct
+ * certificates for a large number of endpoints. This class ensures that each distinct certificate
+ * string is held only once in memory and that each certificate is parsed at most once.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@ThreadSafe
+public final class SMPCertificateCache
+{
+  /**
+   * The maximum number of distinct certificates to be cached. If more certificates are present, the
+   * cache is cleared and rebuilt.
+   */
+  public static final int MAX_SIZE = 10_000;
+
+  private static final class Entry
+  {
+    private final String m_sCertificate;
+    // Lazily parsed
+    private volatile X509Certificate m_aX509Cert;
+    private volatile boolean m_bParsed;
+
+    Entry (@NonNull final String sCertificate)
+    {
+      m_sCertificate = sCertificate;
+    }
+
+    @Nullable
+    X509Certificate getX509Certificate ()
+    {
+      if (!m_bParsed)
+      {
+        m_aX509Cert = new CertificateDecodeHelper ().source (m_sCertificate).pemEncoded (true).getDecodedOrNull ();
+        m_bParsed = true;
+      }
+      return m_aX509Cert;
+    }
+  }
+
+  private static final ConcurrentMap <String, Entry> MAP = new ConcurrentHashMap <> ();
+
+  private SMPCertificateCache ()
+  {}
+
+  @NonNull
+  private static Entry _getEntry (@NonNull final String sCertificate)
+  {
+    Entry ret = MAP.get (sCertificate);
+    if (ret == null)
+    {
+      if (MAP.size () >= MAX_SIZE)
+        MAP.clear ();
+      ret = MAP.computeIfAbsent (sCertificate, Entry::new);
+    }
+    return ret;
+  }
+
+  /**
+   * Get the canonical instance of the provided certificate string. All equal certificate strings
+   * share the same instance afterwards.
+   *
+   * @param sCertificate
+   *        The certificate string. May be <code>null</code>.
+   * @return <code>null</code> if the parameter is <code>null</code>, the canonical instance
+   *         otherwise. Empty strings are returned unchanged.
+   */
+  @Nullable
+  public static String getInterned (@Nullable final String sCertificate)
+  {
+    if (StringHelper.isEmpty (sCertificate))
+      return sCertificate;
+    return _getEntry (sCertificate).m_sCertificate;
+  }
+
+  /**
+   * Get the parsed X.509 certificate of the provided certificate string. Each distinct certificate
+   * string is only parsed once.
+   *
+   * @param sCertificate
+   *        The PEM encoded certificate string, with or without the PEM header. May be
+   *        <code>null</code>.
+   * @return <code>null</code> if the parameter is empty or if the certificate could not be parsed.
+   */
+  @Nullable
+  public static X509Certificate getX509Certificate (@Nullable final String sCertificate)
+  {
+    if (StringHelper.isEmpty (sCertificate))
+      return null;
+    return _getEntry (sCertificate).getX509Certificate ();
+  }
+
+  /**
+   * Get the content hash of the provided certificate string, as used for content addressed
+   * certificate storage.
+   *
+   * @param sCertificate
+   *        The certificate string. May neither be <code>null</code> nor empty.
+   * @return The lower case hex encoded SHA-256 hash of the UTF-8 bytes of the certificate string.
+   *         Always 64 characters long.
+   */
+  @NonNull
+  @Nonempty
+  public static String getCertificateHash (@NonNull @Nonempty final String sCertificate)
+  {
+    ValueEnforcer.notEmpty (sCertificate, "Certificate");
+
+    final MessageDigest aMD;
+    try
+    {
+      aMD = MessageDigest.getInstance ("SHA-256");
+    }
+    catch (final NoSuchAlgorithmException ex)
+    {
+      throw new IllegalStateException ("SHA-256 is not supported", ex);
+    }
+    return HexFormat.of ().formatHex (aMD.digest (sCertificate.getBytes (StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * @return The number of currently cached distinct certificates. Always &ge; 0.
+   */
+  @Nonnegative
+  public static int getSize ()
+  {
+    return MAP.size ();
+  }
+
+  /**
+   * Remove all cached certificates.
+   */
+  public static void clear ()
+  {
+    MAP.clear ();
+  }
+}
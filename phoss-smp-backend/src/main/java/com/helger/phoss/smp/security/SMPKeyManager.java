@@ -16,6 +16,7 @@ import java.security.KeyStore;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
+import java.util.EnumMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.net.ssl.KeyManagerFactory;
@@ -23,24 +24,8 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.xml.crypto.MarshalException;
-import javax.xml.crypto.dsig.CanonicalizationMethod;
-import javax.xml.crypto.dsig.DigestMethod;
-import javax.xml.crypto.dsig.Reference;
-import javax.xml.crypto.dsig.SignatureMethod;
-import javax.xml.crypto.dsig.SignedInfo;
-import javax.xml.crypto.dsig.Transform;
-import javax.xml.crypto.dsig.XMLSignature;
 import javax.xml.crypto.dsig.XMLSignatureException;
-import javax.xml.crypto.dsig.XMLSignatureFactory;
-import javax.xml.crypto.dsig.dom.DOMSignContext;
-import javax.xml.crypto.dsig.keyinfo.KeyInfo;
-import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
-import javax.xml.crypto.dsig.keyinfo.X509Data;
-import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
-import javax.xml.crypto.dsig.spec.SignatureMethodParameterSpec;
-import javax.xml.crypto.dsig.spec.TransformParameterSpec;
 
-import org.apache.xml.security.c14n.Canonicalizer;
 import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -48,12 +33,13 @@ import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
 
 import com.helger.annotation.style.UsedViaReflection;
+import com.helger.base.callback.CallbackList;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.exception.InitializationException;
-import com.helger.collection.commons.CommonsArrayList;
 import com.helger.http.security.TrustManagerTrustAll;
 import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.smlhook.RegistrationHookWriteToSML;
 import com.helger.scope.singleton.AbstractGlobalSingleton;
 import com.helger.security.keystore.EKeyStoreLoadError;
 import com.helger.security.keystore.KeyStoreHelper;
@@ -73,8 +59,13 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
   private static EKeyStoreLoadError s_eInitError;
   private static String s_sInitError;
 
+  private static volatile ISMPXMLSigner.IFactory s_aXMLSignerFactory = SMPXMLSigner::new;
+  private static final CallbackList <ISMPKeyStoreReloadCallback> RELOAD_CALLBACKS = new CallbackList <> ();
+
   private KeyStore m_aKeyStore;
   private KeyStore.PrivateKeyEntry m_aKeyEntry;
+  // Precomputed per REST type; rebuilt when the key store is (re-)loaded
+  private final EnumMap <ESMPRESTType, ISMPXMLSigner> m_aSigners = new EnumMap <> (ESMPRESTType.class);
 
   private static void _setKeyStoreValid (final boolean bValid)
   {
@@ -87,6 +78,33 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     s_sInitError = sInitError;
   }
 
+  /**
+   * Set the factory for the objects used to create the XMLDSig signatures. This only takes effect
+   * for keys loaded afterwards, so it should be called before the first usage of this class or be
+   * followed by a call to {@link #reloadFromConfiguration()}.
+   *
+   * @param aFactory
+   *        The factory to use. May not be <code>null</code>. The default is
+   *        {@link SMPXMLSigner#SMPXMLSigner(ESMPRESTType, java.security.KeyStore.PrivateKeyEntry)}.
+   * @since 8.2.1
+   */
+  public static void setXMLSignerFactory (final ISMPXMLSigner.@NonNull IFactory aFactory)
+  {
+    ValueEnforcer.notNull (aFactory, "Factory");
+    s_aXMLSignerFactory = aFactory;
+  }
+
+  /**
+   * @return The callbacks that are invoked after each call to {@link #reloadFromConfiguration()}.
+   *         Never <code>null</code>.
+   * @since 8.2.1
+   */
+  @NonNull
+  public static CallbackList <ISMPKeyStoreReloadCallback> keyStoreReloadCallbacks ()
+  {
+    return RELOAD_CALLBACKS;
+  }
+
   private void _loadKeyStore ()
   {
     // Reset every time
@@ -94,6 +112,7 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     _loadError (null, null);
     m_aKeyStore = null;
     m_aKeyEntry = null;
+    m_aRWLock.writeLocked (m_aSigners::clear);
 
     // Load the key store and get the signing key
     final LoadedKeyStore aLoadedKeyStore = KeyStoreHelper.loadKeyStore (SMPServerConfiguration.getKeyStoreType (),
@@ -117,6 +136,13 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     }
 
     m_aKeyEntry = aLoadedKey.getKeyEntry ();
+
+    // Precompute the signing templates
+    final ISMPXMLSigner.IFactory aSignerFactory = s_aXMLSignerFactory;
+    m_aRWLock.writeLocked ( () -> {
+      for (final ESMPRESTType e : ESMPRESTType.values ())
+        m_aSigners.put (e, aSignerFactory.create (e, m_aKeyEntry));
+    });
     LOGGER.info ("SMPKeyManager successfully initialized with keystore '" +
                  SMPServerConfiguration.getKeyStorePath () +
                  "' and alias '" +
@@ -226,6 +252,7 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
    *         Marshalling the signature failed
    * @throws XMLSignatureException
    *         Some XMLDSig specific stuff failed
+   * @see ISMPXMLSigner
    */
   public void signXML (@NonNull final Element aElementToSign, @NonNull final ESMPRESTType eRESTType)
                                                                                                      throws NoSuchAlgorithmException,
@@ -236,72 +263,10 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     ValueEnforcer.notNull (aElementToSign, "ElementToSign");
     ValueEnforcer.notNull (eRESTType, "RESTType");
 
-    // Create a DOM XMLSignatureFactory that will be used to
-    // generate the enveloped signature.
-    final XMLSignatureFactory aSignatureFactory = XMLSignatureFactory.getInstance ("DOM");
-
-    // Create a Reference to the enveloped document (in this case,
-    // you are signing the whole document, so a URI of "" signifies
-    // that, and also specify the SHA1 digest algorithm and
-    // the ENVELOPED Transform)
-    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
-    final String sDigestAlgo = DigestMethod.SHA256;
-    final Reference aReference = aSignatureFactory.newReference ("",
-                                                                 aSignatureFactory.newDigestMethod (sDigestAlgo, null),
-                                                                 new CommonsArrayList <> (aSignatureFactory.newTransform (Transform.ENVELOPED,
-                                                                                                                          (TransformParameterSpec) null)),
-                                                                 (String) null,
-                                                                 (String) null);
-
-    // Create the SignedInfo.
-    // * Before Peppol SMP Spec 1.2.0 this was EXCLUSIVE, since 1.2.0 it is
-    // INCLUSIVE as of May 1st, 2022
-    // * OASIS BDXR always used INCLUSIVE
-    // * CIPA and this server always used INCLUSIVE, but this was changed for
-    // 5.0.1 to EXCLUSIVE
-    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
-    final String sC18N;
-    final String sSignatureMethod = switch (eRESTType)
-    {
-      case PEPPOL ->
-      {
-        sC18N = CanonicalizationMethod.INCLUSIVE;
-        yield SignatureMethod.RSA_SHA256;
-      }
-      case OASIS_BDXR_V1 ->
-      {
-        sC18N = CanonicalizationMethod.INCLUSIVE;
-        yield SignatureMethod.RSA_SHA256;
-      }
-      case OASIS_BDXR_V2 ->
-      {
-        sC18N = Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS;
-        yield SignatureMethod.RSA_SHA256;
-      }
-      default -> throw new IllegalStateException ("Unsupported REST type");
-    };
-    final SignedInfo aSingedInfo = aSignatureFactory.newSignedInfo (aSignatureFactory.newCanonicalizationMethod (sC18N,
-                                                                                                                 (C14NMethodParameterSpec) null),
-                                                                    aSignatureFactory.newSignatureMethod (sSignatureMethod,
-                                                                                                          (SignatureMethodParameterSpec) null),
-                                                                    new CommonsArrayList <> (aReference));
-
-    // Create the KeyInfo containing the X509Data.
-    final KeyInfoFactory aKeyInfoFactory = aSignatureFactory.getKeyInfoFactory ();
-    final X509Certificate aCert = (X509Certificate) m_aKeyEntry.getCertificate ();
-    final X509Data aX509Data = aKeyInfoFactory.newX509Data (new CommonsArrayList <> (aCert.getSubjectX500Principal ()
-                                                                                          .getName (), aCert));
-    final KeyInfo aKeyInfo = aKeyInfoFactory.newKeyInfo (new CommonsArrayList <> (aX509Data));
-
-    // Create a DOMSignContext and specify the RSA PrivateKey and
-    // location of the resulting XMLSignature's parent element.
-    final DOMSignContext aSignContext = new DOMSignContext (m_aKeyEntry.getPrivateKey (), aElementToSign);
-
-    // Create the XMLSignature, but don't sign it yet.
-    final XMLSignature aSignature = aSignatureFactory.newXMLSignature (aSingedInfo, aKeyInfo);
-
-    // Marshal, generate, and sign the enveloped signature.
-    aSignature.sign (aSignContext);
+    final ISMPXMLSigner aSigner = m_aRWLock.readLockedGet ( () -> m_aSigners.get (eRESTType));
+    if (aSigner == null)
+      throw new IllegalStateException ("No signing key is available");
+    aSigner.signXML (aElementToSign);
   }
 
   /**
@@ -354,5 +319,12 @@ public final class SMPKeyManager extends AbstractGlobalSingleton
     {
       LOGGER.error ("Failed to reload from configuration", ex);
     }
+    finally
+    {
+      // E.g. previously signed responses must not be served anymore
+      RELOAD_CALLBACKS.forEach (ISMPKeyStoreReloadCallback::onKeyStoreReloaded);
+      // The SML caller uses the old key store for TLS
+      RegistrationHookWriteToSML.clearCachedSMLCaller ();
+    }
   }
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyStore;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.xml.crypto.MarshalException;
+import javax.xml.crypto.dsig.CanonicalizationMethod;
+import javax.xml.crypto.dsig.DigestMethod;
+import javax.xml.crypto.dsig.Reference;
+import javax.xml.crypto.dsig.SignatureMethod;
+import javax.xml.crypto.dsig.SignedInfo;
+import javax.xml.crypto.dsig.Transform;
+import javax.xml.crypto.dsig.XMLSignatureException;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMSignContext;
+import javax.xml.crypto.dsig.keyinfo.KeyInfo;
+import javax.xml.crypto.dsig.keyinfo.KeyInfoFactory;
+import javax.xml.crypto.dsig.keyinfo.X509Data;
+import javax.xml.crypto.dsig.spec.C14NMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.SignatureMethodParameterSpec;
+import javax.xml.crypto.dsig.spec.TransformParameterSpec;
+
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.jspecify.annotations.NonNull;
+import org.w3c.dom.Element;
+
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.tostring.ToStringGenerator;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.phoss.smp.ESMPRESTType;
+
+/**
+ * The default implementation of {@link ISMPXMLSigner}. The algorithms are determined once per REST
+ * type. Because the JSR 105 factory objects are not thread-safe, each signing operation borrows a
+ * signing context from a bounded pool owned by this signer. A signing context contains the
+ * {@link XMLSignatureFactory}, the digest, transform, canonicalization and signature method objects
+ * as well as the {@link KeyInfo}. The signature method object internally keeps its
+ * {@link java.security.Signature} instance, so that provider lookups happen only once per signing
+ * context. Because the pool belongs to the signer, the contexts and the private key are released
+ * together with the signer when the key store is reloaded. The {@link Reference} and
+ * {@link SignedInfo} objects keep per-signature state and are therefore created for each signature.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@ThreadSafe
+public final class SMPXMLSigner implements ISMPXMLSigner
+{
+  /**
+   * A reusable signing context. Only used by one thread at a time.
+   *
+   * @author Philip Helger
+   */
+  private static final class SigningContext
+  {
+    private final XMLSignatureFactory m_aSignatureFactory;
+    private final DigestMethod m_aDigestMethod;
+    private final List <Transform> m_aTransforms;
+    private final CanonicalizationMethod m_aC14NMethod;
+    private final SignatureMethod m_aSignatureMethod;
+    private final KeyInfo m_aKeyInfo;
+
+    SigningContext (@NonNull final SMPXMLSigner aSigner) throws NoSuchAlgorithmException,
+                                                         InvalidAlgorithmParameterException
+    {
+      // Create a DOM XMLSignatureFactory that will be used to
+      // generate the enveloped signature.
+      m_aSignatureFactory = XMLSignatureFactory.getInstance ("DOM");
+      m_aDigestMethod = m_aSignatureFactory.newDigestMethod (aSigner.m_sDigestAlgo, null);
+      m_aTransforms = new CommonsArrayList <> (m_aSignatureFactory.newTransform (Transform.ENVELOPED,
+                                                                                 (TransformParameterSpec) null));
+      m_aC14NMethod = m_aSignatureFactory.newCanonicalizationMethod (aSigner.m_sC14NAlgo,
+                                                                     (C14NMethodParameterSpec) null);
+      m_aSignatureMethod = m_aSignatureFactory.newSignatureMethod (aSigner.m_sSignatureAlgo,
+                                                                   (SignatureMethodParameterSpec) null);
+
+      // Create the KeyInfo containing the X509Data.
+      final KeyInfoFactory aKeyInfoFactory = m_aSignatureFactory.getKeyInfoFactory ();
+      final X509Certificate aCert = (X509Certificate) aSigner.m_aKeyEntry.getCertificate ();
+      final X509Data aX509Data = aKeyInfoFactory.newX509Data (new CommonsArrayList <> (aCert.getSubjectX500Principal ()
+                                                                                            .getName (), aCert));
+      m_aKeyInfo = aKeyInfoFactory.newKeyInfo (new CommonsArrayList <> (aX509Data));
+    }
+  }
+
+  /** The maximum number of unused signing contexts that are kept per signer */
+  public static final int MAX_POOLED_CONTEXTS = 16;
+
+  private final ESMPRESTType m_eRESTType;
+  private final KeyStore.PrivateKeyEntry m_aKeyEntry;
+  private final String m_sDigestAlgo;
+  private final String m_sC14NAlgo;
+  private final String m_sSignatureAlgo;
+  // Signing contexts that are currently not in use
+  private final BlockingQueue <SigningContext> m_aContextPool = new ArrayBlockingQueue <> (MAX_POOLED_CONTEXTS);
+
+  /**
+   * Constructor
+   *
+   * @param eRESTType
+   *        The REST type to sign for. The differences are the hash algorithm as well as the
+   *        canonicalization algorithms. May not be <code>null</code>.
+   * @param aKeyEntry
+   *        The key entry to sign with. May not be <code>null</code>.
+   */
+  public SMPXMLSigner (@NonNull final ESMPRESTType eRESTType, final KeyStore.@NonNull PrivateKeyEntry aKeyEntry)
+  {
+    ValueEnforcer.notNull (eRESTType, "RESTType");
+    ValueEnforcer.notNull (aKeyEntry, "KeyEntry");
+    m_eRESTType = eRESTType;
+    m_aKeyEntry = aKeyEntry;
+
+    // Create a Reference to the enveloped document (in this case,
+    // you are signing the whole document, so a URI of "" signifies
+    // that, and also specify the SHA1 digest algorithm and
+    // the ENVELOPED Transform)
+    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
+    m_sDigestAlgo = DigestMethod.SHA256;
+
+    // Create the SignedInfo.
+    // * Before Peppol SMP Spec 1.2.0 this was EXCLUSIVE, since 1.2.0 it is
+    // INCLUSIVE as of May 1st, 2022
+    // * OASIS BDXR always used INCLUSIVE
+    // * CIPA and this server always used INCLUSIVE, but this was changed for
+    // 5.0.1 to EXCLUSIVE
+    // * Peppol SMP Spec 1.3.0 changed from SHA-1 to SHA-256
+    m_sC14NAlgo = switch (eRESTType)
+    {
+      case PEPPOL, OASIS_BDXR_V1 -> CanonicalizationMethod.INCLUSIVE;
+      case OASIS_BDXR_V2 -> Canonicalizer.ALGO_ID_C14N11_OMIT_COMMENTS;
+      default -> throw new IllegalStateException ("Unsupported REST type");
+    };
+    m_sSignatureAlgo = SignatureMethod.RSA_SHA256;
+  }
+
+  /**
+   * @return The REST type this signer was created for. Never <code>null</code>.
+   */
+  @NonNull
+  public ESMPRESTType getRESTType ()
+  {
+    return m_eRESTType;
+  }
+
+  @NonNull
+  private SigningContext _borrowContext () throws NoSuchAlgorithmException, InvalidAlgorithmParameterException
+  {
+    final SigningContext ret = m_aContextPool.poll ();
+    return ret != null ? ret : new SigningContext (this);
+  }
+
+  private void _returnContext (@NonNull final SigningContext aCtx)
+  {
+    // If the pool is full, the context is simply discarded
+    m_aContextPool.offer (aCtx);
+  }
+
+  /**
+   * @return The number of signing contexts that are currently available for reuse. Always &ge; 0
+   *         and &le; {@link #MAX_POOLED_CONTEXTS}.
+   */
+  public int getPooledContextCount ()
+  {
+    return m_aContextPool.size ();
+  }
+
+  public void signXML (@NonNull final Element aElementToSign) throws NoSuchAlgorithmException,
+                                                              InvalidAlgorithmParameterException,
+                                                              MarshalException,
+                                                              XMLSignatureException
+  {
+    ValueEnforcer.notNull (aElementToSign, "ElementToSign");
+
+    final SigningContext aCtx = _borrowContext ();
+    final XMLSignatureFactory aSignatureFactory = aCtx.m_aSignatureFactory;
+
+    // Reference and SignedInfo keep the state of a single signature
+    final Reference aReference = aSignatureFactory.newReference ("",
+                                                                 aCtx.m_aDigestMethod,
+                                                                 aCtx.m_aTransforms,
+                                                                 (String) null,
+                                                                 (String) null);
+    final SignedInfo aSignedInfo = aSignatureFactory.newSignedInfo (aCtx.m_aC14NMethod,
+                                                                    aCtx.m_aSignatureMethod,
+                                                                    new CommonsArrayList <> (aReference));
+
+    // Create a DOMSignContext and specify the RSA PrivateKey and
+    // location of the resulting XMLSignature's parent element.
+    final DOMSignContext aSignContext = new DOMSignContext (m_aKeyEntry.getPrivateKey (), aElementToSign);
+
+    // Marshal, generate, and sign the enveloped signature.
+    aSignatureFactory.newXMLSignature (aSignedInfo, aCtx.m_aKeyInfo).sign (aSignContext);
+
+    // Only reuse the context if signing succeeded, because the internal Signature object might be
+    // in an undefined state otherwise
+    _returnContext (aCtx);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new ToStringGenerator (this).append ("RESTType", m_eRESTType)
+                                       .append ("DigestAlgo", m_sDigestAlgo)
+                                       .append ("C14NAlgo", m_sC14NAlgo)
+                                       .append ("SignatureAlgo", m_sSignatureAlgo)
+                                       .getToString ();
+  }
+}
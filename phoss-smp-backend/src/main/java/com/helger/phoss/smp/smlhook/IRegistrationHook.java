@@ -12,6 +12,9 @@ package com.helger.phoss.smp.smlhook;
 
 import org.jspecify.annotations.NonNull;
 
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.peppolid.IParticipantIdentifier;
 
 /**
@@ -61,4 +64,36 @@ public interface IRegistrationHook
    *         If something goes wrong.
    */
   void undoDeleteServiceGroup (@NonNull IParticipantIdentifier aPI) throws RegistrationHookException;
+
+  /**
+   * Create multiple participants in the SML. The default implementation calls
+   * {@link #createServiceGroup(IParticipantIdentifier)} for each participant. Failures of single
+   * participants don't stop the others, and each successfully created participant can be undone
+   * individually via {@link #undoCreateServiceGroup(IParticipantIdentifier)}.<br>
+   * Note: there is intentionally no list based counterpart for the deletion, because the SMP has no
+   * bulk deletion flow. Participants are only deleted one by one (REST API, UI and participant
+   * migration) and the import with overwrite only deletes locally.
+   *
+   * @param aPIs
+   *        The participants to be created. May not be <code>null</code>.
+   * @return The participants that could not be created, together with the reason, in the order of
+   *         the input. Never <code>null</code> but empty if all participants were created.
+   * @since 8.2.1
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  default ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> createServiceGroups (@NonNull final Iterable <? extends IParticipantIdentifier> aPIs)
+  {
+    final ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> ret = new CommonsLinkedHashMap <> ();
+    for (final IParticipantIdentifier aPI : aPIs)
+      try
+      {
+        createServiceGroup (aPI);
+      }
+      catch (final RegistrationHookException ex)
+      {
+        ret.put (aPI, ex);
+      }
+    return ret;
+  }
 }
@@ -10,11 +10,23 @@
  */
 package com.helger.phoss.smp.smlhook;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.concurrent.ExecutorServiceHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.peppol.sml.ISMLInfo;
 import com.helger.peppol.smlclient.ManageParticipantIdentifierServiceCaller;
 import com.helger.peppol.smlclient.participant.NotFoundFault;
@@ -37,21 +49,64 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (RegistrationHookWriteToSML.class);
 
+  /** The maximum number of participants per SML list call */
+  public static final int BATCH_SIZE = 100;
+  /** The maximum number of parallel SML list calls */
+  public static final int MAX_PARALLEL_BATCHES = 4;
+
   // SMP ID is static and cannot change
   private static final String SMP_ID = SMPServerConfiguration.getSMLSMPID ();
 
   public RegistrationHookWriteToSML ()
   {}
 
+  /**
+   * The SML caller together with the SML it was created for.
+   */
+  private static final class CachedCaller
+  {
+    private final String m_sKey;
+    private final ManageParticipantIdentifierServiceCaller m_aCaller;
+
+    CachedCaller (@NonNull final String sKey, @NonNull final ManageParticipantIdentifierServiceCaller aCaller)
+    {
+      m_sKey = sKey;
+      m_aCaller = aCaller;
+    }
+  }
+
+  private static final AtomicReference <CachedCaller> CACHED_CALLER = new AtomicReference <> ();
+
+  /**
+   * Clear the cached SML caller, so that the next call creates a new one. This must be called
+   * whenever the SMP key store changes, as the caller uses it for the TLS connection.
+   *
+   * @since 8.2.1
+   */
+  public static void clearCachedSMLCaller ()
+  {
+    CACHED_CALLER.set (null);
+  }
+
   @NonNull
-  private static ManageParticipantIdentifierServiceCaller _createSMLCaller ()
+  private static ManageParticipantIdentifierServiceCaller _getSMLCaller ()
   {
     // SML endpoint (incl. the service name)
     final ISMLInfo aSMLInfo = SMPMetaManager.getSettings ().getSMLInfo ();
     if (aSMLInfo == null)
       throw new IllegalStateException ("Failed to get SML manage participant endpoint URL");
 
-    return SmpSmlHelper.createSMLCallerPI (aSMLInfo);
+    // Reuse the caller as long as the SML is unchanged
+    final String sKey = aSMLInfo.getID () +
+                        ' ' +
+                        aSMLInfo.getManageParticipantIdentifierEndpointAddress ().toExternalForm ();
+    final CachedCaller aCached = CACHED_CALLER.get ();
+    if (aCached != null && aCached.m_sKey.equals (sKey))
+      return aCached.m_aCaller;
+
+    final ManageParticipantIdentifierServiceCaller ret = SmpSmlHelper.createSMLCallerPI (aSMLInfo);
+    CACHED_CALLER.set (new CachedCaller (sKey, ret));
+    return ret;
   }
 
   public void createServiceGroup (@NonNull final IParticipantIdentifier aBusinessIdentifier) throws RegistrationHookException
@@ -62,7 +117,7 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     try
     {
       // Explicit constructor call is needed here!
-      _createSMLCaller ().create (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
+      _getSMLCaller ().create (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
 
       LOGGER.info ("Succeeded in CREATE business " + sParticipantID + " in SML");
     }
@@ -90,7 +145,7 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     {
       // Undo create
       // Explicit constructor call is needed here!
-      _createSMLCaller ().delete (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
+      _getSMLCaller ().delete (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
       LOGGER.warn ("Succeeded in deleting again business " + sParticipantID + " from SML.");
     }
     catch (final Exception ex)
@@ -109,7 +164,7 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     {
       // Use the version with the SMP ID to be on the safe side
       // Explicit constructor call is needed here!
-      _createSMLCaller ().delete (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
+      _getSMLCaller ().delete (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
 
       LOGGER.info ("Succeeded in deleting business " + sParticipantID + " from SML");
     }
@@ -139,7 +194,7 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
     {
       // Undo delete
       // Explicit constructor call is needed here!
-      _createSMLCaller ().create (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
+      _getSMLCaller ().create (SMP_ID, new SimpleParticipantIdentifier (aBusinessIdentifier));
       LOGGER.warn ("Succeeded in creating again business " + sParticipantID + " in SML.");
     }
     catch (final Exception ex)
@@ -148,4 +203,134 @@ public class RegistrationHookWriteToSML implements IRegistrationHook
       throw new RegistrationHookException (sMsg, ex);
     }
   }
+
+  /**
+   * The SML call for a single batch. The call is all or nothing.
+   */
+  @FunctionalInterface
+  interface IBatchCall
+  {
+    void call (@NonNull ICommonsList <SimpleParticipantIdentifier> aBatch) throws Exception;
+  }
+
+  /**
+   * The SML call for a single participant.
+   */
+  @FunctionalInterface
+  interface ISingleCall
+  {
+    void call (@NonNull IParticipantIdentifier aPI) throws RegistrationHookException;
+  }
+
+  /**
+   * Perform an SML operation for many participants in parallel batches. If a batch fails, its
+   * participants are handled one by one to determine the failing ones. Only called from the list
+   * operations and from tests.
+   *
+   * @param sAction
+   *        The action name for logging. May not be <code>null</code>.
+   * @param aPIs
+   *        The participants to handle. May not be <code>null</code>.
+   * @param aBatchCall
+   *        The call for a batch of participants. May not be <code>null</code>.
+   * @param aSingleCall
+   *        The call for a single participant of a failed batch. May not be <code>null</code>.
+   * @return The failed participants in the order of the input. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  static ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> runBatched (@NonNull final String sAction,
+                                                                                            @NonNull final Iterable <? extends IParticipantIdentifier> aPIs,
+                                                                                            @NonNull final IBatchCall aBatchCall,
+                                                                                            @NonNull final ISingleCall aSingleCall)
+  {
+    // Split into batches - explicit constructor call is needed here!
+    final ICommonsList <ICommonsList <SimpleParticipantIdentifier>> aBatches = new CommonsArrayList <> ();
+    ICommonsList <SimpleParticipantIdentifier> aCurBatch = null;
+    final ICommonsList <IParticipantIdentifier> aAllPIs = new CommonsArrayList <> ();
+    for (final IParticipantIdentifier aPI : aPIs)
+    {
+      if (aCurBatch == null || aCurBatch.size () >= BATCH_SIZE)
+      {
+        aCurBatch = new CommonsArrayList <> (BATCH_SIZE);
+        aBatches.add (aCurBatch);
+      }
+      aCurBatch.add (new SimpleParticipantIdentifier (aPI));
+      aAllPIs.add (aPI);
+    }
+
+    final ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> ret = new CommonsLinkedHashMap <> ();
+    if (aBatches.isEmpty ())
+      return ret;
+
+    LOGGER.info ("Trying to " +
+                 sAction +
+                 " " +
+                 aAllPIs.size () +
+                 " businesses for " +
+                 SMP_ID +
+                 " in SML in " +
+                 aBatches.size () +
+                 " batches");
+
+    final Map <IParticipantIdentifier, RegistrationHookException> aFailures = new ConcurrentHashMap <> ();
+    final ExecutorService aExecutorSvc = Executors.newFixedThreadPool (Math.min (aBatches.size (),
+                                                                                 MAX_PARALLEL_BATCHES));
+    for (final ICommonsList <SimpleParticipantIdentifier> aBatch : aBatches)
+      aExecutorSvc.submit ( () -> {
+        try
+        {
+          aBatchCall.call (aBatch);
+          LOGGER.info ("Succeeded in " + sAction + " of " + aBatch.size () + " businesses in SML");
+        }
+        catch (final Exception ex)
+        {
+          // The list operations are all or nothing - find out which participants failed
+          LOGGER.warn ("Failed to " +
+                       sAction +
+                       " a batch of " +
+                       aBatch.size () +
+                       " businesses in SML - trying them one by one. Technical details: " +
+                       ex.getClass ().getName () +
+                       " - " +
+                       ex.getMessage ());
+          for (final SimpleParticipantIdentifier aPI : aBatch)
+            try
+            {
+              aSingleCall.call (aPI);
+            }
+            catch (final RegistrationHookException ex2)
+            {
+              aFailures.put (aPI, ex2);
+            }
+        }
+      });
+    ExecutorServiceHelper.shutdownAndWaitUntilAllTasksAreFinished (aExecutorSvc);
+
+    // Keep the input order and the input objects
+    if (!aFailures.isEmpty ())
+      for (final IParticipantIdentifier aPI : aAllPIs)
+      {
+        final RegistrationHookException aFailure = aFailures.get (new SimpleParticipantIdentifier (aPI));
+        if (aFailure != null)
+          ret.put (aPI, aFailure);
+      }
+    return ret;
+  }
+
+  /**
+   * {@inheritDoc}<br>
+   * This implementation uses the list based SML operation for batches of up to
+   * {@link #BATCH_SIZE} participants, with up to {@link #MAX_PARALLEL_BATCHES} parallel calls. If a
+   * batch fails, its participants are created one by one to determine the failing ones.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> createServiceGroups (@NonNull final Iterable <? extends IParticipantIdentifier> aPIs)
+  {
+    return runBatched ("CREATE",
+                       aPIs,
+                       aBatch -> _getSMLCaller ().createList (aBatch, SMP_ID),
+                       this::createServiceGroup);
+  }
 }
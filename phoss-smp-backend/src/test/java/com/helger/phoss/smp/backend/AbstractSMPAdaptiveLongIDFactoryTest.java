@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.backend;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link AbstractSMPAdaptiveLongIDFactory}.
+ *
+ * @author Philip Helger
+ */
+public final class AbstractSMPAdaptiveLongIDFactoryTest
+{
+  private static final class MockIDFactory extends AbstractSMPAdaptiveLongIDFactory
+  {
+    private long m_nCounter = 100;
+    private int m_nReservations = 0;
+
+    MockIDFactory (final int nMinReserveCount, final int nMaxReserveCount)
+    {
+      super (nMinReserveCount, nMaxReserveCount);
+    }
+
+    @Override
+    protected long readAndUpdateIDCounter (final int nReserveCount)
+    {
+      final long ret = m_nCounter;
+      m_nCounter += nReserveCount;
+      m_nReservations++;
+      return ret;
+    }
+  }
+
+  @Test
+  public void testGrowUnderLoad ()
+  {
+    final MockIDFactory aFactory = new MockIDFactory (10, 80);
+    assertEquals (10, aFactory.getCurrentReserveCount ());
+
+    final Set <Long> aIDs = new HashSet <> ();
+    for (int i = 0; i < 1_000; ++i)
+    {
+      final long nID = aFactory.getNewID ();
+      assertEquals (100 + i, nID);
+      assertTrue (aIDs.add (Long.valueOf (nID)));
+    }
+
+    // The blocks are consumed quickly, so the maximum is reached
+    assertEquals (80, aFactory.getCurrentReserveCount ());
+    // 10 + 20 + 40 + 80 * 12 = 1.030
+    assertEquals (15, aFactory.m_nReservations);
+  }
+
+  @Test
+  public void testReserveIDRange ()
+  {
+    final MockIDFactory aFactory = new MockIDFactory (10, 10);
+    assertEquals (100, aFactory.getNewID ());
+
+    // Taken from the current block
+    assertEquals (101, aFactory.reserveIDRange (5));
+    assertEquals (106, aFactory.getNewID ());
+    assertEquals (1, aFactory.m_nReservations);
+
+    // Too large for the current block
+    assertEquals (110, aFactory.reserveIDRange (1_000));
+    assertEquals (2, aFactory.m_nReservations);
+
+    // The rest of the current block is still used
+    assertEquals (107, aFactory.getNewID ());
+    assertEquals (108, aFactory.getNewID ());
+    assertEquals (109, aFactory.getNewID ());
+    assertEquals (1_110, aFactory.getNewID ());
+    assertEquals (3, aFactory.m_nReservations);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testInvalidReserveCounts ()
+  {
+    new MockIDFactory (10, 5);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.servicegroup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsSet;
+
+/**
+ * Test class for class {@link SMPServiceGroupPageIterator}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPServiceGroupPageIteratorTest
+{
+  @Test
+  public void testOrderAndPages ()
+  {
+    final ICommonsList <String> aIDs = new CommonsArrayList <> ("a::1", "a::2", "a::3", "a::4", "a::5", "a::6", "a::7");
+    final ICommonsList <ICommonsList <String>> aRequestedPages = new CommonsArrayList <> ();
+    // Returns 2 objects per ID in reverse order, to ensure each page is sorted
+    final SMPServiceGroupPageIterator <String> it = new SMPServiceGroupPageIterator <> (aIDs, 3, x -> {
+      aRequestedPages.add (x);
+      final ICommonsList <String> ret = new CommonsArrayList <> ();
+      for (final String sID : x)
+      {
+        ret.add (0, sID + "/x");
+        ret.add (0, sID + "/y");
+      }
+      return ret;
+    }, Comparator.naturalOrder ());
+
+    final ICommonsList <String> aResult = new CommonsArrayList <> ();
+    it.forEachRemaining (aResult::add);
+    assertEquals (14, aResult.size ());
+    assertEquals (aResult.getSorted (Comparator.naturalOrder ()), aResult);
+
+    // Each page is requested only once, lazily
+    assertEquals (3, aRequestedPages.size ());
+    assertEquals (new CommonsArrayList <> ("a::1", "a::2", "a::3"), aRequestedPages.get (0));
+    assertEquals (new CommonsArrayList <> ("a::7"), aRequestedPages.get (2));
+  }
+
+  @Test (expected = NoSuchElementException.class)
+  public void testEmpty ()
+  {
+    final SMPServiceGroupPageIterator <String> it = new SMPServiceGroupPageIterator <> (new CommonsArrayList <> (),
+                                                                                        10,
+                                                                                        x -> x,
+                                                                                        Comparator.naturalOrder ());
+    assertFalse (it.hasNext ());
+    it.next ();
+  }
+
+  @Test
+  public void testDeletedWhileIterating ()
+  {
+    final ICommonsList <String> aIDs = new CommonsArrayList <> ();
+    for (int i = 0; i < 100; ++i)
+      aIDs.add ("s::" + (1000 + i));
+    final ICommonsSet <String> aExisting = new CommonsHashSet <> (aIDs);
+
+    // Delete everything of the second and third page and a single one after that
+    for (int i = 10; i < 30; ++i)
+      aExisting.remove (aIDs.get (i));
+    aExisting.remove (aIDs.get (55));
+
+    final ICommonsList <String> aResult = new SMPServiceGroupPageIterator <> (aIDs,
+                                                                              10,
+                                                                              x -> x.getAll (aExisting::contains),
+                                                                              Comparator.<String> naturalOrder ()).stream ()
+                                                                                                                  .collect (Collectors.toCollection (CommonsArrayList::new));
+    // Nothing is skipped or duplicated, empty pages are passed
+    assertEquals (79, aResult.size ());
+    assertEquals (aIDs.getAll (aExisting::contains), aResult);
+  }
+}
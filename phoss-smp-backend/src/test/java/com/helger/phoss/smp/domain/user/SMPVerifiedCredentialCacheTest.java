@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.domain.user;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Locale;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.password.GlobalPasswordSettings;
+import com.helger.photon.security.user.IUser;
+import com.helger.photon.security.user.User;
+import com.helger.security.password.salt.PasswordSalt;
+
+/**
+ * Test class for class {@link SMPVerifiedCredentialCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPVerifiedCredentialCacheTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testBasic ()
+  {
+    final IUser aUser = new User ("cacheLogin",
+                                  null,
+                                  GlobalPasswordSettings.createUserDefaultPasswordHash (PasswordSalt.createRandom (),
+                                                                                        "testPassword"),
+                                  null,
+                                  null,
+                                  null,
+                                  Locale.US,
+                                  null,
+                                  false);
+
+    final SMPVerifiedCredentialCache aCache = SMPVerifiedCredentialCache.getInstance ();
+    aCache.clear ();
+
+    final String sKey = aCache.getBasicAuthKey ("cacheLogin", "testPassword");
+    // Parts cannot be shifted
+    assertNotEquals (sKey, aCache.getBasicAuthKey ("cacheLoginT", "estPassword"));
+    // Basic Auth and Bearer token are distinct
+    assertNotEquals (aCache.getBearerTokenKey ("abc"), aCache.getBasicAuthKey ("abc", ""));
+    assertNull (aCache.getUser (sKey));
+
+    long nGeneration = aCache.getCurrentGeneration ();
+    aCache.putUser (nGeneration, sKey, aUser, null);
+    assertEquals (1, aCache.getSize ());
+    assertSame (aUser, aCache.getUser (sKey));
+    assertNull (aCache.getUser (aCache.getBasicAuthKey ("cacheLogin", "wrongPassword")));
+
+    // Other users are not affected
+    aCache.invalidateUser ("anotherUser");
+    assertEquals (1, aCache.getSize ());
+
+    aCache.invalidateUser (aUser.getID ());
+    assertEquals (0, aCache.getSize ());
+    assertNull (aCache.getUser (sKey));
+
+    // Stale generation is not cached
+    aCache.putUser (nGeneration, sKey, aUser, null);
+    assertEquals (0, aCache.getSize ());
+
+    nGeneration = aCache.getCurrentGeneration ();
+    aCache.putUser (nGeneration, sKey, aUser, null);
+    assertEquals (1, aCache.getSize ());
+
+    // Callback
+    SMPVerifiedCredentialCache.getInvalidationCallback ().onUserEnabled (aUser.getID (), false);
+    assertEquals (0, aCache.getSize ());
+
+    assertEquals (1, aCache.getStatistics ().get ("hits").longValue ());
+    assertEquals (3, aCache.getStatistics ().get ("misses").longValue ());
+    aCache.clear ();
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.exchange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+
+import com.helger.xml.microdom.IMicroElement;
+
+/**
+ * Test class for class {@link SMPExchangeStreamReader}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPExchangeStreamReaderTest
+{
+  @Test
+  public void testBasic () throws XMLStreamException
+  {
+    final String sXML = "<?xml version='1.0' encoding='UTF-8'?>\n" +
+                        "<!-- comment -->\n" +
+                        "<smp-data version='1.0'>\n" +
+                        "  <servicegroup id='a'><serviceinfo x='1'>text<![CDATA[ more]]></serviceinfo><redirect/></servicegroup>\n" +
+                        "  <businesscard servicegroupid='a'/>\n" +
+                        "</smp-data>";
+    try (final SMPExchangeStreamReader aReader = new SMPExchangeStreamReader (new ByteArrayInputStream (sXML.getBytes (StandardCharsets.UTF_8))))
+    {
+      assertEquals (CSMPExchange.ELEMENT_SMP_DATA, aReader.getRootElement ().getTagName ());
+      assertEquals (CSMPExchange.VERSION_10, aReader.getRootElement ().getAttributeValue (CSMPExchange.ATTR_VERSION));
+      assertEquals (0, aReader.getRootElement ().getChildCount ());
+
+      IMicroElement e = aReader.readNextChildElement ();
+      assertNotNull (e);
+      assertEquals (CSMPExchange.ELEMENT_SERVICEGROUP, e.getTagName ());
+      assertEquals ("a", e.getAttributeValue ("id"));
+      assertEquals (1, e.getAllChildElements (CSMPExchange.ELEMENT_SERVICEINFO).size ());
+      assertEquals (1, e.getAllChildElements (CSMPExchange.ELEMENT_REDIRECT).size ());
+      final IMicroElement eSI = e.getFirstChildElement (CSMPExchange.ELEMENT_SERVICEINFO);
+      assertEquals ("1", eSI.getAttributeValue ("x"));
+      assertEquals ("text more", eSI.getTextContent ());
+
+      e = aReader.readNextChildElement ();
+      assertNotNull (e);
+      assertEquals (CSMPExchange.ELEMENT_BUSINESSCARD, e.getTagName ());
+
+      assertNull (aReader.readNextChildElement ());
+      assertNull (aReader.readNextChildElement ());
+    }
+  }
+
+  @Test (expected = XMLStreamException.class)
+  public void testTruncated () throws XMLStreamException
+  {
+    final String sXML = "<smp-data version='1.0'><servicegroup id='a'><serviceinfo>";
+    try (final SMPExchangeStreamReader aReader = new SMPExchangeStreamReader (new ByteArrayInputStream (sXML.getBytes (StandardCharsets.UTF_8))))
+    {
+      aReader.readNextChildElement ();
+    }
+  }
+}
@@ -24,6 +24,7 @@ import com.helger.base.state.ESuccess;
 import com.helger.collection.commons.CommonsArrayList;
 import com.helger.collection.commons.ICommonsList;
 import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.peppolid.IDocumentTypeIdentifier;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.IProcessIdentifier;
@@ -90,6 +91,11 @@ final class MockSMPServiceInformationManager implements ISMPServiceInformationMa
     throw new UnsupportedOperationException ();
   }
 
+  public ICommonsOrderedMap <IDocumentTypeIdentifier, Integer> getAllSMPDocumentTypesAndEndpointCountOfServiceGroup (final IParticipantIdentifier aParticipantID)
+  {
+    throw new UnsupportedOperationException ();
+  }
+
   @NonNull
   @ReturnsMutableCopy
   public ICommonsList <ISMPEndpoint> getAllSMPEndpoints (@Nullable final IParticipantIdentifier aParticipantID,
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.restapi;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.peppolid.simple.doctype.SimpleDocumentTypeIdentifier;
+import com.helger.peppolid.simple.participant.SimpleParticipantIdentifier;
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.phoss.smp.security.SMPKeyManager;
+
+/**
+ * Test class for class {@link SMPServiceMetadataResponseCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPServiceMetadataResponseCacheTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @Test
+  public void testBasic ()
+  {
+    final IParticipantIdentifier aPI = new SimpleParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                        "0088:UpperCase");
+    final IParticipantIdentifier aPILower = new SimpleParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                             "0088:uppercase");
+    final IDocumentTypeIdentifier aDocTypeID = new SimpleDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                 "testdoctype");
+    final byte [] aBytes = { 1, 2, 3 };
+
+    final SMPServiceMetadataResponseCache aCache = SMPServiceMetadataResponseCache.getInstance ();
+    aCache.clear ();
+    assertNull (aCache.getResponse (ESMPRESTType.PEPPOL, aPI, aDocTypeID));
+
+    long nGeneration = aCache.getCurrentGeneration ();
+    aCache.putResponse (nGeneration, ESMPRESTType.PEPPOL, aPI, aDocTypeID, aBytes);
+    assertEquals (1, aCache.getSize ());
+    assertArrayEquals (aBytes, aCache.getResponse (ESMPRESTType.PEPPOL, aPI, aDocTypeID));
+    // Different REST type
+    assertNull (aCache.getResponse (ESMPRESTType.OASIS_BDXR_V1, aPI, aDocTypeID));
+
+    // Invalidation is case insensitive
+    aCache.invalidateParticipant (aPILower);
+    assertEquals (0, aCache.getSize ());
+    assertNull (aCache.getResponse (ESMPRESTType.PEPPOL, aPI, aDocTypeID));
+
+    // Stale generation is not cached
+    aCache.putResponse (nGeneration, ESMPRESTType.PEPPOL, aPI, aDocTypeID, aBytes);
+    assertEquals (0, aCache.getSize ());
+
+    nGeneration = aCache.getCurrentGeneration ();
+    aCache.putResponse (nGeneration, ESMPRESTType.PEPPOL, aPI, aDocTypeID, aBytes);
+    assertEquals (1, aCache.getSize ());
+
+    // Invalidation by the URI encoded identifier, as done for changes of other nodes
+    SMPServiceMetadataResponseCache.invalidateParticipantIfInstantiated (aPILower.getURIEncoded ());
+    assertEquals (0, aCache.getSize ());
+
+    nGeneration = aCache.getCurrentGeneration ();
+    aCache.putResponse (nGeneration, ESMPRESTType.PEPPOL, aPI, aDocTypeID, aBytes);
+    assertEquals (1, aCache.getSize ());
+    aCache.clear ();
+    assertEquals (0, aCache.getSize ());
+  }
+
+  @Test
+  public void testKeyStoreReload ()
+  {
+    final IParticipantIdentifier aPI = new SimpleParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                                        "0088:reload");
+    final IDocumentTypeIdentifier aDocTypeID = new SimpleDocumentTypeIdentifier (PeppolIdentifierHelper.DOCUMENT_TYPE_SCHEME_BUSDOX_DOCID_QNS,
+                                                                                 "testdoctype");
+    final SMPServiceMetadataResponseCache aCache = SMPServiceMetadataResponseCache.getInstance ();
+    aCache.clear ();
+    aCache.putResponse (aCache.getCurrentGeneration (), ESMPRESTType.PEPPOL, aPI, aDocTypeID, new byte [] { 1 });
+    assertEquals (1, aCache.getSize ());
+
+    // Not registered - nothing happens
+    SMPKeyManager.reloadFromConfiguration ();
+    assertEquals (1, aCache.getSize ());
+
+    SMPKeyManager.keyStoreReloadCallbacks ().add (SMPServiceMetadataResponseCache.getInvalidationCallback ());
+    try
+    {
+      SMPKeyManager.reloadFromConfiguration ();
+      assertEquals (0, aCache.getSize ());
+    }
+    finally
+    {
+      SMPKeyManager.keyStoreReloadCallbacks ().removeObject (SMPServiceMetadataResponseCache.getInvalidationCallback ());
+    }
+  }
+}
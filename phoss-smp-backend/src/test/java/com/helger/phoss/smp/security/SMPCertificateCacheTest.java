@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Test class for class {@link SMPCertificateCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPCertificateCacheTest
+{
+  @Test
+  public void testBasic ()
+  {
+    SMPCertificateCache.clear ();
+    assertNull (SMPCertificateCache.getInterned (null));
+    assertEquals ("", SMPCertificateCache.getInterned (""));
+    assertNull (SMPCertificateCache.getX509Certificate (null));
+    assertEquals (0, SMPCertificateCache.getSize ());
+
+    final String s1 = new String ("MIIabc");
+    final String s2 = new String ("MIIabc");
+    assertSame (s1, SMPCertificateCache.getInterned (s1));
+    assertSame (s1, SMPCertificateCache.getInterned (s2));
+    assertEquals (1, SMPCertificateCache.getSize ());
+
+    // Not a certificate
+    assertNull (SMPCertificateCache.getX509Certificate (s2));
+    assertEquals (1, SMPCertificateCache.getSize ());
+
+    final String sHash = SMPCertificateCache.getCertificateHash (s1);
+    assertEquals (64, sHash.length ());
+    assertEquals (sHash, SMPCertificateCache.getCertificateHash (s2));
+    assertNotEquals (sHash, SMPCertificateCache.getCertificateHash ("MIIabd"));
+    SMPCertificateCache.clear ();
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2015-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * The Original Code is Copyright The Peppol project (http://www.peppol.eu)
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.helger.phoss.smp.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.security.KeyStore;
+import java.security.PublicKey;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.crypto.dsig.XMLSignature;
+import javax.xml.crypto.dsig.XMLSignatureFactory;
+import javax.xml.crypto.dsig.dom.DOMValidateContext;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import com.helger.phoss.smp.ESMPRESTType;
+import com.helger.security.keystore.EKeyStoreType;
+import com.helger.security.keystore.KeyStoreHelper;
+import com.helger.security.keystore.LoadedKey;
+import com.helger.security.keystore.LoadedKeyStore;
+import com.helger.xml.serialize.read.DOMReader;
+
+/**
+ * Test class for class {@link SMPXMLSigner}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPXMLSignerTest
+{
+  private static final String KEYSTORE_PATH = "keystore/test-signer.p12";
+  private static final char [] KEYSTORE_PASSWORD = "peppol".toCharArray ();
+
+  private static KeyStore.PrivateKeyEntry s_aKeyEntry;
+
+  @BeforeClass
+  public static void beforeClass ()
+  {
+    final LoadedKeyStore aLoadedKeyStore = KeyStoreHelper.loadKeyStore (EKeyStoreType.PKCS12,
+                                                                        KEYSTORE_PATH,
+                                                                        KEYSTORE_PASSWORD);
+    assertTrue (aLoadedKeyStore.isSuccess ());
+    final LoadedKey <KeyStore.PrivateKeyEntry> aLoadedKey = KeyStoreHelper.loadPrivateKey (aLoadedKeyStore.getKeyStore (),
+                                                                                           KEYSTORE_PATH,
+                                                                                           "smp keypair",
+                                                                                           KEYSTORE_PASSWORD);
+    assertTrue (aLoadedKey.isSuccess ());
+    s_aKeyEntry = aLoadedKey.getKeyEntry ();
+    assertNotNull (s_aKeyEntry);
+  }
+
+  @NonNull
+  private static Element _createElement ()
+  {
+    final Document aDoc = DOMReader.readXMLDOM ("<SignedServiceMetadata xmlns='urn:test'><ServiceMetadata><value>abc</value></ServiceMetadata></SignedServiceMetadata>");
+    assertNotNull (aDoc);
+    return aDoc.getDocumentElement ();
+  }
+
+  private static boolean _verify (@NonNull final Element aSignedElement, @NonNull final PublicKey aPublicKey) throws Exception
+  {
+    final NodeList aSignatures = aSignedElement.getElementsByTagNameNS (XMLSignature.XMLNS, "Signature");
+    assertEquals (1, aSignatures.getLength ());
+
+    final DOMValidateContext aValidateContext = new DOMValidateContext (aPublicKey, aSignatures.item (0));
+    final XMLSignature aSignature = XMLSignatureFactory.getInstance ("DOM").unmarshalXMLSignature (aValidateContext);
+    return aSignature.validate (aValidateContext);
+  }
+
+  @Test
+  public void testSignAndVerify () throws Exception
+  {
+    final PublicKey aPublicKey = s_aKeyEntry.getCertificate ().getPublicKey ();
+    for (final ESMPRESTType eRESTType : ESMPRESTType.values ())
+    {
+      final SMPXMLSigner aSigner = new SMPXMLSigner (eRESTType, s_aKeyEntry);
+      assertSame (eRESTType, aSigner.getRESTType ());
+      assertEquals (0, aSigner.getPooledContextCount ());
+
+      // Sign multiple times to reuse the pooled context
+      for (int i = 0; i < 3; ++i)
+      {
+        final Element aElement = _createElement ();
+        aSigner.signXML (aElement);
+        assertTrue (eRESTType.getID (), _verify (aElement, aPublicKey));
+        assertEquals (1, aSigner.getPooledContextCount ());
+      }
+    }
+  }
+
+  @Test
+  public void testModifiedContent () throws Exception
+  {
+    final SMPXMLSigner aSigner = new SMPXMLSigner (ESMPRESTType.PEPPOL, s_aKeyEntry);
+    final Element aElement = _createElement ();
+    aSigner.signXML (aElement);
+
+    // Change the signed content
+    aElement.getElementsByTagNameNS ("urn:test", "value").item (0).setTextContent ("abd");
+    assertFalse (_verify (aElement, s_aKeyEntry.getCertificate ().getPublicKey ()));
+  }
+
+  @Test
+  public void testMultipleThreads () throws Exception
+  {
+    final PublicKey aPublicKey = s_aKeyEntry.getCertificate ().getPublicKey ();
+    final SMPXMLSigner aSigner = new SMPXMLSigner (ESMPRESTType.OASIS_BDXR_V2, s_aKeyEntry);
+    final ExecutorService aES = Executors.newFixedThreadPool (4);
+    try
+    {
+      final Future <?> [] aFutures = new Future <?> [20];
+      for (int i = 0; i < aFutures.length; ++i)
+        aFutures[i] = aES.submit ( () -> {
+          final Element aElement = _createElement ();
+          aSigner.signXML (aElement);
+          assertTrue (_verify (aElement, aPublicKey));
+          return null;
+        });
+      // Rethrows assertion errors
+      for (final Future <?> aFuture : aFutures)
+        aFuture.get ();
+
+      // At most one context per concurrent thread was created
+      assertTrue (aSigner.getPooledContextCount () >= 1);
+      assertTrue (aSigner.getPooledContextCount () <= 4);
+    }
+    finally
+    {
+      aES.shutdown ();
+    }
+  }
+}
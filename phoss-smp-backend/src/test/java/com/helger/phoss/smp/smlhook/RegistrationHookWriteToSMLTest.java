@@ -10,9 +10,19 @@
  */
 package com.helger.phoss.smp.smlhook;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.jspecify.annotations.NonNull;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsOrderedMap;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.PeppolIdentifierFactory;
 
@@ -34,4 +44,88 @@ public final class RegistrationHookWriteToSMLTest
     // Throws ExceptionInInitializerError:
     // Happens when no keystore is present!
   }
+
+  @NonNull
+  private static ICommonsList <IParticipantIdentifier> _createPIs (final int nCount)
+  {
+    final ICommonsList <IParticipantIdentifier> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < nCount; ++i)
+      ret.add (PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9999:batch" + i));
+    return ret;
+  }
+
+  @Test
+  public void testRunBatchedSuccess ()
+  {
+    final ICommonsList <Integer> aBatchSizes = new CommonsArrayList <> ();
+    final RegistrationHookWriteToSML.IBatchCall aBatchCall = aBatch -> {
+      synchronized (aBatchSizes)
+      {
+        aBatchSizes.add (Integer.valueOf (aBatch.size ()));
+      }
+    };
+    final ICommonsList <IParticipantIdentifier> aSingles = new CommonsArrayList <> ();
+    final ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> aFailures = RegistrationHookWriteToSML.runBatched ("TEST",
+                                                                                                                                    _createPIs (250),
+                                                                                                                                    aBatchCall,
+                                                                                                                                    aSingles::add);
+    assertTrue (aFailures.isEmpty ());
+    assertTrue (aSingles.isEmpty ());
+    // The batches run in parallel
+    Collections.sort (aBatchSizes);
+    assertEquals (new CommonsArrayList <> (Integer.valueOf (50),
+                                           Integer.valueOf (RegistrationHookWriteToSML.BATCH_SIZE),
+                                           Integer.valueOf (RegistrationHookWriteToSML.BATCH_SIZE)),
+                  aBatchSizes);
+
+    // Nothing to do
+    assertTrue (RegistrationHookWriteToSML.runBatched ("TEST", new CommonsArrayList <> (), aBatch -> {
+      throw new IllegalStateException ("Unexpected");
+    }, aPI -> {
+      throw new IllegalStateException ("Unexpected");
+    }).isEmpty ());
+  }
+
+  @Test
+  public void testRunBatchedFallback ()
+  {
+    final ICommonsList <IParticipantIdentifier> aPIs = _createPIs (250);
+    // Fails in the first and in the last batch - in reverse input order
+    final IParticipantIdentifier aBad1 = aPIs.get (220);
+    final IParticipantIdentifier aBad2 = aPIs.get (17);
+    final IParticipantIdentifier aBad3 = aPIs.get (3);
+    final ICommonsList <IParticipantIdentifier> aBad = new CommonsArrayList <> (aBad1, aBad2, aBad3);
+
+    // All or nothing
+    final RegistrationHookWriteToSML.IBatchCall aBatchCall = aBatch -> {
+      for (final IParticipantIdentifier aPI : aBatch)
+        if (aBad.containsAny (aPI::hasSameContent))
+          throw new IllegalStateException ("Batch failed");
+    };
+    final ICommonsList <IParticipantIdentifier> aSingles = new CommonsArrayList <> ();
+    final RegistrationHookWriteToSML.ISingleCall aSingleCall = aPI -> {
+      synchronized (aSingles)
+      {
+        aSingles.add (aPI);
+      }
+      if (aBad.containsAny (aPI::hasSameContent))
+        throw new RegistrationHookException ("Failed " + aPI.getURIEncoded (), null);
+    };
+    final ICommonsOrderedMap <IParticipantIdentifier, RegistrationHookException> aFailures = RegistrationHookWriteToSML.runBatched ("TEST",
+                                                                                                                                    aPIs,
+                                                                                                                                    aBatchCall,
+                                                                                                                                    aSingleCall);
+
+    // Only the participants of the failed batches are retried one by one
+    assertEquals (RegistrationHookWriteToSML.BATCH_SIZE + 50, aSingles.size ());
+
+    // The input objects in the input order
+    assertEquals (3, aFailures.size ());
+    final ICommonsList <IParticipantIdentifier> aFailedPIs = new CommonsArrayList <> (aFailures.keySet ());
+    assertSame (aBad3, aFailedPIs.get (0));
+    assertSame (aBad2, aFailedPIs.get (1));
+    assertSame (aBad1, aFailedPIs.get (2));
+    assertEquals ("Failed " + aBad3.getURIEncoded (), aFailures.get (aBad3).getMessage ());
+    assertEquals ("Failed " + aBad1.getURIEncoded (), aFailures.get (aBad1).getMessage ());
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2019-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.mongodb.status;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+
+import com.helger.annotation.style.IsSPIImplementation;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.phoss.smp.backend.mongodb.mgr.AbstractManagerMongoDB;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.status.ISMPStatusProviderExtensionSPI;
+
+/**
+ * MongoDB specific status item provider.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@IsSPIImplementation
+public class SMPMongoDBStatusProviderExtensionSPI implements ISMPStatusProviderExtensionSPI
+{
+  private static void _addIndexStatus (@Nullable final Object aMgr,
+                                       @NonNull final ICommonsOrderedMap <String, Object> aTarget)
+  {
+    if (aMgr instanceof final AbstractManagerMongoDB aMongoMgr)
+    {
+      final String sPrefix = "smp.mongodb.index." + aMongoMgr.getCollectionName () + ".";
+      aMongoMgr.getManagedIndexStatus ().forEach ( (k, v) -> aTarget.put (sPrefix + k, v));
+    }
+  }
+
+  @NonNull
+  public ICommonsOrderedMap <String, ?> getAdditionalStatusData (final boolean bDisableLongRunningOperations)
+  {
+    final ICommonsOrderedMap <String, Object> ret = new CommonsLinkedHashMap <> ();
+    if (!bDisableLongRunningOperations)
+    {
+      // Requires a remote call per collection
+      _addIndexStatus (SMPMetaManager.getServiceGroupMgr (), ret);
+      _addIndexStatus (SMPMetaManager.getServiceInformationMgr (), ret);
+      _addIndexStatus (SMPMetaManager.getRedirectMgr (), ret);
+      _addIndexStatus (SMPMetaManager.getBusinessCardMgr (), ret);
+    }
+    return ret;
+  }
+}
@@ -20,6 +20,7 @@ import java.sql.Connection;
 
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +32,10 @@ import com.helger.db.jdbc.ConnectionFromDataSource;
 import com.helger.db.jdbc.IHasConnection;
 import com.helger.phoss.smp.backend.sql.SMPDataSourceSingleton;
 import com.helger.phoss.smp.backend.sql.SMPJdbcConfiguration;
+import com.helger.phoss.smp.backend.sql.mgr.SMPJdbcLookupCache;
+import com.helger.phoss.smp.backend.sql.mgr.SMPRedirectManagerJDBC;
+import com.helger.phoss.smp.backend.sql.mgr.SMPServiceInformationManagerJDBC;
+import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.status.ISMPStatusProviderExtensionSPI;
 
 /**
@@ -72,6 +77,21 @@ public class SMPSQLStatusProviderExtensionSPI implements ISMPStatusProviderExten
     }
   }
 
+  private static void _addCacheStatus (@NonNull final String sPrefix,
+                                       @Nullable final SMPJdbcLookupCache <?> aCache,
+                                       @NonNull final ICommonsOrderedMap <String, Object> aTarget)
+  {
+    aTarget.put (sPrefix + "enabled", Boolean.valueOf (aCache != null));
+    if (aCache != null)
+    {
+      aTarget.put (sPrefix + "ttl.duration", aCache.getTTL ().toString ());
+      aTarget.put (sPrefix + "maxsize", Integer.valueOf (aCache.getMaxSize ()));
+      aTarget.put (sPrefix + "hits", Long.valueOf (aCache.getHitCount ()));
+      aTarget.put (sPrefix + "misses", Long.valueOf (aCache.getMissCount ()));
+      aTarget.put (sPrefix + "invalidations", Long.valueOf (aCache.getInvalidationCount ()));
+    }
+  }
+
   @NonNull
   public ICommonsOrderedMap <String, ?> getAdditionalStatusData (final boolean bDisableLongRunningOperations)
   {
@@ -93,6 +113,12 @@ public class SMPSQLStatusProviderExtensionSPI implements ISMPStatusProviderExten
       // since 8.0.12
       ret.put ("smp.sql.pooling.test-on-borrow", Boolean.toString (aJdbcConfig.isJdbcPoolingTestOnBorrow ()));
 
+      // since 8.2.1
+      if (SMPMetaManager.getServiceInformationMgr () instanceof final SMPServiceInformationManagerJDBC aSIMgr)
+        _addCacheStatus ("smp.sql.cache.si.", aSIMgr.getCache (), ret);
+      if (SMPMetaManager.getRedirectMgr () instanceof final SMPRedirectManagerJDBC aRedirectMgr)
+        _addCacheStatus ("smp.sql.cache.redirect.", aRedirectMgr.getCache (), ret);
+
       if (!bDisableLongRunningOperations)
       {
         // Since 5.4.0
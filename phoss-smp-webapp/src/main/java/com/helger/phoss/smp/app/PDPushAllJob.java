@@ -0,0 +1,581 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.base.string.StringHelper;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.html.hc.impl.HCNodeList;
+import com.helger.html.hc.render.HCRenderer;
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonObject;
+import com.helger.pd.client.PDClient;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.phoss.smp.CSMPServer;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.photon.bootstrap5.alert.BootstrapErrorBox;
+import com.helger.photon.bootstrap5.traits.IHCBootstrap5Trait;
+import com.helger.photon.io.PhotonWorkerPool;
+import com.helger.photon.io.WebFileIO;
+import com.helger.photon.mgrs.longrun.AbstractLongRunningJobRunnable;
+import com.helger.photon.mgrs.longrun.LongRunningJobResult;
+import com.helger.text.ReadOnlyMultilingualText;
+import com.helger.web.scope.mgr.WebScoped;
+
+/**
+ * Long running job that pushes all Business Cards to the Directory. The pushes are executed in
+ * parallel with an optional rate limit. The participants are processed in chunks and after each
+ * chunk the successfully pushed participant IDs are appended to a checkpoint file in the data
+ * directory. If the job is interrupted (e.g. by a restart), the next run only pushes the
+ * participants not contained in the checkpoint - including the ones that failed and the ones created
+ * in the meantime. The checkpoint is
+ * removed when the job completes. Only one instance of this job can run at a time.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+public final class PDPushAllJob extends AbstractLongRunningJobRunnable implements IHCBootstrap5Trait
+{
+  public static final String CHECKPOINT_FILENAME = "directory-push-all.checkpoint";
+
+  /**
+   * Abstraction of the Directory client for testing.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  interface IDirectoryPusher
+  {
+    /**
+     * Push a single participant.
+     *
+     * @param sParticipantID
+     *        The participant ID as used in the Business Card manager. Never <code>null</code>.
+     * @return <code>true</code> if the push succeeded.
+     */
+    boolean push (@NonNull String sParticipantID);
+  }
+
+  /**
+   * The progress of a single run of this job.
+   *
+   * @author Philip Helger
+   */
+  @ThreadSafe
+  public static final class Progress
+  {
+    private final AtomicBoolean m_aRunning = new AtomicBoolean (false);
+    private final AtomicLong m_aTotal = new AtomicLong (0);
+    private final AtomicLong m_aSkipped = new AtomicLong (0);
+    private final AtomicLong m_aSucceeded = new AtomicLong (0);
+    private final AtomicLong m_aFailed = new AtomicLong (0);
+    // Limited to MAX_LISTED_FAILURES entries
+    private final ICommonsList <String> m_aFailedIDs = new CommonsArrayList <> ();
+
+    Progress ()
+    {}
+
+    public boolean isRunning ()
+    {
+      return m_aRunning.get ();
+    }
+
+    @Nonnegative
+    public long getTotalCount ()
+    {
+      return m_aTotal.get ();
+    }
+
+    @Nonnegative
+    public long getSkippedCount ()
+    {
+      return m_aSkipped.get ();
+    }
+
+    @Nonnegative
+    public long getSucceededCount ()
+    {
+      return m_aSucceeded.get ();
+    }
+
+    @Nonnegative
+    public long getFailedCount ()
+    {
+      return m_aFailed.get ();
+    }
+
+    /**
+     * @return The number of participants already handled, including the ones skipped because of a
+     *         checkpoint.
+     */
+    @Nonnegative
+    public long getProcessedCount ()
+    {
+      return m_aSkipped.get () + m_aSucceeded.get () + m_aFailed.get ();
+    }
+
+    /**
+     * @return The first failed participant IDs. Never <code>null</code>.
+     */
+    @NonNull
+    @ReturnsMutableCopy
+    public ICommonsList <String> getFailedIDs ()
+    {
+      synchronized (m_aFailedIDs)
+      {
+        return m_aFailedIDs.getClone ();
+      }
+    }
+
+    void onFailure (@NonNull final String sParticipantID)
+    {
+      m_aFailed.incrementAndGet ();
+      synchronized (m_aFailedIDs)
+      {
+        if (m_aFailedIDs.size () < MAX_LISTED_FAILURES)
+          m_aFailedIDs.add (sParticipantID);
+      }
+    }
+
+    @NonNull
+    public IJsonObject getAsJson ()
+    {
+      return new JsonObject ().add ("running", isRunning ())
+                              .add ("total", getTotalCount ())
+                              .add ("skipped", getSkippedCount ())
+                              .add ("succeeded", getSucceededCount ())
+                              .add ("failed", getFailedCount ());
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (PDPushAllJob.class);
+  private static final int CHUNK_SIZE = 100;
+  private static final int MAX_LISTED_FAILURES = 20;
+
+  // Ensures that only one job is running
+  private static final AtomicBoolean RUNNING = new AtomicBoolean (false);
+  // The progress of the current or the last job
+  private static final AtomicReference <Progress> LAST_PROGRESS = new AtomicReference <> ();
+
+  private final IDirectoryPusher m_aPusher;
+  private final int m_nThreads;
+  private final long m_nMinIntervalNanos;
+  private final File m_aCheckpointFile;
+  private final AtomicLong m_aNextSlotNanos = new AtomicLong (0);
+  private final Progress m_aProgress = new Progress ();
+
+  /**
+   * Constructor with all parameters. Only used directly by tests.
+   *
+   * @param sUserID
+   *        The ID of the user who started the job. May not be <code>null</code>.
+   * @param aPusher
+   *        The pusher to use. May not be <code>null</code>.
+   * @param nThreads
+   *        The number of parallel pushes. Must be &gt; 0.
+   * @param nMaxRate
+   *        The maximum number of pushes per second. Values &le; 0 mean unlimited.
+   * @param aCheckpointFile
+   *        The checkpoint file to use. May not be <code>null</code>.
+   */
+  PDPushAllJob (@NonNull final String sUserID,
+                @NonNull final IDirectoryPusher aPusher,
+                @Nonnegative final int nThreads,
+                final int nMaxRate,
+                @NonNull final File aCheckpointFile)
+  {
+    super ("PushAllBusinessCardsToDirectory",
+           new ReadOnlyMultilingualText (CSMPServer.DEFAULT_LOCALE, "Update all participants in Directory"),
+           () -> sUserID);
+    ValueEnforcer.notNull (aPusher, "Pusher");
+    ValueEnforcer.isGT0 (nThreads, "Threads");
+    ValueEnforcer.notNull (aCheckpointFile, "CheckpointFile");
+    m_aPusher = aPusher;
+    m_nThreads = nThreads;
+    m_nMinIntervalNanos = nMaxRate > 0 ? TimeUnit.SECONDS.toNanos (1) / nMaxRate : 0;
+    m_aCheckpointFile = aCheckpointFile;
+  }
+
+  private PDPushAllJob (@NonNull final PDClient aPDClient, @NonNull final String sUserID)
+  {
+    this (sUserID,
+          sParticipantID -> _push (aPDClient, sParticipantID),
+          SMPWebAppConfiguration.getDirectoryPushAllThreads (),
+          SMPWebAppConfiguration.getDirectoryPushAllMaxRate (),
+          WebFileIO.getDataIO ().getFile (CHECKPOINT_FILENAME));
+  }
+
+  /**
+   * @return The progress of this job. Never <code>null</code>.
+   */
+  @NonNull
+  Progress getProgress ()
+  {
+    return m_aProgress;
+  }
+
+  /**
+   * @return The IDs of all participants already processed by a previous run. Never
+   *         <code>null</code> but maybe empty.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  ICommonsSet <String> readCheckpoint ()
+  {
+    final ICommonsSet <String> ret = new CommonsHashSet <> ();
+    if (m_aCheckpointFile.exists ())
+    {
+      try
+      {
+        for (final String sLine : Files.readAllLines (m_aCheckpointFile.toPath (), StandardCharsets.UTF_8))
+        {
+          final String sID = StringHelper.trim (sLine);
+          if (StringHelper.isNotEmpty (sID))
+            ret.add (sID);
+        }
+      }
+      catch (final IOException ex)
+      {
+        LOGGER.warn ("Failed to read the Directory push checkpoint file " + m_aCheckpointFile.getAbsolutePath (),
+                     ex);
+      }
+    }
+    return ret;
+  }
+
+  private void _appendCheckpoint (@NonNull final ICommonsList <String> aProcessedIDs)
+  {
+    final StringBuilder aSB = new StringBuilder ();
+    for (final String sID : aProcessedIDs)
+      aSB.append (sID).append ('\n');
+    try
+    {
+      Files.writeString (m_aCheckpointFile.toPath (),
+                         aSB.toString (),
+                         StandardCharsets.UTF_8,
+                         StandardOpenOption.CREATE,
+                         StandardOpenOption.APPEND);
+    }
+    catch (final IOException ex)
+    {
+      LOGGER.warn ("Failed to write the Directory push checkpoint file " + m_aCheckpointFile.getAbsolutePath (),
+                   ex);
+    }
+  }
+
+  private void _deleteCheckpoint ()
+  {
+    if (m_aCheckpointFile.exists () && !m_aCheckpointFile.delete ())
+      LOGGER.warn ("Failed to delete the Directory push checkpoint file " + m_aCheckpointFile.getAbsolutePath ());
+  }
+
+  private void _waitForRateLimit () throws InterruptedException
+  {
+    if (m_nMinIntervalNanos <= 0)
+      return;
+
+    final long nNow = System.nanoTime ();
+    long nNext;
+    long nSlot;
+    do
+    {
+      nNext = m_aNextSlotNanos.get ();
+      nSlot = Math.max (nNow, nNext);
+    } while (!m_aNextSlotNanos.compareAndSet (nNext, nSlot + m_nMinIntervalNanos));
+
+    final long nWaitNanos = nSlot - nNow;
+    if (nWaitNanos > 0)
+      TimeUnit.NANOSECONDS.sleep (nWaitNanos);
+  }
+
+  private static boolean _push (@NonNull final PDClient aPDClient, @NonNull final String sParticipantID)
+  {
+    final IParticipantIdentifier aParticipantID = SMPMetaManager.getIdentifierFactory ()
+                                                                .parseParticipantIdentifier (sParticipantID);
+    if (aParticipantID == null)
+    {
+      LOGGER.warn ("Failed to parse Business Card ID '" + sParticipantID + "' as a participant identifier");
+      return false;
+    }
+    return aPDClient.addServiceGroupToIndex (aParticipantID).isSuccess ();
+  }
+
+  private boolean _pushAndRecord (@NonNull final String sParticipantID) throws InterruptedException
+  {
+    _waitForRateLimit ();
+
+    boolean bSuccess;
+    try
+    {
+      bSuccess = m_aPusher.push (sParticipantID);
+    }
+    catch (final RuntimeException ex)
+    {
+      LOGGER.error ("Error pushing '" + sParticipantID + "' to the Directory", ex);
+      bSuccess = false;
+    }
+
+    if (bSuccess)
+      m_aProgress.m_aSucceeded.incrementAndGet ();
+    else
+      m_aProgress.onFailure (sParticipantID);
+    return bSuccess;
+  }
+
+  private static boolean _isSuccess (@NonNull final Future <Boolean> aFuture)
+  {
+    try
+    {
+      // The future is already done
+      return aFuture.get ().booleanValue ();
+    }
+    catch (final InterruptedException ex)
+    {
+      Thread.currentThread ().interrupt ();
+      return false;
+    }
+    catch (final ExecutionException | CancellationException ex)
+    {
+      return false;
+    }
+  }
+
+  /**
+   * Push all provided participants, except the ones contained in the checkpoint.
+   *
+   * @param aAllIDs
+   *        The IDs of all participants to push. May not be <code>null</code>.
+   * @return <code>true</code> if all participants were processed, <code>false</code> if the job was
+   *         interrupted.
+   */
+  boolean pushAll (@NonNull final ICommonsList <String> aAllIDs)
+  {
+    final ICommonsSet <String> aCheckpoint = readCheckpoint ();
+    // Sorted to make the order deterministic
+    final ICommonsList <String> aTodoIDs = aAllIDs.getAll (x -> !aCheckpoint.contains (x));
+    aTodoIDs.sort (Comparator.naturalOrder ());
+
+    m_aProgress.m_aTotal.set (aAllIDs.size ());
+    m_aProgress.m_aSkipped.set (aAllIDs.size () - aTodoIDs.size ());
+    if (!aCheckpoint.isEmpty ())
+      LOGGER.info ("Resuming the push of all Business Cards to the Directory - skipping " +
+                   m_aProgress.getSkippedCount () +
+                   " already processed participants");
+
+    boolean bInterrupted = false;
+    final ExecutorService aExecutor = Executors.newFixedThreadPool (m_nThreads);
+    try
+    {
+      for (int nStart = 0; nStart < aTodoIDs.size (); nStart += CHUNK_SIZE)
+      {
+        final ICommonsList <String> aChunk = new CommonsArrayList <> (aTodoIDs.subList (nStart,
+                                                                                        Math.min (nStart + CHUNK_SIZE,
+                                                                                                  aTodoIDs.size ())));
+        final ICommonsList <Callable <Boolean>> aTasks = new CommonsArrayList <> ();
+        for (final String sID : aChunk)
+          aTasks.add ( () -> Boolean.valueOf (_pushAndRecord (sID)));
+
+        final List <Future <Boolean>> aResults;
+        try
+        {
+          // The tasks record their results in the progress themselves
+          aResults = aExecutor.invokeAll (aTasks);
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+          bInterrupted = true;
+          break;
+        }
+
+        // Only remember completely processed chunks, and only the successfully pushed participants
+        // so that the failed ones are retried by a resumed run
+        final ICommonsList <String> aSucceededIDs = new CommonsArrayList <> ();
+        for (int i = 0; i < aChunk.size (); ++i)
+          if (_isSuccess (aResults.get (i)))
+            aSucceededIDs.add (aChunk.get (i));
+        _appendCheckpoint (aSucceededIDs);
+      }
+    }
+    finally
+    {
+      aExecutor.shutdownNow ();
+    }
+
+    if (bInterrupted)
+      return false;
+
+    // Next run starts from the beginning
+    _deleteCheckpoint ();
+    return true;
+  }
+
+  @NonNull
+  public LongRunningJobResult createLongRunningJobResult ()
+  {
+    try (final WebScoped w = new WebScoped ())
+    {
+      final String sDirectoryName = SMPWebAppConfiguration.getDirectoryName ();
+
+      final ICommonsList <String> aAllIDs = new CommonsArrayList <> (SMPMetaManager.getBusinessCardMgr ()
+                                                                                   .getAllSMPBusinessCardIDs ());
+      final boolean bCompleted = pushAll (aAllIDs);
+      if (!bCompleted)
+        LOGGER.warn ("The push of all Business Cards to the " + sDirectoryName + " was interrupted");
+
+      final long nSkipped = m_aProgress.getSkippedCount ();
+      final long nSucceeded = m_aProgress.getSucceededCount ();
+      final long nFailed = m_aProgress.getFailedCount ();
+      final ICommonsList <String> aFailedIDs = m_aProgress.getFailedIDs ();
+
+      final HCNodeList aResultNodes = new HCNodeList ();
+      if (nSkipped > 0)
+        aResultNodes.addChild (info ("Continued a previous run - skipped " +
+                                     nSkipped +
+                                     " already processed participants"));
+      if (nSucceeded > 0)
+        aResultNodes.addChild (success ("Successfully notified the " +
+                                        sDirectoryName +
+                                        " to index " +
+                                        nSucceeded +
+                                        " participants"));
+      if (nFailed > 0)
+      {
+        final BootstrapErrorBox aBox = error ("Error notifying the " +
+                                              sDirectoryName +
+                                              " to index " +
+                                              nFailed +
+                                              " participants. See the logs for details.");
+        for (final String sPI : aFailedIDs)
+          aBox.addChild (div ("Failed to index '" + sPI + "'"));
+        if (nFailed > aFailedIDs.size ())
+          aBox.addChild (div ("..."));
+        aResultNodes.addChild (aBox);
+      }
+      if (!bCompleted)
+        aResultNodes.addChild (warn ("The job was interrupted and will continue at the next start"));
+      if (aResultNodes.hasNoChildren ())
+        aResultNodes.addChild (info ("No participants to be indexed to " + sDirectoryName + "."));
+
+      return LongRunningJobResult.createXML (HCRenderer.getAsNode (aResultNodes));
+    }
+    finally
+    {
+      m_aProgress.m_aRunning.set (false);
+      RUNNING.set (false);
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the job is currently running.
+   */
+  public static boolean isRunning ()
+  {
+    return RUNNING.get ();
+  }
+
+  /**
+   * @return The number of participants already handled by the current or the last run, including
+   *         the ones skipped because of a checkpoint.
+   */
+  @Nonnegative
+  public static long getProcessedCount ()
+  {
+    final Progress aProgress = LAST_PROGRESS.get ();
+    return aProgress == null ? 0 : aProgress.getProcessedCount ();
+  }
+
+  /**
+   * @return The total number of participants of the current or the last run.
+   */
+  @Nonnegative
+  public static long getTotalCount ()
+  {
+    final Progress aProgress = LAST_PROGRESS.get ();
+    return aProgress == null ? 0 : aProgress.getTotalCount ();
+  }
+
+  /**
+   * @return The progress of the current or the last run as JSON. Never <code>null</code>.
+   */
+  @NonNull
+  public static IJsonObject getProgressAsJson ()
+  {
+    final Progress aProgress = LAST_PROGRESS.get ();
+    return (aProgress == null ? new Progress () : aProgress).getAsJson ();
+  }
+
+  /**
+   * Start the job in the background if it is not already running.
+   *
+   * @param aPDClient
+   *        The Directory client to use. May not be <code>null</code>.
+   * @param sUserID
+   *        The ID of the user who started the job. May not be <code>null</code>.
+   * @return <code>true</code> if the job was started, <code>false</code> if it is already running.
+   */
+  public static boolean startIfNotRunning (@NonNull final PDClient aPDClient, @NonNull final String sUserID)
+  {
+    ValueEnforcer.notNull (aPDClient, "PDClient");
+    ValueEnforcer.notNull (sUserID, "UserID");
+
+    if (!RUNNING.compareAndSet (false, true))
+      return false;
+
+    try
+    {
+      final PDPushAllJob aJob = new PDPushAllJob (aPDClient, sUserID);
+      aJob.m_aProgress.m_aRunning.set (true);
+      LAST_PROGRESS.set (aJob.m_aProgress);
+      PhotonWorkerPool.getInstance ().run ("PushAllBusinessCardsToDirectory", aJob);
+    }
+    catch (final RuntimeException ex)
+    {
+      RUNNING.set (false);
+      throw ex;
+    }
+    return true;
+  }
+}
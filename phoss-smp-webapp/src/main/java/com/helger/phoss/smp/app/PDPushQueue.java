@@ -0,0 +1,479 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.GuardedBy;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.annotation.style.UsedViaReflection;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.CommonsLinkedHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.collection.commons.ICommonsOrderedMap;
+import com.helger.collection.commons.ICommonsSet;
+import com.helger.pd.client.PDClient;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.scope.IScope;
+import com.helger.web.scope.singleton.AbstractGlobalWebSingleton;
+
+/**
+ * A background queue for the automatic Directory updates. Pushes for the same participant that
+ * are queued within the coalesce time are combined into a single push, only the last requested
+ * action is performed. The pushes are executed with a limited number of threads and failed pushes
+ * are retried with an exponential backoff.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@ThreadSafe
+public final class PDPushQueue extends AbstractGlobalWebSingleton
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (PDPushQueue.class);
+  private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+  private static final class PendingPush
+  {
+    private final IParticipantIdentifier m_aParticipantID;
+    private boolean m_bDelete;
+    private int m_nRetry;
+
+    PendingPush (@NonNull final IParticipantIdentifier aParticipantID, final boolean bDelete)
+    {
+      m_aParticipantID = aParticipantID;
+      m_bDelete = bDelete;
+    }
+  }
+
+  /**
+   * Abstraction of the Directory client for testing.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  interface IDirectoryPusher
+  {
+    /**
+     * Perform a single push.
+     *
+     * @param aParticipantID
+     *        The participant to push. Never <code>null</code>.
+     * @param bDelete
+     *        <code>true</code> to delete the participant from the Directory, <code>false</code> to
+     *        add or update it.
+     * @return <code>true</code> if the push succeeded, <code>false</code> if it should be retried.
+     */
+    boolean push (@NonNull IParticipantIdentifier aParticipantID, boolean bDelete);
+  }
+
+  private static final class PushThreadFactory implements ThreadFactory
+  {
+    private final AtomicInteger m_aCounter = new AtomicInteger (0);
+
+    @NonNull
+    public Thread newThread (@NonNull final Runnable aRunnable)
+    {
+      final Thread ret = new Thread (aRunnable, "smp-directory-push-" + m_aCounter.incrementAndGet ());
+      ret.setDaemon (true);
+      return ret;
+    }
+  }
+
+  // Participant ID (URI encoded) to pending push
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsMap <String, PendingPush> m_aPending = new CommonsHashMap <> ();
+  // Participant IDs (URI encoded) currently being pushed
+  @GuardedBy ("m_aRWLock")
+  private final ICommonsSet <String> m_aInFlight = new CommonsHashSet <> ();
+  @GuardedBy ("m_aRWLock")
+  private boolean m_bShutdown = false;
+
+  private final AtomicLong m_aQueued = new AtomicLong (0);
+  private final AtomicLong m_aCoalesced = new AtomicLong (0);
+  private final AtomicLong m_aSucceeded = new AtomicLong (0);
+  private final AtomicLong m_aFailed = new AtomicLong (0);
+  private final AtomicLong m_aRetried = new AtomicLong (0);
+  private final AtomicLong m_aDropped = new AtomicLong (0);
+
+  private ScheduledExecutorService m_aExecutor;
+  private IDirectoryPusher m_aPusher;
+  private long m_nCoalesceMillis;
+  private int m_nMaxRetries;
+  private long m_nRetryMillis;
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated (forRemoval = false)
+  @UsedViaReflection
+  public PDPushQueue ()
+  {}
+
+  @NonNull
+  public static PDPushQueue getInstance ()
+  {
+    return getGlobalSingleton (PDPushQueue.class);
+  }
+
+  @Nullable
+  public static PDPushQueue getInstanceIfInstantiated ()
+  {
+    return getGlobalSingletonIfInstantiated (PDPushQueue.class);
+  }
+
+  @Override
+  protected void onAfterInstantiation (@NonNull final IScope aScope)
+  {
+    init (PDPushQueue::_push,
+          SMPWebAppConfiguration.getDirectoryPushThreads (),
+          SMPWebAppConfiguration.getDirectoryPushCoalesceMillis (),
+          SMPWebAppConfiguration.getDirectoryPushMaxRetries (),
+          SMPWebAppConfiguration.getDirectoryPushRetryMillis ());
+  }
+
+  /**
+   * Initialize the queue. Only called once from {@link #onAfterInstantiation(IScope)} and from
+   * tests.
+   *
+   * @param aPusher
+   *        The pusher to perform the Directory pushes. May not be <code>null</code>.
+   * @param nThreads
+   *        The number of push threads. Must be &gt; 0.
+   * @param nCoalesceMillis
+   *        The coalesce time in milliseconds. Must be &ge; 0.
+   * @param nMaxRetries
+   *        The maximum number of retries of a failed push. Must be &ge; 0.
+   * @param nRetryMillis
+   *        The initial retry delay in milliseconds. Must be &ge; 0.
+   */
+  void init (@NonNull final IDirectoryPusher aPusher,
+             @Nonnegative final int nThreads,
+             @Nonnegative final long nCoalesceMillis,
+             @Nonnegative final int nMaxRetries,
+             @Nonnegative final long nRetryMillis)
+  {
+    ValueEnforcer.notNull (aPusher, "Pusher");
+    ValueEnforcer.isGT0 (nThreads, "Threads");
+    ValueEnforcer.isGE0 (nCoalesceMillis, "CoalesceMillis");
+    ValueEnforcer.isGE0 (nMaxRetries, "MaxRetries");
+    ValueEnforcer.isGE0 (nRetryMillis, "RetryMillis");
+
+    m_aPusher = aPusher;
+    m_nCoalesceMillis = nCoalesceMillis;
+    m_nMaxRetries = nMaxRetries;
+    m_nRetryMillis = nRetryMillis;
+    m_aExecutor = new ScheduledThreadPoolExecutor (nThreads, new PushThreadFactory ());
+  }
+
+  @Override
+  protected void onDestroy (@NonNull final IScope aScopeInDestruction)
+  {
+    // Should have been done before
+    shutdown ();
+  }
+
+  private void _schedule (@NonNull final String sKey, @Nonnegative final long nDelayMillis)
+  {
+    try
+    {
+      m_aExecutor.schedule ( () -> _process (sKey), nDelayMillis, TimeUnit.MILLISECONDS);
+    }
+    catch (final RejectedExecutionException ex)
+    {
+      final PendingPush aPush = m_aRWLock.writeLockedGet ( () -> m_aPending.remove (sKey));
+      if (aPush != null)
+      {
+        m_aDropped.incrementAndGet ();
+        LOGGER.warn ("Dropping Directory push for '" + sKey + "' because the queue is shut down");
+      }
+    }
+  }
+
+  private void _queue (@NonNull final IParticipantIdentifier aParticipantID, final boolean bDelete)
+  {
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+
+    final String sKey = aParticipantID.getURIEncoded ();
+    final boolean bSchedule;
+    m_aRWLock.writeLock ().lock ();
+    try
+    {
+      if (m_bShutdown)
+      {
+        m_aDropped.incrementAndGet ();
+        LOGGER.warn ("Ignoring Directory push for '" + sKey + "' because the queue is shut down");
+        return;
+      }
+
+      final PendingPush aPending = m_aPending.get (sKey);
+      if (aPending != null)
+      {
+        // Combine with the already pending push - the last action wins
+        aPending.m_bDelete = bDelete;
+        aPending.m_nRetry = 0;
+        m_aCoalesced.incrementAndGet ();
+        bSchedule = false;
+      }
+      else
+      {
+        m_aPending.put (sKey, new PendingPush (aParticipantID, bDelete));
+        bSchedule = true;
+      }
+    }
+    finally
+    {
+      m_aRWLock.writeLock ().unlock ();
+    }
+    m_aQueued.incrementAndGet ();
+
+    // Exactly one scheduled task per pending participant
+    if (bSchedule)
+      _schedule (sKey, m_nCoalesceMillis);
+  }
+
+  /**
+   * Queue a push of the provided participant to the Directory. This adds or updates the business
+   * card in the Directory.
+   *
+   * @param aParticipantID
+   *        The participant to be pushed. May not be <code>null</code>.
+   */
+  public void queueAdd (@NonNull final IParticipantIdentifier aParticipantID)
+  {
+    _queue (aParticipantID, false);
+  }
+
+  /**
+   * Queue the deletion of the provided participant from the Directory. Before deleting, the
+   * participant is added again, so that the ownership in the Directory is updated in case a
+   * certificate change happened since the last time.
+   *
+   * @param aParticipantID
+   *        The participant to be deleted. May not be <code>null</code>.
+   */
+  public void queueDelete (@NonNull final IParticipantIdentifier aParticipantID)
+  {
+    _queue (aParticipantID, true);
+  }
+
+  private static boolean _push (@NonNull final IParticipantIdentifier aParticipantID, final boolean bDelete)
+  {
+    final PDClient aPDClient = PDClientProvider.getInstance ().getPDClient ();
+    if (aPDClient == null)
+    {
+      LOGGER.warn ("No Directory client is available - is the Directory host name configured?");
+      return false;
+    }
+
+    // "Add" before "delete" to make sure it works
+    if (aPDClient.addServiceGroupToIndex (aParticipantID).isFailure ())
+      return false;
+    if (bDelete)
+      return aPDClient.deleteServiceGroupFromIndex (aParticipantID).isSuccess ();
+    return true;
+  }
+
+  private boolean _pushSafe (@NonNull final PendingPush aPush)
+  {
+    try
+    {
+      return m_aPusher.push (aPush.m_aParticipantID, aPush.m_bDelete);
+    }
+    catch (final RuntimeException ex)
+    {
+      LOGGER.error ("Error pushing '" + aPush.m_aParticipantID.getURIEncoded () + "' to the Directory", ex);
+      return false;
+    }
+  }
+
+  private void _process (@NonNull final String sKey)
+  {
+    PendingPush aPush = null;
+    boolean bInFlight = false;
+    m_aRWLock.writeLock ().lock ();
+    try
+    {
+      if (m_aInFlight.contains (sKey))
+        bInFlight = true;
+      else
+      {
+        aPush = m_aPending.remove (sKey);
+        if (aPush != null)
+          m_aInFlight.add (sKey);
+      }
+    }
+    finally
+    {
+      m_aRWLock.writeLock ().unlock ();
+    }
+
+    if (bInFlight)
+    {
+      // Wait until the previous push of the same participant is done
+      _schedule (sKey, Math.max (m_nCoalesceMillis, 100));
+      return;
+    }
+    if (aPush == null)
+      return;
+
+    final boolean bSuccess;
+    try
+    {
+      bSuccess = _pushSafe (aPush);
+    }
+    finally
+    {
+      m_aRWLock.writeLocked ( () -> m_aInFlight.remove (sKey));
+    }
+
+    if (bSuccess)
+    {
+      m_aSucceeded.incrementAndGet ();
+      if (LOGGER.isDebugEnabled ())
+        LOGGER.debug ("Successfully pushed '" + sKey + "' to the Directory");
+      return;
+    }
+
+    m_aFailed.incrementAndGet ();
+    int nRetry = 0;
+    m_aRWLock.writeLock ().lock ();
+    try
+    {
+      if (!m_bShutdown && aPush.m_nRetry < m_nMaxRetries)
+      {
+        // If a newer push was queued in the meantime, it supersedes the failed one
+        if (!m_aPending.containsKey (sKey))
+        {
+          nRetry = ++aPush.m_nRetry;
+          m_aPending.put (sKey, aPush);
+        }
+      }
+      else
+        m_aDropped.incrementAndGet ();
+    }
+    finally
+    {
+      m_aRWLock.writeLock ().unlock ();
+    }
+
+    if (nRetry > 0)
+    {
+      m_aRetried.incrementAndGet ();
+      final long nDelayMillis = m_nRetryMillis << Math.min (nRetry - 1, 20);
+      LOGGER.warn ("Failed to push '" +
+                   sKey +
+                   "' to the Directory. Retry " +
+                   nRetry +
+                   "/" +
+                   m_nMaxRetries +
+                   " in " +
+                   nDelayMillis +
+                   " ms");
+      _schedule (sKey, nDelayMillis);
+    }
+    else
+      if (!m_aRWLock.readLockedBoolean ( () -> m_aPending.containsKey (sKey)))
+        LOGGER.error ("Finally failed to push '" + sKey + "' to the Directory");
+  }
+
+  /**
+   * @return The number of participants waiting to be pushed.
+   */
+  @Nonnegative
+  public int getQueueDepth ()
+  {
+    return m_aRWLock.readLockedInt (m_aPending::size);
+  }
+
+  /**
+   * @return The number of participants currently being pushed.
+   */
+  @Nonnegative
+  public int getInFlightCount ()
+  {
+    return m_aRWLock.readLockedInt (m_aInFlight::size);
+  }
+
+  /**
+   * @return The statistics of this queue as a map from name to value. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsOrderedMap <String, Long> getStatistics ()
+  {
+    final ICommonsOrderedMap <String, Long> ret = new CommonsLinkedHashMap <> ();
+    ret.put ("depth", Long.valueOf (getQueueDepth ()));
+    ret.put ("in-flight", Long.valueOf (getInFlightCount ()));
+    ret.put ("queued", Long.valueOf (m_aQueued.get ()));
+    ret.put ("coalesced", Long.valueOf (m_aCoalesced.get ()));
+    ret.put ("succeeded", Long.valueOf (m_aSucceeded.get ()));
+    ret.put ("failed", Long.valueOf (m_aFailed.get ()));
+    ret.put ("retried", Long.valueOf (m_aRetried.get ()));
+    ret.put ("dropped", Long.valueOf (m_aDropped.get ()));
+    return ret;
+  }
+
+  /**
+   * Stop accepting new pushes, perform the already queued pushes without further retries and wait
+   * a limited time for them to finish. Calling this multiple times has no effect.
+   */
+  public void shutdown ()
+  {
+    final boolean bWasShutdown = m_aRWLock.writeLockedGet ( () -> {
+      final boolean ret = m_bShutdown;
+      m_bShutdown = true;
+      return Boolean.valueOf (ret);
+    }).booleanValue ();
+    if (bWasShutdown || m_aExecutor == null)
+      return;
+
+    final int nPending = getQueueDepth ();
+    if (nPending > 0)
+      LOGGER.info ("Waiting for " + nPending + " pending Directory push(es) to be performed");
+
+    // Already scheduled tasks are still executed
+    m_aExecutor.shutdown ();
+    try
+    {
+      if (!m_aExecutor.awaitTermination (SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS))
+      {
+        m_aExecutor.shutdownNow ();
+        LOGGER.warn ("Dropped " + getQueueDepth () + " pending Directory push(es) on shutdown");
+      }
+    }
+    catch (final InterruptedException ex)
+    {
+      m_aExecutor.shutdownNow ();
+      Thread.currentThread ().interrupt ();
+    }
+  }
+}
@@ -20,6 +20,7 @@ import java.net.URL;
 
 import org.jspecify.annotations.NonNull;
 
+import com.helger.annotation.Nonnegative;
 import com.helger.annotation.style.UsedViaReflection;
 import com.helger.base.debug.GlobalDebug;
 import com.helger.base.string.StringHelper;
@@ -162,6 +163,82 @@ public final class SMPWebAppConfiguration extends AbstractGlobalSingleton
     return _getConfig ().getAsString ("webapp.directory.name", "Peppol Directory");
   }
 
+  /**
+   * @return <code>true</code> if the automatic Directory updates triggered by business card and
+   *         service information changes should be performed asynchronously via the
+   *         {@link PDPushQueue}, <code>false</code> to perform them synchronously in the modifying
+   *         request. Default is <code>true</code>.
+   * @since 8.2.1
+   */
+  public static boolean isDirectoryPushAsync ()
+  {
+    return _getConfig ().getAsBoolean ("webapp.directory.push.async", true);
+  }
+
+  /**
+   * @return The number of milliseconds an asynchronous Directory push is delayed, so that multiple
+   *         changes of the same participant are combined into a single push. Default is 2000.
+   * @since 8.2.1
+   */
+  @Nonnegative
+  public static long getDirectoryPushCoalesceMillis ()
+  {
+    return Math.max (0, _getConfig ().getAsLong ("webapp.directory.push.coalesce.ms", 2_000));
+  }
+
+  /**
+   * @return The maximum number of asynchronous Directory pushes that are performed in parallel.
+   *         Default is 2.
+   * @since 8.2.1
+   */
+  @Nonnegative
+  public static int getDirectoryPushThreads ()
+  {
+    return Math.max (1, _getConfig ().getAsInt ("webapp.directory.push.threads", 2));
+  }
+
+  /**
+   * @return The maximum number of retries for a failed asynchronous Directory push. Default is 5.
+   * @since 8.2.1
+   */
+  @Nonnegative
+  public static int getDirectoryPushMaxRetries ()
+  {
+    return Math.max (0, _getConfig ().getAsInt ("webapp.directory.push.maxretries", 5));
+  }
+
+  /**
+   * @return The number of milliseconds to wait before the first retry of a failed asynchronous
+   *         Directory push. The delay is doubled for every further retry. Default is 5000.
+   * @since 8.2.1
+   */
+  @Nonnegative
+  public static long getDirectoryPushRetryMillis ()
+  {
+    return Math.max (0, _getConfig ().getAsLong ("webapp.directory.push.retry.ms", 5_000));
+  }
+
+  /**
+   * @return The number of parallel threads used to push all Business Cards to the Directory.
+   *         Default is 4.
+   * @since 8.2.1
+   */
+  @Nonnegative
+  public static int getDirectoryPushAllThreads ()
+  {
+    return Math.max (1, _getConfig ().getAsInt ("webapp.directory.pushall.threads", 4));
+  }
+
+  /**
+   * @return The maximum number of Business Cards pushed to the Directory per second, when all
+   *         Business Cards are pushed. Values &le; 0 mean unlimited. Default is 20.
+   * @since 8.2.1
+   */
+  public static int getDirectoryPushAllMaxRate ()
+  {
+    return _getConfig ().getAsInt ("webapp.directory.pushall.maxrate", 20);
+  }
+
   /**
    * @return <code>true</code> to show extension details in the secure service group list,
    *         <code>false</code> to just show a yes or no indicator. Default is <code>false</code>.
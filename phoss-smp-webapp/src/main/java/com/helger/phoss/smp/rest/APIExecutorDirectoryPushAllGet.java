@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+
+import com.helger.annotation.Nonempty;
+import com.helger.phoss.smp.app.PDPushAllJob;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.photon.app.PhotonUnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to get the progress of pushing all Business Cards to the Directory.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+public final class APIExecutorDirectoryPushAllGet extends AbstractSMPAPIExecutor
+{
+  @Override
+  protected void invokeAPI (@NonNull final IAPIDescriptor aAPIDescriptor,
+                            @NonNull @Nonempty final String sPath,
+                            @NonNull final Map <String, String> aPathVariables,
+                            @NonNull final IRequestWebScopeWithoutResponse aRequestScope,
+                            @NonNull final PhotonUnifiedResponse aUnifiedResponse) throws Exception
+  {
+    // Only authenticated user may do so
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    aUnifiedResponse.json (PDPushAllJob.getProgressAsJson ()).disableCaching ();
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.util.Map;
+
+import org.jspecify.annotations.NonNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonempty;
+import com.helger.pd.client.PDClient;
+import com.helger.phoss.smp.app.PDClientProvider;
+import com.helger.phoss.smp.app.PDPushAllJob;
+import com.helger.phoss.smp.app.SMPWebAppConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
+import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
+import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
+import com.helger.phoss.smp.restapi.SMPAPICredentials;
+import com.helger.photon.api.IAPIDescriptor;
+import com.helger.photon.app.PhotonUnifiedResponse;
+import com.helger.photon.security.user.IUser;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+
+/**
+ * REST API to start pushing all Business Cards to the Directory in the background. If a previous
+ * run was interrupted, only the participants not yet processed are pushed.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+public final class APIExecutorDirectoryPushAllPost extends AbstractSMPAPIExecutor
+{
+  private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorDirectoryPushAllPost.class);
+
+  @Override
+  protected void invokeAPI (@NonNull final IAPIDescriptor aAPIDescriptor,
+                            @NonNull @Nonempty final String sPath,
+                            @NonNull final Map <String, String> aPathVariables,
+                            @NonNull final IRequestWebScopeWithoutResponse aRequestScope,
+                            @NonNull final PhotonUnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope);
+
+    // Only authenticated user may do so
+    final SMPAPICredentials aCredentials = getMandatoryAuth (aRequestScope.headers ());
+    final IUser aUser = SMPUserManagerPhoton.validateUserCredentials (aCredentials);
+
+    final String sDirectoryName = SMPWebAppConfiguration.getDirectoryName ();
+    if (!SMPMetaManager.getSettings ().isDirectoryIntegrationEnabled ())
+    {
+      // PD integration is disabled
+      throw new SMPPreconditionFailedException ("The " +
+                                                sDirectoryName +
+                                                " integration is disabled. pushAllBusinessCards will not be executed",
+                                                aDataProvider.getCurrentURI ());
+    }
+
+    final PDClient aPDClient = PDClientProvider.getInstance ().getPDClient ();
+    if (aPDClient == null)
+      throw new SMPPreconditionFailedException ("Failed to create the " + sDirectoryName + " client component",
+                                                aDataProvider.getCurrentURI ());
+
+    if (!PDPushAllJob.startIfNotRunning (aPDClient, aUser.getID ()))
+      throw new SMPPreconditionFailedException ("Pushing all Business Cards to the " +
+                                                sDirectoryName +
+                                                " is already running",
+                                                aDataProvider.getCurrentURI ());
+
+    LOGGER.info ("Started pushing all Business Cards to the " + sDirectoryName + " on behalf of '" + aUser.getID () + "'");
+    aUnifiedResponse.json (PDPushAllJob.getProgressAsJson ()).disableCaching ();
+  }
+}
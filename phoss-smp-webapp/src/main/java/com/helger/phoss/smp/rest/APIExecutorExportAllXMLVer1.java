@@ -23,18 +23,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonempty;
-import com.helger.collection.commons.ICommonsList;
 import com.helger.phoss.smp.domain.SMPMetaManager;
-import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
-import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
-import com.helger.phoss.smp.exchange.ServiceGroupExport;
 import com.helger.phoss.smp.restapi.SMPAPICredentials;
 import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.photon.api.IAPIDescriptor;
 import com.helger.photon.app.PhotonUnifiedResponse;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
-import com.helger.xml.microdom.IMicroDocument;
 
 /**
  * REST API to export all Service Groups into XML v1
@@ -64,19 +59,18 @@ public final class APIExecutorExportAllXMLVer1 extends AbstractSMPAPIExecutor
 
     // Start action after authentication
     final ISMPSettings aSettings = SMPMetaManager.getSettings ();
-    final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-
-    // Now get all relevant service groups
-    final ICommonsList <ISMPServiceGroup> aAllServiceGroups = aServiceGroupMgr.getAllSMPServiceGroups ();
 
     final boolean bIncludeBusinessCards = aRequestScope.params ()
                                                        .getAsBoolean (PARAM_INCLUDE_BUSINESS_CARDS,
                                                                       aSettings.isDirectoryIntegrationEnabled ());
-    final IMicroDocument aDoc = ServiceGroupExport.createExportDataXMLVer10 (aAllServiceGroups, bIncludeBusinessCards);
-
-    LOGGER.info (sLogPrefix + "Finished creating Export data");
 
-    // Build the XML response
-    aUnifiedResponse.xml (aDoc).disableCaching ();
+    // Build the XML response - the export data is created while the response is sent and the
+    // service groups are read page by page
+    SMPExportStreamingHelper.setStreamingExportResponse (sLogPrefix,
+                                                         aRequestScope,
+                                                         aUnifiedResponse,
+                                                         null,
+                                                         bIncludeBusinessCards);
+    aUnifiedResponse.disableCaching ();
   }
 }
@@ -30,7 +30,6 @@ import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.domain.user.SMPUserManagerPhoton;
 import com.helger.phoss.smp.exception.SMPUnauthorizedException;
-import com.helger.phoss.smp.exchange.ServiceGroupExport;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.phoss.smp.restapi.SMPAPICredentials;
 import com.helger.phoss.smp.settings.ISMPSettings;
@@ -38,7 +37,6 @@ import com.helger.photon.api.IAPIDescriptor;
 import com.helger.photon.app.PhotonUnifiedResponse;
 import com.helger.photon.security.user.IUser;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
-import com.helger.xml.microdom.IMicroDocument;
 
 /**
  * REST API to export all Service Groups of one owner into XML v1
@@ -86,11 +84,12 @@ public final class APIExecutorExportByOwnerXMLVer1 extends AbstractSMPAPIExecuto
     final boolean bIncludeBusinessCards = aRequestScope.params ()
                                                        .getAsBoolean (PARAM_INCLUDE_BUSINESS_CARDS,
                                                                       aSettings.isDirectoryIntegrationEnabled ());
-    final IMicroDocument aDoc = ServiceGroupExport.createExportDataXMLVer10 (aAllServiceGroups, bIncludeBusinessCards);
 
-    LOGGER.info (sLogPrefix + "Finished creating Export data");
-
-    // Build the XML response
-    aUnifiedResponse.xml (aDoc);
+    // Build the XML response - the export data is created while the response is sent
+    SMPExportStreamingHelper.setStreamingExportResponse (sLogPrefix,
+                                                         aRequestScope,
+                                                         aUnifiedResponse,
+                                                         aAllServiceGroups,
+                                                         bIncludeBusinessCards);
   }
 }
@@ -20,12 +20,13 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonempty;
-import com.helger.base.io.stream.StreamHelper;
 import com.helger.base.numeric.mutable.MutableInt;
 import com.helger.base.state.ESuccess;
 import com.helger.base.timing.StopWatch;
@@ -53,6 +54,7 @@ import com.helger.phoss.smp.exception.SMPPreconditionFailedException;
 import com.helger.phoss.smp.exchange.CSMPExchange;
 import com.helger.phoss.smp.exchange.ImportActionItem;
 import com.helger.phoss.smp.exchange.ImportSummary;
+import com.helger.phoss.smp.exchange.SMPExchangeStreamReader;
 import com.helger.phoss.smp.exchange.ServiceGroupImport;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.phoss.smp.restapi.SMPAPICredentials;
@@ -65,7 +67,6 @@ import com.helger.web.scope.IRequestWebScopeWithoutResponse;
 import com.helger.xml.microdom.IMicroDocument;
 import com.helger.xml.microdom.IMicroElement;
 import com.helger.xml.microdom.MicroDocument;
-import com.helger.xml.microdom.serialize.MicroReader;
 
 /**
  * REST API to import Service Groups from XML v1
@@ -147,38 +148,45 @@ public final class APIExecutorImportXMLVer1 extends AbstractSMPAPIExecutor
                                                     .getAsBoolean (PARAM_OVERVWRITE_EXISTING,
                                                                    DEFAULT_OVERWRITE_EXISTING);
 
-    final byte [] aPayload = StreamHelper.getAllBytes (aRequestScope.getRequest ().getInputStream ());
-    final IMicroDocument aDoc = MicroReader.readMicroXML (aPayload);
-    if (aDoc == null || aDoc.getDocumentElement () == null)
+    final ZonedDateTime aQueryDT = PDTFactory.getCurrentZonedDateTimeUTC ();
+    final StopWatch aSW = StopWatch.createdStarted ();
+    final ICommonsList <ImportActionItem> aActionList = new CommonsArrayList <> ();
+    final ImportSummary aImportSummary = new ImportSummary ();
+
+    // Read the payload in a streaming way, to support arbitrary sizes
+    final SMPExchangeStreamReader aReader;
+    try
+    {
+      aReader = new SMPExchangeStreamReader (aRequestScope.getRequest ().getInputStream ());
+    }
+    catch (final XMLStreamException ex)
     {
       // Cannot parse
       throw new SMPBadRequestException ("Failed to parse XML payload", aDataProvider.getCurrentURI ());
     }
 
-    final String sVersion = aDoc.getDocumentElement ().getAttributeValue (CSMPExchange.ATTR_VERSION);
-    if (!CSMPExchange.VERSION_10.equals (sVersion))
+    try (aReader)
     {
-      throw new SMPBadRequestException ("The provided payload is not an XML file version 1.0",
-                                        aDataProvider.getCurrentURI ());
-    }
-
-    // Version 1.0
-    LOGGER.info (sLogPrefix + "The provided payload is an XML file version 1.0");
-
-    final ZonedDateTime aQueryDT = PDTFactory.getCurrentZonedDateTimeUTC ();
-    final StopWatch aSW = StopWatch.createdStarted ();
+      final String sVersion = aReader.getRootElement ().getAttributeValue (CSMPExchange.ATTR_VERSION);
+      if (!CSMPExchange.VERSION_10.equals (sVersion))
+      {
+        throw new SMPBadRequestException ("The provided payload is not an XML file version 1.0",
+                                          aDataProvider.getCurrentURI ());
+      }
 
-    // Start the import
-    final ICommonsList <ImportActionItem> aActionList = new CommonsArrayList <> ();
-    final ImportSummary aImportSummary = new ImportSummary ();
-    ServiceGroupImport.importXMLVer10 (aDoc.getDocumentElement (),
-                                       bOverwriteExisting,
-                                       aDefaultOwner,
-                                       aAllServiceGroupIDs,
-                                       aAllBusinessCardIDs,
-                                       PD_PUSH,
-                                       aActionList,
-                                       aImportSummary);
+      // Version 1.0
+      LOGGER.info (sLogPrefix + "The provided payload is an XML file version 1.0");
+
+      // Start the import
+      ServiceGroupImport.importXMLVer10 (aReader,
+                                         bOverwriteExisting,
+                                         aDefaultOwner,
+                                         aAllServiceGroupIDs,
+                                         aAllBusinessCardIDs,
+                                         PD_PUSH,
+                                         aActionList,
+                                         aImportSummary);
+    }
 
     aSW.stop ();
     LOGGER.info (sLogPrefix + "Finished import after " + aSW.getMillis () + " milliseconds");
@@ -89,12 +89,18 @@ public final class APIExecutorQueryGetBusinessCard extends AbstractSMPAPIExecuto
     {
       throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, aDataProvider.getCurrentURI ());
     }
-    final SMPQueryParams aSMPQueryParams = SMPQueryParams.createForSMLOrNull (aSMLInfo,
-                                                                              eAPIType,
-                                                                              aIF,
-                                                                              aParticipantID.getScheme (),
-                                                                              aParticipantID.getValue (),
-                                                                              true);
+    final boolean bUseCache = SMPRemoteQueryCache.isEnabled ();
+    final SMPQueryParams aSMPQueryParams = bUseCache ? SMPRemoteQueryCache.getInstance ()
+                                                                          .getQueryParams (aSMLInfo,
+                                                                                           eAPIType,
+                                                                                           aIF,
+                                                                                           aParticipantID)
+                                                     : SMPQueryParams.createForSMLOrNull (aSMLInfo,
+                                                                                          eAPIType,
+                                                                                          aIF,
+                                                                                          aParticipantID.getScheme (),
+                                                                                          aParticipantID.getValue (),
+                                                                                          true);
     if (aSMPQueryParams == null)
     {
       LOGGER.error (sLogPrefix + "Failed to perform the BusinessCard SMP lookup");
@@ -107,18 +113,29 @@ public final class APIExecutorQueryGetBusinessCard extends AbstractSMPAPIExecuto
 
     // Main querying
     final Wrapper <Exception> aBCExceptionWrapper = new Wrapper <> ();
-    final PDBusinessCard aBC = PeppolAPIHelper.retrieveBusinessCardParsed (sLogPrefix,
-                                                                           aSMPQueryParams,
-                                                                           hcs -> {},
-                                                                           new FeedbackCallbackLog (LOGGER, sLogPrefix),
-                                                                           aBCExceptionWrapper::set);
+    final SMPRemoteQueryCache.IRemoteQuery aQuery = () -> {
+      final PDBusinessCard aBC = PeppolAPIHelper.retrieveBusinessCardParsed (sLogPrefix,
+                                                                             aSMPQueryParams,
+                                                                             hcs -> {},
+                                                                             new FeedbackCallbackLog (LOGGER,
+                                                                                                      sLogPrefix),
+                                                                             aBCExceptionWrapper::set);
+      // Business Card found?
+      return aBC == null ? null : aBC.getAsJson ();
+    };
 
-    IJsonObject aJson = null;
-    if (aBC != null)
-    {
-      // Business Card found
-      aJson = aBC.getAsJson ();
-    }
+    final IJsonObject aJson;
+    if (bUseCache)
+      aJson = SMPRemoteQueryCache.getInstance ()
+                                 .getResult ("businesscard " +
+                                             eAPIType.name () +
+                                             ' ' +
+                                             aSMLInfo.getID () +
+                                             ' ' +
+                                             aParticipantID.getURIEncoded (),
+                                             aQuery);
+    else
+      aJson = aQuery.query ();
 
     aSW.stop ();
 
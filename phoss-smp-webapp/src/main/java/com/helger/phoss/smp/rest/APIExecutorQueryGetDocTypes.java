@@ -97,12 +97,17 @@ public final class APIExecutorQueryGetDocTypes extends AbstractSMPAPIExecutorQue
     if (aParticipantID == null)
       throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, aDataProvider.getCurrentURI ());
 
-    final SMPQueryParams aSMPQueryParams = SMPQueryParams.createForSMLOrNull (aSMLInfo,
-                                                                              eAPIType,
-                                                                              aIF,
-                                                                              aParticipantID.getScheme (),
-                                                                              aParticipantID.getValue (),
-                                                                              true);
+    final SMPQueryParams aSMPQueryParams = SMPRemoteQueryCache.isEnabled () ? SMPRemoteQueryCache.getInstance ()
+                                                                                                 .getQueryParams (aSMLInfo,
+                                                                                                                  eAPIType,
+                                                                                                                  aIF,
+                                                                                                                  aParticipantID)
+                                                                            : SMPQueryParams.createForSMLOrNull (aSMLInfo,
+                                                                                                                 eAPIType,
+                                                                                                                 aIF,
+                                                                                                                 aParticipantID.getScheme (),
+                                                                                                                 aParticipantID.getValue (),
+                                                                                                                 true);
     if (aSMPQueryParams == null)
     {
       LOGGER.error (sLogPrefix + "Participant ID '" + sPathServiceGroupID + "' is not registered in the DNS");
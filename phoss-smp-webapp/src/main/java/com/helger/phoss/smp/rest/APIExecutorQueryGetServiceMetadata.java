@@ -107,77 +107,14 @@ public final class APIExecutorQueryGetServiceMetadata extends AbstractSMPAPIExec
     return ret;
   }
 
-  @Override
-  protected void invokeAPI (@NonNull final IAPIDescriptor aAPIDescriptor,
-                            @NonNull @Nonempty final String sPath,
-                            @NonNull final Map <String, String> aPathVariables,
-                            @NonNull final IRequestWebScopeWithoutResponse aRequestScope,
-                            @NonNull final PhotonUnifiedResponse aUnifiedResponse) throws Exception
+  @Nullable
+  private static IJsonObject _queryServiceMetadata (@NonNull final ESMPAPIType eAPIType,
+                                                   @NonNull final SMPQueryParams aSMPQueryParams,
+                                                   @NonNull final IParticipantIdentifier aParticipantID,
+                                                   @NonNull final IDocumentTypeIdentifier aDocTypeID,
+                                                   final boolean bXMLSchemaValidation,
+                                                   final boolean bVerifySignature) throws Exception
   {
-    final String sLogPrefix = "[QueryAPI] ";
-    final String sPathServiceGroupID = StringHelper.trim (aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID));
-    final String sPathDocumentTypeID = StringHelper.trim (aPathVariables.get (SMPRestFilter.PARAM_DOCUMENT_TYPE_ID));
-    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope);
-
-    // Is the remote query API disabled?
-    if (SMPServerConfiguration.isRestRemoteQueryAPIDisabled ())
-    {
-      throw new SMPPreconditionFailedException ("The remote query API is disabled. getRemoteServiceInformation will not be executed",
-                                                aDataProvider.getCurrentURI ());
-    }
-
-    final IIdentifierFactory aIF = SMPMetaManager.getIdentifierFactory ();
-    final ESMPAPIType eAPIType = SMPServerConfiguration.getRESTType ().getAPIType ();
-    final ISMLInfo aSMLInfo = SMPMetaManager.getSettings ().getSMLInfo ();
-    if (aSMLInfo == null)
-    {
-      throw new SMPPreconditionFailedException ("Currently no SML is available. Please select it in the UI at the 'SMP Settings' page",
-                                                aDataProvider.getCurrentURI ());
-    }
-
-    final IParticipantIdentifier aParticipantID = aIF.parseParticipantIdentifier (sPathServiceGroupID);
-    if (aParticipantID == null)
-    {
-      throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, aDataProvider.getCurrentURI ());
-    }
-
-    final SMPQueryParams aSMPQueryParams = SMPQueryParams.createForSMLOrNull (aSMLInfo,
-                                                                              eAPIType,
-                                                                              aIF,
-                                                                              aParticipantID.getScheme (),
-                                                                              aParticipantID.getValue (),
-                                                                              true);
-    if (aSMPQueryParams == null)
-    {
-      LOGGER.error (sLogPrefix + "Failed to perform the SMP lookup");
-      aUnifiedResponse.createNotFound ();
-      return;
-    }
-
-    final IDocumentTypeIdentifier aDocTypeID = aIF.parseDocumentTypeIdentifier (sPathDocumentTypeID);
-    if (aDocTypeID == null)
-      throw SMPBadRequestException.failedToParseDocType (sPathDocumentTypeID, null);
-
-    final boolean bXMLSchemaValidation = aRequestScope.params ().getAsBoolean ("xmlSchemaValidation", true);
-    final boolean bVerifySignature = aRequestScope.params ().getAsBoolean ("verifySignature", true);
-
-    final ZonedDateTime aQueryDT = PDTFactory.getCurrentZonedDateTimeUTC ();
-    final StopWatch aSW = StopWatch.createdStarted ();
-
-    LOGGER.info (sLogPrefix +
-                 "Participant information of '" +
-                 aParticipantID.getURIEncoded () +
-                 "' is queried using SMP API '" +
-                 eAPIType +
-                 "' from '" +
-                 aSMPQueryParams.getSMPHostURI () +
-                 "' for document type '" +
-                 aDocTypeID.getURIEncoded () +
-                 "'; XSD validation=" +
-                 bXMLSchemaValidation +
-                 "; signature verification=" +
-                 bVerifySignature);
-
     IJsonObject aJson = null;
     switch (eAPIType)
     {
@@ -260,6 +197,118 @@ public final class APIExecutorQueryGetServiceMetadata extends AbstractSMPAPIExec
       default:
         throw new UnsupportedOperationException ("Unsupported REST type specified!");
     }
+    return aJson;
+  }
+
+  @Override
+  protected void invokeAPI (@NonNull final IAPIDescriptor aAPIDescriptor,
+                            @NonNull @Nonempty final String sPath,
+                            @NonNull final Map <String, String> aPathVariables,
+                            @NonNull final IRequestWebScopeWithoutResponse aRequestScope,
+                            @NonNull final PhotonUnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final String sLogPrefix = "[QueryAPI] ";
+    final String sPathServiceGroupID = StringHelper.trim (aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID));
+    final String sPathDocumentTypeID = StringHelper.trim (aPathVariables.get (SMPRestFilter.PARAM_DOCUMENT_TYPE_ID));
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope);
+
+    // Is the remote query API disabled?
+    if (SMPServerConfiguration.isRestRemoteQueryAPIDisabled ())
+    {
+      throw new SMPPreconditionFailedException ("The remote query API is disabled. getRemoteServiceInformation will not be executed",
+                                                aDataProvider.getCurrentURI ());
+    }
+
+    final IIdentifierFactory aIF = SMPMetaManager.getIdentifierFactory ();
+    final ESMPAPIType eAPIType = SMPServerConfiguration.getRESTType ().getAPIType ();
+    final ISMLInfo aSMLInfo = SMPMetaManager.getSettings ().getSMLInfo ();
+    if (aSMLInfo == null)
+    {
+      throw new SMPPreconditionFailedException ("Currently no SML is available. Please select it in the UI at the 'SMP Settings' page",
+                                                aDataProvider.getCurrentURI ());
+    }
+
+    final IParticipantIdentifier aParticipantID = aIF.parseParticipantIdentifier (sPathServiceGroupID);
+    if (aParticipantID == null)
+    {
+      throw SMPBadRequestException.failedToParseSG (sPathServiceGroupID, aDataProvider.getCurrentURI ());
+    }
+
+    final boolean bUseCache = SMPRemoteQueryCache.isEnabled ();
+    final SMPQueryParams aSMPQueryParams = bUseCache ? SMPRemoteQueryCache.getInstance ()
+                                                                          .getQueryParams (aSMLInfo,
+                                                                                           eAPIType,
+                                                                                           aIF,
+                                                                                           aParticipantID)
+                                                     : SMPQueryParams.createForSMLOrNull (aSMLInfo,
+                                                                                          eAPIType,
+                                                                                          aIF,
+                                                                                          aParticipantID.getScheme (),
+                                                                                          aParticipantID.getValue (),
+                                                                                          true);
+    if (aSMPQueryParams == null)
+    {
+      LOGGER.error (sLogPrefix + "Failed to perform the SMP lookup");
+      aUnifiedResponse.createNotFound ();
+      return;
+    }
+
+    final IDocumentTypeIdentifier aDocTypeID = aIF.parseDocumentTypeIdentifier (sPathDocumentTypeID);
+    if (aDocTypeID == null)
+      throw SMPBadRequestException.failedToParseDocType (sPathDocumentTypeID, null);
+
+    final boolean bXMLSchemaValidation = aRequestScope.params ().getAsBoolean ("xmlSchemaValidation", true);
+    final boolean bVerifySignature = aRequestScope.params ().getAsBoolean ("verifySignature", true);
+
+    final ZonedDateTime aQueryDT = PDTFactory.getCurrentZonedDateTimeUTC ();
+    final StopWatch aSW = StopWatch.createdStarted ();
+
+    LOGGER.info (sLogPrefix +
+                 "Participant information of '" +
+                 aParticipantID.getURIEncoded () +
+                 "' is queried using SMP API '" +
+                 eAPIType +
+                 "' from '" +
+                 aSMPQueryParams.getSMPHostURI () +
+                 "' for document type '" +
+                 aDocTypeID.getURIEncoded () +
+                 "'; XSD validation=" +
+                 bXMLSchemaValidation +
+                 "; signature verification=" +
+                 bVerifySignature);
+
+    final IJsonObject aJson;
+    if (bUseCache)
+    {
+      // All parameters that influence the result are part of the key
+      final String sCacheKey = "servicemetadata " +
+                               eAPIType.name () +
+                               ' ' +
+                               aSMLInfo.getID () +
+                               ' ' +
+                               aParticipantID.getURIEncoded () +
+                               ' ' +
+                               aDocTypeID.getURIEncoded () +
+                               ' ' +
+                               bXMLSchemaValidation +
+                               ' ' +
+                               bVerifySignature;
+      aJson = SMPRemoteQueryCache.getInstance ()
+                                 .getResult (sCacheKey,
+                                             () -> _queryServiceMetadata (eAPIType,
+                                                                          aSMPQueryParams,
+                                                                          aParticipantID,
+                                                                          aDocTypeID,
+                                                                          bXMLSchemaValidation,
+                                                                          bVerifySignature));
+    }
+    else
+      aJson = _queryServiceMetadata (eAPIType,
+                                     aSMPQueryParams,
+                                     aParticipantID,
+                                     aDocTypeID,
+                                     bXMLSchemaValidation,
+                                     bVerifySignature);
 
     aSW.stop ();
 
@@ -33,13 +33,19 @@ import com.helger.base.debug.GlobalDebug;
 import com.helger.base.io.nonblocking.NonBlockingByteArrayOutputStream;
 import com.helger.base.string.StringHelper;
 import com.helger.mime.CMimeType;
+import com.helger.peppolid.IDocumentTypeIdentifier;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.CSMPServer;
+import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.exception.SMPInternalErrorException;
 import com.helger.phoss.smp.restapi.BDXR1ServerAPI;
 import com.helger.phoss.smp.restapi.BDXR2ServerAPI;
 import com.helger.phoss.smp.restapi.ISMPServerAPIDataProvider;
 import com.helger.phoss.smp.restapi.SMPServerAPI;
+import com.helger.phoss.smp.restapi.SMPServiceMetadataResponseCache;
 import com.helger.phoss.smp.security.SMPKeyManager;
 import com.helger.photon.api.IAPIDescriptor;
 import com.helger.photon.app.PhotonUnifiedResponse;
@@ -58,20 +64,15 @@ public final class APIExecutorServiceMetadataGet extends AbstractSMPAPIExecutor
 {
   private static final Logger LOGGER = LoggerFactory.getLogger (APIExecutorServiceMetadataGet.class);
 
-  @Override
-  protected void invokeAPI (@NonNull final IAPIDescriptor aAPIDescriptor,
-                            @NonNull @Nonempty final String sPath,
-                            @NonNull final Map <String, String> aPathVariables,
-                            @NonNull final IRequestWebScopeWithoutResponse aRequestScope,
-                            @NonNull final PhotonUnifiedResponse aUnifiedResponse) throws Exception
+  @NonNull
+  private static byte [] _createSignedResponse (@NonNull final ESMPRESTType eRESTType,
+                                               @NonNull final String sPathServiceGroupID,
+                                               @NonNull final String sPathDocumentTypeID,
+                                               @NonNull final ISMPServerAPIDataProvider aDataProvider) throws Exception
   {
-    final String sPathServiceGroupID = StringHelper.trim (aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID));
-    final String sPathDocumentTypeID = StringHelper.trim (aPathVariables.get (SMPRestFilter.PARAM_DOCUMENT_TYPE_ID));
-    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope);
-
     // Create the unsigned response document
     final Document aDoc;
-    switch (SMPServerConfiguration.getRESTType ())
+    switch (eRESTType)
     {
       case PEPPOL:
       {
@@ -131,7 +132,7 @@ public final class APIExecutorServiceMetadataGet extends AbstractSMPAPIExecutor
     // Sign the document
     try
     {
-      SMPKeyManager.getInstance ().signXML (aDoc.getDocumentElement (), SMPServerConfiguration.getRESTType ());
+      SMPKeyManager.getInstance ().signXML (aDoc.getDocumentElement (), eRESTType);
       LOGGER.info ("Successfully signed response XML");
     }
     catch (final Exception ex)
@@ -144,7 +145,7 @@ public final class APIExecutorServiceMetadataGet extends AbstractSMPAPIExecutor
       LOGGER.info ("Running post-signing XML Schema validation in debug mode");
 
       // Run the XML Schema validation after the signing
-      final Object aSM = switch (SMPServerConfiguration.getRESTType ())
+      final Object aSM = switch (eRESTType)
       {
         case PEPPOL -> new SMPMarshallerSignedServiceMetadataType ().read (aDoc);
         case OASIS_BDXR_V1 -> new BDXR1MarshallerSignedServiceMetadataType ().read (aDoc);
@@ -182,9 +183,57 @@ public final class APIExecutorServiceMetadataGet extends AbstractSMPAPIExecutor
         }
       }
 
-      aUnifiedResponse.setContent (aBAOS.toByteArray ())
-                      .setMimeType (CMimeType.TEXT_XML)
-                      .setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
+      return aBAOS.toByteArray ();
     }
   }
+
+  @Override
+  protected void invokeAPI (@NonNull final IAPIDescriptor aAPIDescriptor,
+                            @NonNull @Nonempty final String sPath,
+                            @NonNull final Map <String, String> aPathVariables,
+                            @NonNull final IRequestWebScopeWithoutResponse aRequestScope,
+                            @NonNull final PhotonUnifiedResponse aUnifiedResponse) throws Exception
+  {
+    final String sPathServiceGroupID = StringHelper.trim (aPathVariables.get (SMPRestFilter.PARAM_SERVICE_GROUP_ID));
+    final String sPathDocumentTypeID = StringHelper.trim (aPathVariables.get (SMPRestFilter.PARAM_DOCUMENT_TYPE_ID));
+    final ISMPServerAPIDataProvider aDataProvider = new SMPRestDataProvider (aRequestScope);
+    final ESMPRESTType eRESTType = SMPServerConfiguration.getRESTType ();
+
+    byte [] aResponseBytes = null;
+    if (SMPServiceMetadataResponseCache.isEnabled ())
+    {
+      // Invalid identifiers are handled in the regular way
+      final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
+      final IParticipantIdentifier aParticipantID = aIdentifierFactory.parseParticipantIdentifier (sPathServiceGroupID);
+      final IDocumentTypeIdentifier aDocTypeID = aIdentifierFactory.parseDocumentTypeIdentifier (sPathDocumentTypeID);
+      if (aParticipantID != null && aDocTypeID != null)
+      {
+        final SMPServiceMetadataResponseCache aCache = SMPServiceMetadataResponseCache.getInstance ();
+        aResponseBytes = aCache.getResponse (eRESTType, aParticipantID, aDocTypeID);
+        if (aResponseBytes != null)
+        {
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Using cached signed response XML for '" +
+                          aParticipantID.getURIEncoded () +
+                          "' and '" +
+                          aDocTypeID.getURIEncoded () +
+                          "'");
+        }
+        else
+        {
+          // Remember the generation before reading the data
+          final long nGeneration = aCache.getCurrentGeneration ();
+          aResponseBytes = _createSignedResponse (eRESTType, sPathServiceGroupID, sPathDocumentTypeID, aDataProvider);
+          aCache.putResponse (nGeneration, eRESTType, aParticipantID, aDocTypeID, aResponseBytes);
+        }
+      }
+    }
+
+    if (aResponseBytes == null)
+      aResponseBytes = _createSignedResponse (eRESTType, sPathServiceGroupID, sPathDocumentTypeID, aDataProvider);
+
+    aUnifiedResponse.setContent (aResponseBytes)
+                    .setMimeType (CMimeType.TEXT_XML)
+                    .setCharset (XMLWriterSettings.DEFAULT_XML_CHARSET_OBJ);
+  }
 }
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.concurrent.Immutable;
+import com.helger.base.io.iface.IHasInputStream;
+import com.helger.base.io.stream.StreamHelper;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.mime.CMimeType;
+import com.helger.mime.EMimeContentType;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.exchange.ServiceGroupExport;
+import com.helger.photon.app.PhotonUnifiedResponse;
+import com.helger.web.scope.IRequestWebScopeWithoutResponse;
+import com.helger.web.scope.mgr.WebScoped;
+
+/**
+ * Helper to send the XML export data in a streaming way. The export data is created in a separate
+ * thread and written into a pipe, from which the response is read. So the response is sent with
+ * chunked transfer encoding, while the export data is created, instead of creating the complete
+ * export in memory first. The number of concurrently created exports is limited. If the creation
+ * of the export data fails, reading the response content fails as well, so that the response is
+ * not terminated like a complete one.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@Immutable
+final class SMPExportStreamingHelper
+{
+  /**
+   * Request parameter to gzip compress the export data.
+   */
+  public static final String PARAM_GZIP = "gzip";
+  public static final boolean DEFAULT_GZIP = false;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPExportStreamingHelper.class);
+  private static final int PIPE_SIZE = 64 * 1024;
+  /** The maximum number of exports created at the same time */
+  private static final int MAX_CONCURRENT_EXPORTS = 4;
+  /** The maximum number of exports waiting for a free export thread */
+  private static final int MAX_QUEUED_EXPORTS = 16;
+
+  private static final class ExportThreadFactory implements ThreadFactory
+  {
+    private final AtomicInteger m_aCounter = new AtomicInteger (0);
+
+    @NonNull
+    public Thread newThread (@NonNull final Runnable aRunnable)
+    {
+      final Thread ret = new Thread (aRunnable, "smp-export-" + m_aCounter.incrementAndGet ());
+      ret.setDaemon (true);
+      return ret;
+    }
+  }
+
+  private static final ThreadPoolExecutor EXECUTOR;
+  static
+  {
+    EXECUTOR = new ThreadPoolExecutor (MAX_CONCURRENT_EXPORTS,
+                                       MAX_CONCURRENT_EXPORTS,
+                                       60,
+                                       TimeUnit.SECONDS,
+                                       new LinkedBlockingQueue <> (MAX_QUEUED_EXPORTS),
+                                       new ExportThreadFactory (),
+                                       new ThreadPoolExecutor.AbortPolicy ());
+    EXECUTOR.allowCoreThreadTimeOut (true);
+  }
+
+  /**
+   * A pipe input stream that fails reading, if writing the export data into the pipe failed.
+   */
+  private static final class ExportPipedInputStream extends PipedInputStream
+  {
+    private volatile Throwable m_aFailure;
+
+    ExportPipedInputStream (final int nPipeSize)
+    {
+      super (nPipeSize);
+    }
+
+    void setFailure (@NonNull final Throwable aFailure)
+    {
+      m_aFailure = aFailure;
+    }
+
+    private void _checkFailure () throws IOException
+    {
+      final Throwable aFailure = m_aFailure;
+      if (aFailure != null)
+        throw new IOException ("Failed to create the Export data", aFailure);
+    }
+
+    @Override
+    public int read () throws IOException
+    {
+      _checkFailure ();
+      final int ret = super.read ();
+      if (ret < 0)
+        _checkFailure ();
+      return ret;
+    }
+
+    @Override
+    public int read (final byte [] aBuf, final int nOfs, final int nLen) throws IOException
+    {
+      _checkFailure ();
+      final int ret = super.read (aBuf, nOfs, nLen);
+      if (ret < 0)
+        _checkFailure ();
+      return ret;
+    }
+
+    @Override
+    public void close () throws IOException
+    {
+      super.close ();
+      _checkFailure ();
+    }
+  }
+
+  private SMPExportStreamingHelper ()
+  {}
+
+  /**
+   * Set the streaming export of the provided service groups as the response content. The export
+   * itself starts when the response content is read.
+   *
+   * @param sLogPrefix
+   *        The log prefix to use. May not be <code>null</code>.
+   * @param aRequestScope
+   *        The current request scope. May not be <code>null</code>.
+   * @param aUnifiedResponse
+   *        The response to fill. May not be <code>null</code>.
+   * @param aServiceGroups
+   *        The service groups to export. May be <code>null</code> to export all service groups,
+   *        which are then read page by page.
+   * @param bIncludeBusinessCards
+   *        <code>true</code> to include Business Cards, <code>false</code> to skip them
+   */
+  static void setStreamingExportResponse (@NonNull final String sLogPrefix,
+                                          @NonNull final IRequestWebScopeWithoutResponse aRequestScope,
+                                          @NonNull final PhotonUnifiedResponse aUnifiedResponse,
+                                          @Nullable final ICommonsList <ISMPServiceGroup> aServiceGroups,
+                                          final boolean bIncludeBusinessCards)
+  {
+    final boolean bGZip = aRequestScope.params ().getAsBoolean (PARAM_GZIP, DEFAULT_GZIP);
+
+    aUnifiedResponse.setContent (new IHasInputStream ()
+    {
+      @NonNull
+      public InputStream getInputStream ()
+      {
+        final ExportPipedInputStream aPIS = new ExportPipedInputStream (PIPE_SIZE);
+        final PipedOutputStream aPOS;
+        try
+        {
+          aPOS = new PipedOutputStream (aPIS);
+        }
+        catch (final IOException ex)
+        {
+          throw new UncheckedIOException (ex);
+        }
+
+        try
+        {
+          EXECUTOR.execute ( () -> {
+            // Scopes are needed for the managers
+            try (final WebScoped aWebScoped = new WebScoped ())
+            {
+              final OutputStream aOS = bGZip ? new GZIPOutputStream (aPOS, PIPE_SIZE) : aPOS;
+              if (aServiceGroups == null)
+                ServiceGroupExport.writeExportDataXMLVer10 (bIncludeBusinessCards, aOS);
+              else
+                ServiceGroupExport.writeExportDataXMLVer10 (aServiceGroups, bIncludeBusinessCards, aOS);
+              // Only close on success, as this writes the GZIP trailer
+              aOS.close ();
+              LOGGER.info (sLogPrefix + "Finished writing Export data");
+            }
+            catch (final Exception ex)
+            {
+              // Record before the pipe is closed, so that the reader never sees a regular end
+              aPIS.setFailure (ex);
+              // E.g. if the client closed the connection
+              LOGGER.error (sLogPrefix + "Failed to write Export data", ex);
+            }
+            finally
+            {
+              StreamHelper.close (aPOS);
+            }
+          });
+        }
+        catch (final RejectedExecutionException ex)
+        {
+          StreamHelper.close (aPOS);
+          StreamHelper.close (aPIS);
+          throw new IllegalStateException ("Too many concurrent exports - try again later", ex);
+        }
+        return aPIS;
+      }
+
+      public boolean isReadMultiple ()
+      {
+        return false;
+      }
+    });
+
+    if (bGZip)
+      aUnifiedResponse.setMimeType (EMimeContentType.APPLICATION.buildMimeType ("gzip"));
+    else
+      aUnifiedResponse.setMimeType (CMimeType.APPLICATION_XML).setCharset (StandardCharsets.UTF_8);
+  }
+}
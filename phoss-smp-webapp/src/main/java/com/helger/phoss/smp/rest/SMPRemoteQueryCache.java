@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jspecify.annotations.NonNull;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.helger.annotation.Nonempty;
+import com.helger.annotation.Nonnegative;
+import com.helger.annotation.concurrent.ThreadSafe;
+import com.helger.annotation.style.ReturnsMutableCopy;
+import com.helger.annotation.style.UsedViaReflection;
+import com.helger.base.enforce.ValueEnforcer;
+import com.helger.collection.commons.CommonsHashMap;
+import com.helger.collection.commons.ICommonsMap;
+import com.helger.json.IJsonObject;
+import com.helger.peppol.sml.ESMPAPIType;
+import com.helger.peppol.sml.ISMLInfo;
+import com.helger.peppol.ui.types.smp.SMPQueryParams;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.scope.singleton.AbstractGlobalSingleton;
+
+/**
+ * An in-memory cache for the remote query API. It caches the resolved SMP of a participant (the
+ * DNS lookup of {@link SMPQueryParams}) and the successful, verified results of remote queries, so
+ * that repeated queries of the same participant don't hit the DNS and the remote SMP every time.
+ * Failed lookups and queries are never cached.
+ *
+ * @author Philip Helger
+ * @since 8.2.1
+ */
+@ThreadSafe
+public final class SMPRemoteQueryCache extends AbstractGlobalSingleton
+{
+  /**
+   * A remote query with a JSON result.
+   *
+   * @author Philip Helger
+   */
+  @FunctionalInterface
+  public interface IRemoteQuery
+  {
+    /**
+     * @return The query result. May be <code>null</code> if the query failed.
+     * @throws Exception
+     *         In case of a technical error
+     */
+    @Nullable
+    IJsonObject query () throws Exception;
+  }
+
+  /**
+   * A single cached value.
+   *
+   * @author Philip Helger
+   * @param <T>
+   *        The value type
+   */
+  private static final class CachedValue <T>
+  {
+    private final T m_aValue;
+    private final long m_nExpirationMillis;
+
+    CachedValue (@NonNull final T aValue, final long nExpirationMillis)
+    {
+      m_aValue = aValue;
+      m_nExpirationMillis = nExpirationMillis;
+    }
+
+    boolean isExpired (final long nNowMillis)
+    {
+      return nNowMillis >= m_nExpirationMillis;
+    }
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger (SMPRemoteQueryCache.class);
+
+  private final Duration m_aLookupTTL;
+  private final Duration m_aResultTTL;
+  private final int m_nMaxSize;
+  private final ICommonsMap <String, CachedValue <SMPQueryParams>> m_aLookups = new CommonsHashMap <> ();
+  private final ICommonsMap <String, CachedValue <IJsonObject>> m_aResults = new CommonsHashMap <> ();
+  private final AtomicLong m_aLookupHits = new AtomicLong ();
+  private final AtomicLong m_aLookupMisses = new AtomicLong ();
+  private final AtomicLong m_aResultHits = new AtomicLong ();
+  private final AtomicLong m_aResultMisses = new AtomicLong ();
+
+  /**
+   * @deprecated Only called via reflection
+   */
+  @Deprecated (forRemoval = false)
+  @UsedViaReflection
+  public SMPRemoteQueryCache ()
+  {
+    this (SMPServerConfiguration.getRestRemoteQueryAPICacheLookupTTL (),
+          SMPServerConfiguration.getRestRemoteQueryAPICacheResultTTL (),
+          SMPServerConfiguration.getRestRemoteQueryAPICacheMaxSize ());
+  }
+
+  /**
+   * Constructor with explicit settings - for testing only.
+   *
+   * @param aLookupTTL
+   *        The time to live of the cached lookups. May not be <code>null</code>.
+   * @param aResultTTL
+   *        The time to live of the cached results. May not be <code>null</code>.
+   * @param nMaxSize
+   *        The maximum number of lookups and the maximum number of results. Values &lt; 1 are
+   *        treated as 1.
+   */
+  SMPRemoteQueryCache (@NonNull final Duration aLookupTTL, @NonNull final Duration aResultTTL, final int nMaxSize)
+  {
+    ValueEnforcer.notNull (aLookupTTL, "LookupTTL");
+    ValueEnforcer.notNull (aResultTTL, "ResultTTL");
+    m_aLookupTTL = aLookupTTL;
+    m_aResultTTL = aResultTTL;
+    m_nMaxSize = Math.max (1, nMaxSize);
+  }
+
+  @NonNull
+  public static SMPRemoteQueryCache getInstance ()
+  {
+    return getGlobalSingleton (SMPRemoteQueryCache.class);
+  }
+
+  /**
+   * @return <code>true</code> if the cache is enabled in the configuration, <code>false</code> if
+   *         not.
+   * @see SMPServerConfiguration#isRestRemoteQueryAPICacheEnabled()
+   */
+  public static boolean isEnabled ()
+  {
+    return SMPServerConfiguration.isRestRemoteQueryAPICacheEnabled ();
+  }
+
+  @NonNull
+  private static String _getLookupKey (@NonNull final ISMLInfo aSMLInfo,
+                                       @NonNull final ESMPAPIType eAPIType,
+                                       @NonNull final IParticipantIdentifier aParticipantID)
+  {
+    // The DNS zone is part of the key, in case the SML configuration is changed
+    return eAPIType.name () +
+           ' ' +
+           aSMLInfo.getID () +
+           ' ' +
+           aSMLInfo.getDNSZone () +
+           ' ' +
+           aParticipantID.getURIEncoded ();
+  }
+
+  @Nullable
+  private <T> T _get (@NonNull final ICommonsMap <String, CachedValue <T>> aMap, @NonNull final String sKey)
+  {
+    final CachedValue <T> aCachedValue = m_aRWLock.readLockedGet ( () -> aMap.get (sKey));
+    if (aCachedValue == null || aCachedValue.isExpired (System.currentTimeMillis ()))
+      return null;
+    return aCachedValue.m_aValue;
+  }
+
+  private <T> void _put (@NonNull final ICommonsMap <String, CachedValue <T>> aMap,
+                         @NonNull final String sKey,
+                         @NonNull final T aValue,
+                         @NonNull final Duration aTTL)
+  {
+    final long nNowMillis = System.currentTimeMillis ();
+    final CachedValue <T> aCachedValue = new CachedValue <> (aValue, nNowMillis + aTTL.toMillis ());
+    m_aRWLock.writeLocked ( () -> {
+      if (aMap.size () >= m_nMaxSize && !aMap.containsKey (sKey))
+      {
+        aMap.entrySet ().removeIf (x -> x.getValue ().isExpired (nNowMillis));
+        if (aMap.size () >= m_nMaxSize)
+        {
+          // Still full - keep the existing entries
+          if (LOGGER.isDebugEnabled ())
+            LOGGER.debug ("Remote query cache is full (" + aMap.size () + " entries)");
+          return;
+        }
+      }
+      aMap.put (sKey, aCachedValue);
+    });
+  }
+
+  /**
+   * Get the SMP query parameters of the provided participant from the cache, or resolve them via
+   * {@link SMPQueryParams#createForSMLOrNull(ISMLInfo, ESMPAPIType, IIdentifierFactory, String, String, boolean)}
+   * and cache them.
+   *
+   * @param aSMLInfo
+   *        The SML to use. May not be <code>null</code>.
+   * @param eAPIType
+   *        The SMP API type to use. May not be <code>null</code>.
+   * @param aIF
+   *        The identifier factory to use. May not be <code>null</code>.
+   * @param aParticipantID
+   *        The participant to be resolved. May not be <code>null</code>.
+   * @return <code>null</code> if the participant could not be resolved.
+   */
+  @Nullable
+  public SMPQueryParams getQueryParams (@NonNull final ISMLInfo aSMLInfo,
+                                        @NonNull final ESMPAPIType eAPIType,
+                                        @NonNull final IIdentifierFactory aIF,
+                                        @NonNull final IParticipantIdentifier aParticipantID)
+  {
+    ValueEnforcer.notNull (aSMLInfo, "SMLInfo");
+    ValueEnforcer.notNull (eAPIType, "APIType");
+    ValueEnforcer.notNull (aIF, "IF");
+    ValueEnforcer.notNull (aParticipantID, "ParticipantID");
+
+    final String sKey = _getLookupKey (aSMLInfo, eAPIType, aParticipantID);
+    SMPQueryParams ret = _get (m_aLookups, sKey);
+    if (ret != null)
+    {
+      m_aLookupHits.incrementAndGet ();
+      return ret;
+    }
+
+    m_aLookupMisses.incrementAndGet ();
+    ret = SMPQueryParams.createForSMLOrNull (aSMLInfo,
+                                             eAPIType,
+                                             aIF,
+                                             aParticipantID.getScheme (),
+                                             aParticipantID.getValue (),
+                                             true);
+    if (ret != null)
+      _put (m_aLookups, sKey, ret, m_aLookupTTL);
+    return ret;
+  }
+
+  /**
+   * Get a cached remote result or query and cache it.
+   *
+   * @param sKey
+   *        The unique key of the query, containing all parameters that influence the result. May
+   *        neither be <code>null</code> nor empty.
+   * @param aQuery
+   *        The remote query to perform on a cache miss. May not be <code>null</code>.
+   * @return The cached or queried result. <code>null</code> if the query failed. Each call returns
+   *         a new object that may be modified by the caller.
+   * @throws Exception
+   *         If the remote query failed with an exception
+   */
+  @Nullable
+  @ReturnsMutableCopy
+  public IJsonObject getResult (@NonNull @Nonempty final String sKey, @NonNull final IRemoteQuery aQuery) throws Exception
+  {
+    ValueEnforcer.notEmpty (sKey, "Key");
+    ValueEnforcer.notNull (aQuery, "Query");
+
+    final IJsonObject aCached = _get (m_aResults, sKey);
+    if (aCached != null)
+    {
+      m_aResultHits.incrementAndGet ();
+      return aCached.getClone ();
+    }
+
+    m_aResultMisses.incrementAndGet ();
+    final IJsonObject ret = aQuery.query ();
+    if (ret != null)
+      _put (m_aResults, sKey, ret.getClone (), m_aResultTTL);
+    return ret;
+  }
+
+  /**
+   * Remove all entries from the cache.
+   */
+  public void clear ()
+  {
+    m_aRWLock.writeLocked ( () -> {
+      m_aLookups.clear ();
+      m_aResults.clear ();
+    });
+    LOGGER.info ("Cleared the remote query cache");
+  }
+
+  /**
+   * @return The number of cached lookups and results, including the expired ones. Always &ge; 0.
+   */
+  @Nonnegative
+  public int getSize ()
+  {
+    return m_aRWLock.readLockedInt ( () -> m_aLookups.size () + m_aResults.size ());
+  }
+
+  /**
+   * @return The statistics of this cache as a map from name to value. Never <code>null</code>.
+   */
+  @NonNull
+  @ReturnsMutableCopy
+  public ICommonsMap <String, Long> getStatistics ()
+  {
+    final ICommonsMap <String, Long> ret = new CommonsHashMap <> ();
+    ret.put ("lookups", Long.valueOf (m_aRWLock.readLockedInt (m_aLookups::size)));
+    ret.put ("lookup-hits", Long.valueOf (m_aLookupHits.get ()));
+    ret.put ("lookup-misses", Long.valueOf (m_aLookupMisses.get ()));
+    ret.put ("results", Long.valueOf (m_aRWLock.readLockedInt (m_aResults::size)));
+    ret.put ("result-hits", Long.valueOf (m_aResultHits.get ()));
+    ret.put ("result-misses", Long.valueOf (m_aResultMisses.get ()));
+    return ret;
+  }
+}
@@ -67,6 +67,7 @@ import jakarta.servlet.http.HttpServletRequest;
 public class SMPRestFilter extends AbstractXFilterUnifiedResponse
 {
   public static final String PATH_BUSINESSCARD = "/businesscard/";
+  public static final String PATH_DIRECTORY_PUSHALL = "/directory/pushall";
   public static final String PATH_COMPLETE = "/complete";
   public static final String PATH_CUSTOM_PROPERTIES = "/customproperties";
   public static final String PATH_LIST = "/list";
@@ -132,6 +133,20 @@ public class SMPRestFilter extends AbstractXFilterUnifiedResponse
       aAPIRegistry.registerAPI (aPushBusinessCard);
     }
 
+    // Push all Business Cards since 8.2.1
+    {
+      final APIDescriptor aPushAllPost = new APIDescriptor (APIPath.post (PATH_DIRECTORY_PUSHALL),
+                                                            new APIExecutorDirectoryPushAllPost ());
+      aPushAllPost.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aPushAllPost);
+    }
+    {
+      final APIDescriptor aPushAllGet = new APIDescriptor (APIPath.get (PATH_DIRECTORY_PUSHALL),
+                                                           new APIExecutorDirectoryPushAllGet ());
+      aPushAllGet.setExceptionMapper (aExceptionMapper);
+      aAPIRegistry.registerAPI (aPushAllGet);
+    }
+
     // CompleteServiceGroup
     {
       final APIDescriptor aGetCompleteServiceGroup = new APIDescriptor (APIPath.get (PATH_COMPLETE +
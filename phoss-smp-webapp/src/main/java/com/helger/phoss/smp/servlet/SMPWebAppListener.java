@@ -49,6 +49,7 @@ import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.ESMPRESTType;
 import com.helger.phoss.smp.app.PDClientProvider;
+import com.helger.phoss.smp.app.PDPushQueue;
 import com.helger.phoss.smp.app.SMPSecurity;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.config.SMPConfigProvider;
@@ -60,7 +61,10 @@ import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardCallback;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationCallback;
+import com.helger.phoss.smp.domain.user.SMPVerifiedCredentialCache;
 import com.helger.phoss.smp.nicename.NiceNameHandler;
+import com.helger.phoss.smp.restapi.SMPServiceMetadataResponseCache;
+import com.helger.phoss.smp.security.SMPKeyManager;
 import com.helger.phoss.smp.settings.ISMPSettings;
 import com.helger.phoss.smp.ui.SMPCommonUI;
 import com.helger.phoss.smp.ui.ajax.CAjax;
@@ -79,6 +83,7 @@ import com.helger.photon.core.locale.ILocaleManager;
 import com.helger.photon.core.menu.MenuTree;
 import com.helger.photon.core.requestparam.RequestParameterHandlerURLPathNamed;
 import com.helger.photon.core.requestparam.RequestParameterManager;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
 import com.helger.servlet.ServletContextPathHolder;
 import com.helger.servlet.ServletSettings;
 import com.helger.servlet.StaticServerInfo;
@@ -97,6 +102,32 @@ import jakarta.servlet.ServletContext;
  */
 public class SMPWebAppListener extends WebAppListenerBootstrap
 {
+  private static void _pushToDirectory (@NonNull final IParticipantIdentifier aParticipantID)
+  {
+    if (SMPWebAppConfiguration.isDirectoryPushAsync ())
+      PDPushQueue.getInstance ().queueAdd (aParticipantID);
+    else
+      PDClientProvider.getInstance ().getPDClient ().addServiceGroupToIndex (aParticipantID);
+  }
+
+  private static void _deleteFromDirectory (@NonNull final IParticipantIdentifier aParticipantID)
+  {
+    if (SMPWebAppConfiguration.isDirectoryPushAsync ())
+      PDPushQueue.getInstance ().queueDelete (aParticipantID);
+    else
+    {
+      final PDClient aPDClient = PDClientProvider.getInstance ().getPDClient ();
+
+      // "Add" before "delete" to make sure it works
+      // This will update the ownership in the Directory, in case a
+      // certificate change happened since the last time
+      aPDClient.addServiceGroupToIndex (aParticipantID);
+
+      // This is the actual delete call
+      aPDClient.deleteServiceGroupFromIndex (aParticipantID);
+    }
+  }
+
   private static final class SMPBusinessCardAutoUpdateCallback implements ISMPBusinessCardCallback
   {
     public void onSMPBusinessCardCreatedOrUpdated (@NonNull final ISMPBusinessCard aBusinessCard,
@@ -108,9 +139,7 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
         if (aSettings.isDirectoryIntegrationEnabled () && aSettings.isDirectoryIntegrationAutoUpdate ())
         {
           // Notify PD server: add
-          PDClientProvider.getInstance ()
-                          .getPDClient ()
-                          .addServiceGroupToIndex (aBusinessCard.getParticipantIdentifier ());
+          _pushToDirectory (aBusinessCard.getParticipantIdentifier ());
         }
       }
     }
@@ -123,15 +152,7 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
         if (aSettings.isDirectoryIntegrationEnabled () && aSettings.isDirectoryIntegrationAutoUpdate ())
         {
           // Notify PD server: delete
-          final PDClient aPDClient = PDClientProvider.getInstance ().getPDClient ();
-
-          // "Add" before "delete" to make sure it works
-          // This will update the ownership in the Directory, in case a
-          // certificate change happened since the last time
-          aPDClient.addServiceGroupToIndex (aBusinessCard.getParticipantIdentifier ());
-
-          // This is the actual delete call
-          aPDClient.deleteServiceGroupFromIndex (aBusinessCard.getParticipantIdentifier ());
+          _deleteFromDirectory (aBusinessCard.getParticipantIdentifier ());
         }
       }
     }
@@ -157,7 +178,7 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
         if (m_aBusinessCardMgr.containsSMPBusinessCardOfID (aPID))
         {
           // Notify PD server: update
-          PDClientProvider.getInstance ().getPDClient ().addServiceGroupToIndex (aPID);
+          _pushToDirectory (aPID);
         }
       }
     }
@@ -477,6 +498,21 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
 
     NiceNameHandler.reloadNames ();
 
+    {
+      LOGGER.info ("Init of REST API credential cache");
+
+      // Drop cached credentials if a user or a user token changes
+      PhotonSecurityManager.getUserMgr ()
+                           .userModificationCallbacks ()
+                           .add (SMPVerifiedCredentialCache.getInvalidationCallback ());
+      PhotonSecurityManager.getUserTokenMgr ()
+                           .userTokenModificationCallbacks ()
+                           .add (SMPVerifiedCredentialCache.getInvalidationCallback ());
+    }
+
+    // Drop all signed ServiceMetadata responses if the signing key changes
+    SMPKeyManager.keyStoreReloadCallbacks ().add (SMPServiceMetadataResponseCache.getInvalidationCallback ());
+
     {
       LOGGER.info ("Init of Directory client stuff");
 
@@ -540,6 +576,13 @@ public class SMPWebAppListener extends WebAppListenerBootstrap
   @OverridingMethodsMustInvokeSuper
   protected void beforeContextDestroyed (@NonNull final ServletContext aSC)
   {
+    // Perform the pending Directory pushes while everything is still alive
+    final PDPushQueue aPDPushQueue = PDPushQueue.getInstanceIfInstantiated ();
+    if (aPDPushQueue != null)
+      aPDPushQueue.shutdown ();
+
+    SMPKeyManager.keyStoreReloadCallbacks ().removeObject (SMPServiceMetadataResponseCache.getInvalidationCallback ());
+
     // Explicitly unregister all proxy setting providers
     for (final IProxySettingsProvider aPSP : m_aProxySettingsProvider)
       ProxySettingsManager.unregisterProvider (aPSP);
@@ -43,10 +43,14 @@ import com.helger.json.JsonObject;
 import com.helger.peppol.sml.ISMLInfo;
 import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.app.CSMP;
+import com.helger.phoss.smp.app.PDPushQueue;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.config.SMPHttpConfiguration;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
+import com.helger.phoss.smp.domain.ISMPManagerProvider;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.user.SMPVerifiedCredentialCache;
+import com.helger.phoss.smp.restapi.SMPServiceMetadataResponseCache;
 import com.helger.phoss.smp.security.SMPKeyManager;
 import com.helger.phoss.smp.servlet.SMPWebAppListener;
 import com.helger.phoss.smp.settings.ISMPSettings;
@@ -102,6 +106,11 @@ public final class SMPStatusProvider
     // Since 5.7.0
     aStatusData.add ("smp.application", CSMP.getApplicationTitle ());
     aStatusData.add ("smp.backend", SMPServerConfiguration.getBackend ());
+    // New in 8.2.1
+    final ISMPManagerProvider aManagerProvider = SMPMetaManager.getManagerProvider ();
+    if (aManagerProvider != null)
+      aManagerProvider.getManagerLoadDurations ()
+                      .forEach ( (k, v) -> aStatusData.add ("smp.backend.load-millis." + k, v.toMillis ()));
     aStatusData.add ("smp.mode", SMPWebAppConfiguration.isTestVersion () ? "test" : "production");
     aStatusData.add ("smp.resttype", SMPServerConfiguration.getRESTType ().getID ());
     aStatusData.add ("smp.identifiertype", SMPServerConfiguration.getIdentifierType ().getID ());
@@ -119,6 +128,19 @@ public final class SMPStatusProvider
     aStatusData.add ("smp.rest.log-exceptions", SMPServerConfiguration.isRestLogExceptions ());
     // New in 5.2.1
     aStatusData.add ("smp.rest.payload-on-error", SMPServerConfiguration.isRestPayloadOnError ());
+    // New in 8.2.1
+    final boolean bResponseCacheEnabled = SMPServiceMetadataResponseCache.isEnabled ();
+    aStatusData.add ("smp.rest.servicemetadata-cache.enabled", bResponseCacheEnabled);
+    if (bResponseCacheEnabled)
+      SMPServiceMetadataResponseCache.getInstance ()
+                                     .getStatistics ()
+                                     .forEach ( (k, v) -> aStatusData.add ("smp.rest.servicemetadata-cache." + k, v.longValue ()));
+    final boolean bAuthCacheEnabled = SMPVerifiedCredentialCache.isEnabled ();
+    aStatusData.add ("smp.rest.auth-cache.enabled", bAuthCacheEnabled);
+    if (bAuthCacheEnabled)
+      SMPVerifiedCredentialCache.getInstance ()
+                                .getStatistics ()
+                                .forEach ( (k, v) -> aStatusData.add ("smp.rest.auth-cache." + k, v.longValue ()));
 
     // SML information
     aStatusData.add ("smp.sml.enabled", aSettings.isSMLEnabled ());
@@ -139,6 +161,11 @@ public final class SMPStatusProvider
     aStatusData.add ("smp.pd.needed", aSettings.isDirectoryIntegrationRequired ());
     aStatusData.add ("smp.pd.auto-update", aSettings.isDirectoryIntegrationAutoUpdate ());
     aStatusData.add ("smp.pd.hostname", aSettings.getDirectoryHostName ());
+    // New in 8.2.1
+    aStatusData.add ("smp.pd.push.async", SMPWebAppConfiguration.isDirectoryPushAsync ());
+    final PDPushQueue aPDPushQueue = PDPushQueue.getInstanceIfInstantiated ();
+    if (aPDPushQueue != null)
+      aPDPushQueue.getStatistics ().forEach ( (k, v) -> aStatusData.add ("smp.pd.push.queue." + k, v.longValue ()));
 
     // Certificate information
     final boolean bCertConfigOk = SMPKeyManager.isKeyStoreValid ();
@@ -16,7 +16,6 @@
  */
 package com.helger.phoss.smp.ui.pub;
 
-import java.util.Comparator;
 import java.util.Locale;
 
 import org.jspecify.annotations.NonNull;
@@ -25,7 +24,6 @@ import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonempty;
 import com.helger.base.compare.ESortOrder;
-import com.helger.collection.commons.ICommonsList;
 import com.helger.html.hc.html.tabular.AbstractHCTable;
 import com.helger.html.hc.html.tabular.HCRow;
 import com.helger.html.hc.html.tabular.HCTable;
@@ -36,6 +34,7 @@ import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupPageIterator;
 import com.helger.phoss.smp.rest.SMPRestDataProvider;
 import com.helger.phoss.smp.ui.AbstractSMPWebPage;
 import com.helger.phoss.smp.ui.SMPExtensionUI;
@@ -89,7 +88,9 @@ public final class PagePublicStart extends AbstractSMPWebPage
       final ISMPServiceGroupManager aSMPServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
       try
       {
-        final ICommonsList <ISMPServiceGroup> aServiceGroups = aSMPServiceGroupMgr.getAllSMPServiceGroups ();
+        // Read page by page, ordered by participant ID
+        final Iterable <ISMPServiceGroup> aServiceGroups = aSMPServiceGroupMgr.iterateSMPServiceGroups (SMPServiceGroupPageIterator.DEFAULT_PAGE_SIZE,
+                                                                                                         ESortOrder.ASCENDING);
 
         // Use dynamic or static table?
         final boolean bUseDataTables = SMPWebAppConfiguration.isStartPageDynamicTable ();
@@ -118,9 +119,6 @@ public final class PagePublicStart extends AbstractSMPWebPage
                 .addCell (bShowExtensionDetails ? "Extension" : "Extension?")
                 .addCell (EPhotonCoreText.ACTIONS.getDisplayText (aDisplayLocale));
           aFinalTable = aTable;
-
-          // Sort manually
-          aServiceGroups.sort (Comparator.comparing (x -> x.getParticipantIdentifier ().getURIEncoded ()));
         }
 
         for (final ISMPServiceGroup aServiceGroup : aServiceGroups)
@@ -18,12 +18,10 @@ package com.helger.phoss.smp.ui.secure;
 
 import java.time.LocalDate;
 import java.util.Locale;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import org.jspecify.annotations.NonNull;
 
 import com.helger.annotation.Nonempty;
-import com.helger.annotation.Nonnegative;
 import com.helger.annotation.misc.WorkInProgress;
 import com.helger.base.compare.CompareHelper;
 import com.helger.base.compare.ESortOrder;
@@ -53,7 +51,6 @@ import com.helger.html.hc.html.tabular.IHCCell;
 import com.helger.html.hc.html.textlevel.HCA;
 import com.helger.html.hc.impl.HCNodeList;
 import com.helger.html.hc.impl.HCTextNode;
-import com.helger.html.hc.render.HCRenderer;
 import com.helger.html.jquery.JQuery;
 import com.helger.html.jquery.JQueryAjaxBuilder;
 import com.helger.html.jscode.JSAnonymousFunction;
@@ -64,8 +61,8 @@ import com.helger.pd.client.IPDClientExceptionCallback;
 import com.helger.pd.client.PDClient;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.peppolid.factory.IIdentifierFactory;
-import com.helger.phoss.smp.CSMPServer;
 import com.helger.phoss.smp.app.PDClientProvider;
+import com.helger.phoss.smp.app.PDPushAllJob;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCard;
@@ -85,8 +82,6 @@ import com.helger.photon.ajax.decl.IAjaxFunctionDeclaration;
 import com.helger.photon.app.PhotonUnifiedResponse;
 import com.helger.photon.app.url.LinkHelper;
 import com.helger.photon.bootstrap5.CBootstrapCSS;
-import com.helger.photon.bootstrap5.alert.BootstrapErrorBox;
-import com.helger.photon.bootstrap5.alert.BootstrapSuccessBox;
 import com.helger.photon.bootstrap5.button.BootstrapButton;
 import com.helger.photon.bootstrap5.button.EBootstrapButtonSize;
 import com.helger.photon.bootstrap5.buttongroup.BootstrapButtonToolbar;
@@ -99,7 +94,6 @@ import com.helger.photon.bootstrap5.form.BootstrapViewForm;
 import com.helger.photon.bootstrap5.pages.handler.AbstractBootstrapWebPageActionHandler;
 import com.helger.photon.bootstrap5.pages.handler.AbstractBootstrapWebPageActionHandlerDelete;
 import com.helger.photon.bootstrap5.table.BootstrapTable;
-import com.helger.photon.bootstrap5.traits.IHCBootstrap5Trait;
 import com.helger.photon.bootstrap5.uictrls.datatables.BootstrapDTColAction;
 import com.helger.photon.bootstrap5.uictrls.datatables.BootstrapDataTables;
 import com.helger.photon.bootstrap5.uictrls.datetimepicker.BootstrapDateTimePicker;
@@ -108,9 +102,6 @@ import com.helger.photon.core.execcontext.LayoutExecutionContext;
 import com.helger.photon.core.form.FormErrorList;
 import com.helger.photon.core.form.RequestField;
 import com.helger.photon.icon.fontawesome6.EFontAwesome6Icon;
-import com.helger.photon.io.PhotonWorkerPool;
-import com.helger.photon.mgrs.longrun.AbstractLongRunningJobRunnable;
-import com.helger.photon.mgrs.longrun.LongRunningJobResult;
 import com.helger.photon.uicore.css.CPageParam;
 import com.helger.photon.uicore.html.select.HCCountrySelect;
 import com.helger.photon.uicore.html.select.HCCountrySelect.EWithDeprecated;
@@ -125,12 +116,10 @@ import com.helger.photon.uictrls.famfam.EFamFamFlagIcon;
 import com.helger.servlet.request.IRequestParamMap;
 import com.helger.servlet.request.RequestParamMap;
 import com.helger.smtp.util.EmailAddressValidator;
-import com.helger.text.ReadOnlyMultilingualText;
 import com.helger.text.locale.country.CountryCache;
 import com.helger.url.ISimpleURL;
 import com.helger.url.validate.URLValidator;
 import com.helger.web.scope.IRequestWebScopeWithoutResponse;
-import com.helger.web.scope.mgr.WebScoped;
 
 import jakarta.annotation.Nullable;
 
@@ -204,96 +193,6 @@ public final class PageSecureBusinessCard extends AbstractSMPWebPageForm <ISMPBu
     });
   }
 
-  /**
-   * The async logic
-   *
-   * @author Philip Helger
-   */
-  private static final class PushAllBusinessCardsToDirectory extends AbstractLongRunningJobRunnable implements
-                                                             IHCBootstrap5Trait
-  {
-    private static final AtomicInteger RUNNING_JOBS = new AtomicInteger (0);
-
-    private final PDClient m_aPDClient;
-
-    public PushAllBusinessCardsToDirectory (@NonNull final PDClient aPDClient, @NonNull final String sUserID)
-    {
-      super ("PushAllBusinessCardsToDirectory",
-             new ReadOnlyMultilingualText (CSMPServer.DEFAULT_LOCALE, "Update all participants in Directory"),
-             () -> sUserID);
-      m_aPDClient = aPDClient;
-    }
-
-    @NonNull
-    public LongRunningJobResult createLongRunningJobResult ()
-    {
-      RUNNING_JOBS.incrementAndGet ();
-      try (final WebScoped w = new WebScoped ())
-      {
-        final ISMPBusinessCardManager aBusinessCardMgr = SMPMetaManager.getBusinessCardMgr ();
-        final String sDirectoryName = SMPWebAppConfiguration.getDirectoryName ();
-
-        final ICommonsList <String> aSuccess = new CommonsArrayList <> ();
-        final ICommonsList <String> aFailure = new CommonsArrayList <> ();
-
-        for (final ISMPBusinessCard aCurObject : aBusinessCardMgr.getAllSMPBusinessCards ())
-        {
-          final IParticipantIdentifier aParticipantID = aCurObject.getParticipantIdentifier ();
-          final ESuccess eSuccess = m_aPDClient.addServiceGroupToIndex (aParticipantID);
-          (eSuccess.isSuccess () ? aSuccess : aFailure).add (aParticipantID.getURIEncoded ());
-        }
-
-        final HCNodeList aResultNodes = new HCNodeList ();
-        if (aSuccess.isNotEmpty ())
-        {
-          final BootstrapSuccessBox aBox = success ();
-          if (aSuccess.size () <= 20)
-          {
-            // Otherwise the list would get too long
-            for (final String sPI : aSuccess)
-              aBox.addChild (div ("Successfully notified the " + sDirectoryName + " to index '" + sPI + "'"));
-          }
-          else
-          {
-            aBox.addChild ("Successfully notified the " +
-                           sDirectoryName +
-                           " to index " +
-                           aSuccess.size () +
-                           " participants");
-          }
-          aResultNodes.addChild (aBox);
-        }
-        if (aFailure.isNotEmpty ())
-        {
-          final BootstrapErrorBox aBox = error ();
-          for (final String sPI : aFailure)
-          {
-            aBox.addChild (div ("Error notifying the " +
-                                sDirectoryName +
-                                " to index '" +
-                                sPI +
-                                "'. See the logs for details."));
-          }
-          aResultNodes.addChild (aBox);
-        }
-        if (aResultNodes.hasNoChildren ())
-          aResultNodes.addChild (info ("No participants to be indexed to " + sDirectoryName + "."));
-
-        return LongRunningJobResult.createXML (HCRenderer.getAsNode (aResultNodes));
-      }
-      finally
-      {
-        RUNNING_JOBS.decrementAndGet ();
-      }
-    }
-
-    @Nonnegative
-    public static int getRunningJobCount ()
-    {
-      return RUNNING_JOBS.get ();
-    }
-  }
-
   public PageSecureBusinessCard (@NonNull @Nonempty final String sID)
   {
     super (sID, "Business Cards");
@@ -409,16 +308,18 @@ public final class PageSecureBusinessCard extends AbstractSMPWebPageForm <ISMPBu
                                                                   " client component. Please check your configuration.").addChild (SMPCommonUI.getTechnicalDetailsUI (aCaughtEx)));
                           }
                           else
-                          {
-                            PhotonWorkerPool.getInstance ()
-                                            .run ("PushAllBusinessCardsToDirectory",
-                                                  new PushAllBusinessCardsToDirectory (aPDClient,
-                                                                                       aWPEC.getLoggedInUserID ()));
-
-                            aWPEC.postRedirectGetInternal (success ("The update of the Business Cards in the " +
-                                                                    sDirectoryName +
-                                                                    " is now running in the background. Please manually refresh the page to see the update."));
-                          }
+                            if (PDPushAllJob.startIfNotRunning (aPDClient, aWPEC.getLoggedInUserID ()))
+                            {
+                              aWPEC.postRedirectGetInternal (success ("The update of the Business Cards in the " +
+                                                                      sDirectoryName +
+                                                                      " is now running in the background. Please manually refresh the page to see the update."));
+                            }
+                            else
+                            {
+                              aWPEC.postRedirectGetInternal (warn ("The update of the Business Cards in the " +
+                                                                   sDirectoryName +
+                                                                   " is already running in the background."));
+                            }
                           return EShowList.SHOW_LIST;
                         }
                       });
@@ -1267,12 +1168,15 @@ public final class PageSecureBusinessCard extends AbstractSMPWebPageForm <ISMPBu
 
       aNodeList.addChild (aToolbar);
 
-      final int nCount = PushAllBusinessCardsToDirectory.getRunningJobCount ();
-      if (nCount > 0)
+      if (PDPushAllJob.isRunning ())
       {
         aNodeList.addChild (warn ("Currently Business Cards are pushed to the " +
                                   sDirectoryName +
-                                  " in the background"));
+                                  " in the background (" +
+                                  PDPushAllJob.getProcessedCount () +
+                                  " of " +
+                                  PDPushAllJob.getTotalCount () +
+                                  " participants processed)"));
       }
     }
 
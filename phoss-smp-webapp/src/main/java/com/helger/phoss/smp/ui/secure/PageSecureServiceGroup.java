@@ -63,6 +63,7 @@ import com.helger.phoss.smp.domain.businesscard.ISMPBusinessCardManager;
 import com.helger.phoss.smp.domain.businesscard.SMPBusinessCardEntity;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupPageIterator;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformationManager;
 import com.helger.phoss.smp.domain.sgprops.ESGCustomPropertyType;
@@ -199,9 +200,9 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
                                           new DTCol ("SMP URI").setDataSort (2, 0),
                                           new DTCol ("Action")).setID (getID () + "_checkdns");
 
-      final ICommonsList <ISMPServiceGroup> aAllServiceGroups = aServiceGroupMgr.getAllSMPServiceGroups ();
       final StopWatch aSW = StopWatch.createdStarted ();
-      for (final ISMPServiceGroup aServiceGroup : aAllServiceGroups)
+      for (final ISMPServiceGroup aServiceGroup : aServiceGroupMgr.iterateSMPServiceGroups (SMPServiceGroupPageIterator.DEFAULT_PAGE_SIZE,
+                                                                                            ESortOrder.ASCENDING))
       {
         // Avoid endless actions
         final Duration aDuration = aSW.getLapDuration ();
@@ -945,7 +946,7 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
 
     try
     {
-      final ICommonsList <ISMPServiceGroup> aAllServiceGroups = aServiceGroupMgr.getAllSMPServiceGroups ();
+      final long nServiceGroupCount = aServiceGroupMgr.getSMPServiceGroupCount ();
 
       final BootstrapButtonToolbar aToolbar = new BootstrapButtonToolbar (aWPEC);
       aToolbar.addButton ("Create new Service group", createCreateURL (aWPEC), EDefaultIcon.NEW);
@@ -954,18 +955,18 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
       {
         // Disable button if no SML URL is configured
         // Disable button if no service group is present
-        final boolean bTooMany = aAllServiceGroups.size () > 10_000;
+        final boolean bTooMany = nServiceGroupCount > 10_000;
         aToolbar.addAndReturnButton ("Check DNS state" + (bTooMany ? " (too many entries)" : ""),
                                      aWPEC.getSelfHref ().add (CPageParam.PARAM_ACTION, ACTION_CHECK_DNS),
                                      EDefaultIcon.MAGNIFIER)
                 .setDisabled (aSettings.getSMLDNSZone () == null ||
-                              aAllServiceGroups.isEmpty () ||
+                              nServiceGroupCount <= 0 ||
                               bTooMany ||
                               !aSettings.isSMLEnabled ());
       }
       aNodeList.addChild (aToolbar);
 
-      final boolean bShowDetails = aAllServiceGroups.size () <= 1_000;
+      final boolean bShowDetails = nServiceGroupCount <= 1_000;
 
       final HCTable aTable = new HCTable (new DTCol ("Participant ID").setInitialSorting (ESortOrder.ASCENDING),
                                           new DTCol ("Owner"),
@@ -988,7 +989,9 @@ public final class PageSecureServiceGroup extends AbstractSMPWebPageForm <ISMPSe
       final SMPOwnerNameCache aOwnerNameCache = new SMPOwnerNameCache ();
       final SMPRestDataProvider aRDP = new SMPRestDataProvider (aRequestScope);
 
-      for (final ISMPServiceGroup aCurObject : aAllServiceGroups)
+      // Read page by page, to never have all service groups in memory at once
+      for (final ISMPServiceGroup aCurObject : aServiceGroupMgr.iterateSMPServiceGroups (SMPServiceGroupPageIterator.DEFAULT_PAGE_SIZE,
+                                                                                         ESortOrder.ASCENDING))
       {
         final ISimpleURL aViewLink = createViewURL (aWPEC, aCurObject.getID ());
         final IParticipantIdentifier aCurPI = aCurObject.getParticipantIdentifier ();
@@ -19,11 +19,9 @@ package com.helger.phoss.smp.ui.secure;
 import org.jspecify.annotations.NonNull;
 
 import com.helger.annotation.Nonempty;
-import com.helger.collection.commons.ICommonsList;
 import com.helger.datetime.util.PDTIOHelper;
 import com.helger.html.hc.impl.HCNodeList;
 import com.helger.phoss.smp.domain.SMPMetaManager;
-import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
 import com.helger.phoss.smp.exchange.ServiceGroupExport;
 import com.helger.phoss.smp.settings.ISMPSettings;
@@ -59,12 +57,10 @@ public final class PageSecureServiceGroupExport extends AbstractSMPWebPage
                                         @NonNull final PhotonUnifiedResponse aAjaxResponse) throws Exception
       {
         final ISMPSettings aSettings = SMPMetaManager.getSettings ();
-        final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
-        final ICommonsList <ISMPServiceGroup> aAllServiceGroups = aServiceGroupMgr.getAllSMPServiceGroups ();
         final boolean bExportBusinessCards = aSettings.isDirectoryIntegrationEnabled ();
 
-        final IMicroDocument aDoc = ServiceGroupExport.createExportDataXMLVer10 (aAllServiceGroups,
-                                                                                 bExportBusinessCards);
+        // The service groups are read page by page
+        final IMicroDocument aDoc = ServiceGroupExport.createExportDataXMLVer10 (bExportBusinessCards);
 
         // Build the XML response
         aAjaxResponse.xml (aDoc);
@@ -21,16 +21,14 @@ import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
 import java.time.OffsetDateTime;
-import java.util.Comparator;
 import java.util.Locale;
 import java.util.Map;
 
 import org.jspecify.annotations.NonNull;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import com.helger.annotation.Nonempty;
 import com.helger.annotation.concurrent.NotThreadSafe;
+import com.helger.base.compare.ESortOrder;
 import com.helger.base.debug.GlobalDebug;
 import com.helger.base.enforce.ValueEnforcer;
 import com.helger.base.lang.clazz.ClassHelper;
@@ -51,11 +49,12 @@ import com.helger.pd.client.PDClientConfiguration;
 import com.helger.peppol.sml.ISMLInfo;
 import com.helger.peppol.smp.ESMPTransportProfile;
 import com.helger.peppolid.IParticipantIdentifier;
-import com.helger.peppolid.factory.IIdentifierFactory;
 import com.helger.phoss.smp.app.SMPWebAppConfiguration;
 import com.helger.phoss.smp.config.SMPServerConfiguration;
 import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupPageIterator;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPEndpoint;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPProcess;
 import com.helger.phoss.smp.domain.serviceinfo.ISMPServiceInformation;
@@ -129,8 +128,6 @@ public class PageSecureTasksProblems extends AbstractSMPWebPage
     }
   }
 
-  private static final Logger LOGGER = LoggerFactory.getLogger (PageSecureTasksProblems.class);
-
   public PageSecureTasksProblems (@NonNull @Nonempty final String sID)
   {
     super (sID, "Tasks/Problems");
@@ -437,7 +434,6 @@ public class PageSecureTasksProblems extends AbstractSMPWebPage
     final IUserManager aUserMgr = PhotonSecurityManager.getUserMgr ();
     final ISMPServiceGroupManager aServiceGroupMgr = SMPMetaManager.getServiceGroupMgr ();
     final ISMPServiceInformationManager aServiceInfoMgr = SMPMetaManager.getServiceInformationMgr ();
-    final IIdentifierFactory aIdentifierFactory = SMPMetaManager.getIdentifierFactory ();
     final OffsetDateTime aNowDT = PDTFactory.getCurrentOffsetDateTime ();
     final OffsetDateTime aNowPlusDT = aNowDT.plusMonths (3);
     final XMLOffsetDateTime aNowXMLDT = XMLOffsetDateTime.of (aNowDT);
@@ -471,9 +467,7 @@ public class PageSecureTasksProblems extends AbstractSMPWebPage
 
     // check service groups and redirects
     {
-      final ICommonsList <String> aServiceGroupIDs = aServiceGroupMgr.getAllSMPServiceGroupIDs ()
-                                                                     .getSorted (Comparator.naturalOrder ());
-      if (aServiceGroupIDs.isEmpty ())
+      if (aServiceGroupMgr.getSMPServiceGroupCount () == 0)
       {
         aOL.addItem (_createWarning ("No service group is configured. This SMP is currently empty."));
       }
@@ -481,15 +475,12 @@ public class PageSecureTasksProblems extends AbstractSMPWebPage
       {
         final CertCache aCertCache = new CertCache ();
 
-        // For all service groups
-        for (final String sServiceGroupID : aServiceGroupIDs)
+        // For all service groups - read page by page
+        for (final ISMPServiceGroup aServiceGroup : aServiceGroupMgr.iterateSMPServiceGroups (SMPServiceGroupPageIterator.DEFAULT_PAGE_SIZE,
+                                                                                              ESortOrder.ASCENDING))
         {
-          final IParticipantIdentifier aParticipantID = aIdentifierFactory.parseParticipantIdentifier (sServiceGroupID);
-          if (aParticipantID == null)
-          {
-            LOGGER.error ("Failed to parse '" + sServiceGroupID + "' to a participant identifier");
-            continue;
-          }
+          final String sServiceGroupID = aServiceGroup.getID ();
+          final IParticipantIdentifier aParticipantID = aServiceGroup.getParticipantIdentifier ();
 
           final HCUL aULPerSG = new HCUL ();
           final ICommonsList <ISMPServiceInformation> aServiceInfos = aServiceInfoMgr.getAllSMPServiceInformationOfServiceGroup (aParticipantID);
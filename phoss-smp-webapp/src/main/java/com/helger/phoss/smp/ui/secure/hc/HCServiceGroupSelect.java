@@ -23,11 +23,13 @@ import java.util.function.Predicate;
 import org.jspecify.annotations.NonNull;
 
 import com.helger.annotation.Nonempty;
+import com.helger.base.compare.ESortOrder;
 import com.helger.html.hc.html.forms.HCSelect;
 import com.helger.html.request.IHCRequestField;
 import com.helger.peppolid.IParticipantIdentifier;
 import com.helger.phoss.smp.domain.SMPMetaManager;
 import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroup;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroupPageIterator;
 import com.helger.phoss.smp.ui.SMPCommonUI;
 import com.helger.photon.core.form.RequestField;
 import com.helger.photon.uicore.html.select.HCExtSelect;
@@ -54,8 +56,8 @@ public class HCServiceGroupSelect extends HCExtSelect implements IHCServiceGroup
                                           @NonNull final Consumer <ISMPServiceGroup> aSGConsumer)
   {
     for (final ISMPServiceGroup aServiceGroup : SMPMetaManager.getServiceGroupMgr ()
-                                                              .getAllSMPServiceGroups ()
-                                                              .getSortedInline (ISMPServiceGroup.comparator ()))
+                                                              .iterateSMPServiceGroups (SMPServiceGroupPageIterator.DEFAULT_PAGE_SIZE,
+                                                                                        ESortOrder.ASCENDING))
       if (aIncludeFilter == null || aIncludeFilter.test (aServiceGroup))
         aSGConsumer.accept (aServiceGroup);
   }
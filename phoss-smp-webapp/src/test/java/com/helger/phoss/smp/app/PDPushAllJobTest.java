@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.collection.commons.ICommonsSet;
+
+/**
+ * Test class for class {@link PDPushAllJob}.
+ *
+ * @author Philip Helger
+ */
+public final class PDPushAllJobTest
+{
+  private File m_aCheckpointFile;
+
+  @Before
+  public void before () throws IOException
+  {
+    m_aCheckpointFile = File.createTempFile ("pushall", ".checkpoint");
+    assertTrue (m_aCheckpointFile.delete ());
+  }
+
+  @After
+  public void after ()
+  {
+    m_aCheckpointFile.delete ();
+  }
+
+  @NonNull
+  private static ICommonsList <String> _createIDs (final int nStart, final int nCount)
+  {
+    final ICommonsList <String> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < nCount; ++i)
+      ret.add ("iso6523-actorid-upis::9999:" + (nStart + i));
+    return ret;
+  }
+
+  @Test
+  public void testAllSucceed ()
+  {
+    final ICommonsSet <String> aPushed = new CommonsHashSet <> ();
+    final PDPushAllJob aJob = new PDPushAllJob ("user", x -> {
+      synchronized (aPushed)
+      {
+        aPushed.add (x);
+      }
+      return true;
+    }, 4, 0, m_aCheckpointFile);
+
+    final ICommonsList <String> aAllIDs = _createIDs (1000, 250);
+    assertTrue (aJob.pushAll (aAllIDs));
+    assertEquals (250, aPushed.size ());
+
+    final PDPushAllJob.Progress aProgress = aJob.getProgress ();
+    assertEquals (250, aProgress.getTotalCount ());
+    assertEquals (0, aProgress.getSkippedCount ());
+    assertEquals (250, aProgress.getSucceededCount ());
+    assertEquals (0, aProgress.getFailedCount ());
+    assertEquals (250, aProgress.getProcessedCount ());
+
+    // Checkpoint is removed after completion
+    assertFalse (m_aCheckpointFile.exists ());
+  }
+
+  @Test
+  public void testFailures ()
+  {
+    // Every second push fails - one with an exception
+    final PDPushAllJob aJob = new PDPushAllJob ("user", x -> {
+      final int nID = Integer.parseInt (x.substring (x.lastIndexOf (':') + 1));
+      if (nID == 1001)
+        throw new IllegalStateException ("Directory is down");
+      return (nID % 2) == 0;
+    }, 1, 0, m_aCheckpointFile);
+
+    assertTrue (aJob.pushAll (_createIDs (1000, 50)));
+    final PDPushAllJob.Progress aProgress = aJob.getProgress ();
+    assertEquals (25, aProgress.getSucceededCount ());
+    assertEquals (25, aProgress.getFailedCount ());
+    // The list of failed IDs is limited
+    assertEquals (20, aProgress.getFailedIDs ().size ());
+    assertTrue (aProgress.getFailedIDs ().contains ("iso6523-actorid-upis::9999:1001"));
+  }
+
+  @Test
+  public void testResumeIncludesNewParticipants () throws IOException
+  {
+    // Simulate an interrupted previous run that processed the first 100 IDs
+    final ICommonsList <String> aFirstIDs = _createIDs (1000, 100);
+    Files.write (m_aCheckpointFile.toPath (), aFirstIDs, StandardCharsets.UTF_8);
+
+    final ICommonsSet <String> aPushed = new CommonsHashSet <> ();
+    final PDPushAllJob aJob = new PDPushAllJob ("user", x -> {
+      synchronized (aPushed)
+      {
+        aPushed.add (x);
+      }
+      return true;
+    }, 2, 0, m_aCheckpointFile);
+    assertEquals (100, aJob.readCheckpoint ().size ());
+
+    // A participant was created in the meantime that sorts before the already processed ones
+    final ICommonsList <String> aAllIDs = _createIDs (1000, 150);
+    aAllIDs.add ("iso6523-actorid-upis::0000:new");
+    assertTrue (aJob.pushAll (aAllIDs));
+
+    final PDPushAllJob.Progress aProgress = aJob.getProgress ();
+    assertEquals (151, aProgress.getTotalCount ());
+    assertEquals (100, aProgress.getSkippedCount ());
+    assertEquals (51, aProgress.getSucceededCount ());
+    assertEquals (151, aProgress.getProcessedCount ());
+    assertTrue (aPushed.contains ("iso6523-actorid-upis::0000:new"));
+    for (final String sID : aFirstIDs)
+      assertFalse (aPushed.contains (sID));
+    assertFalse (m_aCheckpointFile.exists ());
+  }
+
+  @Test
+  public void testResumeRetriesFailures ()
+  {
+    final ICommonsList <String> aAllIDs = _createIDs (1000, 150);
+    final String sFailingID = aAllIDs.get (10);
+    final String sFirstIDOfSecondChunk = aAllIDs.get (100);
+    final Thread aJobThread = Thread.currentThread ();
+
+    // The first run fails once and is interrupted in the second chunk
+    final PDPushAllJob aJob = new PDPushAllJob ("user", x -> {
+      if (x.equals (sFailingID))
+        return false;
+      if (x.equals (sFirstIDOfSecondChunk))
+      {
+        aJobThread.interrupt ();
+        try
+        {
+          // Wait until the job is stopped
+          Thread.sleep (10_000);
+        }
+        catch (final InterruptedException ex)
+        {
+          Thread.currentThread ().interrupt ();
+        }
+        return false;
+      }
+      return true;
+    }, 1, 0, m_aCheckpointFile);
+    try
+    {
+      assertFalse (aJob.pushAll (aAllIDs));
+    }
+    finally
+    {
+      // Clear the interrupted flag
+      Thread.interrupted ();
+    }
+    assertEquals (1, aJob.getProgress ().getFailedCount ());
+
+    // Only the successfully pushed participants of the first chunk are checkpointed
+    final ICommonsSet <String> aCheckpoint = aJob.readCheckpoint ();
+    assertEquals (99, aCheckpoint.size ());
+    assertFalse (aCheckpoint.contains (sFailingID));
+
+    // The resumed run retries the failed participant
+    final ICommonsSet <String> aPushed = new CommonsHashSet <> ();
+    final PDPushAllJob aJob2 = new PDPushAllJob ("user", x -> {
+      synchronized (aPushed)
+      {
+        aPushed.add (x);
+      }
+      return true;
+    }, 2, 0, m_aCheckpointFile);
+    assertTrue (aJob2.pushAll (aAllIDs));
+    assertEquals (99, aJob2.getProgress ().getSkippedCount ());
+    assertEquals (51, aJob2.getProgress ().getSucceededCount ());
+    assertTrue (aPushed.contains (sFailingID));
+    assertTrue (aPushed.contains (sFirstIDOfSecondChunk));
+    assertFalse (m_aCheckpointFile.exists ());
+  }
+
+  @Test
+  public void testInterrupted ()
+  {
+    // Blocks until the job is interrupted
+    final CountDownLatch aLatch = new CountDownLatch (1);
+    final PDPushAllJob aJob = new PDPushAllJob ("user", x -> {
+      try
+      {
+        return aLatch.await (10, TimeUnit.SECONDS);
+      }
+      catch (final InterruptedException ex)
+      {
+        Thread.currentThread ().interrupt ();
+        return false;
+      }
+    }, 1, 0, m_aCheckpointFile);
+
+    // Interrupted before the first chunk is done
+    Thread.currentThread ().interrupt ();
+    try
+    {
+      assertFalse (aJob.pushAll (_createIDs (1000, 10)));
+    }
+    finally
+    {
+      // Clear the interrupted flag
+      Thread.interrupted ();
+    }
+
+    // Nothing was checkpointed, so the next run performs everything
+    assertTrue (aJob.readCheckpoint ().isEmpty ());
+    final PDPushAllJob aJob2 = new PDPushAllJob ("user", x -> true, 1, 0, m_aCheckpointFile);
+    assertTrue (aJob2.pushAll (_createIDs (1000, 10)));
+    assertEquals (0, aJob2.getProgress ().getSkippedCount ());
+    assertEquals (10, aJob2.getProgress ().getSucceededCount ());
+  }
+
+  @Test
+  public void testProgressIsPerJob ()
+  {
+    final PDPushAllJob aJob1 = new PDPushAllJob ("user", x -> true, 1, 0, m_aCheckpointFile);
+    assertTrue (aJob1.pushAll (_createIDs (1000, 5)));
+    final PDPushAllJob aJob2 = new PDPushAllJob ("user", x -> false, 1, 0, m_aCheckpointFile);
+    assertTrue (aJob2.pushAll (_createIDs (1000, 3)));
+
+    assertEquals (5, aJob1.getProgress ().getSucceededCount ());
+    assertEquals (0, aJob1.getProgress ().getFailedCount ());
+    assertEquals (0, aJob2.getProgress ().getSucceededCount ());
+    assertEquals (3, aJob2.getProgress ().getFailedCount ());
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.PeppolIdentifierFactory;
+
+/**
+ * Test class for class {@link PDPushQueue}.
+ *
+ * @author Philip Helger
+ */
+public final class PDPushQueueTest
+{
+  private static final IParticipantIdentifier PI1 = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9999:push1");
+  private static final IParticipantIdentifier PI2 = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9999:push2");
+  private static final IParticipantIdentifier PI3 = PeppolIdentifierFactory.INSTANCE.createParticipantIdentifierWithDefaultScheme ("9999:push3");
+
+  @NonNull
+  @SuppressWarnings ("deprecation")
+  private static PDPushQueue _createQueue (@NonNull final PDPushQueue.IDirectoryPusher aPusher,
+                                           final long nCoalesceMillis,
+                                           final int nMaxRetries)
+  {
+    final PDPushQueue ret = new PDPushQueue ();
+    ret.init (aPusher, 2, nCoalesceMillis, nMaxRetries, 10);
+    return ret;
+  }
+
+  private static void _waitFor (@NonNull final BooleanSupplier aCondition) throws InterruptedException
+  {
+    final long nEnd = System.nanoTime () + TimeUnit.SECONDS.toNanos (10);
+    while (!aCondition.getAsBoolean ())
+    {
+      assertTrue ("Timeout waiting for the condition", System.nanoTime () < nEnd);
+      Thread.sleep (10);
+    }
+  }
+
+  private static long _getStat (@NonNull final PDPushQueue aQueue, @NonNull final String sName)
+  {
+    return aQueue.getStatistics ().get (sName).longValue ();
+  }
+
+  @Test
+  public void testCoalesce () throws InterruptedException
+  {
+    final ICommonsList <String> aPushes = new CommonsArrayList <> ();
+    final PDPushQueue aQueue = _createQueue ( (aPID, bDelete) -> {
+      synchronized (aPushes)
+      {
+        aPushes.add (aPID.getURIEncoded () + (bDelete ? " delete" : " add"));
+      }
+      return true;
+    }, 500, 0);
+    try
+    {
+      // Multiple pushes of the same participant within the coalesce time
+      aQueue.queueAdd (PI1);
+      aQueue.queueAdd (PI1);
+      aQueue.queueAdd (PI2);
+      aQueue.queueDelete (PI1);
+      assertEquals (2, aQueue.getQueueDepth ());
+      assertEquals (4, _getStat (aQueue, "queued"));
+      assertEquals (2, _getStat (aQueue, "coalesced"));
+
+      _waitFor ( () -> _getStat (aQueue, "succeeded") == 2);
+      assertEquals (0, aQueue.getQueueDepth ());
+      assertEquals (0, aQueue.getInFlightCount ());
+      synchronized (aPushes)
+      {
+        // The last action wins
+        assertEquals (2, aPushes.size ());
+        assertTrue (aPushes.contains (PI1.getURIEncoded () + " delete"));
+        assertTrue (aPushes.contains (PI2.getURIEncoded () + " add"));
+      }
+
+      // Queueing again after the push performs another push
+      aQueue.queueAdd (PI1);
+      _waitFor ( () -> _getStat (aQueue, "succeeded") == 3);
+      assertEquals (2, _getStat (aQueue, "coalesced"));
+    }
+    finally
+    {
+      aQueue.shutdown ();
+    }
+  }
+
+  @Test
+  public void testRetry () throws InterruptedException
+  {
+    final AtomicInteger aCalls = new AtomicInteger (0);
+    // Fail twice, succeed the third time
+    final PDPushQueue aQueue = _createQueue ( (aPID, bDelete) -> aCalls.incrementAndGet () > 2, 0, 3);
+    try
+    {
+      aQueue.queueAdd (PI1);
+      _waitFor ( () -> _getStat (aQueue, "succeeded") == 1);
+      assertEquals (3, aCalls.get ());
+      assertEquals (2, _getStat (aQueue, "failed"));
+      assertEquals (2, _getStat (aQueue, "retried"));
+      assertEquals (0, _getStat (aQueue, "dropped"));
+      assertEquals (0, aQueue.getQueueDepth ());
+    }
+    finally
+    {
+      aQueue.shutdown ();
+    }
+  }
+
+  @Test
+  public void testRetryExhausted () throws InterruptedException
+  {
+    final AtomicInteger aCalls = new AtomicInteger (0);
+    final PDPushQueue aQueue = _createQueue ( (aPID, bDelete) -> {
+      aCalls.incrementAndGet ();
+      throw new IllegalStateException ("Directory is down");
+    }, 0, 2);
+    try
+    {
+      aQueue.queueAdd (PI1);
+      _waitFor ( () -> _getStat (aQueue, "dropped") == 1);
+      // Initial push plus 2 retries
+      assertEquals (3, aCalls.get ());
+      assertEquals (3, _getStat (aQueue, "failed"));
+      assertEquals (2, _getStat (aQueue, "retried"));
+      assertEquals (0, _getStat (aQueue, "succeeded"));
+      assertEquals (0, aQueue.getQueueDepth ());
+    }
+    finally
+    {
+      aQueue.shutdown ();
+    }
+  }
+
+  @Test
+  public void testFlushOnShutdown ()
+  {
+    final AtomicInteger aCalls = new AtomicInteger (0);
+    final PDPushQueue aQueue = _createQueue ( (aPID, bDelete) -> {
+      aCalls.incrementAndGet ();
+      return true;
+    }, 300, 3);
+    aQueue.queueAdd (PI1);
+    aQueue.queueAdd (PI2);
+    aQueue.queueDelete (PI3);
+    assertEquals (3, aQueue.getQueueDepth ());
+
+    // Waits for the pending pushes
+    aQueue.shutdown ();
+    assertEquals (3, aCalls.get ());
+    assertEquals (3, _getStat (aQueue, "succeeded"));
+    assertEquals (0, aQueue.getQueueDepth ());
+
+    // New pushes are dropped after shutdown
+    aQueue.queueAdd (PI1);
+    assertEquals (0, aQueue.getQueueDepth ());
+    assertEquals (1, _getStat (aQueue, "dropped"));
+    assertEquals (3, aCalls.get ());
+
+    // Shutdown twice is fine
+    aQueue.shutdown ();
+  }
+
+  @Test
+  public void testNoRetryAfterShutdown ()
+  {
+    final AtomicInteger aCalls = new AtomicInteger (0);
+    final PDPushQueue aQueue = _createQueue ( (aPID, bDelete) -> {
+      aCalls.incrementAndGet ();
+      return false;
+    }, 200, 5);
+    aQueue.queueAdd (PI1);
+    aQueue.shutdown ();
+
+    // Performed once, but not retried
+    assertEquals (1, aCalls.get ());
+    assertEquals (1, _getStat (aQueue, "failed"));
+    assertEquals (0, _getStat (aQueue, "retried"));
+    assertEquals (1, _getStat (aQueue, "dropped"));
+  }
+}
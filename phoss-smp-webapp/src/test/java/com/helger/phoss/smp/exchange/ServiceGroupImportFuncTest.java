@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.exchange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+import com.helger.base.state.ESuccess;
+import com.helger.collection.commons.CommonsArrayList;
+import com.helger.collection.commons.CommonsHashSet;
+import com.helger.collection.commons.ICommonsList;
+import com.helger.diagnostics.error.level.EErrorLevel;
+import com.helger.peppolid.IParticipantIdentifier;
+import com.helger.peppolid.factory.IIdentifierFactory;
+import com.helger.peppolid.peppol.PeppolIdentifierHelper;
+import com.helger.phoss.smp.domain.SMPMetaManager;
+import com.helger.phoss.smp.domain.servicegroup.ISMPServiceGroupManager;
+import com.helger.phoss.smp.domain.servicegroup.SMPServiceGroup;
+import com.helger.phoss.smp.mock.SMPServerTestRule;
+import com.helger.photon.security.CSecurity;
+import com.helger.photon.security.mgr.PhotonSecurityManager;
+import com.helger.photon.security.user.IUser;
+import com.helger.xml.microdom.IMicroElement;
+import com.helger.xml.microdom.MicroElement;
+import com.helger.xml.microdom.convert.MicroTypeConverter;
+import com.helger.xml.microdom.serialize.MicroWriter;
+
+/**
+ * Test class for class {@link ServiceGroupImport}.
+ *
+ * @author Philip Helger
+ */
+public final class ServiceGroupImportFuncTest
+{
+  @Rule
+  public final TestRule m_aTestRule = new SMPServerTestRule ();
+
+  @NonNull
+  private static ICommonsList <IParticipantIdentifier> _createPIs (final int nCount)
+  {
+    final IIdentifierFactory aIDFactory = SMPMetaManager.getIdentifierFactory ();
+    final ICommonsList <IParticipantIdentifier> ret = new CommonsArrayList <> ();
+    for (int i = 0; i < nCount; ++i)
+      ret.add (aIDFactory.createParticipantIdentifier (PeppolIdentifierHelper.DEFAULT_PARTICIPANT_SCHEME,
+                                                       "9999:junitimport" + i));
+    return ret;
+  }
+
+  @NonNull
+  private static IMicroElement _createServiceGroupElement (@NonNull final IParticipantIdentifier aPI)
+  {
+    return MicroTypeConverter.convertToMicroElement (new SMPServiceGroup (CSecurity.USER_ADMINISTRATOR_ID, aPI, null),
+                                                     CSMPExchange.ELEMENT_SERVICEGROUP);
+  }
+
+  @NonNull
+  private static ICommonsList <ImportActionItem> _import (@NonNull final IMicroElement eRoot,
+                                                          final int nBatchSize) throws XMLStreamException
+  {
+    final IUser aDefaultOwner = PhotonSecurityManager.getUserMgr ().getUserOfID (CSecurity.USER_ADMINISTRATOR_ID);
+    assertNotNull (aDefaultOwner);
+
+    final ICommonsList <ImportActionItem> aActionList = new CommonsArrayList <> ();
+    final byte [] aBytes = MicroWriter.getNodeAsString (eRoot).getBytes (StandardCharsets.UTF_8);
+    try (final SMPExchangeStreamReader aReader = new SMPExchangeStreamReader (new ByteArrayInputStream (aBytes)))
+    {
+      ServiceGroupImport.importXMLVer10 (aReader,
+                                         nBatchSize,
+                                         false,
+                                         aDefaultOwner,
+                                         new CommonsHashSet <> (),
+                                         new CommonsHashSet <> (),
+                                         aPI -> ESuccess.SUCCESS,
+                                         aActionList,
+                                         new ImportSummary ());
+    }
+    return aActionList;
+  }
+
+  @NonNull
+  private static IMicroElement _createRoot ()
+  {
+    final IMicroElement eRoot = new MicroElement (CSMPExchange.ELEMENT_SMP_DATA);
+    eRoot.setAttribute (CSMPExchange.ATTR_VERSION, CSMPExchange.VERSION_10);
+    return eRoot;
+  }
+
+  @Test
+  public void testMultipleBatches () throws XMLStreamException
+  {
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ICommonsList <IParticipantIdentifier> aPIs = _createPIs (5);
+    try
+    {
+      final IMicroElement eRoot = _createRoot ();
+      for (final IParticipantIdentifier aPI : aPIs)
+        eRoot.addChild (_createServiceGroupElement (aPI));
+
+      // 3 batches
+      final ICommonsList <ImportActionItem> aActionList = _import (eRoot, 2);
+      assertFalse (aActionList.containsAny (ImportActionItem::isError));
+      for (final IParticipantIdentifier aPI : aPIs)
+        assertTrue (aSGMgr.containsSMPServiceGroupWithID (aPI));
+
+      // The infos are only counted
+      assertEquals (1, aActionList.getCount (x -> x.getErrorLevel () == EErrorLevel.INFO));
+      assertTrue (aActionList.getLastOrNull ().getMessage ().startsWith ("Import finished with "));
+    }
+    finally
+    {
+      for (final IParticipantIdentifier aPI : aPIs)
+        aSGMgr.deleteSMPServiceGroupNoEx (aPI, true);
+    }
+  }
+
+  @Test
+  public void testListedErrorsAreLimited () throws XMLStreamException
+  {
+    final IMicroElement eRoot = _createRoot ();
+    // Service Groups without a participant identifier
+    for (int i = 0; i < ServiceGroupImport.STREAMING_MAX_LISTED_ITEMS_PER_LEVEL + 50; ++i)
+      eRoot.addElement (CSMPExchange.ELEMENT_SERVICEGROUP);
+
+    final ICommonsList <ImportActionItem> aActionList = _import (eRoot, 1_000);
+    assertEquals (ServiceGroupImport.STREAMING_MAX_LISTED_ITEMS_PER_LEVEL,
+                  aActionList.getCount (ImportActionItem::isError));
+    assertTrue (aActionList.getLastOrNull ().getMessage ().contains ("errors (only the first " +
+                                                                    ServiceGroupImport.STREAMING_MAX_LISTED_ITEMS_PER_LEVEL +
+                                                                    " are listed)"));
+  }
+
+  @Test
+  public void testErrorStopsSubsequentBatches () throws XMLStreamException
+  {
+    final ISMPServiceGroupManager aSGMgr = SMPMetaManager.getServiceGroupMgr ();
+    final ICommonsList <IParticipantIdentifier> aPIs = _createPIs (4);
+    try
+    {
+      final IMicroElement eRoot = _createRoot ();
+      eRoot.addChild (_createServiceGroupElement (aPIs.get (0)));
+      eRoot.addChild (_createServiceGroupElement (aPIs.get (1)));
+      eRoot.addChild (_createServiceGroupElement (aPIs.get (2)));
+      // Service Group without a participant identifier
+      eRoot.addElement (CSMPExchange.ELEMENT_SERVICEGROUP);
+      eRoot.addChild (_createServiceGroupElement (aPIs.get (3)));
+
+      final ICommonsList <ImportActionItem> aActionList = _import (eRoot, 2);
+      assertTrue (aActionList.containsAny (ImportActionItem::isError));
+
+      // The first batch was imported before the error was found
+      assertTrue (aSGMgr.containsSMPServiceGroupWithID (aPIs.get (0)));
+      assertTrue (aSGMgr.containsSMPServiceGroupWithID (aPIs.get (1)));
+      // Nothing of the batch with the error
+      assertFalse (aSGMgr.containsSMPServiceGroupWithID (aPIs.get (2)));
+      // Nothing after the batch with the error
+      assertFalse (aSGMgr.containsSMPServiceGroupWithID (aPIs.get (3)));
+    }
+    finally
+    {
+      for (final IParticipantIdentifier aPI : aPIs)
+        aSGMgr.deleteSMPServiceGroupNoEx (aPI, true);
+    }
+  }
+}
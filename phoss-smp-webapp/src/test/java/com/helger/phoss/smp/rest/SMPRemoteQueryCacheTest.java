@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2014-2026 Philip Helger and contributors
+ * philip[at]helger[dot]com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.helger.phoss.smp.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspecify.annotations.NonNull;
+import org.junit.Test;
+
+import com.helger.json.IJsonObject;
+import com.helger.json.JsonObject;
+
+/**
+ * Test class for class {@link SMPRemoteQueryCache}.
+ *
+ * @author Philip Helger
+ */
+public final class SMPRemoteQueryCacheTest
+{
+  @NonNull
+  private static SMPRemoteQueryCache.IRemoteQuery _createQuery (@NonNull final AtomicInteger aCalls)
+  {
+    return () -> new JsonObject ().add ("call", aCalls.incrementAndGet ());
+  }
+
+  private static long _getStat (@NonNull final SMPRemoteQueryCache aCache, @NonNull final String sName)
+  {
+    return aCache.getStatistics ().get (sName).longValue ();
+  }
+
+  @Test
+  public void testHitAndMiss () throws Exception
+  {
+    final SMPRemoteQueryCache aCache = new SMPRemoteQueryCache (Duration.ofHours (1), Duration.ofHours (1), 10);
+    final AtomicInteger aCalls = new AtomicInteger (0);
+
+    assertEquals (1, aCache.getResult ("a", _createQuery (aCalls)).getAsInt ("call"));
+    assertEquals (1, aCache.getResult ("a", _createQuery (aCalls)).getAsInt ("call"));
+    assertEquals (2, aCache.getResult ("b", _createQuery (aCalls)).getAsInt ("call"));
+    assertEquals (2, aCalls.get ());
+    assertEquals (1, _getStat (aCache, "result-hits"));
+    assertEquals (2, _getStat (aCache, "result-misses"));
+    assertEquals (2, _getStat (aCache, "results"));
+    assertEquals (2, aCache.getSize ());
+
+    // Failed queries are not cached
+    assertNull (aCache.getResult ("c", () -> null));
+    assertEquals (2, aCache.getSize ());
+
+    aCache.clear ();
+    assertEquals (0, aCache.getSize ());
+    assertEquals (3, aCache.getResult ("a", _createQuery (aCalls)).getAsInt ("call"));
+  }
+
+  @Test
+  public void testExpiration () throws Exception
+  {
+    // Everything is expired immediately
+    final SMPRemoteQueryCache aCache = new SMPRemoteQueryCache (Duration.ZERO, Duration.ZERO, 10);
+    final AtomicInteger aCalls = new AtomicInteger (0);
+
+    assertEquals (1, aCache.getResult ("a", _createQuery (aCalls)).getAsInt ("call"));
+    assertEquals (2, aCache.getResult ("a", _createQuery (aCalls)).getAsInt ("call"));
+    assertEquals (0, _getStat (aCache, "result-hits"));
+    assertEquals (2, _getStat (aCache, "result-misses"));
+  }
+
+  @Test
+  public void testFullCacheKeepsExistingEntries () throws Exception
+  {
+    final SMPRemoteQueryCache aCache = new SMPRemoteQueryCache (Duration.ofHours (1), Duration.ofHours (1), 2);
+    final AtomicInteger aCalls = new AtomicInteger (0);
+
+    aCache.getResult ("a", _createQuery (aCalls));
+    aCache.getResult ("b", _createQuery (aCalls));
+    // Not cached, because the cache is full
+    assertEquals (3, aCache.getResult ("c", _createQuery (aCalls)).getAsInt ("call"));
+    assertEquals (4, aCache.getResult ("c", _createQuery (aCalls)).getAsInt ("call"));
+    assertEquals (2, _getStat (aCache, "results"));
+
+    // The existing entries are still cached
+    assertEquals (1, aCache.getResult ("a", _createQuery (aCalls)).getAsInt ("call"));
+    assertEquals (2, aCache.getResult ("b", _createQuery (aCalls)).getAsInt ("call"));
+    assertEquals (4, aCalls.get ());
+  }
+
+  @Test
+  public void testFullCacheRemovesExpiredEntries () throws Exception
+  {
+    final SMPRemoteQueryCache aCache = new SMPRemoteQueryCache (Duration.ZERO, Duration.ZERO, 2);
+    final AtomicInteger aCalls = new AtomicInteger (0);
+
+    aCache.getResult ("a", _createQuery (aCalls));
+    aCache.getResult ("b", _createQuery (aCalls));
+    assertEquals (2, _getStat (aCache, "results"));
+
+    // The expired entries make room for the new one
+    aCache.getResult ("c", _createQuery (aCalls));
+    assertEquals (1, _getStat (aCache, "results"));
+  }
+
+  @Test
+  public void testResultsAreCloned () throws Exception
+  {
+    final SMPRemoteQueryCache aCache = new SMPRemoteQueryCache (Duration.ofHours (1), Duration.ofHours (1), 10);
+    final IJsonObject aOriginal = new JsonObject ().add ("value", "original");
+
+    // Modifying the queried object after caching does not change the cache
+    final IJsonObject aQueried = aCache.getResult ("a", () -> aOriginal);
+    aQueried.add ("value", "modified");
+
+    // Each read returns a new object
+    final IJsonObject aRead1 = aCache.getResult ("a", () -> null);
+    assertEquals ("original", aRead1.getAsString ("value"));
+    aRead1.add ("value", "modified");
+
+    final IJsonObject aRead2 = aCache.getResult ("a", () -> null);
+    assertNotSame (aRead1, aRead2);
+    assertEquals ("original", aRead2.getAsString ("value"));
+    assertEquals (2, _getStat (aCache, "result-hits"));
+  }
+}